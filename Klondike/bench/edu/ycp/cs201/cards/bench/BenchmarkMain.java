@@ -0,0 +1,25 @@
+package edu.ycp.cs201.cards.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of <code>target/benchmarks.jar</code> (built with
+ * <code>mvn -Pbench package</code>).  Runs the JMH benchmarks selected by
+ * the command line (all of them by default) with the gc profiler enabled,
+ * so every result reports allocation rate as well as throughput.
+ * Takes the same options as <code>org.openjdk.jmh.Main</code>.
+ */
+public class BenchmarkMain {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
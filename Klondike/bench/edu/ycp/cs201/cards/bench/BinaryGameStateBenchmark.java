@@ -0,0 +1,71 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * JMH benchmarks of converting games to and from binary records with
+ * {@link BinaryGameState}, for comparison with {@link StringifyBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryGameStateBenchmark {
+	private KlondikeModel model;
+	private ByteBuffer heap;
+	private ByteBuffer direct;
+	
+	@Setup
+	public void setUp() {
+		model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, ControllerBenchmark.TEST_GAME);
+		heap = ByteBuffer.allocate(BinaryGameState.RECORD_SIZE);
+		direct = ByteBuffer.allocateDirect(BinaryGameState.RECORD_SIZE);
+		BinaryGameState.modelToBuffer(model, heap, 0);
+		BinaryGameState.modelToBuffer(model, direct, 0);
+	}
+	
+	@Benchmark
+	public ByteBuffer modelToHeapBuffer() {
+		BinaryGameState.modelToBuffer(model, heap, 0);
+		return heap;
+	}
+	
+	@Benchmark
+	public ByteBuffer modelToDirectBuffer() {
+		BinaryGameState.modelToBuffer(model, direct, 0);
+		return direct;
+	}
+	
+	@Benchmark
+	public KlondikeModel heapBufferToModel() {
+		KlondikeModel loaded = new KlondikeModel();
+		BinaryGameState.bufferToModel(loaded, heap, 0);
+		return loaded;
+	}
+	
+	@Benchmark
+	public KlondikeModel directBufferToModel() {
+		KlondikeModel loaded = new KlondikeModel();
+		BinaryGameState.bufferToModel(loaded, direct, 0);
+		return loaded;
+	}
+}
@@ -0,0 +1,97 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Selection;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * JMH benchmarks of the {@link KlondikeController} operations used to
+ * play a game through the GUI: selecting, checking and moving cards,
+ * drawing through the main deck, and checking for a win.  Every
+ * operation leaves the game as it found it, so it can be repeated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+	// the first game state used by KlondikeControllerTest: the king and queen
+	// at index 3 of tableau pile 3 can move to the empty tableau pile 5
+	static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	
+	private final KlondikeController controller = new KlondikeController();
+	private final Location source = new Location(LocationType.TABLEAU_PILE, 3, 3);
+	private final Location dest = new Location(LocationType.TABLEAU_PILE, 5, 0);
+	private final Location back = new Location(LocationType.TABLEAU_PILE, 3, -1);
+	private KlondikeModel game;
+	private KlondikeModel dealt;
+	
+	@Setup
+	public void setUp() {
+		game = new KlondikeModel();
+		StringifyGameState.stringToModel(game, TEST_GAME);
+		dealt = new KlondikeModel();
+		controller.initModel(dealt, 1L);
+	}
+	
+	@Benchmark
+	public Selection selectUnselect() {
+		Selection selection = controller.select(game, source);
+		controller.unselect(game, selection);
+		return selection;
+	}
+	
+	@Benchmark
+	public boolean selectAllowMoveUnselect() {
+		Selection selection = controller.select(game, source);
+		boolean allowed = controller.allowMove(game, selection, dest);
+		controller.unselect(game, selection);
+		return allowed;
+	}
+	
+	@Benchmark
+	public boolean selectAllowMoveCards() {
+		Selection selection = controller.select(game, source);
+		boolean allowed = controller.allowMove(game, selection, dest);
+		controller.moveCards(game, selection, dest);
+		
+		// put the cards back (not a legal move, but moveCards does not check)
+		controller.moveCards(game, controller.select(game, dest), back);
+		return allowed;
+	}
+	
+	@Benchmark
+	public int drawCycle() {
+		// draw every card of the main deck, then recycle the waste pile
+		int numDraws = dealt.getMainDeck().getNumCards() + dealt.getWastePile().getNumCards() + 1;
+		for (int i = 0; i < numDraws; i++) {
+			controller.drawCardOrRecycleWaste(dealt);
+		}
+		return dealt.getMainDeck().getNumCards();
+	}
+	
+	@Benchmark
+	public boolean isWin() {
+		return controller.isWin(game);
+	}
+}
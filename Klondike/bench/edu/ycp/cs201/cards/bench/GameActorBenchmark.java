@@ -0,0 +1,63 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.ycp.cs201.cards.server.GameActor;
+
+/**
+ * Measures how many commands per second {@link GameActor}s apply when
+ * many games share one executor, for pool sizes of 1, 2, 4 and so on,
+ * doubling up to (and always ending with) the given number of threads,
+ * to show how throughput scales with cores.
+ * One thread submits draw commands round-robin to all the games.
+ * 
+ * Usage: <code>GameActorBenchmark [numGames [commands [maxThreads]]]</code>
+ */
+public class GameActorBenchmark {
+	public static void main(String[] args) throws Exception {
+		int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int commands = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		// warm up
+		run(numGames, commands / 4, maxThreads);
+		
+		System.out.println("threads,commands/s");
+		for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+			double rate = run(numGames, commands, threads);
+			System.out.printf("%d,%.0f%n", threads, rate);
+			if (threads >= maxThreads) {
+				break;
+			}
+		}
+	}
+	
+	private static double run(int numGames, int commands, int threads) throws Exception {
+		ExecutorService executor = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		GameActor[] actors = new GameActor[numGames];
+		for (int g = 0; g < numGames; g++) {
+			actors[g] = new GameActor(g, g, executor);
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < commands; i++) {
+			actors[i % numGames].draw();
+		}
+		// commands for a game are applied in order, so the last ones finish last
+		Future<?>[] last = new Future<?>[numGames];
+		for (int g = 0; g < numGames; g++) {
+			last[g] = actors[g].snapshot();
+		}
+		for (Future<?> future : last) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		return commands / (elapsed / 1e9);
+	}
+}
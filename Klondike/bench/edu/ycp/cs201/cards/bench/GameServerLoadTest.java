@@ -0,0 +1,155 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import edu.ycp.cs201.cards.server.GameServer;
+
+/**
+ * Starts a {@link GameServer} on localhost and drives it from a number of
+ * client threads for a fixed time, then reports the throughput and the
+ * latency percentiles (including p99) of all requests.  Each client plays
+ * its own game: it draws three times, fetches the state in binary form, and
+ * starts a new game every 200 requests.  Connections are kept alive, as a
+ * browser or game client would.
+ * 
+ * Usage: <code>GameServerLoadTest [seconds [clients [serverThreads]]]</code>
+ */
+public class GameServerLoadTest {
+	private static final int REQUESTS_PER_GAME = 200;
+	
+	public static void main(String[] args) throws Exception {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int serverThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), serverThreads);
+		server.start();
+		try {
+			// warm up, then measure
+			run(server.getPort(), clients, Math.max(1, seconds / 3));
+			Client[] results = run(server.getPort(), clients, seconds);
+			report(results, seconds);
+		} finally {
+			server.stop(0);
+		}
+	}
+	
+	private static Client[] run(int port, int numClients, int seconds) throws InterruptedException {
+		long deadline = System.nanoTime() + seconds * 1000000000L;
+		CountDownLatch done = new CountDownLatch(numClients);
+		Client[] clients = new Client[numClients];
+		for (int i = 0; i < numClients; i++) {
+			clients[i] = new Client(port, deadline, done);
+			Thread thread = new Thread(clients[i], "load-client-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		done.await();
+		return clients;
+	}
+	
+	private static void report(Client[] clients, int seconds) {
+		int total = 0;
+		long errors = 0;
+		for (Client client : clients) {
+			total += client.count;
+			errors += client.errors;
+		}
+		long[] latencies = new long[total];
+		int pos = 0;
+		for (Client client : clients) {
+			System.arraycopy(client.latencies, 0, latencies, pos, client.count);
+			pos += client.count;
+		}
+		Arrays.sort(latencies);
+		
+		System.out.printf("requests: %d in %d s (%.0f req/s), errors: %d%n",
+				total, seconds, total / (double) seconds, errors);
+		if (total > 0) {
+			System.out.printf("latency (us): p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+					percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+					percentile(latencies, 0.999), latencies[total - 1] / 1000.0);
+		}
+	}
+	
+	private static double percentile(long[] sorted, double p) {
+		int index = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1000.0;
+	}
+	
+	// one simulated player, recording the latency of every request
+	private static class Client implements Runnable {
+		private final int port;
+		private final long deadline;
+		private final CountDownLatch done;
+		private final byte[] buf = new byte[4096];
+		long[] latencies = new long[1 << 16];
+		int count;
+		long errors;
+		
+		Client(int port, long deadline, CountDownLatch done) {
+			this.port = port;
+			this.deadline = deadline;
+			this.done = done;
+		}
+		
+		@Override
+		public void run() {
+			try {
+				String game = null;
+				int n = 0;
+				while (System.nanoTime() < deadline) {
+					if (game == null || n % REQUESTS_PER_GAME == 0) {
+						if (game != null) {
+							request("DELETE", game);
+						}
+						game = request("POST", GameServer.GAMES_PATH);
+					} else if (n % 4 == 0) {
+						request("GET", game + "?format=binary");
+					} else {
+						request("POST", game + "/draw");
+					}
+					n++;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+				errors++;
+			} finally {
+				done.countDown();
+			}
+		}
+		
+		// make a request, record its latency, and return the Location header
+		private String request(String method, String path) throws IOException {
+			long start = System.nanoTime();
+			HttpURLConnection conn = (HttpURLConnection) new URL("http", "127.0.0.1", port, path).openConnection();
+			conn.setRequestMethod(method);
+			int status = conn.getResponseCode();
+			InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+			if (in != null) {
+				// read the whole body, so the connection can be reused
+				while (in.read(buf) > 0) {
+				}
+				in.close();
+			}
+			String location = conn.getHeaderField("Location");
+			long elapsed = System.nanoTime() - start;
+			
+			if (status >= 400) {
+				errors++;
+			}
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = elapsed;
+			return location;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+
+/**
+ * JMH benchmarks of dealing a new game with
+ * {@link KlondikeController#initModel(KlondikeModel)}, including
+ * creating the model, with a random and with a numbered deal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InitModelBenchmark {
+	private final KlondikeController controller = new KlondikeController();
+	private long dealNumber;
+	
+	@Benchmark
+	public KlondikeModel initModel() {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model);
+		return model;
+	}
+	
+	@Benchmark
+	public KlondikeModel initModelWithDealNumber() {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber++);
+		return model;
+	}
+}
@@ -0,0 +1,68 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.concurrent.ForkJoinPool;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.solver.KlondikeSolver;
+import edu.ycp.cs201.cards.solver.Outcome;
+import edu.ycp.cs201.cards.solver.ParallelKlondikeSolver;
+import edu.ycp.cs201.cards.solver.SolverResult;
+
+/**
+ * Solves deal numbers 0 to numDeals-1 with {@link KlondikeSolver} and with
+ * {@link ParallelKlondikeSolver}, and reports the outcomes and total
+ * solve time of each, and the speedup.
+ * 
+ * Usage: <code>ParallelSolverBenchmark [numDeals [maxNodes [threads]]]</code>
+ */
+public class ParallelSolverBenchmark {
+	public static void main(String[] args) {
+		int numDeals = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long maxNodes = args.length > 1 ? Long.parseLong(args[1]) : KlondikeSolver.DEFAULT_MAX_NODES;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		KlondikeController controller = new KlondikeController();
+		KlondikeModel[] deals = new KlondikeModel[numDeals];
+		for (int i = 0; i < numDeals; i++) {
+			deals[i] = new KlondikeModel();
+			controller.initModel(deals[i], i);
+		}
+		
+		KlondikeSolver single = new KlondikeSolver();
+		single.setMaxNodes(maxNodes);
+		ParallelKlondikeSolver parallel = new ParallelKlondikeSolver(new ForkJoinPool(threads),
+				KlondikeSolver.DEFAULT_TABLE_BYTES);
+		parallel.setMaxNodes(maxNodes);
+		
+		// warm up
+		for (int i = 0; i < Math.min(20, numDeals); i++) {
+			single.solve(deals[i]);
+			parallel.solve(deals[i]);
+		}
+		
+		long singleNanos = 0, parallelNanos = 0;
+		int[] singleOutcomes = new int[3], parallelOutcomes = new int[3];
+		int disagreements = 0;
+		for (KlondikeModel deal : deals) {
+			SolverResult a = single.solve(deal);
+			SolverResult b = parallel.solve(deal);
+			singleNanos += a.getElapsedNanos();
+			parallelNanos += b.getElapsedNanos();
+			singleOutcomes[a.getOutcome().ordinal()]++;
+			parallelOutcomes[b.getOutcome().ordinal()]++;
+			if (a.getOutcome() != Outcome.UNKNOWN && b.getOutcome() != Outcome.UNKNOWN
+					&& a.getOutcome() != b.getOutcome()) {
+				disagreements++;
+			}
+		}
+		parallel.shutdown();
+		
+		System.out.printf("%d deals, node limit %d, %d threads%n", numDeals, maxNodes, threads);
+		System.out.printf("single:   %d won, %d lost, %d unknown, %.1f ms%n",
+				singleOutcomes[0], singleOutcomes[1], singleOutcomes[2], singleNanos / 1e6);
+		System.out.printf("parallel: %d won, %d lost, %d unknown, %.1f ms%n",
+				parallelOutcomes[0], parallelOutcomes[1], parallelOutcomes[2], parallelNanos / 1e6);
+		System.out.printf("speedup %.2fx, %d disagreements%n", (double) singleNanos / parallelNanos, disagreements);
+	}
+}
@@ -0,0 +1,136 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.ArrayList;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Pile;
+
+/**
+ * Compares the byte-array backed {@link Pile} against the
+ * previous <code>ArrayList&lt;Card&gt;</code> representation:
+ * heap footprint of a dealt game, and the time needed to
+ * scan every card of every pile.
+ */
+public class PileBenchmark {
+	private static final int NUM_MODELS = 100000;
+	private static final int SCAN_ROUNDS = 50;
+	
+	/**
+	 * The previous representation of a pile: a list of card
+	 * references plus an expose index.
+	 */
+	private static class ListPile {
+		ArrayList<Card> pile = new ArrayList<Card>();
+		int exposeIndex;
+	}
+	
+	public static void main(String[] args) {
+		KlondikeController controller = new KlondikeController();
+		
+		// Deal the games up front, then copy them into both representations
+		long before = usedMemory();
+		Pile[][] piles = new Pile[NUM_MODELS][];
+		for (int i = 0; i < NUM_MODELS; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model);
+			piles[i] = allPiles(model);
+		}
+		long pileBytes = usedMemory() - before;
+		
+		before = usedMemory();
+		ListPile[][] listPiles = new ListPile[NUM_MODELS][];
+		for (int i = 0; i < NUM_MODELS; i++) {
+			listPiles[i] = toListPiles(piles[i]);
+		}
+		long listPileBytes = usedMemory() - before;
+		
+		System.out.printf("footprint per model: byte[] piles %d bytes, ArrayList piles %d bytes%n",
+				pileBytes / NUM_MODELS, listPileBytes / NUM_MODELS);
+		
+		// Warm up both scans before timing them
+		long check = 0;
+		for (int round = 0; round < 5; round++) {
+			check += scanPiles(piles) + scanListPiles(listPiles);
+		}
+		
+		long start = System.nanoTime();
+		for (int round = 0; round < SCAN_ROUNDS; round++) {
+			check += scanPiles(piles);
+		}
+		long pileNanos = System.nanoTime() - start;
+		
+		start = System.nanoTime();
+		for (int round = 0; round < SCAN_ROUNDS; round++) {
+			check += scanListPiles(listPiles);
+		}
+		long listPileNanos = System.nanoTime() - start;
+		
+		double cardsScanned = (double) NUM_MODELS * SCAN_ROUNDS * Card.NUM_CARDS;
+		System.out.printf("scan: byte[] piles %.2f ns/card, ArrayList piles %.2f ns/card (checksum %d)%n",
+				pileNanos / cardsScanned, listPileNanos / cardsScanned, check);
+	}
+	
+	private static Pile[] allPiles(KlondikeModel model) {
+		Pile[] result = new Pile[13];
+		result[0] = model.getMainDeck();
+		result[1] = model.getWastePile();
+		for (int i = 0; i < 4; i++) {
+			result[2 + i] = model.getFoundationPile(i);
+		}
+		for (int i = 0; i < 7; i++) {
+			result[6 + i] = model.getTableauPile(i);
+		}
+		return result;
+	}
+	
+	private static ListPile[] toListPiles(Pile[] piles) {
+		ListPile[] result = new ListPile[piles.length];
+		for (int i = 0; i < piles.length; i++) {
+			ListPile listPile = new ListPile();
+			for (int j = 0; j < piles[i].getNumCards(); j++) {
+				// fresh Card objects, as the old populate() allocated them
+				Card card = piles[i].getCard(j);
+				listPile.pile.add(new Card(card.getRank(), card.getSuit()));
+			}
+			listPile.exposeIndex = piles[i].getExposeIndex();
+			result[i] = listPile;
+		}
+		return result;
+	}
+	
+	private static long scanPiles(Pile[][] models) {
+		long sum = 0;
+		for (Pile[] piles : models) {
+			for (Pile pile : piles) {
+				int numCards = pile.getNumCards();
+				for (int i = 0; i < numCards; i++) {
+					sum += pile.getCardId(i);
+				}
+			}
+		}
+		return sum;
+	}
+	
+	private static long scanListPiles(ListPile[][] models) {
+		long sum = 0;
+		for (ListPile[] piles : models) {
+			for (ListPile pile : piles) {
+				int numCards = pile.pile.size();
+				for (int i = 0; i < numCards; i++) {
+					sum += pile.pile.get(i).getId();
+				}
+			}
+		}
+		return sum;
+	}
+	
+	private static long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
@@ -0,0 +1,62 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.Pile;
+
+/**
+ * JMH benchmarks of moving cards between {@link Pile}s: the list-based
+ * {@link Pile#removeCards(int)}/{@link Pile#addCards(ArrayList)} pair
+ * against {@link Pile#moveTopTo(Pile, int)}.  Each operation moves
+ * the cards there and back, so the piles end up as they started.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PileOperationsBenchmark {
+	@Param({ "1", "13" })
+	public int numCards;
+	
+	private Pile source;
+	private Pile dest;
+	
+	@Setup
+	public void setUp() {
+		source = new Pile();
+		source.populate();
+		dest = new Pile();
+	}
+	
+	@Benchmark
+	public int removeAddCards() {
+		ArrayList<Card> cards = source.removeCards(numCards);
+		dest.addCards(cards);
+		cards = dest.removeCards(numCards);
+		source.addCards(cards);
+		return source.getNumCards();
+	}
+	
+	@Benchmark
+	public int moveTopTo() {
+		source.moveTopTo(dest, numCards);
+		dest.moveTopTo(source, numCards);
+		return source.getNumCards();
+	}
+}
@@ -0,0 +1,54 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.Arrays;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.solver.KlondikeSolver;
+import edu.ycp.cs201.cards.solver.SolverResult;
+
+/**
+ * Solves deal numbers 0 to numDeals-1 with {@link KlondikeSolver}
+ * and reports the outcomes, deals per second, search speed, and
+ * solve-time percentiles.
+ * 
+ * Usage: <code>SolverBenchmark [numDeals [maxNodes]]</code>
+ */
+public class SolverBenchmark {
+	public static void main(String[] args) {
+		int numDeals = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		long maxNodes = args.length > 1 ? Long.parseLong(args[1]) : KlondikeSolver.DEFAULT_MAX_NODES;
+		
+		KlondikeController controller = new KlondikeController();
+		KlondikeSolver solver = new KlondikeSolver();
+		solver.setMaxNodes(maxNodes);
+		
+		// warm up
+		for (int i = 0; i < 20; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model);
+			solver.solve(model);
+		}
+		
+		int[] outcomes = new int[3];
+		long[] times = new long[numDeals];
+		long totalNodes = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < numDeals; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, i);
+			SolverResult result = solver.solve(model);
+			outcomes[result.getOutcome().ordinal()]++;
+			times[i] = result.getElapsedNanos();
+			totalNodes += result.getNodes();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		Arrays.sort(times);
+		
+		System.out.printf("%d deals: %d won, %d lost, %d unknown (node limit %d)%n",
+				numDeals, outcomes[0], outcomes[1], outcomes[2], maxNodes);
+		System.out.printf("%.1f deals/s, %.2f M nodes/s%n", numDeals / seconds, totalNodes / seconds / 1e6);
+		System.out.printf("solve time: median %.1f ms, 90th percentile %.1f ms, max %.1f ms%n",
+				times[numDeals / 2] / 1e6, times[numDeals * 9 / 10] / 1e6, times[numDeals - 1] / 1e6);
+	}
+}
@@ -0,0 +1,95 @@
+package edu.ycp.cs201.cards.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * JMH benchmarks of converting games to and from strings with
+ * {@link StringifyGameState}, compared with the original
+ * implementation ({@link LegacyStringifyGameState}).  The
+ * <code>Into</code> benchmarks reuse the caller's buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringifyBenchmark {
+	private KlondikeModel model;
+	private String state;
+	private StringBuilder builder;
+	private char[] chars;
+	
+	@Setup
+	public void setUp() {
+		model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, ControllerBenchmark.TEST_GAME);
+		state = ControllerBenchmark.TEST_GAME;
+		builder = new StringBuilder(256);
+		chars = new char[256];
+	}
+	
+	@Benchmark
+	public String modelToString() {
+		return StringifyGameState.modelToString(model);
+	}
+	
+	@Benchmark
+	public KlondikeModel stringToModel() {
+		KlondikeModel loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, state);
+		return loaded;
+	}
+	
+	@Benchmark
+	public String roundTrip() {
+		KlondikeModel loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, StringifyGameState.modelToString(model));
+		return StringifyGameState.modelToString(loaded);
+	}
+	
+	@Benchmark
+	public StringBuilder modelToStringBuilderInto() {
+		builder.setLength(0);
+		StringifyGameState.modelToString(model, builder);
+		return builder;
+	}
+	
+	@Benchmark
+	public int modelToCharsInto() {
+		return StringifyGameState.modelToChars(model, chars, 0);
+	}
+	
+	@Benchmark
+	public String legacyModelToString() {
+		return LegacyStringifyGameState.modelToString(model);
+	}
+	
+	@Benchmark
+	public KlondikeModel legacyStringToModel() {
+		KlondikeModel loaded = new KlondikeModel();
+		LegacyStringifyGameState.stringToModel(loaded, state);
+		return loaded;
+	}
+	
+	@Benchmark
+	public String legacyRoundTrip() {
+		KlondikeModel loaded = new KlondikeModel();
+		LegacyStringifyGameState.stringToModel(loaded, LegacyStringifyGameState.modelToString(model));
+		return LegacyStringifyGameState.modelToString(loaded);
+	}
+}
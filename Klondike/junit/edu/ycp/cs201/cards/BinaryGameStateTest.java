@@ -0,0 +1,125 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryGameStateTest {
+	// game states from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	private static final String TEST_GAME_2 = "00000009G-NE,(MS')!00000053DA28BQT!" +
+			"00000000\"#!00000000/0!00000000I!00000000<=!00000000U:!00000000!00000002L+6O4&?!" +
+			"000000009!00000004H.>KFR7P!00000000!00000006$5@C*;3%1J";
+	
+	private KlondikeModel model;
+	
+	@Before
+	public void setUp() {
+		model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, TEST_GAME);
+	}
+	
+	@Test
+	public void testRecordSize() throws Exception {
+		assertEquals(91, BinaryGameState.RECORD_SIZE);
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		byte[] bytes = BinaryGameState.modelToBytes(model);
+		KlondikeModel loaded = new KlondikeModel();
+		BinaryGameState.bytesToModel(loaded, bytes);
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(loaded));
+		assertEquals(model.getHash(), loaded.getHash());
+	}
+	
+	@Test
+	public void testRelativeBuffer() throws Exception {
+		// records are written one after another, whatever the byte order
+		for (ByteBuffer buf : new ByteBuffer[] { ByteBuffer.allocate(200), ByteBuffer.allocateDirect(200).order(ByteOrder.LITTLE_ENDIAN) }) {
+			BinaryGameState.stringToBuffer(TEST_GAME, buf);
+			BinaryGameState.stringToBuffer(TEST_GAME_2, buf);
+			assertEquals(2 * BinaryGameState.RECORD_SIZE, buf.position());
+			
+			buf.flip();
+			assertEquals(TEST_GAME, BinaryGameState.bufferToString(buf));
+			assertEquals(TEST_GAME_2, BinaryGameState.bufferToString(buf));
+			assertFalse(buf.hasRemaining());
+		}
+	}
+	
+	@Test
+	public void testAbsoluteBuffer() throws Exception {
+		ByteBuffer buf = ByteBuffer.allocate(3 * BinaryGameState.RECORD_SIZE);
+		BinaryGameState.modelToBuffer(model, buf, BinaryGameState.RECORD_SIZE);
+		assertEquals(0, buf.position());
+		
+		KlondikeModel loaded = new KlondikeModel();
+		BinaryGameState.bufferToModel(loaded, buf, BinaryGameState.RECORD_SIZE);
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(loaded));
+		assertEquals(0, buf.position());
+	}
+	
+	@Test
+	public void testDealtGames() throws Exception {
+		KlondikeController controller = new KlondikeController();
+		for (long deal = 0; deal < 100; deal++) {
+			KlondikeModel dealt = new KlondikeModel();
+			controller.initModel(dealt, deal);
+			KlondikeModel loaded = new KlondikeModel();
+			BinaryGameState.bytesToModel(loaded, BinaryGameState.modelToBytes(dealt));
+			assertEquals(StringifyGameState.modelToString(dealt), StringifyGameState.modelToString(loaded));
+		}
+	}
+	
+	@Test
+	public void testEmptyModel() throws Exception {
+		KlondikeModel empty = new KlondikeModel();
+		empty.getMainDeck().setExposeIndex(-1);
+		KlondikeModel loaded = new KlondikeModel();
+		BinaryGameState.bytesToModel(loaded, BinaryGameState.modelToBytes(empty));
+		assertEquals(StringifyGameState.modelToString(empty), StringifyGameState.modelToString(loaded));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testExposeIndexOutOfRange() throws Exception {
+		model.getWastePile().setExposeIndex(100000);
+		BinaryGameState.modelToBytes(model);
+	}
+	
+	@Test(expected=BufferOverflowException.class)
+	public void testBufferTooSmall() throws Exception {
+		BinaryGameState.modelToBuffer(model, ByteBuffer.allocate(BinaryGameState.RECORD_SIZE - 1));
+	}
+	
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testIndexOutOfRange() throws Exception {
+		BinaryGameState.modelToBuffer(model, ByteBuffer.allocate(BinaryGameState.RECORD_SIZE), 1);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testBadCardByte() throws Exception {
+		byte[] bytes = BinaryGameState.modelToBytes(model);
+		bytes[13 + 26] = 52;
+		BinaryGameState.bytesToModel(new KlondikeModel(), bytes);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooManyCards() throws Exception {
+		byte[] bytes = BinaryGameState.modelToBytes(model);
+		bytes[0] = 60;
+		BinaryGameState.bytesToModel(new KlondikeModel(), bytes);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testModelNotEmpty() throws Exception {
+		BinaryGameState.bytesToModel(model, BinaryGameState.modelToBytes(model));
+	}
+}
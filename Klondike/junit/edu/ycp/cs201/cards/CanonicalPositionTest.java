@@ -0,0 +1,194 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CanonicalPositionTest {
+	// game state from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	
+	// every card on the foundations except the king of hearts, which is on tableau pile 0
+	private static final String ONE_MOVE_FROM_WIN = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFG!00000000H!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	// rearrange the foundation and tableau piles of an encoded game state:
+	// pile i of the result is pile order[i] of the original
+	private static String permute(String state, int[] foundationOrder, int[] tableauOrder) {
+		String[] piles = state.split("!", -1);
+		StringBuilder buf = new StringBuilder();
+		buf.append(piles[0]).append('!').append(piles[1]);
+		for (int i = 0; i < 4; i++) {
+			buf.append('!').append(piles[2 + foundationOrder[i]]);
+		}
+		for (int i = 0; i < 7; i++) {
+			buf.append('!').append(piles[6 + tableauOrder[i]]);
+		}
+		return buf.toString();
+	}
+	
+	private static final int[] SAME_FOUNDATIONS = { 0, 1, 2, 3 };
+	private static final int[] SAME_TABLEAU = { 0, 1, 2, 3, 4, 5, 6 };
+	
+	@Test
+	public void testTableauOrder() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		KlondikeModel permuted = load(permute(TEST_GAME, SAME_FOUNDATIONS, new int[] { 6, 2, 5, 0, 4, 1, 3 }));
+		assertTrue(model.getHash() != permuted.getHash());
+		assertEquals(CanonicalPosition.hash(model), CanonicalPosition.hash(permuted));
+		assertTrue(CanonicalPosition.equivalent(model, permuted));
+	}
+	
+	@Test
+	public void testFoundationOrder() throws Exception {
+		KlondikeModel model = load(ONE_MOVE_FROM_WIN);
+		KlondikeModel permuted = load(permute(ONE_MOVE_FROM_WIN, new int[] { 3, 0, 2, 1 }, SAME_TABLEAU));
+		assertTrue(model.getHash() != permuted.getHash());
+		assertEquals(CanonicalPosition.hash(model), CanonicalPosition.hash(permuted));
+		assertTrue(CanonicalPosition.equivalent(model, permuted));
+		
+		model = load(TEST_GAME);
+		permuted = load(permute(TEST_GAME, new int[] { 2, 3, 1, 0 }, SAME_TABLEAU));
+		assertEquals(CanonicalPosition.hash(model), CanonicalPosition.hash(permuted));
+	}
+	
+	@Test
+	public void testDifferentPositions() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		long hash = CanonicalPosition.hash(model);
+		
+		// every legal move leads to a position that is not equivalent
+		MoveBuffer legal = new MoveBuffer();
+		UndoLog undo = new UndoLog();
+		controller.generateLegalMoves(model, legal);
+		for (int i = 0; i < legal.size(); i++) {
+			controller.makeMove(model, legal.get(i), undo);
+			assertTrue(Move.toString(legal.get(i)), CanonicalPosition.hash(model) != hash);
+			controller.unmakeMove(model, undo);
+			assertEquals(hash, CanonicalPosition.hash(model));
+		}
+	}
+	
+	@Test
+	public void testSwappedCards() throws Exception {
+		// swapping the top cards of two piles of the same height puts the
+		// same cards at the same positions, but is a different position
+		KlondikeModel a = new KlondikeModel();
+		a.getTableauPile(0).addCardId(0);
+		a.getTableauPile(0).addCardId(1);
+		a.getTableauPile(1).addCardId(2);
+		a.getTableauPile(1).addCardId(3);
+		KlondikeModel b = new KlondikeModel();
+		b.getTableauPile(0).addCardId(0);
+		b.getTableauPile(0).addCardId(3);
+		b.getTableauPile(1).addCardId(2);
+		b.getTableauPile(1).addCardId(1);
+		assertTrue(CanonicalPosition.hash(a) != CanonicalPosition.hash(b));
+		assertFalse(CanonicalPosition.equivalent(a, b));
+	}
+	
+	@Test
+	public void testFaceDown() throws Exception {
+		KlondikeModel a = load(TEST_GAME);
+		KlondikeModel b = load(TEST_GAME);
+		b.getTableauPile(3).setExposeIndex(1);
+		assertTrue(CanonicalPosition.hash(a) != CanonicalPosition.hash(b));
+	}
+	
+	@Test
+	public void testCanonicalize() throws Exception {
+		KlondikeModel model = load(permute(ONE_MOVE_FROM_WIN, new int[] { 3, 0, 2, 1 }, new int[] { 1, 2, 0, 3, 4, 5, 6 }));
+		long hash = CanonicalPosition.hash(model);
+		CanonicalPosition.canonicalize(model);
+		assertEquals(hash, CanonicalPosition.hash(model));
+		
+		// suit i on foundation pile i, and the non-empty tableau pile first
+		for (int i = 0; i < 4; i++) {
+			assertEquals(Suit.values()[i], model.getFoundationPile(i).getCard(0).getSuit());
+		}
+		assertEquals(Card.of(Rank.KING, Suit.HEARTS), model.getTableauPile(0).getCard(0));
+		
+		// (the original has the spades before the hearts)
+		assertEquals(permute(ONE_MOVE_FROM_WIN, new int[] { 0, 1, 3, 2 }, SAME_TABLEAU),
+				StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testCanonicalizeSortsTableau() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		long hash = CanonicalPosition.hash(model);
+		String before = StringifyGameState.modelToString(model);
+		CanonicalPosition.canonicalize(model);
+		assertEquals(hash, CanonicalPosition.hash(model));
+		assertFalse(before.equals(StringifyGameState.modelToString(model)));
+		
+		int prev = -1;
+		boolean sawEmpty = false;
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			if (tableau.isEmpty()) {
+				sawEmpty = true;
+			} else {
+				assertFalse(sawEmpty);
+				assertTrue(tableau.getCardId(0) > prev);
+				prev = tableau.getCardId(0);
+			}
+		}
+		assertTrue(sawEmpty);
+		
+		// each pile kept its face-down cards
+		KlondikeModel original = load(TEST_GAME);
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			if (!tableau.isEmpty()) {
+				Pile from = findTableau(original, tableau.getCardId(0));
+				assertEquals(from.getNumCards(), tableau.getNumCards());
+				assertEquals(from.getExposeIndex(), tableau.getExposeIndex());
+			}
+		}
+		
+		// canonicalizing again changes nothing
+		String canonical = StringifyGameState.modelToString(model);
+		CanonicalPosition.canonicalize(model);
+		assertEquals(canonical, StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testDealsHaveDistinctCanonicalHashes() throws Exception {
+		HashSet<Long> hashes = new HashSet<Long>();
+		for (int i = 0; i < 1000; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, i);
+			assertTrue(hashes.add(CanonicalPosition.hash(model)));
+		}
+	}
+	
+	private static Pile findTableau(KlondikeModel model, int bottomCardId) {
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			if (!tableau.isEmpty() && tableau.getCardId(0) == bottomCardId) {
+				return tableau;
+			}
+		}
+		throw new AssertionError("No tableau pile starts with card " + bottomCardId);
+	}
+}
@@ -51,4 +51,47 @@ public class CardTest {
 		// ACE is the low rank
 		assertTrue(aceOfDiamonds.compareTo(twoOfDiamonds) < 0);
 	}
+	
+	@Test
+	public void testGetId() throws Exception {
+		assertEquals(10, jackOfClubs.getId());
+		assertEquals(14, twoOfDiamonds.getId());
+		assertEquals(13, aceOfDiamonds.getId());
+		assertEquals(28, threeOfHearts.getId());
+		assertEquals(50, queenOfSpades.getId());
+	}
+	
+	@Test
+	public void testOf() throws Exception {
+		assertEquals(jackOfClubs, Card.of(Rank.JACK, Suit.CLUBS));
+		assertEquals(queenOfSpades, Card.of(Rank.QUEEN, Suit.SPADES));
+		
+		// the same canonical instance should be returned every time
+		assertSame(Card.of(Rank.ACE, Suit.HEARTS), Card.of(Rank.ACE, Suit.HEARTS));
+	}
+	
+	@Test
+	public void testById() throws Exception {
+		for (int id = 0; id < Card.NUM_CARDS; id++) {
+			Card card = Card.byId(id);
+			assertEquals(id, card.getId());
+			assertSame(card, Card.of(card.getRank(), card.getSuit()));
+		}
+	}
+	
+	@Test
+	public void testByIdInvalid() throws Exception {
+		try {
+			Card.byId(52);
+			assertTrue("byId with an invalid id should throw IllegalArgumentException", false);
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+	
+	@Test
+	public void testHashCode() throws Exception {
+		assertEquals(new Card(Rank.JACK, Suit.CLUBS).hashCode(), jackOfClubs.hashCode());
+		assertEquals(Card.of(Rank.TWO, Suit.DIAMONDS).hashCode(), twoOfDiamonds.hashCode());
+	}
 }
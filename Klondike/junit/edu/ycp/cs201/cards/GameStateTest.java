@@ -0,0 +1,220 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameStateTest {
+	// game states from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	private static final String WINNING_GAME = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFGH!00000000!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	private static String str(GameState state) {
+		return StringifyGameState.modelToString(state.toModel());
+	}
+	
+	@Test
+	public void testFromModel() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		GameState state = GameState.fromModel(model);
+		assertEquals(TEST_GAME, str(state));
+		assertEquals(model.getHash(), state.getHash());
+		assertEquals(24, state.getMainDeck().getNumCards());
+		assertEquals(Card.byId(model.getTableauPile(6).getCardId(3)), state.getTableauPile(6).getCard(3));
+		assertFalse(state.isWin());
+		assertTrue(GameState.fromModel(load(WINNING_GAME)).isWin());
+	}
+	
+	@Test
+	public void testDeal() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, 17L);
+		assertEquals(StringifyGameState.modelToString(model), str(GameState.deal(17L)));
+	}
+	
+	@Test
+	public void testDrawSharesUnchangedPiles() throws Exception {
+		GameState before = GameState.fromModel(load(TEST_GAME));
+		GameState after = before.draw();
+		
+		KlondikeModel model = load(TEST_GAME);
+		controller.drawCardOrRecycleWaste(model);
+		assertEquals(StringifyGameState.modelToString(model), str(after));
+		assertEquals(model.getHash(), after.getHash());
+		
+		// the old version is unchanged, and only two piles were replaced
+		assertEquals(TEST_GAME, str(before));
+		assertNotSame(before.getMainDeck(), after.getMainDeck());
+		assertNotSame(before.getWastePile(), after.getWastePile());
+		for (int i = 0; i < 4; i++) {
+			assertSame(before.getFoundationPile(i), after.getFoundationPile(i));
+		}
+		for (int i = 0; i < 7; i++) {
+			assertSame(before.getTableauPile(i), after.getTableauPile(i));
+		}
+	}
+	
+	@Test
+	public void testRecycle() throws Exception {
+		GameState state = GameState.fromModel(load(TEST_GAME));
+		KlondikeModel model = load(TEST_GAME);
+		for (int i = 0; i < 30; i++) {
+			state = state.draw();
+			controller.drawCardOrRecycleWaste(model);
+			assertEquals(StringifyGameState.modelToString(model), str(state));
+		}
+	}
+	
+	@Test
+	public void testMove() throws Exception {
+		GameState before = GameState.fromModel(load(TEST_GAME));
+		MoveBuffer moves = new MoveBuffer();
+		controller.generateLegalMoves(load(TEST_GAME), moves);
+		int move = moves.get(moves.size() - 1);
+		assertEquals(LocationType.TABLEAU_PILE, Move.getSourceType(move));
+		Location source = Move.toSource(move);
+		Location dest = Move.toDest(move);
+		GameState after = before.move(source, dest);
+		assertNotNull(after);
+		
+		KlondikeModel model = load(TEST_GAME);
+		controller.moveCards(model, controller.select(model, source), dest);
+		assertEquals(StringifyGameState.modelToString(model), str(after));
+		assertEquals(TEST_GAME, str(before));
+		assertSame(before.getMainDeck(), after.getMainDeck());
+		assertSame(before.getWastePile(), after.getWastePile());
+		int changed = 0;
+		for (int slot = 0; slot < KlondikeModel.NUM_PILES; slot++) {
+			if (before.getPile(slot) != after.getPile(slot)) {
+				changed++;
+			}
+		}
+		assertEquals(2, changed);
+	}
+	
+	@Test
+	public void testIllegalMove() throws Exception {
+		GameState state = GameState.fromModel(load(TEST_GAME));
+		KlondikeModel model = load(TEST_GAME);
+		
+		// every source and destination: the state agrees with the controller
+		for (LocationType sourceType : LocationType.values()) {
+			for (int p = 0; p < 7; p++) {
+				for (int c = 0; c < 10; c++) {
+					Location source = new Location(sourceType, sourceType == LocationType.TABLEAU_PILE ? p : 0, c);
+					for (LocationType destType : LocationType.values()) {
+						for (int q = 0; q < (destType == LocationType.FOUNDATION_PILE ? 4 : destType == LocationType.TABLEAU_PILE ? 7 : 1); q++) {
+							Location dest = new Location(destType, q, 0);
+							boolean legal = controller.allowMove(model, source, dest);
+							assertEquals(legal, state.allowMove(source, dest));
+							assertEquals(legal, state.move(source, dest) != null);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testRandomPlayMatchesController() throws Exception {
+		for (long deal = 0; deal < 20; deal++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, deal);
+			GameState state = GameState.deal(deal);
+			SplitMix64 random = new SplitMix64(deal);
+			MoveBuffer moves = new MoveBuffer();
+			UndoLog undo = new UndoLog();
+			for (int i = 0; i < 300; i++) {
+				controller.generateLegalMoves(model, moves);
+				if (moves.isEmpty()) {
+					break;
+				}
+				int move = moves.get(random.nextInt(moves.size()));
+				GameState next = state.makeMove(move);
+				controller.makeMove(model, move, undo);
+				assertEquals(StringifyGameState.modelToString(model), str(next));
+				assertEquals(model.getHash(), next.getHash());
+				state = next;
+			}
+			
+			// undoing is just going back to an old version
+			for (int i = undo.size() - 1; i >= 0; i--) {
+				controller.unmakeMove(model, undo);
+			}
+			assertEquals(StringifyGameState.modelToString(model), str(GameState.deal(deal)));
+		}
+	}
+	
+	@Test
+	public void testConcurrentReaders() throws Exception {
+		// one thread plays while others read whatever version is current;
+		// every version a reader sees is complete and consistent
+		final AtomicReference<GameState> current = new AtomicReference<GameState>(GameState.deal(5L));
+		final AtomicBoolean done = new AtomicBoolean(false);
+		final AtomicInteger badReads = new AtomicInteger();
+		Thread[] readers = new Thread[3];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread() {
+				@Override
+				public void run() {
+					while (!done.get()) {
+						GameState state = current.get();
+						boolean[] seen = new boolean[Card.NUM_CARDS];
+						int count = 0;
+						for (int slot = 0; slot < KlondikeModel.NUM_PILES; slot++) {
+							ImmutablePile pile = state.getPile(slot);
+							for (int i = 0; i < pile.getNumCards(); i++) {
+								seen[pile.getCardId(i)] = true;
+								count++;
+							}
+						}
+						for (boolean b : seen) {
+							if (!b) {
+								count = -1;
+							}
+						}
+						if (count != Card.NUM_CARDS || state.getHash() != state.toModel().getHash()) {
+							badReads.incrementAndGet();
+						}
+					}
+				}
+			};
+			readers[r].start();
+		}
+		
+		SplitMix64 random = new SplitMix64(5L);
+		MoveBuffer moves = new MoveBuffer();
+		for (int i = 0; i < 5000; i++) {
+			KlondikeModel model = current.get().toModel();
+			controller.generateLegalMoves(model, moves);
+			current.set(current.get().makeMove(moves.get(random.nextInt(moves.size()))));
+		}
+		done.set(true);
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		assertEquals(0, badReads.get());
+	}
+}
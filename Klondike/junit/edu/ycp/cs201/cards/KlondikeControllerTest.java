@@ -120,6 +120,33 @@ public class KlondikeControllerTest {
 		}
 	}
 	
+	// test that a numbered deal always gives the same layout
+	@Test
+	public void testInitModelWithDealNumber() throws Exception {
+		KlondikeModel deal1 = new KlondikeModel();
+		controller.initModel(deal1, 1L);
+		assertEquals("00000023CIL2<OD63(/TK.1B*\"HS5GA4!00009001!00000000!00000000!00000000!00000000!00000000J!0000000178!00000002UF$!00000003,@E&!000000049M?=+!00000005';N0R-!00000006):Q#>%P",
+				StringifyGameState.modelToString(deal1));
+		
+		KlondikeModel again = new KlondikeModel();
+		controller.initModel(again, 1L);
+		assertEquals(StringifyGameState.modelToString(deal1), StringifyGameState.modelToString(again));
+		assertEquals(deal1.getHash(), again.getHash());
+		
+		KlondikeModel deal2 = new KlondikeModel();
+		controller.initModel(deal2, 2L);
+		assertFalse(StringifyGameState.modelToString(deal1).equals(StringifyGameState.modelToString(deal2)));
+		
+		// laid out just like a random deal
+		assertEquals(24, deal2.getMainDeck().getNumCards());
+		assertEquals(23, deal2.getMainDeck().getExposeIndex());
+		assertTrue(deal2.getWastePile().getExposeIndex() >= 52);
+		for (int i = 0; i < 7; i++) {
+			assertEquals(i + 1, deal2.getTableauPile(i).getNumCards());
+			assertEquals(i, deal2.getTableauPile(i).getExposeIndex());
+		}
+	}
+	
 	// sanity checking to ensure that the initial game state is correct 
 	@Test
 	public void testInitialGameState() throws Exception {
@@ -565,4 +592,240 @@ public class KlondikeControllerTest {
 		assertFalse(controller.isWin(model2));
 		assertTrue(controller.isWin(winningGame));
 	}
+	
+	private static long hashOfCopy(KlondikeModel model) {
+		KlondikeModel copy = new KlondikeModel();
+		StringifyGameState.stringToModel(copy, StringifyGameState.modelToString(model));
+		return copy.getHash();
+	}
+	
+	@Test
+	public void testHashAfterMoves() throws Exception {
+		// The incrementally-maintained hash should match the hash of
+		// a model loaded from scratch with the same game state
+		assertEquals(hashOfCopy(model), model.getHash());
+		
+		controller.drawCardOrRecycleWaste(model);
+		assertEquals(hashOfCopy(model), model.getHash());
+		
+		Selection selection = controller.select(model, getTopOfMainDeckLocation(model));
+		assertEquals(hashOfCopy(model), model.getHash());
+		controller.moveCards(model, selection, getTableauPileLocation(6));
+		assertEquals(hashOfCopy(model), model.getHash());
+		
+		// move exposes a face-down card in the origin pile
+		Selection sel = controller.select(model, getTableauPileLocation(3, 3));
+		controller.moveCards(model, sel, getTableauPileLocation(5));
+		assertEquals(hashOfCopy(model), model.getHash());
+	}
+	
+	@Test
+	public void testHashRestoredAfterUnselect() throws Exception {
+		long hash = model.getHash();
+		Selection sel = controller.select(model, getTableauPileLocation(3, 3));
+		assertTrue(hash != model.getHash());
+		controller.unselect(model, sel);
+		assertEquals(hash, model.getHash());
+	}
+	
+	@Test
+	public void testHashRestoredAfterRecycle() throws Exception {
+		long hash = model.getHash();
+		for (int i = 0; i < 24; i++) {
+			controller.drawCardOrRecycleWaste(model);
+			assertTrue(hash != model.getHash());
+		}
+		controller.drawCardOrRecycleWaste(model);
+		assertEquals(hash, model.getHash());
+	}
+	
+	@Test
+	public void testHashOfDifferentGames() throws Exception {
+		assertTrue(model.getHash() != model2.getHash());
+		assertTrue(model.getHash() != winningGame.getHash());
+	}
+	
+	@Test
+	public void testGenerateLegalMoves() throws Exception {
+		MoveBuffer moves = new MoveBuffer();
+		String before = StringifyGameState.modelToString(model);
+		controller.generateLegalMoves(model, moves);
+		
+		// the king of spades (and queen of diamonds) can move to the empty
+		// tableau pile, and a card can be drawn
+		assertEquals(2, moves.size());
+		assertTrue(moves.contains(Move.DRAW));
+		assertTrue(moves.contains(Move.encode(LocationType.TABLEAU_PILE, 3, 3, LocationType.TABLEAU_PILE, 5)));
+		
+		// model should not have changed
+		assertEquals(before, StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testGenerateLegalMovesGame2() throws Exception {
+		MoveBuffer moves = new MoveBuffer();
+		controller.generateLegalMoves(model2, moves);
+		
+		assertEquals(5, moves.size());
+		assertTrue(moves.contains(Move.DRAW));
+		// king of spades to either empty tableau pile
+		assertTrue(moves.contains(Move.encode(LocationType.TABLEAU_PILE, 0, 0, LocationType.TABLEAU_PILE, 1)));
+		assertTrue(moves.contains(Move.encode(LocationType.TABLEAU_PILE, 0, 0, LocationType.TABLEAU_PILE, 5)));
+		// ten of diamonds onto jack of clubs
+		assertTrue(moves.contains(Move.encode(LocationType.TABLEAU_PILE, 4, 5, LocationType.TABLEAU_PILE, 3)));
+		// two of spades onto ace of spades
+		assertTrue(moves.contains(Move.encode(LocationType.TABLEAU_PILE, 6, 9, LocationType.FOUNDATION_PILE, 2)));
+	}
+	
+	@Test
+	public void testGenerateLegalMovesWinningGame() throws Exception {
+		// no cards left to move or draw
+		MoveBuffer moves = new MoveBuffer();
+		moves.add(Move.DRAW);
+		controller.generateLegalMoves(winningGame, moves);
+		assertTrue(moves.isEmpty());
+	}
+	
+	@Test
+	public void testAllowMoveFromLocation() throws Exception {
+		String before = StringifyGameState.modelToString(model);
+		
+		// king of spades (and queen of diamonds) to the empty tableau pile
+		assertTrue(controller.allowMove(model, getTableauPileLocation(3, 3), getTableauPileLocation(5)));
+		// queen of diamonds alone can't go to the empty tableau pile
+		assertFalse(controller.allowMove(model, getTableauPileLocation(3, 4), getTableauPileLocation(5)));
+		// nine of hearts can't go anywhere
+		for (int i = 0; i < 7; i++) {
+			assertFalse(controller.allowMove(model, getTopOfMainDeckLocation(model), getTableauPileLocation(i)));
+		}
+		// non-exposed card, and nonexistent cards
+		assertFalse(controller.allowMove(model, getTableauPileLocation(3, 2), getTableauPileLocation(5)));
+		assertFalse(controller.allowMove(model, getTableauPileLocation(3, 5), getTableauPileLocation(5)));
+		assertFalse(controller.allowMove(model, getTableauPileLocation(6, -1), getTableauPileLocation(5)));
+		// can't move from waste or foundation piles
+		assertFalse(controller.allowMove(model, new Location(LocationType.FOUNDATION_PILE, 0, 0), getFoundationPileLocation(1)));
+		assertFalse(controller.allowMove(model, new Location(LocationType.WASTE_PILE, 0, -1), getTableauPileLocation(5)));
+		
+		// two of spades onto ace of spades, but not two cards at once
+		assertTrue(controller.allowMove(model2, getTableauPileLocation(6, 9), getFoundationPileLocation(2)));
+		assertFalse(controller.allowMove(model2, getTableauPileLocation(6, 8), getFoundationPileLocation(2)));
+		
+		// model should not have changed
+		assertEquals(before, StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testAllowMoveAgreesWithGenerateLegalMoves() throws Exception {
+		// Every source/destination pair should be legal exactly when
+		// generateLegalMoves produces it, and the Selection-based
+		// allowMove should agree
+		KlondikeModel[] models = { model, model2, winningGame };
+		MoveBuffer moves = new MoveBuffer();
+		for (KlondikeModel m : models) {
+			controller.generateLegalMoves(m, moves);
+			int numLegal = 0;
+			for (int src = 0; src < 8; src++) {
+				LocationType srcType = src == 7 ? LocationType.MAIN_DECK : LocationType.TABLEAU_PILE;
+				Pile srcPile = src == 7 ? m.getMainDeck() : m.getTableauPile(src);
+				int srcIndex = src == 7 ? 0 : src;
+				for (int cardIndex = 0; cardIndex < srcPile.getNumCards(); cardIndex++) {
+					Location source = new Location(srcType, srcIndex, cardIndex);
+					for (int dest = 0; dest < 11; dest++) {
+						LocationType destType = dest < 4 ? LocationType.FOUNDATION_PILE : LocationType.TABLEAU_PILE;
+						int destIndex = dest < 4 ? dest : dest - 4;
+						boolean allowed = controller.allowMove(m, source, new Location(destType, destIndex, -1));
+						int move = Move.encode(srcType, srcIndex, cardIndex, destType, destIndex);
+						assertEquals(Move.toString(move), moves.contains(move), allowed);
+						if (allowed) {
+							numLegal++;
+							Selection sel = controller.select(m, source);
+							assertTrue(controller.allowMove(m, sel, new Location(destType, destIndex, -1)));
+							controller.unselect(m, sel);
+						}
+					}
+				}
+			}
+			// all generated moves other than drawing were found
+			assertEquals(moves.size() - (moves.contains(Move.DRAW) ? 1 : 0), numLegal);
+		}
+	}
+	
+	@Test
+	public void testMakeMoveMatchesMoveCards() throws Exception {
+		// making a move should have the same effect as select/moveCards
+		KlondikeModel copy = new KlondikeModel();
+		StringifyGameState.stringToModel(copy, TEST_GAME);
+		UndoLog undo = new UndoLog();
+		
+		Selection sel = controller.select(model, getTableauPileLocation(3, 3));
+		controller.moveCards(model, sel, getTableauPileLocation(5));
+		controller.makeMove(copy, Move.encode(LocationType.TABLEAU_PILE, 3, 3, LocationType.TABLEAU_PILE, 5), undo);
+		assertEquals(StringifyGameState.modelToString(model), StringifyGameState.modelToString(copy));
+		
+		controller.drawCardOrRecycleWaste(model);
+		controller.makeMove(copy, Move.DRAW, undo);
+		assertEquals(StringifyGameState.modelToString(model), StringifyGameState.modelToString(copy));
+		
+		// four of clubs onto five of diamonds
+		sel = controller.select(model, getTopOfMainDeckLocation(model));
+		controller.moveCards(model, sel, getTableauPileLocation(6));
+		controller.makeMove(copy, Move.encode(LocationType.MAIN_DECK, 0, 22, LocationType.TABLEAU_PILE, 6), undo);
+		assertEquals(StringifyGameState.modelToString(model), StringifyGameState.modelToString(copy));
+		assertEquals(3, undo.size());
+	}
+	
+	@Test
+	public void testUnmakeMove() throws Exception {
+		// play out a game making the first legal non-draw move (or drawing),
+		// then unmake all of the moves
+		String initial = StringifyGameState.modelToString(model);
+		long initialHash = model.getHash();
+		MoveBuffer moves = new MoveBuffer();
+		UndoLog undo = new UndoLog(1);
+		String[] states = new String[200];
+		
+		for (int i = 0; i < states.length; i++) {
+			states[i] = StringifyGameState.modelToString(model);
+			controller.generateLegalMoves(model, moves);
+			if (moves.isEmpty()) {
+				break;
+			}
+			// prefer a different move each time, to cover draws and recycles as well
+			controller.makeMove(model, moves.get(i % moves.size()), undo);
+		}
+		assertTrue(undo.size() > 50);
+		
+		while (!undo.isEmpty()) {
+			controller.unmakeMove(model, undo);
+			assertEquals(states[undo.size()], StringifyGameState.modelToString(model));
+		}
+		assertEquals(initial, StringifyGameState.modelToString(model));
+		assertEquals(initialHash, model.getHash());
+	}
+	
+	@Test
+	public void testUnmakeRecycle() throws Exception {
+		UndoLog undo = new UndoLog();
+		for (int i = 0; i < 24; i++) {
+			controller.makeMove(model, Move.DRAW, undo);
+		}
+		String drawn = StringifyGameState.modelToString(model);
+		
+		controller.makeMove(model, Move.DRAW, undo);
+		assertEquals(24, model.getMainDeck().getNumCards());
+		assertTopCardIs(new Card(Rank.NINE, Suit.HEARTS), model.getMainDeck());
+		
+		controller.unmakeMove(model, undo);
+		assertEquals(drawn, StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testUnmakeMoveEmptyLog() throws Exception {
+		try {
+			controller.unmakeMove(model, new UndoLog());
+			assertTrue("unmakeMove with an empty UndoLog should throw IllegalStateException", false);
+		} catch (IllegalStateException e) {
+			// good
+		}
+	}
 }
@@ -78,4 +78,32 @@ public class KlondikeModelTest {
 			assertEquals(new Card(ranks[i], Suit.HEARTS), model.getFoundationPile(i).getCard(0));
 		}
 	}
+	
+	@Test
+	public void testHash() throws Exception {
+		// Models with the same contents should have the same hash
+		KlondikeModel other = new KlondikeModel();
+		assertEquals(other.getHash(), model.getHash());
+		
+		model.getTableauPile(3).addCard(new Card(Rank.KING, Suit.CLUBS));
+		assertTrue(other.getHash() != model.getHash());
+		other.getTableauPile(3).addCard(new Card(Rank.KING, Suit.CLUBS));
+		assertEquals(other.getHash(), model.getHash());
+		
+		// Same card in a different pile should have a different hash
+		other.getTableauPile(3).drawCard();
+		other.getTableauPile(4).addCard(new Card(Rank.KING, Suit.CLUBS));
+		assertTrue(other.getHash() != model.getHash());
+	}
+	
+	@Test
+	public void testHashDependsOnExposeIndex() throws Exception {
+		model.getTableauPile(0).addCard(new Card(Rank.KING, Suit.CLUBS));
+		model.getTableauPile(0).addCard(new Card(Rank.QUEEN, Suit.HEARTS));
+		long hash = model.getHash();
+		model.getTableauPile(0).setExposeIndex(1);
+		assertTrue(hash != model.getHash());
+		model.getTableauPile(0).setExposeIndex(0);
+		assertEquals(hash, model.getHash());
+	}
 }
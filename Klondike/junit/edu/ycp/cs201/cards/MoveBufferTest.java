@@ -0,0 +1,49 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MoveBufferTest {
+	private MoveBuffer buffer;
+	
+	@Before
+	public void setUp() {
+		buffer = new MoveBuffer(2);
+	}
+	
+	@Test
+	public void testAddAndGet() throws Exception {
+		assertTrue(buffer.isEmpty());
+		buffer.add(17);
+		buffer.add(42);
+		assertEquals(2, buffer.size());
+		assertEquals(17, buffer.get(0));
+		assertEquals(42, buffer.get(1));
+		assertTrue(buffer.contains(42));
+		assertFalse(buffer.contains(43));
+	}
+	
+	@Test
+	public void testGrow() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			buffer.add(i);
+		}
+		assertEquals(100, buffer.size());
+		assertEquals(99, buffer.get(99));
+	}
+	
+	@Test
+	public void testClear() throws Exception {
+		buffer.add(1);
+		buffer.clear();
+		assertTrue(buffer.isEmpty());
+		try {
+			buffer.get(0);
+			assertTrue("get past the end of the buffer should throw IndexOutOfBoundsException", false);
+		} catch (IndexOutOfBoundsException e) {
+			// good
+		}
+	}
+}
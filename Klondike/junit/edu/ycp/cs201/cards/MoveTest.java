@@ -0,0 +1,31 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MoveTest {
+	@Test
+	public void testEncodeDecode() throws Exception {
+		int move = Move.encode(LocationType.TABLEAU_PILE, 6, 12, LocationType.FOUNDATION_PILE, 3);
+		assertEquals(LocationType.TABLEAU_PILE, Move.getSourceType(move));
+		assertEquals(6, Move.getSourcePile(move));
+		assertEquals(12, Move.getCardIndex(move));
+		assertEquals(LocationType.FOUNDATION_PILE, Move.getDestType(move));
+		assertEquals(3, Move.getDestPile(move));
+	}
+	
+	@Test
+	public void testToLocations() throws Exception {
+		int move = Move.encode(LocationType.MAIN_DECK, 0, 23, LocationType.TABLEAU_PILE, 4);
+		assertEquals(new Location(LocationType.MAIN_DECK, 0, 23), Move.toSource(move));
+		assertEquals(new Location(LocationType.TABLEAU_PILE, 4, -1), Move.toDest(move));
+	}
+	
+	@Test
+	public void testDraw() throws Exception {
+		assertEquals(LocationType.WASTE_PILE, Move.getSourceType(Move.DRAW));
+		assertEquals(LocationType.WASTE_PILE, Move.getDestType(Move.DRAW));
+		assertEquals("DRAW", Move.toString(Move.DRAW));
+	}
+}
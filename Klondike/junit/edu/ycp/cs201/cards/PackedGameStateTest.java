@@ -0,0 +1,97 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackedGameStateTest {
+	// game states from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	private static final String TEST_GAME_2 = "00000009G-NE,(MS')!00000053DA28BQT!" +
+			"00000000\"#!00000000/0!00000000I!00000000<=!00000000U:!00000000!00000002L+6O4&?!" +
+			"000000009!00000004H.>KFR7P!00000000!00000006$5@C*;3%1J";
+	private static final String WINNING_GAME = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFGH!00000000!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	private static String roundTrip(KlondikeModel model) {
+		PackedGameState packed = PackedGameState.fromModel(model);
+		KlondikeModel copy = new KlondikeModel();
+		packed.toModel(copy);
+		return StringifyGameState.modelToString(copy);
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertEquals(TEST_GAME, roundTrip(load(TEST_GAME)));
+		assertEquals(TEST_GAME_2, roundTrip(load(TEST_GAME_2)));
+		assertEquals(WINNING_GAME, roundTrip(load(WINNING_GAME)));
+	}
+	
+	@Test
+	public void testRoundTripInitModel() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model);
+		
+		// waste pile expose index is set to a high value
+		assertEquals(StringifyGameState.modelToString(model), roundTrip(model));
+	}
+	
+	@Test
+	public void testRoundTripWordsAndEquality() throws Exception {
+		PackedGameState packed = PackedGameState.fromModel(load(TEST_GAME));
+		PackedGameState copy = PackedGameState.fromWords(packed.toWords());
+		assertEquals(PackedGameState.NUM_WORDS, packed.toWords().length);
+		assertEquals(packed, copy);
+		assertEquals(packed.hashCode(), copy.hashCode());
+	}
+	
+	@Test
+	public void testDifferentStatesNotEqual() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		PackedGameState before = PackedGameState.fromModel(model);
+		controller.drawCardOrRecycleWaste(model);
+		PackedGameState after = PackedGameState.fromModel(model);
+		assertFalse(before.equals(after));
+		assertFalse(before.equals(PackedGameState.fromModel(load(TEST_GAME_2))));
+	}
+	
+	@Test
+	public void testInvalidFoundationPile() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		model.getFoundationPile(1).addCard(new Card(Rank.TWO, Suit.HEARTS));
+		try {
+			PackedGameState.fromModel(model);
+			assertTrue("fromModel with a non-ace foundation pile should throw IllegalArgumentException", false);
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+	
+	@Test
+	public void testToModelRequiresEmptyModel() throws Exception {
+		PackedGameState packed = PackedGameState.fromModel(load(TEST_GAME));
+		try {
+			packed.toModel(load(TEST_GAME));
+			assertTrue("toModel with a non-empty model should throw IllegalArgumentException", false);
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+}
@@ -221,6 +221,28 @@ public class PileTest {
 		assertTrue(numDifferent > 0);
 	}
 	
+	@Test
+	public void testShuffleWithGenerator() throws Exception {
+		// Test that shuffling with generators in the same state gives the same order
+		Pile other = new Pile();
+		Util.addAllCards(pile);
+		Util.addAllCards(other);
+		pile.shuffle(new SplitMix64(42L));
+		other.shuffle(new SplitMix64(42L));
+		for (int i = 0; i < 52; i++) {
+			assertEquals(other.getCard(i), pile.getCard(i));
+		}
+		
+		other.shuffle(new SplitMix64(43L));
+		int numDifferent = 0;
+		for (int i = 0; i < 52; i++) {
+			if (!pile.getCard(i).equals(other.getCard(i))) {
+				numDifferent++;
+			}
+		}
+		assertTrue(numDifferent > 0);
+	}
+	
 	@Test
 	public void testDrawCard() throws Exception {
 		Util.addAllCards(pile);
@@ -252,4 +274,69 @@ public class PileTest {
 		assertEquals(new Card(Rank.NINE, Suit.SPADES), r2.get(3));
 		assertEquals(new Card(Rank.TEN, Suit.SPADES), r2.get(4));
 	}
+	
+	@Test
+	public void testGetCardId() throws Exception {
+		pile.addCardId(Card.of(Rank.SIX, Suit.DIAMONDS).getId());
+		pile.addCard(new Card(Rank.KING, Suit.HEARTS));
+		assertEquals(Card.of(Rank.SIX, Suit.DIAMONDS).getId(), pile.getCardId(0));
+		assertEquals(Card.of(Rank.KING, Suit.HEARTS).getId(), pile.getCardId(1));
+		assertEquals(new Card(Rank.SIX, Suit.DIAMONDS), pile.getCard(0));
+	}
+	
+	@Test
+	public void testGetCardPastTopOfPile() throws Exception {
+		pile.addCard(new Card(Rank.SIX, Suit.DIAMONDS));
+		try {
+			pile.getCard(1); // valid card index, but not in this pile
+			assertTrue("getCard past the top of the Pile should throw NoSuchElementException", false);
+		} catch (NoSuchElementException e) {
+			// good
+		}
+	}
+	
+	@Test
+	public void testAddCardToFullPile() throws Exception {
+		// a pile can hold at most 52 cards
+		try {
+			fullPile.addCard(new Card(Rank.ACE, Suit.SPADES));
+			assertTrue("addCard on a full Pile should throw IllegalStateException", false);
+		} catch (IllegalStateException e) {
+			// good
+		}
+	}
+	
+	@Test
+	public void testMoveTopTo() throws Exception {
+		Util.addAllCards(pile);
+		Pile dest = new Pile();
+		dest.addCard(new Card(Rank.TWO, Suit.CLUBS));
+		dest.setExposeIndex(1);
+		
+		// move the jack, queen, and king of spades, preserving their order
+		pile.moveTopTo(dest, 3);
+		assertEquals(49, pile.getNumCards());
+		assertEquals(new Card(Rank.TEN, Suit.SPADES), pile.getTopCard());
+		assertEquals(4, dest.getNumCards());
+		assertEquals(new Card(Rank.TWO, Suit.CLUBS), dest.getCard(0));
+		assertEquals(new Card(Rank.JACK, Suit.SPADES), dest.getCard(1));
+		assertEquals(new Card(Rank.QUEEN, Suit.SPADES), dest.getCard(2));
+		assertEquals(new Card(Rank.KING, Suit.SPADES), dest.getCard(3));
+		
+		// expose indices should not change
+		assertEquals(0, pile.getExposeIndex());
+		assertEquals(1, dest.getExposeIndex());
+	}
+	
+	@Test
+	public void testMoveTopToTooMany() throws Exception {
+		pile.addCard(new Card(Rank.TWO, Suit.CLUBS));
+		try {
+			pile.moveTopTo(new Pile(), 2);
+			assertTrue("moveTopTo to move more cards than Pile has should throw IllegalArgumentException", false);
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+		assertEquals(1, pile.getNumCards());
+	}
 }
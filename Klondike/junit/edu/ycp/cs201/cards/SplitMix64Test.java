@@ -0,0 +1,48 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SplitMix64Test {
+	@Test
+	public void testReferenceSequence() throws Exception {
+		// first outputs of the reference SplitMix64 implementation for seed 0
+		SplitMix64 random = new SplitMix64(0L);
+		assertEquals(0xE220A8397B1DCDAFL, random.nextLong());
+		assertEquals(0x6E789E6AA1B965F4L, random.nextLong());
+		assertEquals(0x06C45D188009454FL, random.nextLong());
+	}
+	
+	@Test
+	public void testSetSeed() throws Exception {
+		SplitMix64 random = new SplitMix64(7L);
+		long first = random.nextLong();
+		random.nextLong();
+		random.setSeed(7L);
+		assertEquals(first, random.nextLong());
+	}
+	
+	@Test
+	public void testNextInt() throws Exception {
+		SplitMix64 random = new SplitMix64(1L);
+		for (int i = 0; i < 1000; i++) {
+			int n = random.nextInt(52);
+			assertTrue(n >= 0 && n < 52);
+		}
+	}
+	
+	@Test
+	public void testSplit() throws Exception {
+		SplitMix64 random = new SplitMix64(5L);
+		SplitMix64 child = random.split();
+		SplitMix64 copy = new SplitMix64(5L);
+		copy.split();
+		
+		// the parent continues the same sequence after splitting
+		assertEquals(copy.nextLong(), random.nextLong());
+		
+		// the child's sequence is not the parent's
+		assertFalse(child.nextLong() == random.nextLong());
+	}
+}
@@ -0,0 +1,124 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StringifyGameStateTest {
+	// game state from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	
+	private KlondikeModel model;
+	
+	@Before
+	public void setUp() {
+		model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, TEST_GAME);
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(model));
+		assertEquals(TEST_GAME.length(), StringifyGameState.encodedLength(model));
+	}
+	
+	@Test
+	public void testStringBuilder() throws Exception {
+		StringBuilder buf = new StringBuilder("game:");
+		StringifyGameState.modelToString(model, buf);
+		assertEquals("game:" + TEST_GAME, buf.toString());
+	}
+	
+	@Test
+	public void testAppendable() throws Exception {
+		StringWriter out = new StringWriter();
+		StringifyGameState.modelToString(model, out);
+		assertEquals(TEST_GAME, out.toString());
+	}
+	
+	@Test
+	public void testChars() throws Exception {
+		char[] buf = new char[TEST_GAME.length() + 4];
+		int end = StringifyGameState.modelToChars(model, buf, 2);
+		assertEquals(TEST_GAME.length() + 2, end);
+		assertEquals(TEST_GAME, new String(buf, 2, TEST_GAME.length()));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testCharsTooSmall() throws Exception {
+		StringifyGameState.modelToChars(model, new char[TEST_GAME.length()], 1);
+	}
+	
+	@Test
+	public void testDecodeRange() throws Exception {
+		String line = "state=" + TEST_GAME + " end";
+		KlondikeModel loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, line, 6, 6 + TEST_GAME.length());
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(loaded));
+		
+		StringBuilder buf = new StringBuilder(TEST_GAME);
+		loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, buf);
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(loaded));
+	}
+	
+	@Test
+	public void testExposeIndexFormat() throws Exception {
+		// expose indexes are written as String.format("%08d") would, including
+		// negative values and values needing more than 8 digits
+		int[] values = { 0, 7, 9001, -1, -1234567, 12345678, 123456789, Integer.MIN_VALUE, Integer.MAX_VALUE };
+		for (int value : values) {
+			KlondikeModel m = new KlondikeModel();
+			m.getMainDeck().setExposeIndex(value);
+			String s = StringifyGameState.modelToString(m);
+			assertEquals(String.format("%08d", value), s.substring(0, s.indexOf('!')));
+			assertEquals(s.length(), StringifyGameState.encodedLength(m));
+		}
+	}
+	
+	@Test
+	public void testNegativeExposeIndexRoundTrip() throws Exception {
+		KlondikeModel m = new KlondikeModel();
+		m.getMainDeck().setExposeIndex(-1);
+		KlondikeModel loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, StringifyGameState.modelToString(m));
+		assertEquals(-1, loaded.getMainDeck().getExposeIndex());
+	}
+	
+	@Test
+	public void testTrailingSeparatorsIgnored() throws Exception {
+		KlondikeModel loaded = new KlondikeModel();
+		StringifyGameState.stringToModel(loaded, TEST_GAME + "!!");
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(loaded));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooFewPiles() throws Exception {
+		StringifyGameState.stringToModel(new KlondikeModel(), TEST_GAME.substring(0, TEST_GAME.lastIndexOf('!')));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testTooManyPiles() throws Exception {
+		StringifyGameState.stringToModel(new KlondikeModel(), TEST_GAME + "!00000000");
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testBadCard() throws Exception {
+		StringifyGameState.stringToModel(new KlondikeModel(), TEST_GAME + "~");
+	}
+	
+	@Test(expected=NumberFormatException.class)
+	public void testBadExposeIndex() throws Exception {
+		StringifyGameState.stringToModel(new KlondikeModel(), "0000x000" + TEST_GAME.substring(8));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testPileTooShort() throws Exception {
+		StringifyGameState.stringToModel(new KlondikeModel(), "0000!" + TEST_GAME.substring(TEST_GAME.indexOf('!') + 1));
+	}
+}
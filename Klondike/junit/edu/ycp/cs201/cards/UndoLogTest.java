@@ -0,0 +1,46 @@
+package edu.ycp.cs201.cards;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class UndoLogTest {
+	private UndoLog log;
+	
+	@Before
+	public void setUp() {
+		log = new UndoLog(1);
+	}
+	
+	@Test
+	public void testPushAndPop() throws Exception {
+		assertTrue(log.isEmpty());
+		log.push(Move.DRAW, 1, 23);
+		log.push(17, 3, 4);
+		assertEquals(2, log.size());
+		assertEquals(Move.DRAW, log.getMove(0));
+		assertEquals(17, log.getMove(1));
+		
+		assertEquals(17, log.topMove());
+		assertEquals(3, log.topNumCards());
+		assertEquals(4, log.topPrevExposeIndex());
+		log.pop();
+		assertEquals(Move.DRAW, log.topMove());
+		assertEquals(1, log.topNumCards());
+		assertEquals(23, log.topPrevExposeIndex());
+	}
+	
+	@Test
+	public void testClear() throws Exception {
+		log.push(Move.DRAW, 1, 23);
+		log.clear();
+		assertTrue(log.isEmpty());
+		try {
+			log.pop();
+			assertTrue("pop on an empty UndoLog should throw IllegalStateException", false);
+		} catch (IllegalStateException e) {
+			// good
+		}
+	}
+}
@@ -6,12 +6,8 @@ public class Util {
 	 * @param pile the Pile
 	 */
 	public static void addAllCards(Pile pile) {
-		Suit[] suits = Suit.values();
-		Rank[] ranks = Rank.values();
-		for (Suit s : suits) {
-			for (Rank r : ranks) {
-				pile.addCard(new Card(r, s));
-			}
+		for (int id = 0; id < Card.NUM_CARDS; id++) {
+			pile.addCard(Card.byId(id));
 		}
 	}
 }
@@ -0,0 +1,215 @@
+package edu.ycp.cs201.cards.archive;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+public class GameStateArchiveTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private KlondikeController controller;
+	private Path path;
+	
+	@Before
+	public void setUp() throws Exception {
+		controller = new KlondikeController();
+		path = folder.getRoot().toPath().resolve("states.arc");
+	}
+	
+	private KlondikeModel deal(long dealNumber) {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		return model;
+	}
+	
+	private void writeDeals(long from, long to, int batchRecords) throws IOException {
+		GameStateArchiveWriter writer = new GameStateArchiveWriter(path, batchRecords);
+		try {
+			for (long deal = from; deal < to; deal++) {
+				assertEquals(deal, writer.append(deal(deal)));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+	
+	@Test
+	public void testWriteAndRead() throws Exception {
+		writeDeals(0, 1000, 64);
+		assertEquals(ArchiveHeader.SIZE + 1000L * BinaryGameState.RECORD_SIZE, Files.size(path));
+		
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			assertEquals(1000, archive.size());
+			for (long i = 0; i < 1000; i += 37) {
+				assertEquals(StringifyGameState.modelToString(deal(i)), archive.readString(i));
+			}
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testGetRecord() throws Exception {
+		writeDeals(0, 10, 4);
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			ByteBuffer record = archive.getRecord(7);
+			assertTrue(record.isReadOnly());
+			assertEquals(BinaryGameState.RECORD_SIZE, record.remaining());
+			byte[] bytes = new byte[BinaryGameState.RECORD_SIZE];
+			record.get(bytes);
+			assertArrayEquals(BinaryGameState.modelToBytes(deal(7)), bytes);
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testAppendToExisting() throws Exception {
+		writeDeals(0, 100, 16);
+		writeDeals(100, 250, 16);
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			assertEquals(250, archive.size());
+			assertEquals(StringifyGameState.modelToString(deal(99)), archive.readString(99));
+			assertEquals(StringifyGameState.modelToString(deal(100)), archive.readString(100));
+			assertEquals(StringifyGameState.modelToString(deal(249)), archive.readString(249));
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testUncommittedRecordsIgnored() throws Exception {
+		writeDeals(0, 10, 4);
+		
+		// records written in batches, but never committed (as if the program stopped)
+		GameStateArchiveWriter writer = new GameStateArchiveWriter(path, 4);
+		for (long deal = 1000; deal < 1009; deal++) {
+			writer.append(deal(deal));
+		}
+		assertTrue(Files.size(path) > ArchiveHeader.SIZE + 10L * BinaryGameState.RECORD_SIZE);
+		
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			assertEquals(10, archive.size());
+		} finally {
+			archive.close();
+		}
+		
+		// the next writer overwrites them
+		writeDeals(10, 12, 4);
+		archive = new GameStateArchive(path);
+		try {
+			assertEquals(12, archive.size());
+			assertEquals(StringifyGameState.modelToString(deal(10)), archive.readString(10));
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testSegments() throws Exception {
+		writeDeals(0, 100, 32);
+		// 7 records per mapped segment, so records are spread over 15 segments
+		GameStateArchive archive = new GameStateArchive(path, 7);
+		try {
+			for (long i = 0; i < 100; i++) {
+				KlondikeModel model = new KlondikeModel();
+				archive.read(i, model);
+				assertEquals(StringifyGameState.modelToString(deal(i)), StringifyGameState.modelToString(model));
+			}
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testScan() throws Exception {
+		writeDeals(0, 50, 8);
+		GameStateArchive archive = new GameStateArchive(path, 7);
+		try {
+			final long[] next = { 10 };
+			archive.scan(10, 40, new RecordVisitor() {
+				@Override
+				public void visit(long index, ByteBuffer buf, int offset) {
+					assertEquals(next[0]++, index);
+					KlondikeModel model = new KlondikeModel();
+					BinaryGameState.bufferToModel(model, buf, offset);
+					assertEquals(StringifyGameState.modelToString(deal(index)), StringifyGameState.modelToString(model));
+				}
+			});
+			assertEquals(40, next[0]);
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testParallelScan() throws Exception {
+		writeDeals(0, 20000, 1000);
+		GameStateArchive archive = new GameStateArchive(path);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final AtomicLong visited = new AtomicLong();
+			final AtomicLong indexSum = new AtomicLong();
+			archive.parallelScan(pool, new RecordVisitor() {
+				@Override
+				public void visit(long index, ByteBuffer buf, int offset) {
+					visited.incrementAndGet();
+					indexSum.addAndGet(index);
+				}
+			});
+			assertEquals(20000, visited.get());
+			assertEquals(20000L * 19999 / 2, indexSum.get());
+		} finally {
+			pool.shutdown();
+			archive.close();
+		}
+	}
+	
+	@Test
+	public void testEmptyArchive() throws Exception {
+		new GameStateArchiveWriter(path).close();
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			assertEquals(0, archive.size());
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testNoSuchRecord() throws Exception {
+		writeDeals(0, 5, 4);
+		GameStateArchive archive = new GameStateArchive(path);
+		try {
+			archive.getRecord(5);
+		} finally {
+			archive.close();
+		}
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNotAnArchive() throws Exception {
+		Files.write(path, "this is not an archive file at all".getBytes("UTF-8"));
+		new GameStateArchive(path);
+	}
+}
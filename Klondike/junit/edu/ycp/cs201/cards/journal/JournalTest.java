@@ -0,0 +1,219 @@
+package edu.ycp.cs201.cards.journal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.SplitMix64;
+import edu.ycp.cs201.cards.StringifyGameState;
+import edu.ycp.cs201.cards.UndoLog;
+
+public class JournalTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private KlondikeController controller;
+	
+	// the game state before each move, and after the last one
+	private List<String> states;
+	private List<Integer> moves;
+	
+	@Before
+	public void setUp() throws Exception {
+		controller = new KlondikeController();
+		states = new ArrayList<String>();
+		moves = new ArrayList<Integer>();
+	}
+	
+	// play random legal moves, preferring anything other than drawing
+	private byte[] playRandomGame(long dealNumber, int numMoves, int keyframeInterval) throws IOException {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JournalWriter writer = new JournalWriter(bytes, model, keyframeInterval);
+		SplitMix64 random = new SplitMix64(dealNumber);
+		MoveBuffer legal = new MoveBuffer();
+		UndoLog undo = new UndoLog();
+		try {
+			for (int i = 0; i < numMoves; i++) {
+				controller.generateLegalMoves(model, legal);
+				if (legal.isEmpty()) {
+					break;
+				}
+				int move = legal.get(random.nextInt(legal.size()));
+				if (move == Move.DRAW && legal.size() > 1 && random.nextInt(3) > 0) {
+					move = legal.get(1 + random.nextInt(legal.size() - 1));
+				}
+				states.add(StringifyGameState.modelToString(model));
+				moves.add(move);
+				writer.recordMove(move);
+				controller.makeMove(model, move, undo);
+			}
+		} finally {
+			writer.close();
+		}
+		states.add(StringifyGameState.modelToString(model));
+		return bytes.toByteArray();
+	}
+	
+	@Test
+	public void testReplayInOrder() throws Exception {
+		byte[] data = playRandomGame(1L, 500, 32);
+		JournalReader reader = new JournalReader(data);
+		assertEquals(moves.size(), reader.getNumMoves());
+		assertEquals(32, reader.getKeyframeInterval());
+		
+		JournalReader.Replay replay = reader.replay();
+		assertEquals(0, replay.getPosition());
+		assertEquals(states.get(0), StringifyGameState.modelToString(replay.getModel()));
+		for (int i = 0; i < moves.size(); i++) {
+			assertTrue(replay.hasNext());
+			assertEquals(Move.toString(moves.get(i)), Move.toString(replay.next()));
+			assertEquals(moves.get(i).intValue(), replay.getLastMove());
+			assertEquals(states.get(i + 1), StringifyGameState.modelToString(replay.getModel()));
+		}
+		assertFalse(replay.hasNext());
+	}
+	
+	@Test
+	public void testSeek() throws Exception {
+		byte[] data = playRandomGame(2L, 400, 16);
+		JournalReader reader = new JournalReader(data);
+		int n = reader.getNumMoves();
+		
+		// random access, forwards and backwards, matches a sequential replay
+		JournalReader.Replay replay = reader.replay();
+		SplitMix64 random = new SplitMix64(99L);
+		for (int i = 0; i < 200; i++) {
+			int target = random.nextInt(n + 1);
+			replay.seek(target);
+			assertEquals(target, replay.getPosition());
+			assertEquals(states.get(target), StringifyGameState.modelToString(replay.getModel()));
+		}
+		for (int target = n; target >= 0; target -= 7) {
+			assertEquals(states.get(target), StringifyGameState.modelToString(reader.stateAt(target)));
+		}
+		assertEquals(states.get(n), StringifyGameState.modelToString(reader.stateAt(n)));
+	}
+	
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testSeekPastEnd() throws Exception {
+		JournalReader reader = new JournalReader(playRandomGame(3L, 10, 4));
+		reader.stateAt(reader.getNumMoves() + 1);
+	}
+	
+	@Test
+	public void testCompact() throws Exception {
+		int interval = 64;
+		byte[] data = playRandomGame(4L, 1000, interval);
+		int numMoves = moves.size();
+		int numKeyframes = 1 + numMoves / interval;
+		int moveBytes = data.length - JournalWriter.HEADER_SIZE - numKeyframes * JournalCodec.KEYFRAME_LENGTH;
+		
+		// every move takes one byte, except tableau to tableau moves which take two
+		int expected = 0;
+		for (int move : moves) {
+			boolean twoBytes = Move.getSourceType(move) == LocationType.TABLEAU_PILE
+					&& Move.getDestType(move) == LocationType.TABLEAU_PILE;
+			expected += twoBytes ? 2 : 1;
+		}
+		assertEquals(expected, moveBytes);
+		assertTrue(moveBytes < 2 * numMoves);
+	}
+	
+	@Test
+	public void testTruncatedTailIsIgnored() throws Exception {
+		byte[] data = playRandomGame(5L, 300, 8);
+		int numMoves = moves.size();
+		
+		// cut the journal at every length near the end; only complete moves are seen
+		for (int cut = 1; cut <= 2 * JournalCodec.KEYFRAME_LENGTH; cut++) {
+			JournalReader reader = new JournalReader(Arrays.copyOf(data, data.length - cut));
+			int n = reader.getNumMoves();
+			assertTrue(n < numMoves);
+			assertTrue(n >= numMoves - 2 * 8 - 1);
+			assertEquals(states.get(n), StringifyGameState.modelToString(reader.stateAt(n)));
+		}
+	}
+	
+	@Test
+	public void testWriteFile() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("game.jnl");
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, 6L);
+		String initial = StringifyGameState.modelToString(model);
+		
+		JournalWriter writer = new JournalWriter(path, model);
+		try {
+			writer.recordDraw();
+			writer.recordDraw();
+			assertEquals(2, writer.getNumMoves());
+		} finally {
+			writer.close();
+		}
+		controller.drawCardOrRecycleWaste(model);
+		controller.drawCardOrRecycleWaste(model);
+		
+		// the header, the initial keyframe and two one-byte moves
+		assertEquals(JournalWriter.HEADER_SIZE + JournalCodec.KEYFRAME_LENGTH + 2, Files.size(path));
+		JournalReader reader = new JournalReader(path);
+		assertEquals(2, reader.getNumMoves());
+		assertEquals(JournalWriter.DEFAULT_KEYFRAME_INTERVAL, reader.getKeyframeInterval());
+		assertEquals(initial, StringifyGameState.modelToString(reader.stateAt(0)));
+		assertEquals(StringifyGameState.modelToString(model), StringifyGameState.modelToString(reader.stateAt(2)));
+	}
+	
+	@Test
+	public void testRecordLocations() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, "00000023G-NE,(MS')=TR#Q0IPB82A%D!" + "00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" + "00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JournalWriter writer = new JournalWriter(bytes, model, 4);
+		
+		// make the first legal move other than drawing
+		MoveBuffer legal = new MoveBuffer();
+		controller.generateLegalMoves(model, legal);
+		assertTrue(legal.size() > 1);
+		Location source = Move.toSource(legal.get(1));
+		Location dest = Move.toDest(legal.get(1));
+		assertTrue(controller.allowMove(model, source, dest));
+		writer.recordMove(source, dest);
+		writer.close();
+		controller.moveCards(model, controller.select(model, source), dest);
+		
+		JournalReader reader = new JournalReader(bytes.toByteArray());
+		assertEquals(1, reader.getNumMoves());
+		assertEquals(StringifyGameState.modelToString(model), StringifyGameState.modelToString(reader.stateAt(1)));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testRecordMissingCard() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, 7L);
+		JournalWriter writer = new JournalWriter(new ByteArrayOutputStream(), model, 4);
+		// tableau pile 0 has only one card
+		writer.recordMove(Move.encode(LocationType.TABLEAU_PILE, 0, 3, LocationType.TABLEAU_PILE, 1));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNotAJournal() throws Exception {
+		new JournalReader(new byte[100]);
+	}
+}
@@ -0,0 +1,240 @@
+package edu.ycp.cs201.cards.server;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ycp.cs201.cards.GameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+public class GameActorTest {
+	private ExecutorService executor;
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+		controller = new KlondikeController();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+	
+	private KlondikeModel deal(long dealNumber, int draws) {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		for (int i = 0; i < draws; i++) {
+			controller.drawCardOrRecycleWaste(model);
+		}
+		return model;
+	}
+	
+	private static String str(GameState state) {
+		return StringifyGameState.modelToString(state.toModel());
+	}
+	
+	@Test
+	public void testCommandsApplyInOrder() throws Exception {
+		GameActor actor = new GameActor(1L, 9L, executor);
+		List<Future<GameState>> snapshots = new ArrayList<Future<GameState>>();
+		for (int i = 0; i < 500; i++) {
+			actor.draw();
+			snapshots.add(actor.snapshot());
+		}
+		for (int i = 0; i < 500; i += 50) {
+			assertEquals(StringifyGameState.modelToString(deal(9L, i + 1)), str(snapshots.get(i).get()));
+		}
+	}
+	
+	@Test
+	public void testSelectAndMove() throws Exception {
+		GameActor actor = new GameActor(1L, 4L, executor);
+		KlondikeModel model = deal(4L, 0);
+		
+		// play moves through the actor and the controller side by side
+		MoveBuffer legal = new MoveBuffer();
+		for (int i = 0; i < 100; i++) {
+			controller.generateLegalMoves(model, legal);
+			int move = legal.get(legal.size() - 1);
+			if (move == Move.DRAW) {
+				actor.draw();
+				controller.drawCardOrRecycleWaste(model);
+			} else if (i % 2 == 0) {
+				Location source = Move.toSource(move);
+				Location dest = Move.toDest(move);
+				assertTrue(actor.select(source).get());
+				assertTrue(actor.moveSelection(dest).get());
+				controller.moveCards(model, controller.select(model, source), dest);
+			} else {
+				Location source = Move.toSource(move);
+				Location dest = Move.toDest(move);
+				assertTrue(actor.move(source, dest).get());
+				controller.moveCards(model, controller.select(model, source), dest);
+			}
+		}
+		assertEquals(StringifyGameState.modelToString(model), str(actor.snapshot().get()));
+	}
+	
+	@Test
+	public void testIllegalMoveLeavesGameUnchanged() throws Exception {
+		GameActor actor = new GameActor(1L, 4L, executor);
+		String before = str(actor.snapshot().get());
+		Location foundation = new Location(LocationType.FOUNDATION_PILE, 0, 0);
+		Location tableau = new Location(LocationType.TABLEAU_PILE, 0, 0);
+		assertFalse(actor.select(foundation).get());
+		assertFalse(actor.moveSelection(tableau).get());
+		assertFalse(actor.move(foundation, tableau).get());
+		
+		// a selection that can't go where it is asked goes back
+		assertTrue(actor.select(tableau).get());
+		assertEquals(before, str(actor.snapshot().get()));
+		assertFalse(actor.moveSelection(foundation).get());
+		assertEquals(before, str(actor.snapshot().get()));
+	}
+	
+	@Test
+	public void testFailedCommand() throws Exception {
+		GameActor actor = new GameActor(1L, 4L, executor);
+		Future<Object> failed = actor.submit(new GameCommand<Object>() {
+			@Override
+			public Object apply(KlondikeController controller, KlondikeModel model) {
+				throw new IllegalStateException("boom");
+			}
+		});
+		actor.draw();
+		try {
+			failed.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertEquals(StringifyGameState.modelToString(deal(4L, 1)), str(actor.snapshot().get()));
+	}
+	
+	@Test
+	public void testManyGamesManyThreads() throws Exception {
+		final int numGames = 20;
+		final int numThreads = 6;
+		final int drawsPerThread = 3000;
+		final GameActor[] actors = new GameActor[numGames];
+		final AtomicInteger[] inside = new AtomicInteger[numGames];
+		final AtomicInteger overlaps = new AtomicInteger();
+		for (int g = 0; g < numGames; g++) {
+			actors[g] = new GameActor(g, g, executor);
+			inside[g] = new AtomicInteger();
+		}
+		
+		// every thread draws on every game; commands for one game must never overlap
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < drawsPerThread; i++) {
+						final int g = i % numGames;
+						actors[g].submit(new GameCommand<Void>() {
+							@Override
+							public Void apply(KlondikeController controller, KlondikeModel model) {
+								if (inside[g].incrementAndGet() != 1) {
+									overlaps.incrementAndGet();
+								}
+								controller.drawCardOrRecycleWaste(model);
+								inside[g].decrementAndGet();
+								return null;
+							}
+						});
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		int drawsPerGame = numThreads * drawsPerThread / numGames;
+		for (int g = 0; g < numGames; g++) {
+			assertEquals(StringifyGameState.modelToString(deal(g, drawsPerGame)), str(actors[g].snapshot().get()));
+		}
+		assertEquals(0, overlaps.get());
+	}
+	
+	@Test
+	public void testExecutorShutDown() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		GameActor actor = new GameActor(1L, 9L, pool);
+		assertNotNull(actor.snapshot().get());
+		pool.shutdownNow();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+		
+		// every submit is rejected, rather than queued forever behind the first
+		for (int i = 0; i < 3; i++) {
+			try {
+				actor.draw();
+				fail();
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+		}
+	}
+	
+	@Test
+	public void testWaitingCommandsCancelledOnRejection() throws Exception {
+		// an executor that accepts the first drain (to be run by hand) and rejects the rest
+		final List<Runnable> accepted = new ArrayList<Runnable>();
+		Executor executor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				if (!accepted.isEmpty()) {
+					throw new RejectedExecutionException();
+				}
+				accepted.add(command);
+			}
+		};
+		GameActor actor = new GameActor(1L, 9L, executor);
+		List<Future<Void>> draws = new ArrayList<Future<Void>>();
+		for (int i = 0; i < GameActor.BATCH_SIZE + 2; i++) {
+			draws.add(actor.draw());
+		}
+		
+		// the drain applies one batch, then cannot reschedule itself
+		try {
+			accepted.get(0).run();
+			fail();
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+		assertNull(draws.get(GameActor.BATCH_SIZE - 1).get());
+		Future<Void> waiting = draws.get(GameActor.BATCH_SIZE);
+		assertTrue(waiting.isCancelled());
+		try {
+			waiting.get();
+			fail();
+		} catch (CancellationException e) {
+			// expected
+		}
+	}
+}
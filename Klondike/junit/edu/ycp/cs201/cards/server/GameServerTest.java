@@ -0,0 +1,296 @@
+package edu.ycp.cs201.cards.server;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+public class GameServerTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private GameServer server;
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() throws Exception {
+		server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+		server.start();
+		controller = new KlondikeController();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		server.stop(0);
+	}
+	
+	// the response to a request
+	private static class Response {
+		int status;
+		String location;
+		String contentType;
+		byte[] body;
+		
+		String text() {
+			return new String(body, StandardCharsets.US_ASCII);
+		}
+	}
+	
+	private Response request(String method, String path) throws IOException {
+		URL url = new URL("http", "127.0.0.1", server.getPort(), path);
+		HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+		conn.setRequestMethod(method);
+		Response response = new Response();
+		response.status = conn.getResponseCode();
+		response.location = conn.getHeaderField("Location");
+		response.contentType = conn.getContentType();
+		InputStream in = response.status < 400 ? conn.getInputStream() : conn.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if (in != null) {
+			byte[] buf = new byte[4096];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				body.write(buf, 0, n);
+			}
+			in.close();
+		}
+		response.body = body.toByteArray();
+		return response;
+	}
+	
+	private KlondikeModel deal(long dealNumber) {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		return model;
+	}
+	
+	private static String param(Location location) {
+		return location.getLocationType() + "," + location.getPileIndex() + "," + location.getCardIndex();
+	}
+	
+	private static String destParam(Location location) {
+		return location.getLocationType() + "," + location.getPileIndex();
+	}
+	
+	@Test
+	public void testNewGame() throws Exception {
+		Response response = request("POST", "/games?deal=42");
+		assertEquals(201, response.status);
+		assertEquals("/games/1", response.location);
+		assertEquals(StringifyGameState.modelToString(deal(42L)), response.text());
+		assertEquals(1, server.getNumSessions());
+		
+		Response state = request("GET", response.location);
+		assertEquals(200, state.status);
+		assertEquals(response.text(), state.text());
+	}
+	
+	@Test
+	public void testBinaryState() throws Exception {
+		String game = request("POST", "/games?deal=7").location;
+		Response response = request("GET", game + "?format=binary");
+		assertEquals(200, response.status);
+		assertEquals("application/octet-stream", response.contentType);
+		assertEquals(BinaryGameState.RECORD_SIZE, response.body.length);
+		
+		KlondikeModel model = new KlondikeModel();
+		BinaryGameState.bytesToModel(model, response.body);
+		assertEquals(StringifyGameState.modelToString(deal(7L)), StringifyGameState.modelToString(model));
+	}
+	
+	@Test
+	public void testDrawAndMove() throws Exception {
+		String game = request("POST", "/games?deal=3").location;
+		KlondikeModel model = deal(3L);
+		
+		Response response = request("POST", game + "/draw");
+		assertEquals(200, response.status);
+		controller.drawCardOrRecycleWaste(model);
+		assertEquals(StringifyGameState.modelToString(model), response.text());
+		
+		// play a few dozen moves, checking the state after each
+		MoveBuffer legal = new MoveBuffer();
+		for (int i = 0; i < 40; i++) {
+			controller.generateLegalMoves(model, legal);
+			int move = legal.get(legal.size() - 1);
+			if (move == Move.DRAW) {
+				response = request("POST", game + "/draw");
+				controller.drawCardOrRecycleWaste(model);
+			} else {
+				Location source = Move.toSource(move);
+				Location dest = Move.toDest(move);
+				response = request("POST", game + "/move?from=" + param(source) + "&to=" + destParam(dest));
+				controller.moveCards(model, controller.select(model, source), dest);
+			}
+			assertEquals(200, response.status);
+			assertEquals(StringifyGameState.modelToString(model), response.text());
+		}
+	}
+	
+	@Test
+	public void testIllegalMove() throws Exception {
+		String game = request("POST", "/games?deal=5").location;
+		String before = request("GET", game).text();
+		
+		// a foundation pile is never a legal source
+		Response response = request("POST", game + "/move?from=FOUNDATION_PILE,0,0&to=TABLEAU_PILE,1");
+		assertEquals(409, response.status);
+		assertEquals(before, request("GET", game).text());
+		
+		// tableau pile 0 holds one card, so there is no card 3 to move
+		response = request("POST", game + "/move?from=TABLEAU_PILE,0,3&to=TABLEAU_PILE,1");
+		assertEquals(409, response.status);
+		assertEquals(before, request("GET", game).text());
+	}
+	
+	@Test
+	public void testBadRequests() throws Exception {
+		String game = request("POST", "/games?deal=5").location;
+		assertEquals(400, request("POST", game + "/move?from=TABLEAU_PILE,9,0&to=TABLEAU_PILE,1").status);
+		assertEquals(400, request("POST", game + "/move?from=NOWHERE,0,0&to=TABLEAU_PILE,1").status);
+		assertEquals(400, request("POST", game + "/move?to=TABLEAU_PILE,1").status);
+		assertEquals(400, request("POST", "/games?deal=x").status);
+		assertEquals(404, request("GET", "/games/999").status);
+		assertEquals(404, request("GET", game + "/nothing").status);
+		assertEquals(405, request("GET", game + "/draw").status);
+		assertEquals(405, request("PUT", game).status);
+	}
+	
+	@Test
+	public void testDelete() throws Exception {
+		String game = request("POST", "/games").location;
+		assertEquals(1, server.getNumSessions());
+		assertEquals(204, request("DELETE", game).status);
+		assertEquals(0, server.getNumSessions());
+		assertEquals(404, request("GET", game).status);
+	}
+	
+	@Test
+	public void testConcurrentDraws() throws Exception {
+		// each response shows the state right after its own draw, so the
+		// responses are the states after 1, 2, ... draws, in some order
+		final String game = request("POST", "/games?deal=11").location;
+		final int numThreads = 4;
+		final int drawsPerThread = 25;
+		final List<String> states = Collections.synchronizedList(new ArrayList<String>());
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < drawsPerThread; i++) {
+							states.add(request("POST", game + "/draw").text());
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertNull(failure.get());
+		
+		List<String> expected = new ArrayList<String>();
+		KlondikeModel model = deal(11L);
+		for (int i = 0; i < numThreads * drawsPerThread; i++) {
+			controller.drawCardOrRecycleWaste(model);
+			expected.add(StringifyGameState.modelToString(model));
+		}
+		List<String> actual = new ArrayList<String>(states);
+		Collections.sort(expected);
+		Collections.sort(actual);
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void testDeleteWhileInUse() throws Exception {
+		// a request for a game that another request ends is answered as if the
+		// game never existed, never with a server error
+		for (int i = 0; i < 20; i++) {
+			final String game = request("POST", "/games?deal=" + i).location;
+			final List<Integer> statuses = Collections.synchronizedList(new ArrayList<Integer>());
+			Thread player = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 20; j++) {
+							statuses.add(request("POST", game + "/draw").status);
+						}
+					} catch (IOException e) {
+						statuses.add(-1);
+					}
+				}
+			};
+			player.start();
+			request("DELETE", game);
+			player.join();
+			for (int status : statuses) {
+				assertTrue("status " + status, status == 200 || status == 404);
+			}
+		}
+	}
+	
+	@Test
+	public void testServerErrorHidesDetails() throws Exception {
+		// every session is spilled as soon as it is idle
+		Path spillPath = folder.getRoot().toPath().resolve("sessions.spill");
+		GameServer spilling = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2,
+				new SessionStore(0, 0, spillPath));
+		spilling.start();
+		try {
+			GameSession session = spilling.newSession(1L);
+			spilling.newSession(2L);
+			spilling.getSession(session.getId());
+			assertEquals(GameSession.Tier.SPILLED, session.getTier());
+			
+			// lose the spilled state
+			Files.write(spillPath, new byte[0]);
+			URL url = new URL("http", "127.0.0.1", spilling.getPort(), "/games/" + session.getId());
+			HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+			assertEquals(500, conn.getResponseCode());
+			InputStream in = conn.getErrorStream();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				body.write(buf, 0, n);
+			}
+			in.close();
+			assertEquals("Internal server error", new String(body.toByteArray(), StandardCharsets.US_ASCII));
+		} finally {
+			spilling.stop(0);
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package edu.ycp.cs201.cards.server;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.SplitMix64;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+public class SessionStoreTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private KlondikeController controller;
+	private Path spillPath;
+	private SessionStore store;
+	
+	@Before
+	public void setUp() throws Exception {
+		controller = new KlondikeController();
+		spillPath = folder.getRoot().toPath().resolve("sessions.spill");
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		if (store != null) {
+			store.close();
+		}
+	}
+	
+	// the state of a deal after some number of draws
+	private String expected(long dealNumber, int draws) {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		for (int i = 0; i < draws; i++) {
+			controller.drawCardOrRecycleWaste(model);
+		}
+		return StringifyGameState.modelToString(model);
+	}
+	
+	private static String text(GameSession session) {
+		return new String(session.toText());
+	}
+	
+	@Test
+	public void testCompactIdleSessions() throws Exception {
+		store = new SessionStore(2);
+		GameSession[] sessions = new GameSession[5];
+		for (int i = 0; i < 5; i++) {
+			sessions[i] = store.create(i);
+			sessions[i].draw();
+		}
+		store.get(sessions[0].getId());
+		
+		SessionStoreStats stats = store.getStats();
+		assertEquals(2, stats.getLiveSessions());
+		assertEquals(3, stats.getPackedSessions());
+		assertEquals(0, stats.getSpilledSessions());
+		assertEquals(2 * SessionStore.LIVE_SESSION_BYTES + 3 * SessionStore.PACKED_SESSION_BYTES, stats.getResidentBytes());
+		assertEquals(GameSession.Tier.PACKED, sessions[0].getTier());
+		assertEquals(GameSession.Tier.LIVE, sessions[4].getTier());
+		
+		// using a packed session brings it back, with its state intact
+		assertEquals(expected(0, 1), text(sessions[0]));
+		assertEquals(GameSession.Tier.LIVE, sessions[0].getTier());
+		stats = store.getStats();
+		assertEquals(1, stats.getPackedHits());
+		assertEquals(3, stats.getLiveSessions());
+		assertEquals(2, stats.getPackedSessions());
+	}
+	
+	@Test
+	public void testSpillAndRehydrate() throws Exception {
+		long budget = 2 * SessionStore.LIVE_SESSION_BYTES + SessionStore.PACKED_SESSION_BYTES;
+		store = new SessionStore(2, budget, spillPath);
+		GameSession[] sessions = new GameSession[6];
+		for (int i = 0; i < 6; i++) {
+			sessions[i] = store.create(100 + i);
+			for (int j = 0; j <= i; j++) {
+				sessions[i].draw();
+			}
+		}
+		store.get(1L);
+		
+		SessionStoreStats stats = store.getStats();
+		assertEquals(2, stats.getLiveSessions());
+		assertEquals(1, stats.getPackedSessions());
+		assertEquals(3, stats.getSpilledSessions());
+		assertTrue(stats.getResidentBytes() <= budget);
+		assertEquals(3, stats.getSpills());
+		assertEquals(3 * SpillFile.SLOT_SIZE, stats.getSpillFileBytes());
+		assertEquals(GameSession.Tier.SPILLED, sessions[0].getTier());
+		
+		// every session still has its own state, wherever it was kept
+		for (int i = 0; i < 6; i++) {
+			assertEquals(expected(100 + i, i + 1), text(sessions[i]));
+			store.get(sessions[i].getId());
+		}
+		stats = store.getStats();
+		assertTrue(stats.getSpilledHits() >= 3);
+		assertTrue(stats.getHitRate() < 1.0);
+		
+		// freed slots are reused, so the file does not grow
+		assertEquals(3 * SpillFile.SLOT_SIZE, stats.getSpillFileBytes());
+	}
+	
+	@Test
+	public void testRemove() throws Exception {
+		store = new SessionStore(0, 0, spillPath);
+		GameSession session = store.create(1);
+		GameSession other = store.create(2);
+		store.get(other.getId());
+		assertEquals(GameSession.Tier.SPILLED, session.getTier());
+		
+		assertTrue(store.remove(session.getId()));
+		assertFalse(store.remove(session.getId()));
+		assertNull(store.get(session.getId()));
+		assertEquals(1, store.size());
+		assertEquals(1, store.getStats().getSpilledSessions());
+		try {
+			session.draw();
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		
+		// the removed session's slot is reused
+		store.create(3);
+		store.get(other.getId());
+		assertEquals(2 * SpillFile.SLOT_SIZE, store.getStats().getSpillFileBytes());
+	}
+	
+	@Test
+	public void testOneAccessPerRequest() throws Exception {
+		// one live session, so each request (taken round-robin, as the server
+		// does: get, then one compound call) finds its session packed
+		store = new SessionStore(1);
+		GameSession[] sessions = new GameSession[4];
+		for (int i = 0; i < sessions.length; i++) {
+			sessions[i] = store.create(i);
+		}
+		long before = store.getStats().getAccesses();
+		int requests = 0;
+		for (int i = 0; i < 40; i++) {
+			GameSession session = store.get(sessions[i % sessions.length].getId());
+			if (i % 2 == 0) {
+				session.drawAndEncode(false);
+			} else {
+				session.encode(true);
+			}
+			requests++;
+		}
+		
+		SessionStoreStats stats = store.getStats();
+		assertEquals(requests, stats.getAccesses() - before);
+		assertEquals(0, stats.getLiveHits());
+		assertEquals(requests, stats.getPackedHits());
+		assertEquals(0.0, stats.getHitRate(), 0.0);
+	}
+	
+	@Test
+	public void testSpillFailure() throws Exception {
+		// room for one live session; every write to the closed file fails
+		store = new SessionStore(2, SessionStore.LIVE_SESSION_BYTES, spillPath);
+		store.getSpillFile().close();
+		GameSession first = store.create(1);
+		first.draw();
+		GameSession second = store.create(2);
+		
+		// the session chosen to spill is still live, and is counted as such
+		assertEquals(GameSession.Tier.LIVE, first.getTier());
+		SessionStoreStats stats = store.getStats();
+		assertEquals(2, stats.getLiveSessions());
+		assertEquals(0, stats.getPackedSessions());
+		assertEquals(0, stats.getSpilledSessions());
+		assertEquals(1, stats.getSpillFailures());
+		
+		// no more writes are tried for a while
+		for (int i = 0; i < 10; i++) {
+			store.get(second.getId());
+			store.create(3 + i);
+		}
+		assertEquals(1, store.getStats().getSpillFailures());
+		assertEquals(expected(1, 1), text(first));
+		assertEquals(expected(2, 0), text(second));
+	}
+	
+	@Test
+	public void testConcurrentUse() throws Exception {
+		final int numSessions = 50;
+		final int numThreads = 4;
+		final int drawsPerThread = 2000;
+		store = new SessionStore(5, 5 * SessionStore.LIVE_SESSION_BYTES + 10 * SessionStore.PACKED_SESSION_BYTES, spillPath);
+		final long[] ids = new long[numSessions];
+		for (int i = 0; i < numSessions; i++) {
+			ids[i] = store.create(i).getId();
+		}
+		
+		// draw on random sessions from several threads, counting the draws
+		final AtomicIntegerArray draws = new AtomicIntegerArray(numSessions);
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final SplitMix64 random = new SplitMix64(t);
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < drawsPerThread; i++) {
+						int s = random.nextInt(numSessions);
+						store.get(ids[s]).draw();
+						draws.incrementAndGet(s);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		for (int i = 0; i < numSessions; i++) {
+			assertEquals(expected(i, draws.get(i)), text(store.get(ids[i])));
+		}
+		SessionStoreStats stats = store.getStats();
+		assertEquals(numSessions, stats.getLiveSessions() + stats.getPackedSessions() + stats.getSpilledSessions());
+		assertTrue(stats.getSpilledSessions() > 0);
+		assertEquals(0, stats.getSpillFailures());
+	}
+}
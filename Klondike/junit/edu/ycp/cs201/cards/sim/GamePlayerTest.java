@@ -0,0 +1,86 @@
+package edu.ycp.cs201.cards.sim;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.Rank;
+import edu.ycp.cs201.cards.Suit;
+
+public class GamePlayerTest {
+	private KlondikeController controller;
+	private GamePlayer player;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+		player = new GamePlayer(controller);
+	}
+	
+	// every card on the foundations except the kings, which are on the tableau
+	private static KlondikeModel almostWon() {
+		KlondikeModel model = new KlondikeModel();
+		for (int i = 0; i < 4; i++) {
+			for (int r = 0; r < Rank.KING.ordinal(); r++) {
+				model.getFoundationPile(i).addCard(Card.of(Rank.values()[r], Suit.values()[i]));
+			}
+			model.getTableauPile(i).addCard(Card.of(Rank.KING, Suit.values()[i]));
+			model.getTableauPile(i).setExposeIndex(0);
+		}
+		model.getWastePile().setExposeIndex(52);
+		return model;
+	}
+	
+	@Test
+	public void testGreedyWins() throws Exception {
+		KlondikeModel model = almostWon();
+		assertTrue(player.play(model, new GreedyPolicy()));
+		assertEquals(4, player.getNumMoves());
+		assertTrue(controller.isWin(model));
+	}
+	
+	@Test
+	public void testStalemate() throws Exception {
+		// a policy that only ever draws goes round the stock forever
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model);
+		PlayPolicy drawOnly = new PlayPolicy() {
+			@Override
+			public int chooseMove(KlondikeModel model, MoveBuffer legal) {
+				return Move.DRAW;
+			}
+		};
+		assertFalse(player.play(model, drawOnly));
+		// one draw per card in the stock, a recycle, then the draw that gives up
+		assertEquals(24 + 1, player.getNumMoves());
+	}
+	
+	@Test
+	public void testResign() throws Exception {
+		PlayPolicy resign = new PlayPolicy() {
+			@Override
+			public int chooseMove(KlondikeModel model, MoveBuffer legal) {
+				return PlayPolicy.RESIGN;
+			}
+		};
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model);
+		assertFalse(player.play(model, resign));
+		assertEquals(0, player.getNumMoves());
+	}
+	
+	@Test
+	public void testMoveLimit() throws Exception {
+		player.setMaxMoves(10);
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model);
+		player.play(model, new RandomPolicy(42L));
+		assertTrue(player.getNumMoves() <= 10);
+	}
+}
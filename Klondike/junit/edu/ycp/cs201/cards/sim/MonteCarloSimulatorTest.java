@@ -0,0 +1,68 @@
+package edu.ycp.cs201.cards.sim;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MonteCarloSimulatorTest {
+	@Test
+	public void testRun() throws Exception {
+		MonteCarloSimulator simulator = new MonteCarloSimulator(GreedyPolicy.FACTORY);
+		simulator.setThreads(3);
+		SimulationResult result = simulator.run(1000);
+		assertEquals("greedy", result.getPolicyName());
+		assertEquals(3, result.getThreads());
+		assertEquals(1000, result.getGames());
+		assertTrue(result.getWins() >= 0 && result.getWins() <= 1000);
+		assertTrue(result.getMovesPerGame() > 0);
+	}
+	
+	@Test
+	public void testRunIsRepeatable() throws Exception {
+		// the same deals played by a deterministic policy give the same totals,
+		// however the games are split among the threads
+		MonteCarloSimulator simulator = new MonteCarloSimulator(GreedyPolicy.FACTORY);
+		simulator.setFirstDeal(1000);
+		simulator.setThreads(1);
+		SimulationResult first = simulator.run(600);
+		simulator.setThreads(3);
+		SimulationResult second = simulator.run(600);
+		assertEquals(first.getWins(), second.getWins());
+		assertEquals(first.getTotalMoves(), second.getTotalMoves());
+	}
+	
+	@Test
+	public void testRunRandom() throws Exception {
+		MonteCarloSimulator simulator = new MonteCarloSimulator(RandomPolicy.factory(1L));
+		simulator.setThreads(2);
+		simulator.setMaxMovesPerGame(200);
+		SimulationResult result = simulator.run(300);
+		assertEquals(300, result.getGames());
+		assertTrue(result.getMovesPerGame() <= 200);
+	}
+	
+	@Test
+	public void testRunNoGames() throws Exception {
+		SimulationResult result = new MonteCarloSimulator(GreedyPolicy.FACTORY).run(0);
+		assertEquals(0, result.getGames());
+		assertEquals(0.0, result.getWinRate(), 0.0);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoThreads() throws Exception {
+		new MonteCarloSimulator(GreedyPolicy.FACTORY).setThreads(0);
+	}
+	
+	@Test
+	public void testSummaries() throws Exception {
+		SimulationResult result = new SimulationResult("greedy", 4, 1000, 125, 85000, 2000000000L);
+		assertEquals(0.125, result.getWinRate(), 1e-9);
+		assertEquals(85.0, result.getMovesPerGame(), 1e-9);
+		assertEquals(500.0, result.getGamesPerSecond(), 1e-9);
+		assertEquals("policy,threads,games,wins,win_rate,moves_per_game,games_per_second,elapsed_ms",
+				SimulationResult.csvHeader());
+		assertEquals("greedy,4,1000,125,0.125000,85.00,500.0,2000", result.toCsv());
+		assertEquals("{\"policy\":\"greedy\",\"threads\":4,\"games\":1000,\"wins\":125,\"winRate\":0.125000," +
+				"\"movesPerGame\":85.00,\"gamesPerSecond\":500.0,\"elapsedMs\":2000}", result.toJson());
+	}
+}
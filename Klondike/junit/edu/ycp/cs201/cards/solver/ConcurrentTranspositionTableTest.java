@@ -0,0 +1,53 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentTranspositionTableTest {
+	@Test
+	public void testVisit() throws Exception {
+		ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(1L << 16);
+		assertFalse(table.visit(12345L));
+		assertTrue(table.visit(12345L));
+		assertFalse(table.visit(0L));
+		assertTrue(table.visit(0L));
+		
+		table.clear();
+		assertFalse(table.visit(12345L));
+	}
+	
+	@Test
+	public void testCapacity() throws Exception {
+		assertEquals(1024, new ConcurrentTranspositionTable(0L).capacity());
+		assertEquals(8192, new ConcurrentTranspositionTable(65536L).capacity());
+	}
+	
+	@Test
+	public void testConcurrentVisits() throws Exception {
+		// every thread visits the same keys: each key must be new to exactly one thread
+		final ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(1L << 20);
+		final AtomicInteger added = new AtomicInteger();
+		final int numKeys = 10000;
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 1; i <= numKeys; i++) {
+						if (!table.visit(i * 0x9E3779B97F4A7C15L)) {
+							added.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(numKeys, added.get());
+	}
+}
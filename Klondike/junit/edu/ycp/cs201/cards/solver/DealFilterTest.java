@@ -0,0 +1,222 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Pile;
+import edu.ycp.cs201.cards.Rank;
+import edu.ycp.cs201.cards.Suit;
+
+public class DealFilterTest {
+	@Rule
+	public Timeout globalTimeout = Timeout.millis(60000); // 60 seconds
+	
+	private KlondikeController controller;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+	}
+	
+	private static int id(Rank rank, Suit suit) {
+		return Card.of(rank, suit).getId();
+	}
+	
+	// deal the given face-down cards (in order) and top cards to the tableau,
+	// and the rest of the deck to the main deck
+	private static KlondikeModel deal(int[] faceDown, int[] tops) {
+		assertEquals(21, faceDown.length);
+		assertEquals(7, tops.length);
+		KlondikeModel model = new KlondikeModel();
+		boolean[] used = new boolean[Card.NUM_CARDS];
+		int next = 0;
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			for (int j = 0; j < i; j++) {
+				used[faceDown[next]] = true;
+				tableau.addCardId(faceDown[next++]);
+			}
+			used[tops[i]] = true;
+			tableau.addCardId(tops[i]);
+			tableau.setExposeIndex(i);
+		}
+		for (int id = 0; id < Card.NUM_CARDS; id++) {
+			if (!used[id]) {
+				model.getMainDeck().addCardId(id);
+			}
+		}
+		model.getMainDeck().setExposeIndex(model.getMainDeck().getNumCards() - 1);
+		model.getWastePile().setExposeIndex(9001);
+		return model;
+	}
+	
+	// the first cards of the deck (by id) that are not in the given list
+	private static int[] fill(int count, int... exclude) {
+		int[] cards = new int[count];
+		int n = 0;
+		for (int id = 0; n < count; id++) {
+			boolean excluded = false;
+			for (int e : exclude) {
+				excluded |= (e == id);
+			}
+			if (!excluded) {
+				cards[n++] = id;
+			}
+		}
+		return cards;
+	}
+	
+	@Test
+	public void testNoFirstMove() throws Exception {
+		// the aces and queens are face down, and the kings and red twos
+		// and two of clubs (which only go on threes or aces) are on top
+		int[] tops = {
+			id(Rank.KING, Suit.CLUBS), id(Rank.KING, Suit.DIAMONDS), id(Rank.KING, Suit.HEARTS),
+			id(Rank.KING, Suit.SPADES), id(Rank.TWO, Suit.CLUBS), id(Rank.TWO, Suit.DIAMONDS),
+			id(Rank.TWO, Suit.HEARTS),
+		};
+		int[] faceDown = new int[21];
+		int n = 0;
+		for (Suit suit : Suit.values()) {
+			faceDown[n++] = id(Rank.ACE, suit);
+			faceDown[n++] = id(Rank.QUEEN, suit);
+		}
+		int[] others = fill(13, concat(tops, faceDown, n));
+		System.arraycopy(others, 0, faceDown, n, 13);
+		
+		KlondikeModel model = deal(faceDown, tops);
+		assertTrue(DealFilter.hasNoFirstMove(model));
+		assertTrue(DealFilter.isUnwinnable(model));
+	}
+	
+	@Test
+	public void testBlockedCard() throws Exception {
+		// the five of spades is on top of the four of spades and of both
+		// red sixes, so it can never move
+		int[] tops = fill(7, id(Rank.FIVE, Suit.SPADES), id(Rank.FOUR, Suit.SPADES),
+				id(Rank.SIX, Suit.HEARTS), id(Rank.SIX, Suit.DIAMONDS));
+		tops[6] = id(Rank.FIVE, Suit.SPADES);
+		int[] faceDown = fill(21, concat(tops, new int[] {
+			id(Rank.FOUR, Suit.SPADES), id(Rank.SIX, Suit.HEARTS), id(Rank.SIX, Suit.DIAMONDS)
+		}, 3));
+		// tableau pile 6 gets the last six face-down cards
+		faceDown[15] = id(Rank.SIX, Suit.HEARTS);
+		faceDown[17] = id(Rank.FOUR, Suit.SPADES);
+		faceDown[20] = id(Rank.SIX, Suit.DIAMONDS);
+		
+		KlondikeModel model = deal(faceDown, tops);
+		assertTrue(DealFilter.hasBlockedCard(model));
+		assertTrue(DealFilter.isUnwinnable(model));
+	}
+	
+	@Test
+	public void testCycle() throws Exception {
+		// the black fives block each other: each is dealt on top of the four
+		// the other needs to reach its foundation, and of one of the red sixes
+		// either could be placed on
+		int fiveS = id(Rank.FIVE, Suit.SPADES), fourS = id(Rank.FOUR, Suit.SPADES);
+		int sixH = id(Rank.SIX, Suit.HEARTS), sixD = id(Rank.SIX, Suit.DIAMONDS);
+		int fiveC = id(Rank.FIVE, Suit.CLUBS), fourC = id(Rank.FOUR, Suit.CLUBS);
+		
+		// pile 5: 4S and 6H under 5C; pile 6: 4C and 6D under 5S
+		int[] tops = fill(7, fiveS, fourS, sixH, sixD, fiveC, fourC);
+		tops[5] = fiveC;
+		tops[6] = fiveS;
+		int[] faceDown = fill(21, concat(tops, new int[] { fourS, sixH, fourC, sixD }, 4));
+		faceDown[12] = fourS;
+		faceDown[14] = sixH;
+		faceDown[15] = fourC;
+		faceDown[17] = sixD;
+		
+		KlondikeModel model = deal(faceDown, tops);
+		assertTrue(DealFilter.hasBlockedCard(model));
+		assertFalse(DealFilter.hasNoFirstMove(model));
+	}
+	
+	@Test
+	public void testModelNotChanged() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, 1L);
+		long hash = model.getHash();
+		DealFilter.isUnwinnable(model);
+		assertEquals(hash, model.getHash());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNotFreshDeal() throws Exception {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, 1L);
+		model.getTableauPile(3).setExposeIndex(0);
+		DealFilter.isUnwinnable(model);
+	}
+	
+	@Test
+	public void testNoFalseNegatives() throws Exception {
+		// every deal the solver can win must pass the filter
+		KlondikeSolver solver = new KlondikeSolver(1L << 22);
+		solver.setMaxNodes(20000);
+		int won = 0;
+		for (int i = 0; i < 500; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, i);
+			if (solver.solve(model).getOutcome() == Outcome.WIN) {
+				won++;
+				assertFalse("deal " + i, DealFilter.isUnwinnable(model));
+			}
+		}
+		assertTrue(won > 0);
+	}
+	
+	@Test
+	public void testSeededCorpus() throws Exception {
+		// measures how many deals the filter rejects, and how fast.  The solver
+		// only gets a small budget, which proves few of the rejected deals lost
+		// (most come back UNKNOWN, and even millions of positions leave most of
+		// them undecided), so this is not a check for false negatives: that is
+		// testNoFalseNegatives.  It only checks that no rejected deal is won
+		// within the budget, and reports how many were undecided.
+		KlondikeSolver solver = new KlondikeSolver(1L << 22);
+		solver.setMaxNodes(20000);
+		int numDeals = 5000;
+		int rejected = 0;
+		int provedLost = 0;
+		int undecided = 0;
+		long filterNanos = 0L;
+		for (int i = 0; i < numDeals; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, i);
+			long start = System.nanoTime();
+			boolean unwinnable = DealFilter.isUnwinnable(model);
+			filterNanos += System.nanoTime() - start;
+			if (unwinnable) {
+				rejected++;
+				Outcome outcome = solver.solve(model).getOutcome();
+				assertNotEquals("deal " + i, Outcome.WIN, outcome);
+				if (outcome == Outcome.LOSS) {
+					provedLost++;
+				} else {
+					undecided++;
+				}
+			}
+		}
+		System.out.printf("DealFilter: rejected %d of %d deals (%.1f%%), %.1f us per deal; " +
+				"search proved %d of them lost and left %d undecided%n",
+				rejected, numDeals, 100.0 * rejected / numDeals, filterNanos / 1e3 / numDeals, provedLost, undecided);
+		assertTrue(rejected > 0);
+	}
+	
+	// the first n cards of b followed by all of a
+	private static int[] concat(int[] a, int[] b, int n) {
+		int[] result = new int[a.length + n];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, n);
+		return result;
+	}
+}
@@ -0,0 +1,188 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import edu.ycp.cs201.cards.GameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.StringifyGameState;
+import edu.ycp.cs201.cards.UndoLog;
+
+public class HintEngineTest {
+	@Rule
+	public Timeout globalTimeout = Timeout.millis(30000); // 30 seconds
+	
+	// game state from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	
+	// every card on the foundations except the king of hearts, which is on tableau pile 0
+	private static final String ONE_MOVE_FROM_WIN = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFG!00000000H!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	private HintEngine engine;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+		engine = new HintEngine();
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	private void assertLegal(KlondikeModel model, Hint hint) {
+		assertTrue(hint.hasMove());
+		MoveBuffer legal = new MoveBuffer();
+		controller.generateLegalMoves(model, legal);
+		assertTrue(hint.toString(), legal.contains(hint.getMove()));
+	}
+	
+	@Test
+	public void testHintIsLegal() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		Hint hint = engine.getHint(model);
+		assertLegal(model, hint);
+	}
+	
+	@Test
+	public void testModelNotChanged() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		long hash = model.getHash();
+		engine.getHint(model);
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(model));
+		assertEquals(hash, model.getHash());
+	}
+	
+	@Test
+	public void testDeadline() throws Exception {
+		engine.setDeadlineMillis(50);
+		for (int i = 0; i < 10; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model, i);
+			long start = System.nanoTime();
+			Hint hint = engine.getHint(model);
+			long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+			
+			// generous slack for a slow or busy test machine
+			assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 50 + 200);
+			assertLegal(model, hint);
+		}
+	}
+	
+	@Test
+	public void testCached() throws Exception {
+		// with the default settings the deadline cuts the search short, and
+		// the answer is still cached
+		KlondikeModel model = load(TEST_GAME);
+		Hint first = engine.getHint(model);
+		assertTrue(first.getDepth() < HintEngine.DEFAULT_MAX_DEPTH);
+		Hint second = engine.getHint(model);
+		assertEquals(first.getMove(), second.getMove());
+		assertEquals(first.getDepth(), second.getDepth());
+		assertEquals(0L, second.getElapsedNanos());
+		
+		engine.clearCache();
+		assertTrue(engine.getHint(model).getElapsedNanos() > 0L);
+	}
+	
+	@Test
+	public void testSearchDeeper() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		Hint first = engine.getHint(model);
+		
+		// carries on from the cached depth, and caches the deeper answer
+		Hint deeper = engine.searchDeeper(model);
+		assertTrue(deeper.getElapsedNanos() > 0L);
+		assertTrue(deeper.getDepth() >= first.getDepth());
+		assertLegal(model, deeper);
+		Hint cached = engine.getHint(model);
+		assertEquals(0L, cached.getElapsedNanos());
+		assertEquals(deeper.getDepth(), cached.getDepth());
+		assertEquals(deeper.getMove(), cached.getMove());
+		
+		// even with no time at all, the answer is no shallower than before
+		engine.setDeadlineMillis(0);
+		Hint quick = engine.getHint(model);
+		Hint resumed = engine.searchDeeper(model);
+		assertTrue(resumed.getDepth() >= quick.getDepth());
+	}
+	
+	@Test
+	public void testCompleteSearchIsFinal() throws Exception {
+		engine.setDeadlineMillis(10000);
+		engine.setMaxDepth(2);
+		KlondikeModel model = load(TEST_GAME);
+		assertEquals(2, engine.getHint(model).getDepth());
+		Hint again = engine.searchDeeper(model);
+		assertEquals(2, again.getDepth());
+		assertEquals(0L, again.getElapsedNanos());
+	}
+	
+	@Test
+	public void testSettingsClearCache() throws Exception {
+		engine.setDeadlineMillis(10000);
+		engine.setMaxDepth(2);
+		KlondikeModel model = load(TEST_GAME);
+		assertEquals(2, engine.getHint(model).getDepth());
+		assertEquals(0L, engine.getHint(model).getElapsedNanos());
+		
+		// a deeper limit searches again, rather than returning the shallow answer
+		engine.setMaxDepth(3);
+		Hint deeper = engine.getHint(model);
+		assertEquals(3, deeper.getDepth());
+		assertTrue(deeper.getElapsedNanos() > 0L);
+		assertEquals(0L, engine.getHint(model).getElapsedNanos());
+		
+		engine.setDeadlineMillis(5000);
+		assertTrue(engine.getHint(model).getElapsedNanos() > 0L);
+	}
+	
+	@Test
+	public void testFindsWin() throws Exception {
+		KlondikeModel model = load(ONE_MOVE_FROM_WIN);
+		Hint hint = engine.getHint(model);
+		assertTrue(hint.isWinning());
+		assertEquals(Move.encode(LocationType.TABLEAU_PILE, 0, 0, LocationType.FOUNDATION_PILE, 3), hint.getMove());
+		assertLegal(model, hint);
+	}
+	
+	@Test
+	public void testMaxDepth() throws Exception {
+		engine.setMaxDepth(2);
+		Hint hint = engine.getHint(load(TEST_GAME));
+		assertTrue(hint.getDepth() <= 2);
+	}
+	
+	@Test
+	public void testNoMove() throws Exception {
+		// a won game has nothing left to play
+		KlondikeModel model = load(ONE_MOVE_FROM_WIN);
+		controller.makeMove(model, engine.getHint(model).getMove(), new UndoLog());
+		assertTrue(controller.isWin(model));
+		assertFalse(engine.getHint(model).hasMove());
+	}
+	
+	@Test
+	public void testGameState() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		GameState state = GameState.fromModel(model);
+		Hint hint = engine.getHint(state);
+		assertLegal(model, hint);
+		assertNotNull(state.makeMove(hint.getMove()));
+	}
+}
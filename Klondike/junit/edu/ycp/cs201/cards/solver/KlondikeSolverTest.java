@@ -0,0 +1,123 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.Rank;
+import edu.ycp.cs201.cards.StringifyGameState;
+import edu.ycp.cs201.cards.Suit;
+import edu.ycp.cs201.cards.UndoLog;
+
+public class KlondikeSolverTest {
+	@Rule
+	public Timeout globalTimeout = Timeout.millis(30000); // 30 seconds
+	
+	// game states from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	private static final String WINNING_GAME = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFGH!00000000!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	private KlondikeSolver solver;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+		solver = new KlondikeSolver(1L << 20);
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	// check that the moves are legal and win the game
+	private void assertWins(KlondikeModel model, int[] moves) {
+		MoveBuffer legal = new MoveBuffer();
+		UndoLog undo = new UndoLog();
+		for (int move : moves) {
+			controller.generateLegalMoves(model, legal);
+			assertTrue(Move.toString(move), legal.contains(move));
+			controller.makeMove(model, move, undo);
+		}
+		assertTrue(controller.isWin(model));
+	}
+	
+	@Test
+	public void testSolveTestGame() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		SolverResult result = solver.solve(model);
+		assertEquals(Outcome.WIN, result.getOutcome());
+		assertTrue(result.getNumMoves() > 0);
+		
+		// the model passed to the solver should not have changed
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(model));
+		
+		assertWins(model, result.getMoves());
+	}
+	
+	@Test
+	public void testSolveDealtGames() throws Exception {
+		solver.setMaxNodes(100000);
+		for (int i = 0; i < 10; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model);
+			SolverResult result = solver.solve(model);
+			if (result.getOutcome() == Outcome.WIN) {
+				assertWins(model, result.getMoves());
+			}
+		}
+	}
+	
+	@Test
+	public void testSolveWonGame() throws Exception {
+		SolverResult result = solver.solve(load(WINNING_GAME));
+		assertEquals(Outcome.WIN, result.getOutcome());
+		assertEquals(0, result.getNumMoves());
+	}
+	
+	@Test
+	public void testSolveBlockedGame() throws Exception {
+		// The ace of clubs is face-down under the two of clubs, and
+		// the rest of the clubs are in a single tableau pile:
+		// no moves are possible
+		KlondikeModel model = new KlondikeModel();
+		for (int i = 1; i < 4; i++) {
+			for (Rank rank : Rank.values()) {
+				model.getFoundationPile(i).addCard(Card.of(rank, Suit.values()[i]));
+			}
+		}
+		model.getTableauPile(0).addCard(Card.of(Rank.ACE, Suit.CLUBS));
+		model.getTableauPile(0).addCard(Card.of(Rank.TWO, Suit.CLUBS));
+		model.getTableauPile(0).setExposeIndex(1);
+		for (int r = Rank.THREE.ordinal(); r <= Rank.KING.ordinal(); r++) {
+			model.getTableauPile(1).addCard(Card.of(Rank.values()[r], Suit.CLUBS));
+		}
+		model.getWastePile().setExposeIndex(52);
+		
+		SolverResult result = solver.solve(model);
+		assertEquals(Outcome.LOSS, result.getOutcome());
+		assertEquals(0, result.getNumMoves());
+	}
+	
+	@Test
+	public void testNodeLimit() throws Exception {
+		solver.setMaxNodes(1);
+		SolverResult result = solver.solve(load(TEST_GAME));
+		assertEquals(Outcome.UNKNOWN, result.getOutcome());
+		assertEquals(1, result.getNodes());
+	}
+}
@@ -0,0 +1,135 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.StringifyGameState;
+import edu.ycp.cs201.cards.UndoLog;
+
+public class ParallelKlondikeSolverTest {
+	@Rule
+	public Timeout globalTimeout = Timeout.millis(30000); // 30 seconds
+	
+	// game states from KlondikeControllerTest
+	private static final String TEST_GAME = "00000023G-NE,(MS')=TR#Q0IPB82A%D!" +
+			"00000053!00000000\"!00000000/!00000000!00000000!000000001J!00000001<4&?!" +
+			"00000002L+6!0000000397OU:!00000004H.>KF!00000000!00000006$5@C*;3";
+	private static final String WINNING_GAME = "00000000!00000053!00000000\"#$%&'()*+,-.!" +
+			"00000000/0123456789:;!00000000IJKLMNOPQRSTU!00000000<=>?@ABCDEFGH!00000000!00000000!" +
+			"00000000!00000000!00000000!00000000!00000000";
+	
+	private KlondikeController controller;
+	private ParallelKlondikeSolver solver;
+	
+	@Before
+	public void setUp() {
+		controller = new KlondikeController();
+		solver = new ParallelKlondikeSolver(new ForkJoinPool(4), 1L << 20);
+	}
+	
+	@After
+	public void tearDown() {
+		solver.shutdown();
+	}
+	
+	private static KlondikeModel load(String state) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, state);
+		return model;
+	}
+	
+	// check that the moves are legal and win the game
+	private void assertWins(KlondikeModel model, int[] moves) {
+		MoveBuffer legal = new MoveBuffer();
+		UndoLog undo = new UndoLog();
+		for (int move : moves) {
+			controller.generateLegalMoves(model, legal);
+			assertTrue(Move.toString(move), legal.contains(move));
+			controller.makeMove(model, move, undo);
+		}
+		assertTrue(controller.isWin(model));
+	}
+	
+	@Test
+	public void testSolveTestGame() throws Exception {
+		KlondikeModel model = load(TEST_GAME);
+		SolverResult result = solver.solve(model);
+		assertEquals(Outcome.WIN, result.getOutcome());
+		assertTrue(result.getNumMoves() > 0);
+		
+		// the model passed to the solver should not have changed
+		assertEquals(TEST_GAME, StringifyGameState.modelToString(model));
+		
+		assertWins(model, result.getMoves());
+	}
+	
+	@Test
+	public void testSolveWonGame() throws Exception {
+		SolverResult result = solver.solve(load(WINNING_GAME));
+		assertEquals(Outcome.WIN, result.getOutcome());
+		assertEquals(0, result.getNumMoves());
+	}
+	
+	@Test
+	public void testAgreesWithSingleThreadedSolver() throws Exception {
+		KlondikeSolver single = new KlondikeSolver(1L << 20);
+		single.setMaxNodes(100000);
+		solver.setMaxNodes(400000);
+		for (int i = 0; i < 10; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model);
+			SolverResult expected = single.solve(model);
+			SolverResult actual = solver.solve(model);
+			if (actual.getOutcome() == Outcome.WIN) {
+				assertWins(load(StringifyGameState.modelToString(model)), actual.getMoves());
+			}
+			if (expected.getOutcome() == Outcome.WIN) {
+				assertTrue(actual.getOutcome() != Outcome.LOSS);
+			} else if (expected.getOutcome() == Outcome.LOSS) {
+				assertTrue(actual.getOutcome() != Outcome.WIN);
+			}
+		}
+	}
+	
+	@Test
+	public void testNoSplitMatchesSingleThreadedSolver() throws Exception {
+		// with a split depth of 0, the whole game is one task, searched
+		// exactly as the single-threaded solver searches it
+		KlondikeSolver single = new KlondikeSolver(1L << 20);
+		single.setMaxNodes(20000);
+		solver.setMaxNodes(20000);
+		solver.setSplitDepth(0);
+		for (int i = 0; i < 5; i++) {
+			KlondikeModel model = new KlondikeModel();
+			controller.initModel(model);
+			SolverResult expected = single.solve(model);
+			SolverResult actual = solver.solve(model);
+			assertEquals(expected.getOutcome(), actual.getOutcome());
+			assertEquals(expected.getNodes(), actual.getNodes());
+		}
+	}
+	
+	@Test
+	public void testNodeLimit() throws Exception {
+		solver.setMaxNodes(1);
+		SolverResult result = solver.solve(load(TEST_GAME));
+		assertEquals(Outcome.UNKNOWN, result.getOutcome());
+		assertEquals(1, result.getNodes());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeSplitDepth() throws Exception {
+		solver.setSplitDepth(-1);
+	}
+}
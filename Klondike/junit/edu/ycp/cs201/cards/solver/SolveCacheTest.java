@@ -0,0 +1,241 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.PackedGameState;
+import edu.ycp.cs201.cards.Pile;
+
+public class SolveCacheTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private KlondikeController controller;
+	private Path path;
+	
+	@Before
+	public void setUp() throws Exception {
+		controller = new KlondikeController();
+		path = folder.getRoot().toPath().resolve("solved.bin");
+	}
+	
+	private KlondikeModel deal(long dealNumber) {
+		KlondikeModel model = new KlondikeModel();
+		controller.initModel(model, dealNumber);
+		return model;
+	}
+	
+	private static void assertSummary(SolveSummary expected, SolveSummary actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getOutcome(), actual.getOutcome());
+		assertEquals(expected.getNumMoves(), actual.getNumMoves());
+		assertEquals(expected.getNodes(), actual.getNodes());
+		assertEquals(expected.getElapsedNanos(), actual.getElapsedNanos());
+	}
+	
+	@Test
+	public void testPutGet() throws Exception {
+		SolveSummary won = new SolveSummary(Outcome.WIN, 117, 52000L, 3000000L);
+		try (SolveCache cache = new SolveCache(path)) {
+			assertNull(cache.get(deal(1)));
+			assertTrue(cache.put(deal(1), won));
+			assertSummary(won, cache.get(deal(1)));
+			assertNull(cache.get(deal(2)));
+			assertEquals(1, cache.size());
+		}
+		assertEquals(SolveCache.HEADER_SIZE + SolveCache.RECORD_SIZE, Files.size(path));
+	}
+	
+	@Test
+	public void testReopen() throws Exception {
+		try (SolveCache cache = new SolveCache(path)) {
+			for (int i = 0; i < 100; i++) {
+				cache.put(deal(i), new SolveSummary(Outcome.values()[i % 3], i, i * 10L, i * 100L));
+			}
+		}
+		try (SolveCache cache = new SolveCache(path)) {
+			assertEquals(100, cache.size());
+			for (int i = 0; i < 100; i++) {
+				assertSummary(new SolveSummary(Outcome.values()[i % 3], i, i * 10L, i * 100L), cache.get(deal(i)));
+			}
+		}
+	}
+	
+	@Test
+	public void testReplace() throws Exception {
+		SolveSummary unknown = new SolveSummary(Outcome.UNKNOWN, 0, 1000L, 10L);
+		SolveSummary lost = new SolveSummary(Outcome.LOSS, 0, 90000L, 900L);
+		try (SolveCache cache = new SolveCache(path)) {
+			assertTrue(cache.put(deal(3), unknown));
+			assertTrue(cache.put(deal(3), lost));
+			assertSummary(lost, cache.get(deal(3)));
+			
+			// an unknown outcome never replaces a known one
+			assertFalse(cache.put(deal(3), unknown));
+			assertSummary(lost, cache.get(deal(3)));
+			assertEquals(1, cache.size());
+		}
+		try (SolveCache cache = new SolveCache(path)) {
+			assertSummary(lost, cache.get(deal(3)));
+		}
+	}
+	
+	@Test
+	public void testGetOrSolve() throws Exception {
+		KlondikeSolver solver = new KlondikeSolver(1L << 20);
+		solver.setMaxNodes(20000);
+		KlondikeModel model = deal(5);
+		try (SolveCache cache = new SolveCache(path)) {
+			SolveSummary first = cache.getOrSolve(solver, model);
+			SolveSummary second = cache.getOrSolve(solver, model);
+			assertSame(first, second);
+		}
+		try (SolveCache cache = new SolveCache(path)) {
+			SolverResult result = solver.solve(model);
+			SolveSummary cached = cache.get(model);
+			assertEquals(result.getOutcome(), cached.getOutcome());
+			assertEquals(result.getNumMoves(), cached.getNumMoves());
+			assertEquals(result.getNodes(), cached.getNodes());
+		}
+	}
+	
+	@Test
+	public void testUnknownSolvedAgain() throws Exception {
+		KlondikeSolver small = new KlondikeSolver(1L << 20);
+		small.setMaxNodes(10);
+		KlondikeSolver large = new KlondikeSolver(1L << 20);
+		large.setMaxNodes(20000);
+		try (SolveCache cache = new SolveCache(path)) {
+			// a deal the larger budget can decide
+			KlondikeModel model = null;
+			for (long i = 0; model == null; i++) {
+				if (large.solve(deal(i)).getOutcome() != Outcome.UNKNOWN) {
+					model = deal(i);
+				}
+			}
+			SolveSummary unknown = cache.getOrSolve(small, model);
+			assertEquals(Outcome.UNKNOWN, unknown.getOutcome());
+			
+			// no more positions to search: the stored result stands
+			assertSame(unknown, cache.getOrSolve(small, model));
+			
+			// a larger budget solves it again, and the answer is stored
+			SolveSummary known = cache.getOrSolve(large, model);
+			assertNotEquals(Outcome.UNKNOWN, known.getOutcome());
+			assertSummary(known, cache.get(model));
+			assertSame(known, cache.getOrSolve(small, model));
+		}
+	}
+	
+	@Test
+	public void testFrontCacheBounded() throws Exception {
+		try (SolveCache cache = new SolveCache(path, 10, false)) {
+			for (int i = 0; i < 50; i++) {
+				cache.put(deal(i), new SolveSummary(Outcome.WIN, i, 0L, 0L));
+			}
+			assertEquals(10, cache.frontSize());
+			
+			// evicted results are read back from the file
+			for (int i = 0; i < 50; i++) {
+				assertEquals(i, cache.get(deal(i)).getNumMoves());
+			}
+			assertEquals(10, cache.frontSize());
+		}
+	}
+	
+	@Test
+	public void testConcurrentReader() throws Exception {
+		try (SolveCache writer = new SolveCache(path)) {
+			writer.put(deal(1), new SolveSummary(Outcome.WIN, 1, 0L, 0L));
+			try (SolveCache reader = new SolveCache(path, 100, true)) {
+				assertEquals(1, reader.size());
+				writer.put(deal(2), new SolveSummary(Outcome.LOSS, 0, 0L, 0L));
+				writer.put(deal(1), new SolveSummary(Outcome.WIN, 2, 0L, 0L));
+				
+				// the reader sees the new records after refreshing
+				assertNull(reader.get(deal(2)));
+				reader.refresh();
+				assertEquals(Outcome.LOSS, reader.get(deal(2)).getOutcome());
+				assertEquals(2, reader.get(deal(1)).getNumMoves());
+				
+				try {
+					reader.put(deal(3), new SolveSummary(Outcome.WIN, 1, 0L, 0L));
+					fail();
+				} catch (IOException e) {
+					// expected
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testUncommittedTail() throws Exception {
+		try (SolveCache cache = new SolveCache(path)) {
+			cache.put(deal(1), new SolveSummary(Outcome.WIN, 1, 0L, 0L));
+		}
+		
+		// a record written without its count being updated, as if interrupted
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(file.length());
+			file.write(new byte[SolveCache.RECORD_SIZE / 2]);
+		}
+		try (SolveCache cache = new SolveCache(path)) {
+			assertEquals(1, cache.size());
+			cache.put(deal(2), new SolveSummary(Outcome.LOSS, 0, 0L, 0L));
+		}
+		assertEquals(SolveCache.HEADER_SIZE + 2 * SolveCache.RECORD_SIZE, Files.size(path));
+		try (SolveCache cache = new SolveCache(path)) {
+			assertEquals(2, cache.size());
+			assertEquals(Outcome.LOSS, cache.get(deal(2)).getOutcome());
+		}
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNotCacheFile() throws Exception {
+		Files.write(path, new byte[100]);
+		new SolveCache(path).close();
+	}
+	
+	@Test
+	public void testPackedKey() throws Exception {
+		// any model holding the same deal finds the same result
+		try (SolveCache cache = new SolveCache(path)) {
+			cache.put(deal(7), new SolveSummary(Outcome.WIN, 99, 0L, 0L));
+			KlondikeModel copy = new KlondikeModel();
+			PackedGameState.fromModel(deal(7)).toModel(copy);
+			assertEquals(99, cache.get(copy).getNumMoves());
+			assertEquals(99, cache.get(SolveCache.keyOf(deal(7))).getNumMoves());
+		}
+	}
+	
+	@Test
+	public void testEquivalentDeals() throws Exception {
+		// the same deal with two tableau piles swapped has the same result
+		KlondikeModel model = deal(8);
+		KlondikeModel swapped = deal(8);
+		Pile scratch = new Pile();
+		swapped.getTableauPile(2).moveTopTo(scratch, 3);
+		swapped.getTableauPile(5).moveTopTo(swapped.getTableauPile(2), 6);
+		scratch.moveTopTo(swapped.getTableauPile(5), 3);
+		swapped.getTableauPile(2).setExposeIndex(5);
+		swapped.getTableauPile(5).setExposeIndex(2);
+		assertFalse(PackedGameState.fromModel(model).equals(PackedGameState.fromModel(swapped)));
+		
+		try (SolveCache cache = new SolveCache(path)) {
+			cache.put(model, new SolveSummary(Outcome.WIN, 88, 0L, 0L));
+			assertEquals(88, cache.get(swapped).getNumMoves());
+			assertEquals(SolveCache.keyOf(model), SolveCache.keyOf(swapped));
+		}
+	}
+}
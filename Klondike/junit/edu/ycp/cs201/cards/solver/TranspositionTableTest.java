@@ -0,0 +1,48 @@
+package edu.ycp.cs201.cards.solver;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TranspositionTableTest {
+	private TranspositionTable table;
+	
+	@Before
+	public void setUp() {
+		table = new TranspositionTable(8 * 1024);
+	}
+	
+	@Test
+	public void testCapacity() throws Exception {
+		assertEquals(1024, table.capacity());
+		assertEquals(1 << 20, new TranspositionTable(8L << 20).capacity());
+	}
+	
+	@Test
+	public void testVisit() throws Exception {
+		assertFalse(table.visit(12345L));
+		assertTrue(table.visit(12345L));
+		assertFalse(table.visit(0L));
+		assertTrue(table.visit(0L));
+		assertEquals(2, table.size());
+	}
+	
+	@Test
+	public void testClear() throws Exception {
+		table.visit(42L);
+		table.clear();
+		assertEquals(0, table.size());
+		assertFalse(table.visit(42L));
+	}
+	
+	@Test
+	public void testFullTableStillWorks() throws Exception {
+		// adding more positions than the table can hold replaces old ones
+		for (long h = 1; h <= 10000; h++) {
+			table.visit(h * 0x9E3779B97F4A7C15L);
+		}
+		assertTrue(table.size() <= table.capacity());
+		assertTrue(table.visit(10000 * 0x9E3779B97F4A7C15L));
+	}
+}
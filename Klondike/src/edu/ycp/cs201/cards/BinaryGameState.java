@@ -0,0 +1,207 @@
+package edu.ycp.cs201.cards;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Convert the game state (as stored in the {@link KlondikeModel})
+ * to and from fixed-size binary records in a {@link ByteBuffer}, for
+ * sending over the network or storing in large numbers.</p>
+ * 
+ * <p>Every record is {@link #RECORD_SIZE} bytes long, laid out as follows
+ * (with the piles in the same order as in {@link StringifyGameState}:
+ * main deck, waste pile, foundation piles 0-3, tableau piles 0-6):
+ * <ul>
+ *   <li>13 bytes: the number of cards in each pile</li>
+ *   <li>26 bytes: the expose index of each pile, as a big-endian signed
+ *   16-bit value</li>
+ *   <li>52 bytes: the card ids (see {@link Card#getId()}) of each pile,
+ *   bottom to top, one pile after another; unused bytes are 0xFF</li>
+ * </ul>
+ * The byte order of the buffer is ignored.  A record holds everything the
+ * string form does, so a state converts losslessly between the two, as long
+ * as every expose index is between -32768 and 32767 (every expose index the
+ * game itself uses is).</p>
+ */
+public class BinaryGameState {
+	/** The size of a record, in bytes. */
+	public static final int RECORD_SIZE = 13 + 13 * 2 + Card.NUM_CARDS;
+	
+	private static final int EXPOSE_OFFSET = KlondikeModel.NUM_PILES;
+	private static final int CARDS_OFFSET = EXPOSE_OFFSET + KlondikeModel.NUM_PILES * 2;
+	private static final byte UNUSED = (byte) 0xFF;
+	
+	/**
+	 * Write the game state stored in the given {@link KlondikeModel} object
+	 * at the buffer's current position, and advance the position past it.
+	 * 
+	 * @param model the game state
+	 * @param buf   the buffer to write to
+	 * @throws BufferOverflowException if fewer than {@link #RECORD_SIZE} bytes remain
+	 * @throws IllegalArgumentException if the game state cannot be stored
+	 *         (more than 52 cards, or an expose index out of range)
+	 */
+	public static void modelToBuffer(KlondikeModel model, ByteBuffer buf) {
+		if (buf.remaining() < RECORD_SIZE) {
+			throw new BufferOverflowException();
+		}
+		modelToBuffer(model, buf, buf.position());
+		buf.position(buf.position() + RECORD_SIZE);
+	}
+	
+	/**
+	 * Write the game state stored in the given {@link KlondikeModel} object
+	 * at the given index of a buffer, without changing the buffer's position.
+	 * 
+	 * @param model the game state
+	 * @param buf   the buffer to write to
+	 * @param index the index of the record's first byte
+	 * @throws IndexOutOfBoundsException if the record does not fit below the buffer's limit
+	 * @throws IllegalArgumentException if the game state cannot be stored
+	 *         (more than 52 cards, or an expose index out of range)
+	 */
+	public static void modelToBuffer(KlondikeModel model, ByteBuffer buf, int index) {
+		checkIndex(buf, index);
+		
+		// check everything first, so that a bad state never leaves a partial record
+		int totalCards = 0;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			Pile pile = model.getPile(p);
+			totalCards += pile.getNumCards();
+			int exposeIndex = pile.getExposeIndex();
+			if (exposeIndex < Short.MIN_VALUE || exposeIndex > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Expose index " + exposeIndex + " out of range for a binary game state");
+			}
+		}
+		if (totalCards > Card.NUM_CARDS) {
+			throw new IllegalArgumentException("Too many cards for a binary game state");
+		}
+		
+		int card = index + CARDS_OFFSET;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			Pile pile = model.getPile(p);
+			int numCards = pile.getNumCards();
+			int exposeIndex = pile.getExposeIndex();
+			buf.put(index + p, (byte) numCards);
+			buf.put(index + EXPOSE_OFFSET + 2 * p, (byte) (exposeIndex >> 8));
+			buf.put(index + EXPOSE_OFFSET + 2 * p + 1, (byte) exposeIndex);
+			for (int i = 0; i < numCards; i++) {
+				buf.put(card++, (byte) pile.getCardId(i));
+			}
+		}
+		int end = index + RECORD_SIZE;
+		while (card < end) {
+			buf.put(card++, UNUSED);
+		}
+	}
+	
+	/**
+	 * Read a game state from the buffer's current position, store it to the
+	 * given {@link KlondikeModel} object, and advance the position past it.
+	 * The model object must be empty (contain only empty {@link Pile}s).
+	 * 
+	 * @param model an empty {@link KlondikeModel} object
+	 * @param buf   the buffer to read from
+	 * @throws BufferUnderflowException if fewer than {@link #RECORD_SIZE} bytes remain
+	 * @throws IllegalArgumentException if the record is not a valid game state
+	 */
+	public static void bufferToModel(KlondikeModel model, ByteBuffer buf) {
+		if (buf.remaining() < RECORD_SIZE) {
+			throw new BufferUnderflowException();
+		}
+		bufferToModel(model, buf, buf.position());
+		buf.position(buf.position() + RECORD_SIZE);
+	}
+	
+	/**
+	 * Read a game state from the given index of a buffer, without changing
+	 * the buffer's position, and store it to the given {@link KlondikeModel} object.
+	 * The model object must be empty (contain only empty {@link Pile}s).
+	 * Since the buffer's position is not used, any number of threads can
+	 * read records from the same buffer at once.
+	 * 
+	 * @param model an empty {@link KlondikeModel} object
+	 * @param buf   the buffer to read from
+	 * @param index the index of the record's first byte
+	 * @throws IndexOutOfBoundsException if the record does not fit below the buffer's limit
+	 * @throws IllegalArgumentException if the record is not a valid game state
+	 */
+	public static void bufferToModel(KlondikeModel model, ByteBuffer buf, int index) {
+		checkIndex(buf, index);
+		int card = index + CARDS_OFFSET;
+		int end = card + Card.NUM_CARDS;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			Pile pile = model.getPile(p);
+			if (!pile.isEmpty()) {
+				throw new IllegalArgumentException("Pile must be empty");
+			}
+			int numCards = buf.get(index + p) & 0xFF;
+			if (numCards > end - card) {
+				throw new IllegalArgumentException("Invalid game state data (too many cards)");
+			}
+			for (int i = 0; i < numCards; i++) {
+				int cardId = buf.get(card++) & 0xFF;
+				if (cardId >= Card.NUM_CARDS) {
+					throw new IllegalArgumentException("Byte " + cardId + " doesn't correspond to a legal Card");
+				}
+				pile.addCardId(cardId);
+			}
+			int hi = buf.get(index + EXPOSE_OFFSET + 2 * p);
+			int lo = buf.get(index + EXPOSE_OFFSET + 2 * p + 1) & 0xFF;
+			pile.setExposeIndex((hi << 8) | lo);
+		}
+	}
+	
+	/**
+	 * Convert a game state from the string form (see
+	 * {@link StringifyGameState#modelToString(KlondikeModel)}) to a record,
+	 * written at the buffer's current position.
+	 * 
+	 * @param s   the encoded game state
+	 * @param buf the buffer to write to
+	 */
+	public static void stringToBuffer(CharSequence s, ByteBuffer buf) {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, s);
+		modelToBuffer(model, buf);
+	}
+	
+	/**
+	 * Convert a record, read from the buffer's current position, to the
+	 * string form (see {@link StringifyGameState#modelToString(KlondikeModel)}).
+	 * 
+	 * @param buf the buffer to read from
+	 * @return the encoded game state
+	 */
+	public static String bufferToString(ByteBuffer buf) {
+		KlondikeModel model = new KlondikeModel();
+		bufferToModel(model, buf);
+		return StringifyGameState.modelToString(model);
+	}
+	
+	/**
+	 * @param model the game state
+	 * @return a new array holding the game state's record
+	 */
+	public static byte[] modelToBytes(KlondikeModel model) {
+		byte[] bytes = new byte[RECORD_SIZE];
+		modelToBuffer(model, ByteBuffer.wrap(bytes), 0);
+		return bytes;
+	}
+	
+	/**
+	 * @param model an empty {@link KlondikeModel} object
+	 * @param bytes an array holding a record
+	 */
+	public static void bytesToModel(KlondikeModel model, byte[] bytes) {
+		bufferToModel(model, ByteBuffer.wrap(bytes), 0);
+	}
+	
+	private static void checkIndex(ByteBuffer buf, int index) {
+		if (index < 0 || index > buf.limit() - RECORD_SIZE) {
+			throw new IndexOutOfBoundsException("No room for a record at index " + index);
+		}
+	}
+
+}
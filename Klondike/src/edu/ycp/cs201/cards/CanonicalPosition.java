@@ -0,0 +1,139 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * <p>Canonical form of a game state, in which positions that differ only
+ * in where piles sit are the same.  Which tableau pile holds which stack
+ * of cards, and which foundation pile holds which suit, make no difference
+ * to play (any card that can move to one pile can move to another holding
+ * the same cards), so a search or a cache of results can treat all such
+ * arrangements as one position.</p>
+ * 
+ * <p>In canonical form, foundation pile <i>i</i> holds the cards of the
+ * <i>i</i>th {@link Suit} (if any of them have been played), and the
+ * non-empty tableau piles are sorted by the id of their bottom card
+ * (every card is in only one pile, so no two bottom cards are the same),
+ * followed by the empty tableau piles.  The main deck and waste pile are
+ * unchanged.</p>
+ * 
+ * <p>{@link #hash(KlondikeModel)} computes the hash of the canonical form
+ * without building it, from the hashes the piles maintain as cards move
+ * (see {@link Pile#getHash()}), so it costs little more than
+ * {@link KlondikeModel#getHash()}.</p>
+ */
+public class CanonicalPosition {
+	private static final int NUM_FOUNDATIONS = 4;
+	private static final int NUM_TABLEAU = 7;
+	
+	private CanonicalPosition() {
+	}
+	
+	/**
+	 * Get the 64-bit hash of a game state's canonical form.  Two game
+	 * states that differ only in the order of their tableau piles and the
+	 * order of their foundation piles have the same hash; otherwise their
+	 * hashes differ (except for the very unlikely chance of a collision).
+	 * 
+	 * @param model the game state
+	 * @return the hash of the canonical form
+	 */
+	public static long hash(KlondikeModel model) {
+		long hash = model.getMainDeck().getHash() ^ model.getWastePile().getHash();
+		
+		// a foundation pile is identified by its top card, wherever it is
+		for (int i = 0; i < NUM_FOUNDATIONS; i++) {
+			Pile foundation = model.getFoundationPile(i);
+			if (!foundation.isEmpty()) {
+				hash ^= ZobristKeys.card(ZobristKeys.FIRST_FOUNDATION_SLOT, 0,
+						foundation.getCardId(foundation.getNumCards() - 1));
+			}
+		}
+		
+		// combine the tableau piles so that their order does not matter:
+		// scrambling each pile's hash before adding keeps different piles
+		// from cancelling out card keys at the same positions
+		long tableau = 0L;
+		for (int i = 0; i < NUM_TABLEAU; i++) {
+			long pileHash = ZobristKeys.unrotate(ZobristKeys.FIRST_TABLEAU_SLOT + i, model.getTableauPile(i).getHash());
+			tableau += ZobristKeys.mix(pileHash);
+		}
+		return hash ^ tableau;
+	}
+	
+	/**
+	 * Rearrange the piles of a game state into canonical form.
+	 * 
+	 * @param model the game state
+	 */
+	public static void canonicalize(KlondikeModel model) {
+		// foundation piles by suit
+		Pile[] held = new Pile[NUM_FOUNDATIONS];
+		int[] exposeIndexes = new int[NUM_TABLEAU];
+		for (int i = 0; i < NUM_FOUNDATIONS; i++) {
+			Pile foundation = model.getFoundationPile(i);
+			if (!foundation.isEmpty()) {
+				int suit = foundation.getCardId(0) / 13;
+				held[suit] = new Pile();
+				foundation.moveTopTo(held[suit], foundation.getNumCards());
+				exposeIndexes[suit] = foundation.getExposeIndex();
+			}
+		}
+		for (int suit = 0; suit < NUM_FOUNDATIONS; suit++) {
+			if (held[suit] != null) {
+				Pile foundation = model.getFoundationPile(suit);
+				held[suit].moveTopTo(foundation, held[suit].getNumCards());
+				foundation.setExposeIndex(exposeIndexes[suit]);
+			}
+		}
+		
+		// tableau piles by bottom card (insertion sort, on pile numbers)
+		int[] order = new int[NUM_TABLEAU];
+		int numNonEmpty = 0;
+		for (int i = 0; i < NUM_TABLEAU; i++) {
+			if (!model.getTableauPile(i).isEmpty()) {
+				int bottom = model.getTableauPile(i).getCardId(0);
+				int j = numNonEmpty++;
+				while (j > 0 && model.getTableauPile(order[j - 1]).getCardId(0) > bottom) {
+					order[j] = order[j - 1];
+					j--;
+				}
+				order[j] = i;
+			}
+		}
+		for (int i = 0, j = numNonEmpty; i < NUM_TABLEAU; i++) {
+			if (model.getTableauPile(i).isEmpty()) {
+				order[j++] = i;
+			}
+		}
+		Pile[] columns = new Pile[NUM_TABLEAU];
+		for (int i = 0; i < NUM_TABLEAU; i++) {
+			Pile tableau = model.getTableauPile(i);
+			columns[i] = new Pile();
+			tableau.moveTopTo(columns[i], tableau.getNumCards());
+			exposeIndexes[i] = tableau.getExposeIndex();
+		}
+		for (int i = 0; i < NUM_TABLEAU; i++) {
+			Pile tableau = model.getTableauPile(i);
+			Pile column = columns[order[i]];
+			column.moveTopTo(tableau, column.getNumCards());
+			tableau.setExposeIndex(exposeIndexes[order[i]]);
+		}
+	}
+	
+	/**
+	 * Check whether two game states have the same canonical form.
+	 * 
+	 * @param a a game state
+	 * @param b another game state
+	 * @return true if the game states are the same apart from the order
+	 *         of their tableau piles and foundation piles
+	 */
+	public static boolean equivalent(KlondikeModel a, KlondikeModel b) {
+		KlondikeModel ca = new KlondikeModel();
+		KlondikeModel cb = new KlondikeModel();
+		PackedGameState.fromModel(a).toModel(ca);
+		PackedGameState.fromModel(b).toModel(cb);
+		canonicalize(ca);
+		canonicalize(cb);
+		return PackedGameState.fromModel(ca).equals(PackedGameState.fromModel(cb));
+	}
+}
@@ -2,10 +2,29 @@ package edu.ycp.cs201.cards;
 
 /**
  * Class representing a playing card.
+ * 
+ * Each card has an id in the range 0..51, computed as
+ * <code>suit.ordinal()*13 + rank.ordinal()</code>.  The canonical
+ * instance for each id can be obtained with {@link #byId(int)} or
+ * {@link #of(Rank, Suit)}, so code that deals with many cards
+ * does not need to allocate new ones.
  */
 public class Card implements Comparable<Card> {
-	private Rank rank;
-	private Suit suit;
+	/** Number of distinct cards (and card ids). */
+	public static final int NUM_CARDS = 52;
+	
+	private static final Card[] CARDS = new Card[NUM_CARDS];
+	static {
+		Suit[] suits = Suit.values();
+		Rank[] ranks = Rank.values();
+		for (int i = 0; i < NUM_CARDS; i++) {
+			CARDS[i] = new Card(ranks[i%13], suits[i/13]);
+		}
+	}
+	
+	private final Rank rank;
+	private final Suit suit;
+	private final int id;
 	
 	/**
 	 * Constructor.
@@ -16,6 +35,32 @@ public class Card implements Comparable<Card> {
 	public Card(Rank rank, Suit suit) {
 		this.rank = rank;
 		this.suit = suit;
+		this.id = suit.ordinal()*13 + rank.ordinal();
+	}
+	
+	/**
+	 * Get the canonical {@link Card} with the given rank and suit.
+	 * 
+	 * @param rank the card's rank
+	 * @param suit the card's suit
+	 * @return the canonical {@link Card}
+	 */
+	public static Card of(Rank rank, Suit suit) {
+		return CARDS[suit.ordinal()*13 + rank.ordinal()];
+	}
+	
+	/**
+	 * Get the canonical {@link Card} with the given id.
+	 * 
+	 * @param id the card id (in the range 0..51)
+	 * @return the canonical {@link Card}
+	 * @throws IllegalArgumentException if the id is not in the range 0..51
+	 */
+	public static Card byId(int id) {
+		if (id < 0 || id >= NUM_CARDS) {
+			throw new IllegalArgumentException("Invalid card id " + id);
+		}
+		return CARDS[id];
 	}
 
 	/**
@@ -32,6 +77,13 @@ public class Card implements Comparable<Card> {
 		return suit;
 	}
 	
+	/**
+	 * @return the card's id (in the range 0..51)
+	 */
+	public int getId() {
+		return id;
+	}
+	
 	@Override
 	public String toString() {
 		return rank.toString() + suit.toString();
@@ -43,15 +95,17 @@ public class Card implements Comparable<Card> {
 			return false;
 		}
 		Card other = (Card) obj;
-		return this.compareTo(other) == 0;
+		return this.id == other.id;
+	}
+	
+	@Override
+	public int hashCode() {
+		return id;
 	}
 	
 	@Override
 	public int compareTo(Card o) {
-		int cmp = this.suit.compareTo(o.suit);
-		if (cmp != 0) {
-			return cmp;
-		}
-		return this.rank.compareTo(o.rank);
+		// ids are ordered by suit, then by rank
+		return this.id - o.id;
 	}
 }
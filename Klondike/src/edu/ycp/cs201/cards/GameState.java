@@ -0,0 +1,280 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * <p>An immutable snapshot of a game of Klondike: the same piles as a
+ * {@link KlondikeModel}, held in {@link ImmutablePile}s.  Each action
+ * ({@link #draw()}, {@link #move(Location, Location)},
+ * {@link #makeMove(int)}) returns a new version and leaves this one as
+ * it was.  The new version shares every pile the action did not change
+ * with this one, so an action costs time and memory in proportion to the
+ * piles it changes, never a copy of the whole game.</p>
+ * 
+ * <p>Since a version never changes, any number of threads can read it
+ * without locking: a view painting the game, a hint engine searching
+ * from it, and an autosave writing it out all see a consistent state,
+ * while play goes on by making new versions.  To share the latest
+ * version between threads, publish it through a <code>volatile</code>
+ * field or an <code>AtomicReference</code>.</p>
+ * 
+ * <p>The rules are those of {@link KlondikeController}, and each action
+ * gives the same result as the controller method it is named after.</p>
+ */
+public final class GameState {
+	private static final int MAIN = 0;
+	private static final int WASTE = 1;
+	private static final int FOUNDATION = 2;
+	private static final int TABLEAU = 6;
+	
+	private final ImmutablePile[] piles;
+	
+	// the array is owned by the new state and must never be changed
+	private GameState(ImmutablePile[] piles) {
+		this.piles = piles;
+	}
+	
+	/**
+	 * @param model a game state
+	 * @return an immutable copy of the game state
+	 */
+	public static GameState fromModel(KlondikeModel model) {
+		ImmutablePile[] piles = new ImmutablePile[KlondikeModel.NUM_PILES];
+		for (int slot = 0; slot < piles.length; slot++) {
+			piles[slot] = ImmutablePile.copyOf(model.getPile(slot), slot);
+		}
+		return new GameState(piles);
+	}
+	
+	/**
+	 * @param dealNumber the deal number (see
+	 *                   {@link KlondikeController#initModel(KlondikeModel, long)})
+	 * @return the initial game state of the deal
+	 */
+	public static GameState deal(long dealNumber) {
+		KlondikeModel model = new KlondikeModel();
+		new KlondikeController().initModel(model, dealNumber);
+		return fromModel(model);
+	}
+	
+	/**
+	 * Store this game state in a {@link KlondikeModel} object,
+	 * which must be empty (contain only empty {@link Pile}s).
+	 * 
+	 * @param model an empty {@link KlondikeModel} object
+	 */
+	public void toModel(KlondikeModel model) {
+		for (int slot = 0; slot < piles.length; slot++) {
+			if (!model.getPile(slot).isEmpty()) {
+				throw new IllegalArgumentException("Pile must be empty");
+			}
+			piles[slot].copyTo(model.getPile(slot));
+		}
+	}
+	
+	/**
+	 * @return a new {@link KlondikeModel} holding this game state
+	 */
+	public KlondikeModel toModel() {
+		KlondikeModel model = new KlondikeModel();
+		toModel(model);
+		return model;
+	}
+	
+	/**
+	 * @return the {@link ImmutablePile} representing the main deck
+	 */
+	public ImmutablePile getMainDeck() {
+		return piles[MAIN];
+	}
+	
+	/**
+	 * @return the {@link ImmutablePile} representing the waste pile
+	 */
+	public ImmutablePile getWastePile() {
+		return piles[WASTE];
+	}
+	
+	/**
+	 * @param index index of a foundation pile (in the range 0..3)
+	 * @return the foundation {@link ImmutablePile}
+	 */
+	public ImmutablePile getFoundationPile(int index) {
+		return piles[FOUNDATION + index];
+	}
+	
+	/**
+	 * @param index index of a tableau pile (in the range 0..6)
+	 * @return the tableau {@link ImmutablePile}
+	 */
+	public ImmutablePile getTableauPile(int index) {
+		return piles[TABLEAU + index];
+	}
+	
+	/**
+	 * @return the Zobrist hash of the game state; the same as
+	 *         {@link KlondikeModel#getHash()} for the same state
+	 */
+	public long getHash() {
+		long hash = 0L;
+		for (int slot = 0; slot < piles.length; slot++) {
+			hash ^= piles[slot].getHash();
+		}
+		return hash;
+	}
+	
+	/**
+	 * @return true if each foundation pile has 13 cards
+	 */
+	public boolean isWin() {
+		for (int i = 0; i < 4; i++) {
+			if (getFoundationPile(i).getNumCards() != 13) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Draw the top card of the main deck onto the waste pile, or recycle
+	 * the waste pile if the main deck is empty (see
+	 * {@link KlondikeController#drawCardOrRecycleWaste(KlondikeModel)}).
+	 * 
+	 * @return the new version (only the main deck and waste pile differ)
+	 */
+	public GameState draw() {
+		ImmutablePile main = piles[MAIN];
+		ImmutablePile waste = piles[WASTE];
+		if (!main.isEmpty()) {
+			waste = waste.addTopOf(main, 1);
+			main = main.removeTop(1);
+		} else {
+			main = main.addReversed(waste);
+			waste = waste.removeTop(waste.getNumCards());
+		}
+		if (!main.isEmpty()) {
+			main = main.withExposeIndex(main.getIndexOfTopCard());
+		}
+		return with(MAIN, main, WASTE, waste);
+	}
+	
+	/**
+	 * Move the card or cards at a source {@link Location} to a destination,
+	 * if that is legal: the same as {@link KlondikeController#select(KlondikeModel, Location)},
+	 * {@link KlondikeController#allowMove(KlondikeModel, Selection, Location)} and
+	 * {@link KlondikeController#moveCards(KlondikeModel, Selection, Location)}.
+	 * 
+	 * @param source the {@link Location} of the card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @return the new version (only the source and destination piles differ),
+	 *         or null if the move is not legal
+	 */
+	public GameState move(Location source, Location dest) {
+		if (!allowMove(source, dest)) {
+			return null;
+		}
+		return apply(slot(source.getLocationType(), source.getPileIndex()), source.getCardIndex(),
+				slot(dest.getLocationType(), dest.getPileIndex()));
+	}
+	
+	/**
+	 * Make a move, as generated by
+	 * {@link KlondikeController#generateLegalMoves(KlondikeModel, MoveBuffer)}
+	 * for the same game state.  Like
+	 * {@link KlondikeController#makeMove(KlondikeModel, int, UndoLog)}, this
+	 * assumes the move is legal; undoing it is just a matter of keeping
+	 * the previous version.
+	 * 
+	 * @param move the encoded move (see {@link Move})
+	 * @return the new version
+	 */
+	public GameState makeMove(int move) {
+		if (move == Move.DRAW) {
+			return draw();
+		}
+		return apply(slot(Move.getSourceType(move), Move.getSourcePile(move)), Move.getCardIndex(move),
+				slot(Move.getDestType(move), Move.getDestPile(move)));
+	}
+	
+	/**
+	 * The same check as {@link KlondikeController#allowMove(KlondikeModel, Location, Location)}.
+	 * 
+	 * @param source the {@link Location} of the card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @return true if the move is legal
+	 */
+	public boolean allowMove(Location source, Location dest) {
+		ImmutablePile src;
+		if (source.getLocationType() == LocationType.MAIN_DECK) {
+			src = piles[MAIN];
+			if (src.isEmpty() || source.getCardIndex() != src.getIndexOfTopCard()) {
+				return false;
+			}
+		} else if (source.getLocationType() == LocationType.TABLEAU_PILE) {
+			src = getTableauPile(source.getPileIndex());
+			if (source.getCardIndex() >= src.getNumCards() || source.getCardIndex() < Math.max(0, src.getExposeIndex())) {
+				return false;
+			}
+			if (dest.getLocationType() == LocationType.TABLEAU_PILE && dest.getPileIndex() == source.getPileIndex()) {
+				return false;
+			}
+		} else {
+			// can't move cards from the waste or foundation piles
+			return false;
+		}
+		
+		int cardId = src.getCardId(source.getCardIndex());
+		if (dest.getLocationType() == LocationType.FOUNDATION_PILE) {
+			return source.getCardIndex() == src.getIndexOfTopCard()
+					&& MoveRules.canMoveToFoundation(cardId, getFoundationPile(dest.getPileIndex()).getTopCardId());
+		}
+		if (dest.getLocationType() == LocationType.TABLEAU_PILE) {
+			return MoveRules.canMoveToTableau(cardId, getTableauPile(dest.getPileIndex()).getTopCardId());
+		}
+		return false;
+	}
+	
+	/**
+	 * @param index a slot (see {@link KlondikeModel#getPile(int)})
+	 * @return the pile in the slot
+	 */
+	ImmutablePile getPile(int index) {
+		return piles[index];
+	}
+	
+	// move the cards from the given index up, and expose the new top card
+	// of the source pile, as KlondikeController.moveCards does
+	private GameState apply(int sourceSlot, int cardIndex, int destSlot) {
+		ImmutablePile src = piles[sourceSlot];
+		int numCards = src.getNumCards() - cardIndex;
+		ImmutablePile dest = piles[destSlot].addTopOf(src, numCards);
+		src = src.removeTop(numCards);
+		if (sourceSlot >= TABLEAU) {
+			if (src.getExposeIndex() > src.getNumCards() - 1) {
+				src = src.withExposeIndex(src.getNumCards() - 1);
+			}
+		} else {
+			src = src.withExposeIndex(src.getNumCards() - 1);
+		}
+		return with(sourceSlot, src, destSlot, dest);
+	}
+	
+	// a new version with two piles replaced, sharing the rest
+	private GameState with(int slot1, ImmutablePile pile1, int slot2, ImmutablePile pile2) {
+		ImmutablePile[] next = piles.clone();
+		next[slot1] = pile1;
+		next[slot2] = pile2;
+		return new GameState(next);
+	}
+	
+	private static int slot(LocationType type, int pileIndex) {
+		switch (type) {
+		case MAIN_DECK:
+			return MAIN;
+		case WASTE_PILE:
+			return WASTE;
+		case FOUNDATION_PILE:
+			return FOUNDATION + pileIndex;
+		default:
+			return TABLEAU + pileIndex;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package edu.ycp.cs201.cards;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable pile of {@link Card}s, one of the piles of a
+ * {@link GameState}.  It has the same accessors as {@link Pile}, but
+ * every change makes a new pile, leaving this one as it was, so a pile
+ * can be shared by any number of game states and read by any number of
+ * threads without locking.
+ * 
+ * Like a {@link Pile} in a {@link KlondikeModel}, an immutable pile
+ * knows its slot in the game state, and has the same Zobrist hash as a
+ * {@link Pile} with the same cards and expose index in the same slot.
+ */
+public final class ImmutablePile {
+	private static final byte[] NO_CARDS = new byte[0];
+	
+	private final byte[] cards;
+	private final int exposeIndex;
+	private final int slot;
+	private final long hash;
+	
+	// the array is owned by the new pile and must never be changed
+	private ImmutablePile(byte[] cards, int exposeIndex, int slot) {
+		this.cards = cards;
+		this.exposeIndex = exposeIndex;
+		this.slot = slot;
+		long hash = 0L;
+		for (int i = 0; i < cards.length; i++) {
+			hash ^= ZobristKeys.card(slot, i, cards[i]);
+			if (i >= exposeIndex) {
+				hash ^= ZobristKeys.faceUp(slot, i);
+			}
+		}
+		this.hash = hash;
+	}
+	
+	/**
+	 * @param slot the slot (see {@link KlondikeModel#getPile(int)})
+	 * @return an empty pile with expose index 0
+	 */
+	static ImmutablePile empty(int slot) {
+		return new ImmutablePile(NO_CARDS, 0, slot);
+	}
+	
+	/**
+	 * @param pile a {@link Pile}
+	 * @param slot the slot (see {@link KlondikeModel#getPile(int)})
+	 * @return an immutable copy of the pile
+	 */
+	static ImmutablePile copyOf(Pile pile, int slot) {
+		byte[] cards = new byte[pile.getNumCards()];
+		for (int i = 0; i < cards.length; i++) {
+			cards[i] = (byte) pile.getCardId(i);
+		}
+		return new ImmutablePile(cards, pile.getExposeIndex(), slot);
+	}
+	
+	/**
+	 * Add this pile's cards to a (mutable) {@link Pile}, and set its
+	 * expose index.
+	 * 
+	 * @param pile an empty {@link Pile}
+	 */
+	void copyTo(Pile pile) {
+		for (int i = 0; i < cards.length; i++) {
+			pile.addCardId(cards[i]);
+		}
+		pile.setExposeIndex(exposeIndex);
+	}
+	
+	/**
+	 * @return the expose index
+	 */
+	public int getExposeIndex() {
+		return exposeIndex;
+	}
+	
+	/**
+	 * @return the number of {@link Card}s in the pile
+	 */
+	public int getNumCards() {
+		return cards.length;
+	}
+	
+	/**
+	 * @return true if the pile is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return cards.length == 0;
+	}
+	
+	/**
+	 * Get the {@link Card} whose index is given.
+	 * 
+	 * @param index the index of the card to get
+	 * @return the {@link Card} at the index
+	 * @throws NoSuchElementException if the index does not refer to a valid card
+	 */
+	public Card getCard(int index) {
+		return Card.byId(getCardId(index));
+	}
+	
+	/**
+	 * Get the id of the card whose index is given.
+	 * 
+	 * @param index the index of the card
+	 * @return the id of the card at the index
+	 * @throws NoSuchElementException if the index does not refer to a valid card
+	 */
+	public int getCardId(int index) {
+		if (index < 0 || index >= cards.length) {
+			throw new NoSuchElementException("No card at index " + index);
+		}
+		return cards[index];
+	}
+	
+	/**
+	 * @return the {@link Card} on top of the pile
+	 * @throws NoSuchElementException if the pile is empty
+	 */
+	public Card getTopCard() {
+		return getCard(cards.length - 1);
+	}
+	
+	/**
+	 * @return the index of the top {@link Card}, or -1 if the pile is empty
+	 */
+	public int getIndexOfTopCard() {
+		return cards.length - 1;
+	}
+	
+	/**
+	 * @return the id of the top card, or -1 if the pile is empty
+	 */
+	int getTopCardId() {
+		return cards.length == 0 ? -1 : cards[cards.length - 1];
+	}
+	
+	/**
+	 * @return the Zobrist hash of the pile's contents
+	 */
+	public long getHash() {
+		return hash;
+	}
+	
+	/**
+	 * @param exposeIndex the new expose index
+	 * @return a pile with the same cards and the given expose index
+	 *         (this pile, if the expose index is unchanged)
+	 */
+	ImmutablePile withExposeIndex(int exposeIndex) {
+		if (exposeIndex == this.exposeIndex) {
+			return this;
+		}
+		return new ImmutablePile(cards, exposeIndex, slot);
+	}
+	
+	/**
+	 * @param numCards the number of cards to remove from the top
+	 * @return a pile without the top cards, with the same expose index
+	 * @throws IllegalArgumentException if the pile does not have enough cards
+	 */
+	ImmutablePile removeTop(int numCards) {
+		if (numCards < 0 || numCards > cards.length) {
+			throw new IllegalArgumentException("Not enough cards in pile");
+		}
+		byte[] remaining = new byte[cards.length - numCards];
+		System.arraycopy(cards, 0, remaining, 0, remaining.length);
+		return new ImmutablePile(remaining, exposeIndex, slot);
+	}
+	
+	/**
+	 * @param from     the pile to take cards from
+	 * @param numCards the number of cards from the top of that pile to add,
+	 *                 keeping their order
+	 * @return a pile with the cards added on top, with the same expose index
+	 */
+	ImmutablePile addTopOf(ImmutablePile from, int numCards) {
+		byte[] added = new byte[cards.length + numCards];
+		System.arraycopy(cards, 0, added, 0, cards.length);
+		System.arraycopy(from.cards, from.cards.length - numCards, added, cards.length, numCards);
+		return new ImmutablePile(added, exposeIndex, slot);
+	}
+	
+	/**
+	 * @param from the pile whose cards to add, in reverse order
+	 * @return a pile holding this pile's cards with those of the other
+	 *         pile on top, top card first (as drawing them one at a time would)
+	 */
+	ImmutablePile addReversed(ImmutablePile from) {
+		byte[] added = new byte[cards.length + from.cards.length];
+		System.arraycopy(cards, 0, added, 0, cards.length);
+		for (int i = 0; i < from.cards.length; i++) {
+			added[cards.length + i] = from.cards[from.cards.length - 1 - i];
+		}
+		return new ImmutablePile(added, exposeIndex, slot);
+	}
+}
@@ -1,7 +1,5 @@
 package edu.ycp.cs201.cards;
 
-import java.util.ArrayList;
-
 /**
  * The controller class implements all of the logic required to
  * play a game of Klondike.  All of the data is represented
@@ -37,14 +35,39 @@ public class KlondikeController {
 		//shuffle deck
 		model.getMainDeck().shuffle();
 		
+		deal(model);
+	}
+	
+	/**
+	 * Initialize the model object with a numbered deal, as
+	 * {@link #initModel(KlondikeModel)} does but shuffling the
+	 * main deck with a {@link SplitMix64} generator seeded from
+	 * the deal number.  The same deal number always gives the
+	 * same layout, on any thread or machine, so a game can be
+	 * replayed or shared by its number.
+	 * 
+	 * @param model      the {@link KlondikeModel} object to initialize
+	 * @param dealNumber the deal number
+	 */
+	public void initModel(KlondikeModel model, long dealNumber) {
+		
+		//populate deck
+		model.getMainDeck().populate();
+		
+		//shuffle deck; mixing the deal number keeps nearby numbers unrelated
+		model.getMainDeck().shuffle(new SplitMix64(SplitMix64.mix(dealNumber)));
+		
+		deal(model);
+	}
+	
+	//deal the shuffled main deck and set the expose indexes
+	private void deal(KlondikeModel model) {
+		
 		//deal to tableau piles 0-6
 		for(int i=1; i<8; i++) {
 			
-			//put number of cards to transfer in a List 
-			ArrayList<Card> transferPile = model.getMainDeck().removeCards(i);
-			
-			//add the List to the next tableau index
-			model.getTableauPile(i-1).addCards(transferPile);
+			//move the top i cards of the main deck to the next tableau index
+			model.getMainDeck().moveTopTo(model.getTableauPile(i-1), i);
 		}
 		
 		
@@ -114,8 +137,8 @@ public class KlondikeController {
 		//location is main, which is populated
 		if(location.getLocationType()==LocationType.MAIN_DECK) {
 			if(!model.getMainDeck().isEmpty() && location.getCardIndex() == model.getMainDeck().getIndexOfTopCard()) {
-				//add top card from model to transfer
-				transfer.addCards(model.getMainDeck().removeCards(1));
+				//move top card from model to transfer
+				model.getMainDeck().moveTopTo(transfer, 1);
 			}
 			else {
 				return null;
@@ -128,8 +151,8 @@ public class KlondikeController {
 			//if card index is less than number of cards in the pile
 			if(location.getCardIndex() < model.getTableauPile(location.getPileIndex()).getNumCards() && location.getCardIndex() >= model.getTableauPile(location.getPileIndex()).getExposeIndex()) {
 			
-				//add cards to be transfered to the pile
-				transfer.addCards(model.getTableauPile(location.getPileIndex()).removeCards(model.getTableauPile(location.getPileIndex()).getNumCards()-location.getCardIndex()));
+				//move cards to be transfered to the pile
+				model.getTableauPile(location.getPileIndex()).moveTopTo(transfer, model.getTableauPile(location.getPileIndex()).getNumCards()-location.getCardIndex());
 			}
 			else {
 				return null;
@@ -142,8 +165,8 @@ public class KlondikeController {
 			return null;
 		}
 		
-		//make the selection
-		Selection select = new Selection(location,transfer.removeCards(transfer.getNumCards()));
+		//make the selection (which takes over the transfer pile)
+		Selection select = new Selection(location,transfer);
 		
 		//return
 		return select;
@@ -164,16 +187,16 @@ public class KlondikeController {
 		//location is main
 		if(selection.getOrigin().getLocationType() == LocationType.MAIN_DECK) {
 			
-			//add cards back to og location
-			model.getMainDeck().addCards(selection.getCards());
+			//move cards back to og location
+			selection.getPile().moveTopTo(model.getMainDeck(), selection.getNumCards());
 			
 		}
 		
 		//location is tableau
 		else if(selection.getOrigin().getLocationType() == LocationType.TABLEAU_PILE) {
 			
-			//add cards back to og location
-			model.getTableauPile(selection.getOrigin().getPileIndex()).addCards(selection.getCards());
+			//move cards back to og location
+			selection.getPile().moveTopTo(model.getTableauPile(selection.getOrigin().getPileIndex()), selection.getNumCards());
 			
 		}
 	}
@@ -222,74 +245,78 @@ public class KlondikeController {
 	 * @return true if the move is legal, false if the move is not legal
 	 */
 	public boolean allowMove(KlondikeModel model, Selection selection, Location dest) {
-		
-		//if destination is foundation pile
-		if(dest.getLocationType() == LocationType.FOUNDATION_PILE) {
-			
-			//does selection has a single card
-			if(selection.getNumCards() == 1) {
-				
-				//if the foundation pile is empty
-				if(model.getFoundationPile(dest.getPileIndex()).isEmpty()) {
-					
-					//if the single card is an Ace
-					if(selection.getCards().get(0).getRank() == Rank.ACE) {
-						
-						//allow move
-						return true;
-					}
-				}
-				
-				//foundation pile is populated
-				else {
-					//if selection suit == top foundation's suit
-					if(selection.getCards().get(0).getSuit() == model.getFoundationPile(dest.getPileIndex()).getCard(model.getFoundationPile(dest.getPileIndex()).getNumCards()-1).getSuit()) {
-						
-						//if rank of selection is 1 greater than  top foundation's rank
-						if(selection.getCards().get(0).getRank().ordinal() == 1 + model.getFoundationPile(dest.getPileIndex()).getCard(model.getFoundationPile(dest.getPileIndex()).getNumCards()-1).getRank().ordinal()) {
-							
-							//allow move
-							return true;
-						}
-					}
-				}
+		return allowMove(model, selection.getPile().getCardId(0), selection.getNumCards(), dest);
+	}
+	
+	/**
+	 * <p>Determine whether it would be legal to move the card or cards
+	 * indicated by a source {@link Location} to a destination {@link Location},
+	 * without creating a {@link Selection}.  This is equivalent to calling
+	 * {@link #select(KlondikeModel, Location)} followed by
+	 * {@link #allowMove(KlondikeModel, Selection, Location)} (and then
+	 * {@link #unselect(KlondikeModel, Selection)}), except that the model
+	 * is never modified and no objects are allocated.</p>
+	 * 
+	 * <p>Moving cards from a tableau pile back onto the same tableau pile
+	 * is not considered legal.</p>
+	 * 
+	 * @param model  the {@link KlondikeModel}
+	 * @param source the {@link Location} specifying which card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @return true if the move is legal, false if the move is not legal
+	 */
+	public boolean allowMove(KlondikeModel model, Location source, Location dest) {
+		//find the pile the cards would be selected from
+		Pile src;
+		if(source.getLocationType() == LocationType.MAIN_DECK) {
+			src = model.getMainDeck();
+			if(src.isEmpty() || source.getCardIndex() != src.getIndexOfTopCard()) {
+				return false;
 			}
 		}
-		
-		//if destination is tableau
-		if(dest.getLocationType() == LocationType.TABLEAU_PILE) {
-			
-			//is dest populated?
-			if(model.getTableauPile(dest.getPileIndex()).isEmpty())
-				//if dest tableau is empty, king must be bottom in selection
-				if(selection.getCards().get(0).getRank() == Rank.KING) {
-					
-					//allow move
-					return true;
-				}
-			
-			//dest of tableau is populated
-			else {
-				
-				//color of bottom selection is not equal to top card of tableau
-				if(selection.getCards().get(0).getSuit().getColor() != model.getTableauPile(dest.getPileIndex()).getCard(model.getTableauPile(dest.getPileIndex()).getIndexOfTopCard()).getSuit().getColor()) {
-					
-					//if rank of selection is 1 greater than  top tableau's rank
-					if(selection.getCards().get(0).getRank().ordinal()  == 1 - model.getTableauPile(dest.getPileIndex()).getCard(model.getTableauPile(dest.getPileIndex()).getIndexOfTopCard()).getRank().ordinal()) {
-						
-						//allow move
-						return true;
-					}
-				}
+		else if(source.getLocationType() == LocationType.TABLEAU_PILE) {
+			src = model.getTableauPile(source.getPileIndex());
+			if(source.getCardIndex() >= src.getNumCards() || source.getCardIndex() < Math.max(0, src.getExposeIndex())) {
+				return false;
+			}
+			if(dest.getLocationType() == LocationType.TABLEAU_PILE && dest.getPileIndex() == source.getPileIndex()) {
+				return false;
 			}
 		}
-		
-		//if destination is waste or main
-		if(dest.getLocationType() == LocationType.MAIN_DECK || dest.getLocationType() == LocationType.WASTE_PILE) {
+		//can't move cards from the waste or foundation piles
+		else {
 			return false;
 		}
 		
-		//if no tests pass, fail
+		return allowMove(model, src.getCardId(source.getCardIndex()), src.getNumCards() - source.getCardIndex(), dest);
+	}
+	
+	/**
+	 * Determine whether it would be legal to move a given number of cards,
+	 * the bottom one of which has the given card id, to a destination
+	 * {@link Location}.  This checks the same rules as
+	 * {@link #allowMove(KlondikeModel, Selection, Location)}, but doesn't
+	 * check where the cards come from, which lets a caller ask about
+	 * cards that are not (yet) selectable, such as cards deeper in the main deck.
+	 * 
+	 * @param model        the {@link KlondikeModel}
+	 * @param bottomCardId the id of the bottom card being moved (see {@link Card#getId()})
+	 * @param numCards     the number of cards being moved
+	 * @param dest         the destination {@link Location}
+	 * @return true if the move is legal, false if the move is not legal
+	 */
+	public boolean allowMove(KlondikeModel model, int bottomCardId, int numCards, Location dest) {
+		//foundation pile: a single card, ace on empty or next card of the same suit
+		if(dest.getLocationType() == LocationType.FOUNDATION_PILE) {
+			return numCards == 1 && MoveRules.canMoveToFoundation(bottomCardId, model.getFoundationPile(dest.getPileIndex()));
+		}
+		
+		//tableau pile: king on empty, or opposite color and one rank lower
+		if(dest.getLocationType() == LocationType.TABLEAU_PILE) {
+			return MoveRules.canMoveToTableau(bottomCardId, model.getTableauPile(dest.getPileIndex()));
+		}
+		
+		//destination is waste or main
 		return false;
 	}
 
@@ -319,11 +346,11 @@ public class KlondikeController {
 		
 		//if dest is foundation 
 		if(dest.getLocationType() == LocationType.FOUNDATION_PILE) {
-			model.getFoundationPile(dest.getPileIndex()).addCards(selection.getCards());
+			selection.getPile().moveTopTo(model.getFoundationPile(dest.getPileIndex()), selection.getNumCards());
 		}
 		//dest is tableau
 		else if(dest.getLocationType() == LocationType.TABLEAU_PILE) {
-			model.getTableauPile(dest.getPileIndex()).addCards(selection.getCards());	
+			selection.getPile().moveTopTo(model.getTableauPile(dest.getPileIndex()), selection.getNumCards());
 		}
 		
 		//if origin was tableau
@@ -392,6 +419,192 @@ public class KlondikeController {
 		
 	}
 
+	/**
+	 * <p>Find every legal move in the current game state and add it to
+	 * the given {@link MoveBuffer} (see {@link Move} for how moves are
+	 * encoded).  The buffer is cleared first.  The model is not modified
+	 * and no objects are allocated (as long as the buffer has enough room).</p>
+	 * 
+	 * <p>The moves generated are:
+	 * <ul>
+	 *   <li>{@link Move#DRAW}, if the main deck or the waste pile is non-empty</li>
+	 *   <li>the top card of the main deck to any foundation or tableau pile
+	 *   where {@link #allowMove(KlondikeModel, Selection, Location)} would allow it</li>
+	 *   <li>any exposed card of a tableau pile (along with the cards on top of it)
+	 *   to any other tableau pile where it would be allowed</li>
+	 *   <li>the top card of a tableau pile to any foundation pile where it would be allowed</li>
+	 * </ul>
+	 * </p>
+	 * 
+	 * @param model the {@link KlondikeModel}
+	 * @param moves the {@link MoveBuffer} to store the legal moves in
+	 */
+	public void generateLegalMoves(KlondikeModel model, MoveBuffer moves) {
+		moves.clear();
+		
+		//drawing is legal as long as there are cards to draw or recycle
+		Pile main = model.getMainDeck();
+		if(!main.isEmpty() || !model.getWastePile().isEmpty()) {
+			moves.add(Move.DRAW);
+		}
+		
+		//top card of the main deck
+		if(!main.isEmpty()) {
+			int top = main.getIndexOfTopCard();
+			int cardId = main.getCardId(top);
+			for(int j=0; j<4; j++) {
+				if(MoveRules.canMoveToFoundation(cardId, model.getFoundationPile(j))) {
+					moves.add(Move.encode(LocationType.MAIN_DECK, 0, top, LocationType.FOUNDATION_PILE, j));
+				}
+			}
+			for(int j=0; j<7; j++) {
+				if(MoveRules.canMoveToTableau(cardId, model.getTableauPile(j))) {
+					moves.add(Move.encode(LocationType.MAIN_DECK, 0, top, LocationType.TABLEAU_PILE, j));
+				}
+			}
+		}
+		
+		//exposed cards of the tableau piles
+		for(int i=0; i<7; i++) {
+			Pile src = model.getTableauPile(i);
+			if(src.isEmpty()) {
+				continue;
+			}
+			
+			//top card can go to a foundation pile
+			int top = src.getIndexOfTopCard();
+			int topId = src.getCardId(top);
+			for(int j=0; j<4; j++) {
+				if(MoveRules.canMoveToFoundation(topId, model.getFoundationPile(j))) {
+					moves.add(Move.encode(LocationType.TABLEAU_PILE, i, top, LocationType.FOUNDATION_PILE, j));
+				}
+			}
+			
+			//any exposed card (and the cards on top of it) can go to another tableau pile
+			for(int k=Math.max(0, src.getExposeIndex()); k<=top; k++) {
+				int cardId = src.getCardId(k);
+				for(int j=0; j<7; j++) {
+					if(j != i && MoveRules.canMoveToTableau(cardId, model.getTableauPile(j))) {
+						moves.add(Move.encode(LocationType.TABLEAU_PILE, i, k, LocationType.TABLEAU_PILE, j));
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>Make a move (as generated by {@link #generateLegalMoves(KlondikeModel, MoveBuffer)})
+	 * and record it in an {@link UndoLog}, so that it can later be reverted by
+	 * {@link #unmakeMove(KlondikeModel, UndoLog)}.</p>
+	 * 
+	 * <p>{@link Move#DRAW} has the same effect as
+	 * {@link #drawCardOrRecycleWaste(KlondikeModel)}, and any other move has the
+	 * same effect as {@link #select(KlondikeModel, Location)} followed by
+	 * {@link #moveCards(KlondikeModel, Selection, Location)}, including
+	 * exposing the new top card of the origin pile.  Like
+	 * {@link #moveCards(KlondikeModel, Selection, Location)}, this method
+	 * assumes that the move is legal.</p>
+	 * 
+	 * @param model the {@link KlondikeModel}
+	 * @param move  the encoded move (see {@link Move})
+	 * @param undo  the {@link UndoLog} to record the move in
+	 */
+	public void makeMove(KlondikeModel model, int move, UndoLog undo) {
+		Pile main = model.getMainDeck();
+		
+		if(move == Move.DRAW) {
+			int prevExposeIndex = main.getExposeIndex();
+			if(!main.isEmpty()) {
+				main.moveTopTo(model.getWastePile(), 1);
+				undo.push(move, 1, prevExposeIndex);
+			}
+			else {
+				//recycle: drawing the waste cards one at a time restores their original order
+				Pile waste = model.getWastePile();
+				while(!waste.isEmpty()) {
+					waste.moveTopTo(main, 1);
+				}
+				undo.push(move, -1, prevExposeIndex);
+			}
+			if(!main.isEmpty()) {
+				main.setExposeIndex(main.getIndexOfTopCard());
+			}
+			return;
+		}
+		
+		Pile src = getPile(model, Move.getSourceType(move), Move.getSourcePile(move));
+		Pile dest = getPile(model, Move.getDestType(move), Move.getDestPile(move));
+		int numCards = src.getNumCards() - Move.getCardIndex(move);
+		int prevExposeIndex = src.getExposeIndex();
+		src.moveTopTo(dest, numCards);
+		undo.push(move, numCards, prevExposeIndex);
+		
+		//expose the new top card of the origin pile, as moveCards does
+		if(Move.getSourceType(move) == LocationType.TABLEAU_PILE) {
+			if(src.getExposeIndex() > src.getNumCards() - 1) {
+				src.setExposeIndex(src.getNumCards() - 1);
+			}
+		}
+		else {
+			src.setExposeIndex(src.getNumCards() - 1);
+		}
+	}
+	
+	/**
+	 * Revert the most recent move recorded in an {@link UndoLog} by
+	 * {@link #makeMove(KlondikeModel, int, UndoLog)}, restoring the model
+	 * to exactly the state it was in before the move (including expose indices),
+	 * and remove the move from the log.
+	 * 
+	 * @param model the {@link KlondikeModel}
+	 * @param undo  the {@link UndoLog}
+	 * @throws IllegalStateException if the log is empty
+	 */
+	public void unmakeMove(KlondikeModel model, UndoLog undo) {
+		if(undo.isEmpty()) {
+			throw new IllegalStateException("No moves to undo");
+		}
+		int move = undo.topMove();
+		int numCards = undo.topNumCards();
+		int prevExposeIndex = undo.topPrevExposeIndex();
+		undo.pop();
+		
+		Pile main = model.getMainDeck();
+		if(move == Move.DRAW) {
+			Pile waste = model.getWastePile();
+			if(numCards == 1) {
+				waste.moveTopTo(main, 1);
+			}
+			else {
+				//put the recycled cards back on the waste pile in reverse order
+				while(!main.isEmpty()) {
+					main.moveTopTo(waste, 1);
+				}
+			}
+			main.setExposeIndex(prevExposeIndex);
+			return;
+		}
+		
+		Pile src = getPile(model, Move.getSourceType(move), Move.getSourcePile(move));
+		Pile dest = getPile(model, Move.getDestType(move), Move.getDestPile(move));
+		dest.moveTopTo(src, numCards);
+		src.setExposeIndex(prevExposeIndex);
+	}
+	
+	// get the pile of the given type, with the given index
+	private static Pile getPile(KlondikeModel model, LocationType type, int pileIndex) {
+		switch(type) {
+		case MAIN_DECK:
+			return model.getMainDeck();
+		case WASTE_PILE:
+			return model.getWastePile();
+		case FOUNDATION_PILE:
+			return model.getFoundationPile(pileIndex);
+		default:
+			return model.getTableauPile(pileIndex);
+		}
+	}
+	
 	/**
 	 * Determine if the player has won the game.
 	 * 
@@ -11,6 +11,9 @@ import java.util.ArrayList;
  * is implemented in the {@link KlondikeController} class.
  */
 public class KlondikeModel {
+	/** Number of piles: main deck, waste pile, 4 foundation piles, 7 tableau piles. */
+	static final int NUM_PILES = 13;
+	
 	// TODO: add fields
 	private Pile main;
 	private	Pile discard;
@@ -24,18 +27,18 @@ public class KlondikeModel {
 	 */
 	
 	public KlondikeModel() {
-		main = new Pile();
-		discard = new Pile();
+		main = new Pile(0);
+		discard = new Pile(1);
 		foundation= new Pile[4];
 		tableau= new Pile[7];
 		
 		//initialize each of the 4 foundation piles
 		for(int i=0; i<4; i++) {
-			foundation[i] = new Pile();
+			foundation[i] = new Pile(2 + i);
 		}
 		//initialize each of the 7 tableau piles
 		for(int i=0; i<7; i++) {
-			tableau[i] = new Pile();
+			tableau[i] = new Pile(6 + i);
 		}
 	}
 	
@@ -72,4 +75,46 @@ public class KlondikeModel {
 	public Pile getWastePile() {
 		return discard;
 	}
+	
+	/**
+	 * Get a pile by its slot number: 0 for the main deck, 1 for the
+	 * waste pile, 2-5 for the foundation piles, and 6-12 for the
+	 * tableau piles.
+	 * 
+	 * @param slot the slot number (in the range 0..12)
+	 * @return the {@link Pile}
+	 */
+	Pile getPile(int slot) {
+		if(slot == 0) {
+			return main;
+		}
+		else if(slot == 1) {
+			return discard;
+		}
+		else if(slot < 6) {
+			return foundation[slot - 2];
+		}
+		else {
+			return tableau[slot - 6];
+		}
+	}
+	
+	/**
+	 * Get the 64-bit Zobrist hash of the game state: which card is
+	 * at each position of each pile, and whether it is face-up.
+	 * Each {@link Pile} maintains its part of the hash incrementally,
+	 * so this is cheap to call after every move.
+	 * 
+	 * @return the hash of the game state
+	 */
+	public long getHash() {
+		long hash = main.getHash() ^ discard.getHash();
+		for(int i=0; i<4; i++) {
+			hash ^= foundation[i].getHash();
+		}
+		for(int i=0; i<7; i++) {
+			hash ^= tableau[i].getHash();
+		}
+		return hash;
+	}
 }
@@ -0,0 +1,117 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * Static methods for working with moves encoded as <code>int</code>s,
+ * so that moves can be generated and stored without allocating
+ * objects (see {@link MoveBuffer}).
+ * 
+ * <p>A move consists of a source {@link LocationType}, source pile index,
+ * and card index (the same information as a source {@link Location}),
+ * and a destination {@link LocationType} and pile index.  Drawing a card
+ * (or recycling the waste pile) is encoded as a move whose source and
+ * destination are both {@link LocationType#WASTE_PILE}, since that is what
+ * the user clicks on to draw a card.</p>
+ */
+public final class Move {
+	/** The move that draws a card or recycles the waste pile. */
+	public static final int DRAW = encode(LocationType.WASTE_PILE, 0, 0, LocationType.WASTE_PILE, 0);
+	
+	private static final LocationType[] LOCATION_TYPES = LocationType.values();
+	
+	// bit layout, from low to high:
+	// source type (2), source pile (3), card index (6), dest type (2), dest pile (3)
+	private static final int SOURCE_PILE_SHIFT = 2;
+	private static final int CARD_INDEX_SHIFT = 5;
+	private static final int DEST_TYPE_SHIFT = 11;
+	private static final int DEST_PILE_SHIFT = 13;
+	
+	private Move() {
+	}
+	
+	/**
+	 * Encode a move.
+	 * 
+	 * @param sourceType  the {@link LocationType} of the source pile
+	 * @param sourcePile  the index of the source pile
+	 * @param cardIndex   the index of the (bottom-most) card to move
+	 * @param destType    the {@link LocationType} of the destination pile
+	 * @param destPile    the index of the destination pile
+	 * @return the encoded move
+	 */
+	public static int encode(LocationType sourceType, int sourcePile, int cardIndex, LocationType destType, int destPile) {
+		return sourceType.ordinal()
+				| (sourcePile << SOURCE_PILE_SHIFT)
+				| (cardIndex << CARD_INDEX_SHIFT)
+				| (destType.ordinal() << DEST_TYPE_SHIFT)
+				| (destPile << DEST_PILE_SHIFT);
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return the {@link LocationType} of the move's source pile
+	 */
+	public static LocationType getSourceType(int move) {
+		return LOCATION_TYPES[move & 3];
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return the index of the move's source pile
+	 */
+	public static int getSourcePile(int move) {
+		return (move >>> SOURCE_PILE_SHIFT) & 7;
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return the index of the (bottom-most) card moved from the source pile
+	 */
+	public static int getCardIndex(int move) {
+		return (move >>> CARD_INDEX_SHIFT) & 63;
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return the {@link LocationType} of the move's destination pile
+	 */
+	public static LocationType getDestType(int move) {
+		return LOCATION_TYPES[(move >>> DEST_TYPE_SHIFT) & 3];
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return the index of the move's destination pile
+	 */
+	public static int getDestPile(int move) {
+		return (move >>> DEST_PILE_SHIFT) & 7;
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return a {@link Location} describing the move's source,
+	 *         suitable for {@link KlondikeController#select(KlondikeModel, Location)}
+	 */
+	public static Location toSource(int move) {
+		return new Location(getSourceType(move), getSourcePile(move), getCardIndex(move));
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return a {@link Location} describing the move's destination
+	 */
+	public static Location toDest(int move) {
+		return new Location(getDestType(move), getDestPile(move), -1);
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return a human-readable description of the move
+	 */
+	public static String toString(int move) {
+		if (move == DRAW) {
+			return "DRAW";
+		}
+		return String.format("%s[%d]:%d->%s[%d]", getSourceType(move), getSourcePile(move), getCardIndex(move),
+				getDestType(move), getDestPile(move));
+	}
+}
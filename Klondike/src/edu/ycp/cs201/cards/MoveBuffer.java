@@ -0,0 +1,92 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * A reusable buffer of encoded moves (see {@link Move}).
+ * Clearing and refilling the buffer does not allocate, so
+ * the same buffer can be passed to
+ * {@link KlondikeController#generateLegalMoves(KlondikeModel, MoveBuffer)}
+ * over and over.
+ */
+public class MoveBuffer {
+	private int[] moves;
+	private int size;
+	
+	/**
+	 * Constructor.  Creates an empty buffer with room for
+	 * more moves than are ever legal in a single position.
+	 */
+	public MoveBuffer() {
+		this(128);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity the initial capacity (the buffer grows if needed)
+	 */
+	public MoveBuffer(int capacity) {
+		moves = new int[Math.max(1, capacity)];
+		size = 0;
+	}
+	
+	/**
+	 * Remove all moves from the buffer.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Add an encoded move to the end of the buffer.
+	 * 
+	 * @param move the encoded move
+	 */
+	public void add(int move) {
+		if (size == moves.length) {
+			int[] bigger = new int[moves.length * 2];
+			System.arraycopy(moves, 0, bigger, 0, size);
+			moves = bigger;
+		}
+		moves[size++] = move;
+	}
+	
+	/**
+	 * @return the number of moves in the buffer
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return true if the buffer has no moves, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Get the encoded move at the given index.
+	 * 
+	 * @param index the index (in the range 0..size()-1)
+	 * @return the encoded move
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Move index " + index + " out of range");
+		}
+		return moves[index];
+	}
+	
+	/**
+	 * @param move an encoded move
+	 * @return true if the buffer contains the move, false otherwise
+	 */
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,89 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * Lookup tables, keyed by card id, for the rules that decide whether a
+ * card may be placed on a tableau pile or a foundation pile.  These are
+ * used by {@link KlondikeController} so that checking a move never needs
+ * to look at {@link Rank} or {@link Suit} objects.
+ */
+final class MoveRules {
+	/** Entry [moving*52 + top] is true if card moving can be placed on card top in a tableau pile. */
+	private static final boolean[] STACKS_ON_TABLEAU = new boolean[Card.NUM_CARDS * Card.NUM_CARDS];
+	
+	/** Entry [top] is the id of the card that can be placed on card top in a foundation pile, or -1. */
+	private static final int[] FOUNDATION_SUCCESSOR = new int[Card.NUM_CARDS];
+	
+	/** Entry [id] is true if the card can start a pile (foundation: ace, tableau: king). */
+	private static final boolean[] IS_ACE = new boolean[Card.NUM_CARDS];
+	private static final boolean[] IS_KING = new boolean[Card.NUM_CARDS];
+	
+	static {
+		for (int moving = 0; moving < Card.NUM_CARDS; moving++) {
+			Card m = Card.byId(moving);
+			IS_ACE[moving] = m.getRank() == Rank.ACE;
+			IS_KING[moving] = m.getRank() == Rank.KING;
+			FOUNDATION_SUCCESSOR[moving] = m.getRank() == Rank.KING ? -1 : moving + 1;
+			for (int top = 0; top < Card.NUM_CARDS; top++) {
+				Card t = Card.byId(top);
+				STACKS_ON_TABLEAU[moving * Card.NUM_CARDS + top] =
+						m.getSuit().getColor() != t.getSuit().getColor()
+						&& m.getRank().ordinal() + 1 == t.getRank().ordinal();
+			}
+		}
+	}
+	
+	private MoveRules() {
+	}
+	
+	/**
+	 * @param moving id of the bottom card of the cards being moved
+	 * @param top    id of the top card of the destination tableau pile
+	 * @return true if the moving card has a different color than the top card
+	 *         and a rank one less
+	 */
+	static boolean stacksOnTableau(int moving, int top) {
+		return STACKS_ON_TABLEAU[moving * Card.NUM_CARDS + top];
+	}
+	
+	/**
+	 * @param cardId  id of the bottom card of the cards being moved
+	 * @param tableau the destination tableau pile
+	 * @return true if the card (and the cards on top of it) can be placed on the pile
+	 */
+	static boolean canMoveToTableau(int cardId, Pile tableau) {
+		return canMoveToTableau(cardId, tableau.isEmpty() ? -1 : tableau.getCardId(tableau.getIndexOfTopCard()));
+	}
+	
+	/**
+	 * @param cardId id of the bottom card of the cards being moved
+	 * @param topId  id of the top card of the destination tableau pile, or -1 if it is empty
+	 * @return true if the card (and the cards on top of it) can be placed on the pile
+	 */
+	static boolean canMoveToTableau(int cardId, int topId) {
+		if (topId < 0) {
+			return IS_KING[cardId];
+		}
+		return STACKS_ON_TABLEAU[cardId * Card.NUM_CARDS + topId];
+	}
+	
+	/**
+	 * @param cardId     id of the card being moved
+	 * @param foundation the destination foundation pile
+	 * @return true if the card can be placed on the pile
+	 */
+	static boolean canMoveToFoundation(int cardId, Pile foundation) {
+		return canMoveToFoundation(cardId, foundation.isEmpty() ? -1 : foundation.getCardId(foundation.getIndexOfTopCard()));
+	}
+	
+	/**
+	 * @param cardId id of the card being moved
+	 * @param topId  id of the top card of the destination foundation pile, or -1 if it is empty
+	 * @return true if the card can be placed on the pile
+	 */
+	static boolean canMoveToFoundation(int cardId, int topId) {
+		if (topId < 0) {
+			return IS_ACE[cardId];
+		}
+		return FOUNDATION_SUCCESSOR[topId] == cardId;
+	}
+}
@@ -0,0 +1,257 @@
+package edu.ycp.cs201.cards;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, compact encoding of the game state stored in a
+ * {@link KlondikeModel}, packed into a fixed block of
+ * {@link #NUM_WORDS} longs (64 bytes).  Equality and hash code
+ * are defined on the packed bits, so packed states can be used
+ * directly as keys in hash tables.
+ * 
+ * <p>The bits are laid out as a stream of fields, starting at the
+ * low bit of word 0:</p>
+ * <ul>
+ *   <li>expose index of the main deck and of the waste pile (16 bits each)</li>
+ *   <li>each foundation pile as a card count and a suit (4+2 bits each);
+ *       the cards themselves are implied, since a foundation pile always
+ *       holds an ace through some rank of a single suit</li>
+ *   <li>number of cards in the main deck, the waste pile, and each tableau
+ *       pile (6 bits each)</li>
+ *   <li>expose index (plus one) of each tableau pile (6 bits each)</li>
+ *   <li>card ids of the main deck, the waste pile, and the tableau piles,
+ *       bottom card first (6 bits each)</li>
+ * </ul>
+ * <p>All unused bits are zero.</p>
+ */
+public final class PackedGameState {
+	/** Number of longs in a packed state. */
+	public static final int NUM_WORDS = 8;
+	
+	private static final int EXPOSE_BITS = 16;
+	private static final int COUNT_BITS = 4;
+	private static final int SUIT_BITS = 2;
+	private static final int SIX_BITS = 6;
+	
+	private final long[] words;
+	
+	private PackedGameState(long[] words) {
+		this.words = words;
+	}
+	
+	/**
+	 * Encode the game state stored in the given {@link KlondikeModel}.
+	 * 
+	 * @param model the game state
+	 * @return the packed game state
+	 * @throws IllegalArgumentException if a foundation pile does not hold an
+	 *         ace-up sequence of a single suit, a foundation pile's expose index
+	 *         is not 0, or an expose index is out of the encodable range
+	 */
+	public static PackedGameState fromModel(KlondikeModel model) {
+		BitWriter out = new BitWriter();
+		
+		out.writeSigned(model.getMainDeck().getExposeIndex(), EXPOSE_BITS);
+		out.writeSigned(model.getWastePile().getExposeIndex(), EXPOSE_BITS);
+		for (int i = 0; i < 4; i++) {
+			writeFoundation(out, model.getFoundationPile(i));
+		}
+		
+		out.write(model.getMainDeck().getNumCards(), SIX_BITS);
+		out.write(model.getWastePile().getNumCards(), SIX_BITS);
+		for (int i = 0; i < 7; i++) {
+			out.write(model.getTableauPile(i).getNumCards(), SIX_BITS);
+		}
+		for (int i = 0; i < 7; i++) {
+			int exposeIndex = model.getTableauPile(i).getExposeIndex();
+			if (exposeIndex < -1 || exposeIndex > 62) {
+				throw new IllegalArgumentException("Tableau pile expose index " + exposeIndex + " can't be packed");
+			}
+			out.write(exposeIndex + 1, SIX_BITS);
+		}
+		
+		writeCards(out, model.getMainDeck());
+		writeCards(out, model.getWastePile());
+		for (int i = 0; i < 7; i++) {
+			writeCards(out, model.getTableauPile(i));
+		}
+		
+		return new PackedGameState(out.words);
+	}
+	
+	/**
+	 * Create a packed state from words previously returned by
+	 * {@link #toWords()}.
+	 * 
+	 * @param words array of {@link #NUM_WORDS} longs
+	 * @return the packed game state
+	 */
+	public static PackedGameState fromWords(long[] words) {
+		if (words.length != NUM_WORDS) {
+			throw new IllegalArgumentException("Packed game state must have " + NUM_WORDS + " words");
+		}
+		return new PackedGameState(words.clone());
+	}
+	
+	/**
+	 * @return a copy of the packed words
+	 */
+	public long[] toWords() {
+		return words.clone();
+	}
+	
+	/**
+	 * Get one of the packed words.
+	 * 
+	 * @param index the index of the word (in the range 0..{@link #NUM_WORDS}-1)
+	 * @return the packed word
+	 */
+	public long getWord(int index) {
+		return words[index];
+	}
+	
+	/**
+	 * Decode the packed game state and store it in the given
+	 * {@link KlondikeModel} object, which must be empty (contain
+	 * only empty {@link Pile}s).
+	 * 
+	 * @param model an empty {@link KlondikeModel} object
+	 */
+	public void toModel(KlondikeModel model) {
+		BitReader in = new BitReader(words);
+		
+		model.getMainDeck().setExposeIndex(in.readSigned(EXPOSE_BITS));
+		model.getWastePile().setExposeIndex(in.readSigned(EXPOSE_BITS));
+		for (int i = 0; i < 4; i++) {
+			Pile foundation = emptyPile(model.getFoundationPile(i));
+			int count = in.read(COUNT_BITS);
+			int suit = in.read(SUIT_BITS);
+			for (int rank = 0; rank < count; rank++) {
+				foundation.addCardId(suit*13 + rank);
+			}
+			foundation.setExposeIndex(0);
+		}
+		
+		int mainCount = in.read(SIX_BITS);
+		int wasteCount = in.read(SIX_BITS);
+		int[] tableauCounts = new int[7];
+		for (int i = 0; i < 7; i++) {
+			tableauCounts[i] = in.read(SIX_BITS);
+		}
+		for (int i = 0; i < 7; i++) {
+			model.getTableauPile(i).setExposeIndex(in.read(SIX_BITS) - 1);
+		}
+		
+		readCards(in, emptyPile(model.getMainDeck()), mainCount);
+		readCards(in, emptyPile(model.getWastePile()), wasteCount);
+		for (int i = 0; i < 7; i++) {
+			readCards(in, emptyPile(model.getTableauPile(i)), tableauCounts[i]);
+		}
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null || !(obj instanceof PackedGameState)) {
+			return false;
+		}
+		PackedGameState other = (PackedGameState) obj;
+		return Arrays.equals(this.words, other.words);
+	}
+	
+	@Override
+	public int hashCode() {
+		long h = 0;
+		for (long w : words) {
+			h = (h ^ w) * 0x9E3779B97F4A7C15L;
+		}
+		return (int) (h ^ (h >>> 32));
+	}
+	
+	private static void writeFoundation(BitWriter out, Pile foundation) {
+		int count = foundation.getNumCards();
+		int suit = count > 0 ? foundation.getCardId(0) / 13 : 0;
+		for (int i = 0; i < count; i++) {
+			if (foundation.getCardId(i) != suit*13 + i) {
+				throw new IllegalArgumentException("Foundation pile is not an ace-up sequence of one suit");
+			}
+		}
+		if (foundation.getExposeIndex() != 0) {
+			throw new IllegalArgumentException("Foundation pile expose index must be 0");
+		}
+		out.write(count, COUNT_BITS);
+		out.write(suit, SUIT_BITS);
+	}
+	
+	private static void writeCards(BitWriter out, Pile pile) {
+		for (int i = 0; i < pile.getNumCards(); i++) {
+			out.write(pile.getCardId(i), SIX_BITS);
+		}
+	}
+	
+	private static void readCards(BitReader in, Pile pile, int count) {
+		for (int i = 0; i < count; i++) {
+			pile.addCardId(in.read(SIX_BITS));
+		}
+	}
+	
+	private static Pile emptyPile(Pile pile) {
+		if (!pile.isEmpty()) {
+			throw new IllegalArgumentException("Pile must be empty");
+		}
+		return pile;
+	}
+	
+	/**
+	 * Writes unsigned fields into consecutive bits of a long array.
+	 */
+	private static class BitWriter {
+		final long[] words = new long[NUM_WORDS];
+		int pos;
+		
+		void write(int value, int numBits) {
+			long v = value & ((1L << numBits) - 1);
+			int word = pos >>> 6;
+			int shift = pos & 63;
+			words[word] |= v << shift;
+			if (shift + numBits > 64) {
+				words[word + 1] |= v >>> (64 - shift);
+			}
+			pos += numBits;
+		}
+		
+		void writeSigned(int value, int numBits) {
+			if (value < -(1 << (numBits - 1)) || value >= (1 << (numBits - 1))) {
+				throw new IllegalArgumentException("Expose index " + value + " can't be packed");
+			}
+			write(value, numBits);
+		}
+	}
+	
+	/**
+	 * Reads fields written by a {@link BitWriter}.
+	 */
+	private static class BitReader {
+		final long[] words;
+		int pos;
+		
+		BitReader(long[] words) {
+			this.words = words;
+		}
+		
+		int read(int numBits) {
+			int word = pos >>> 6;
+			int shift = pos & 63;
+			long v = words[word] >>> shift;
+			if (shift + numBits > 64) {
+				v |= words[word + 1] << (64 - shift);
+			}
+			pos += numBits;
+			return (int) (v & ((1L << numBits) - 1));
+		}
+		
+		int readSigned(int numBits) {
+			int v = read(numBits);
+			return (v << (32 - numBits)) >> (32 - numBits);
+		}
+	}
+}
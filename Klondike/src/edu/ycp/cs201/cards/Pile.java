@@ -1,9 +1,9 @@
 package edu.ycp.cs201.cards;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Class to represent a pile of {@link Card}s.
@@ -14,11 +14,23 @@ import java.util.NoSuchElementException;
  * Each pile has an "expose index": all cards whose
  * indices are greater than or equal to the expose index
  * are face-up, and all other cards are face-down.
+ * 
+ * Internally, the cards are stored as a fixed-size array of
+ * card ids (see {@link Card#getId()}), since a pile can never
+ * hold more than 52 cards.  The canonical {@link Card} objects
+ * are returned by the accessor methods.
+ * 
+ * A pile that belongs to a {@link KlondikeModel} also maintains a
+ * Zobrist hash of its contents (which card is at each position,
+ * and whether it is face-up), updated incrementally as cards are
+ * added, removed, and exposed.
  */
 public class Pile {
-	// TODO: add fields
-	private ArrayList<Card> pile;
+	private final byte[] cards;
+	private int numCards;
 	private int exposeIndex;
+	private final int slot;
+	private long hash;
 	
 	/**
 	 * Constructor.  The pile will be empty initially,
@@ -26,8 +38,21 @@ public class Pile {
 	 */
 	
 	public Pile() {
-		pile = new ArrayList<Card>();
+		this(-1);
+	}
+	
+	/**
+	 * Constructor for a pile that occupies a slot in a {@link KlondikeModel}.
+	 * 
+	 * @param slot the pile's slot (in the range 0..12), or -1 if the pile
+	 *             is not part of a model and should not maintain a hash
+	 */
+	Pile(int slot) {
+		cards = new byte[Card.NUM_CARDS];
+		numCards = 0;
 		exposeIndex = 0;
+		this.slot = slot;
+		hash = 0L;
 	}
 
 	/**
@@ -45,9 +70,25 @@ public class Pile {
 	 */
 	
 	public void setExposeIndex(int exposeIndex) {
+		if(slot >= 0) {
+			//flip the cards between the old and new expose index
+			int lo = Math.max(0, Math.min(this.exposeIndex, exposeIndex));
+			int hi = Math.min(numCards, Math.max(this.exposeIndex, exposeIndex));
+			for(int i=lo; i<hi; i++) {
+				hash ^= ZobristKeys.faceUp(slot, i);
+			}
+		}
 		this.exposeIndex = exposeIndex;
 	}
 	
+	/**
+	 * @return the Zobrist hash of the pile's contents, or 0 if the
+	 *         pile is not part of a {@link KlondikeModel}
+	 */
+	public long getHash() {
+		return hash;
+	}
+	
 	/**
 	 * Add a {@link Card} to the pile.  The card added is placed
 	 * on top of the cards currently in the pile.
@@ -56,28 +97,37 @@ public class Pile {
 	 */
 	
 	public void addCard(Card card) {
-		pile.add(card);
+		addCardId(card.getId());
+	}
+	
+	/**
+	 * Add a card (specified by its id) to the pile.  The card added
+	 * is placed on top of the cards currently in the pile.
+	 * 
+	 * @param cardId the id of the card to add
+	 * @throws IllegalStateException if the pile already has 52 cards
+	 */
+	public void addCardId(int cardId) {
+		//pile can't hold more than a full deck
+		if(numCards == Card.NUM_CARDS) {
+			throw new IllegalStateException("PILE IS FULL");
+		}
+		toggle(numCards, cardId);
+		cards[numCards++] = (byte) cardId;
 	}
 
 	/**
 	 * @return the number of @{link Card}s in the pile
 	 */
 	public int getNumCards() {
-		return pile.size();
+		return numCards;
 	}
 	
 	/**
 	 * @return true if the pile is empty, false otherwise
 	 */
 	public boolean isEmpty() {
-		//pile is empty
-		if(pile.size() == 0) {
-			return true;
-		}
-		//pile isnt empty
-		else {
-			return false;
-		}
+		return numCards == 0;
 	}
 	
 	/**
@@ -88,18 +138,22 @@ public class Pile {
 	 * @throws NoSuchElementException if the index does not refer to a valid card
 	 */
 	public Card getCard(int index) {
+		return Card.byId(getCardId(index));
+	}
+	
+	/**
+	 * Get the id of the card whose index is given.
+	 * 
+	 * @param index the index of the card
+	 * @return the id of the card at the index
+	 * @throws NoSuchElementException if the index does not refer to a valid card
+	 */
+	public int getCardId(int index) {
 		//card index DNE
-		if(index<0 || index>51) {
+		if(index<0 || index>=numCards) {
 			throw new NoSuchElementException("THAT CARD DONT EXIST");
 		}
-		//if pile has no cards
-		else if(pile.isEmpty()) {
-			throw new NoSuchElementException("THAT PILE IS EMPTY");
-		}
-		//if here, can check pile index
-		else {
-			return pile.get(index);
-		}
+		return cards[index];
 	}
 
 	/**
@@ -110,27 +164,17 @@ public class Pile {
 	 */
 	public Card getTopCard() {
 		//if pile is empty
-		if(pile.isEmpty()) {
+		if(numCards == 0) {
 			throw new NoSuchElementException("THAT PILE IS EMPTY");
 		}
-		//pile has cards
-		else {
-			return pile.get(pile.size()-1);
-		}
+		return Card.byId(cards[numCards-1]);
 	}
 	
 	/**
 	 * @return the index of the top {@link Card}, or -1 if the pile is empty
 	 */
 	public int getIndexOfTopCard() {
-		//if pile is empty
-		if(pile.size() == 0){
-			return -1;
-		}
-		//is pile has members
-		else {
-			return (pile.size()-1);
-		}
+		return numCards-1;
 	}
 	
 	/**
@@ -141,18 +185,20 @@ public class Pile {
 	 * @throws IllegalArgumentException if the pile does not have enough {@link Card}s to satisfy the request
 	 */
 	public ArrayList<Card> removeCards(int numCards) {
-		//make arrList to store pending removed cards
-		ArrayList<Card> removedCards = new ArrayList<Card>();
-		
 		//if more cards want to be removed than the size of pile
-		if(pile.size() < numCards) {
+		if(this.numCards < numCards) {
 			throw new IllegalArgumentException("NOT ENOUGH CARDS IN PILE");
 		}
-		//remove the top card of pile and add it to the 0th index of the remove arrList
-		for(int i=0; i<numCards; i++) {
-			removedCards.add(0,pile.remove(pile.size()-1));
+		
+		//copy the removed cards in bottom-to-top order
+		ArrayList<Card> removedCards = new ArrayList<Card>(numCards);
+		int start = this.numCards - numCards;
+		for(int i=start; i<this.numCards; i++) {
+			removedCards.add(Card.byId(cards[i]));
+			toggle(i, cards[i]);
 		}
-		//return the remove arrList
+		this.numCards = start;
+		
 		return removedCards;
 	}
 	
@@ -162,16 +208,43 @@ public class Pile {
 	 * @param cardsToAdd an ArrayList containing the {@link Card}s to add
 	 */
 	public void addCards(ArrayList<Card> cardsToAdd) {
-	
-		//make a variable to determine how cards we have to add
+		//add each card, bottom card first
 		int numCards = cardsToAdd.size();
-		
-		//add the 0th card of the array, numCards times
 		for(int i=0;i<numCards;i++) {
-			pile.add(cardsToAdd.remove(0));
+			addCard(cardsToAdd.get(i));
 		}
-		
-		
+		cardsToAdd.clear();
+	}
+	
+	/**
+	 * Move given number of cards from the top of this pile to the top
+	 * of another pile, preserving their order.  This is equivalent to
+	 * <code>dest.addCards(removeCards(numCards))</code>, but copies the
+	 * card ids directly without creating any intermediate list.
+	 * The expose indices of both piles are unchanged.
+	 * 
+	 * @param dest     the destination {@link Pile}
+	 * @param numCards number of cards to move
+	 * @throws IllegalArgumentException if this pile does not have enough cards
+	 * @throws IllegalStateException if the destination pile does not have room for the cards
+	 */
+	public void moveTopTo(Pile dest, int numCards) {
+		//if more cards want to be moved than the size of pile
+		if(numCards < 0 || this.numCards < numCards) {
+			throw new IllegalArgumentException("NOT ENOUGH CARDS IN PILE");
+		}
+		//pile can't hold more than a full deck
+		if(dest.numCards + numCards > Card.NUM_CARDS) {
+			throw new IllegalStateException("PILE IS FULL");
+		}
+		int start = this.numCards - numCards;
+		for(int i=0; i<numCards; i++) {
+			this.toggle(start + i, cards[start + i]);
+			dest.toggle(dest.numCards + i, cards[start + i]);
+		}
+		System.arraycopy(cards, start, dest.cards, dest.numCards, numCards);
+		dest.numCards += numCards;
+		this.numCards = start;
 	}
 	
 	/**
@@ -180,14 +253,10 @@ public class Pile {
 	 * {@link Suit} and {@link Rank}.
 	 */
 	public void populate() {
-		//4 suits
-    	for (int j=0; j<4; j++) {
-    		//13 ranks
-    	    for (int i=0; i<13; i++) {
-    	        // use allSuits[j] and allRanks[i] to create a Card
-    	    	pile.add(new Card(Rank.values()[i],Suit.values()[j]));
-    	    }
-    	}
+		//add the canonical card for each id (ordered by suit, then rank)
+		for (int id=0; id<Card.NUM_CARDS; id++) {
+			addCardId(id);
+		}
 	}
 
 	/**
@@ -195,7 +264,32 @@ public class Pile {
 	 * them randomly.
 	 */
 	public void shuffle() {
-		Collections.shuffle(pile);
+		shuffle(ThreadLocalRandom.current());
+	}
+	
+	/**
+	 * Shuffle the {@link Card}s in the pile using the given
+	 * random number generator.  Shuffling the same cards with
+	 * generators in the same state always gives the same order.
+	 * 
+	 * @param random the random number generator (for example, a {@link SplitMix64})
+	 */
+	public void shuffle(Random random) {
+		//Fisher-Yates shuffle of the card ids
+		for(int i=numCards-1; i>0; i--) {
+			int j = random.nextInt(i+1);
+			byte tmp = cards[i];
+			cards[i] = cards[j];
+			cards[j] = tmp;
+		}
+		
+		//every position may hold a different card now
+		if(slot >= 0) {
+			hash = 0L;
+			for(int i=0; i<numCards; i++) {
+				toggle(i, cards[i]);
+			}
+		}
 	}
 	
 	/**
@@ -207,14 +301,24 @@ public class Pile {
 	
 	public Card drawCard() {
 		//if pile has no members
-		if(pile.isEmpty()) {
+		if(numCards == 0) {
 			throw new NoSuchElementException("NOT ENOUGH CARDS IN PILE");
 		}
-		
-		//remove card and store in variable
-		Card drawn = pile.remove(pile.size()-1);
-
-		//return variable
-		return drawn;
+		numCards--;
+		toggle(numCards, cards[numCards]);
+		return Card.byId(cards[numCards]);
+	}
+	
+	/**
+	 * Add or remove the contribution of a card at the given position
+	 * to the pile's hash.
+	 */
+	private void toggle(int pos, int cardId) {
+		if(slot >= 0) {
+			hash ^= ZobristKeys.card(slot, pos, cardId);
+			if(pos >= exposeIndex) {
+				hash ^= ZobristKeys.faceUp(slot, pos);
+			}
+		}
 	}
 }
@@ -1,19 +1,17 @@
 package edu.ycp.cs201.cards;
 
 import java.util.ArrayList;
-import java.util.List;
 
 /**
  * A Selection object represents one or more cards that
  * the user wants to move.  A {@link Location} indicates the
  * source of the moved cards (e.g., the main deck or a
- * tableau pile).  An ArrayList of {@link Card}s stores
- * references to the cards that the user wants to move.
+ * tableau pile).  The selected {@link Card}s are held in a
+ * {@link Pile}, bottom card first.
  */
 public class Selection {
-	// TODO: add fields
 	private Location origin;
-	private ArrayList<Card> toMove;
+	private Pile toMove;
 	
 	/**
 	 * Constructor.
@@ -22,6 +20,21 @@ public class Selection {
 	 * @param selected an ArrayList containing the {@link Card}s the user wants to move
 	 */
 	public Selection(Location origin, ArrayList<Card> selected) {
+		this.origin = origin;
+		toMove = new Pile();
+		for (Card card : selected) {
+			toMove.addCard(card);
+		}
+	}
+	
+	/**
+	 * Constructor.  The selection takes ownership of the given
+	 * {@link Pile}, which should not be used by the caller afterwards.
+	 * 
+	 * @param origin   a {@link Location} describing the origin (source) of the moved cards
+	 * @param selected a {@link Pile} containing the {@link Card}s the user wants to move
+	 */
+	Selection(Location origin, Pile selected) {
 		this.origin = origin;
 		toMove = selected;
 	}
@@ -35,9 +48,20 @@ public class Selection {
 	}
 
 	/**
-	 * @return the ArrayList of {@link Card}s the user wants to move
+	 * @return an ArrayList containing the {@link Card}s the user wants to move
 	 */
 	public ArrayList<Card> getCards() {
+		ArrayList<Card> result = new ArrayList<Card>(toMove.getNumCards());
+		for (int i = 0; i < toMove.getNumCards(); i++) {
+			result.add(toMove.getCard(i));
+		}
+		return result;
+	}
+	
+	/**
+	 * @return the {@link Pile} holding the selected cards
+	 */
+	Pile getPile() {
 		return toMove;
 	}
 
@@ -45,6 +69,6 @@ public class Selection {
 	 * @return the number of cards the user wants to move
 	 */
 	public int getNumCards() {
-		return toMove.size();
+		return toMove.getNumCards();
 	}
 }
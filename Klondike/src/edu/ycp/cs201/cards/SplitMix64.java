@@ -0,0 +1,77 @@
+package edu.ycp.cs201.cards;
+
+import java.util.Random;
+
+/**
+ * <p>A fast, splittable pseudo-random number generator (Steele, Lea and
+ * Flood's SplitMix64), usable anywhere a {@link Random} is expected.</p>
+ * 
+ * <p>Each generator is a single 64-bit counter, so creating one is cheap and
+ * two generators never share state.  Unlike {@link Random}, a SplitMix64
+ * object is not thread-safe: each thread should use its own (see
+ * {@link #split()}).  The sequence produced for a given seed is the same
+ * on every platform and in every release.</p>
+ */
+public class SplitMix64 extends Random {
+	private static final long serialVersionUID = 1L;
+	
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+	
+	private long state;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param seed the seed
+	 */
+	public SplitMix64(long seed) {
+		super(0L);
+		this.state = seed;
+	}
+	
+	/**
+	 * Reset the generator to the start of the sequence for the given seed.
+	 * 
+	 * @param seed the seed
+	 */
+	@Override
+	public void setSeed(long seed) {
+		// also called by the superclass constructor, before this object is initialized
+		this.state = seed;
+	}
+	
+	@Override
+	public long nextLong() {
+		state += GAMMA;
+		return mix(state);
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+	
+	/**
+	 * Create a new generator whose sequence is independent of this one's,
+	 * for example to hand to another thread.  This generator advances
+	 * by one step.
+	 * 
+	 * @return the new generator
+	 */
+	public SplitMix64 split() {
+		return new SplitMix64(nextLong());
+	}
+	
+	/**
+	 * The SplitMix64 output function: a bijective scramble of a 64-bit value.
+	 * Consecutive inputs give unrelated outputs.
+	 * 
+	 * @param z the value to scramble
+	 * @return the scrambled value
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -1,24 +1,24 @@
 package edu.ycp.cs201.cards;
 
+import java.io.IOException;
+
 /**
  * Convert the game state (as stored in the {@link KlondikeModel})
  * to and from strings.  This is useful for testing, since it makes
  * it easy to encode a complete game state as a string.
  * This could also allow games to be saved to and loaded from
  * files.
+ * 
+ * Besides returning a new string, a game state can be written straight
+ * into a caller's {@link StringBuilder}, {@link Appendable} or
+ * <code>char[]</code>, and read back from any {@link CharSequence}
+ * (or part of one), without creating any intermediate strings.
+ * All of these produce and accept exactly the same text.
  */
 public class StringifyGameState {
 	private static final char SEPARATOR = '!'; // printable character with the lowest character code (!)
 	private static final char FIRST_CARD = SEPARATOR+1;
 	private static final int EXPOSE_INDEX_NUM_DIGITS = 8; // much larger than it needs to be, just in case
-	private static final Card[] CARDS = new Card[52];
-	static {
-		Suit[] suits = Suit.values();
-		Rank[] ranks = Rank.values();
-		for (int i = 0; i < 52; i++) {
-			CARDS[i] = new Card(ranks[i%13], suits[i/13]);
-		}
-	}
 	
 	/**
 	 * Convert the game state stored in the given {@link KlondikeModel} object
@@ -28,21 +28,92 @@ public class StringifyGameState {
 	 * @return a string containing the encoded game state
 	 */
 	public static String modelToString(KlondikeModel model) {
-		StringBuilder buf = new StringBuilder();
-		
-		buf.append(pileToString(model.getMainDeck()));
-		buf.append(SEPARATOR);
-		buf.append(pileToString(model.getWastePile()));
-		for (int i = 0; i < 4; i++) {
-			buf.append(SEPARATOR);
-			buf.append(pileToString(model.getFoundationPile(i)));
+		char[] buf = new char[encodedLength(model)];
+		modelToChars(model, buf, 0);
+		return new String(buf);
+	}
+	
+	/**
+	 * Append the encoded game state stored in the given {@link KlondikeModel}
+	 * object to a {@link StringBuilder}.  The text appended is the same as the
+	 * string returned by {@link #modelToString(KlondikeModel)}.
+	 * 
+	 * @param model the game state
+	 * @param buf   the {@link StringBuilder} to append to
+	 */
+	public static void modelToString(KlondikeModel model, StringBuilder buf) {
+		buf.ensureCapacity(buf.length() + encodedLength(model));
+		try {
+			modelToString(model, (Appendable) buf);
+		} catch (IOException e) {
+			// a StringBuilder never throws IOException
+			throw new IllegalStateException(e);
 		}
-		for (int i = 0; i < 7; i++) {
-			buf.append(SEPARATOR);
-			buf.append(pileToString(model.getTableauPile(i)));
+	}
+	
+	/**
+	 * Append the encoded game state stored in the given {@link KlondikeModel}
+	 * object to an {@link Appendable} (such as a <code>Writer</code>).  The text
+	 * appended is the same as the string returned by {@link #modelToString(KlondikeModel)}.
+	 * 
+	 * @param model the game state
+	 * @param out   the {@link Appendable} to append to
+	 * @throws IOException if the {@link Appendable} throws one
+	 */
+	public static void modelToString(KlondikeModel model, Appendable out) throws IOException {
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			if (p > 0) {
+				out.append(SEPARATOR);
+			}
+			Pile pile = model.getPile(p);
+			appendExposeIndex(out, pile.getExposeIndex());
+			for (int i = 0; i < pile.getNumCards(); i++) {
+				out.append((char) (FIRST_CARD + pile.getCardId(i)));
+			}
 		}
-		
-		return buf.toString();
+	}
+	
+	/**
+	 * Write the encoded game state stored in the given {@link KlondikeModel}
+	 * object into a <code>char</code> array.  The characters written are the same
+	 * as the string returned by {@link #modelToString(KlondikeModel)}.
+	 * 
+	 * @param model  the game state
+	 * @param buf    the array to write to
+	 * @param offset the index in the array to start writing at
+	 * @return the index just after the last character written
+	 * @throws IllegalArgumentException if the encoded game state does not fit
+	 *         (see {@link #encodedLength(KlondikeModel)})
+	 */
+	public static int modelToChars(KlondikeModel model, char[] buf, int offset) {
+		if (offset < 0 || buf.length - offset < encodedLength(model)) {
+			throw new IllegalArgumentException("Buffer too small for game state");
+		}
+		int pos = offset;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			if (p > 0) {
+				buf[pos++] = SEPARATOR;
+			}
+			Pile pile = model.getPile(p);
+			pos = writeExposeIndex(buf, pos, pile.getExposeIndex());
+			for (int i = 0; i < pile.getNumCards(); i++) {
+				buf[pos++] = (char) (FIRST_CARD + pile.getCardId(i));
+			}
+		}
+		return pos;
+	}
+	
+	/**
+	 * @param model the game state
+	 * @return the number of characters in the encoded game state
+	 */
+	public static int encodedLength(KlondikeModel model) {
+		int length = KlondikeModel.NUM_PILES - 1;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			Pile pile = model.getPile(p);
+			length += exposeIndexLength(pile.getExposeIndex()) + pile.getNumCards();
+		}
+		return length;
 	}
 	
 	/**
@@ -55,50 +126,135 @@ public class StringifyGameState {
 	 * @param s     a string containing an encoded game state returned
 	 *              by a previous call to {@link #modelToString(KlondikeModel)}
 	 */
-	public static void stringToModel(KlondikeModel model, String s) {
-		String[] pileData = s.split(String.valueOf(SEPARATOR));
-		if (pileData.length != 13) {
-			throw new IllegalArgumentException("Invalid game state data (wrong number of piles)");
+	public static void stringToModel(KlondikeModel model, CharSequence s) {
+		stringToModel(model, s, 0, s.length());
+	}
+	
+	/**
+	 * Decode the part of a {@link CharSequence} between two indices,
+	 * which must hold an encoded game state, and store the game state
+	 * it encodes to the given {@link KlondikeModel} object.
+	 * The model object must be empty (contain only empty {@link Pile}s).
+	 * 
+	 * @param model an empty {@link KlondikeModel} object
+	 * @param s     the characters to decode
+	 * @param start the index of the first character of the game state
+	 * @param end   the index just after the last character of the game state
+	 */
+	public static void stringToModel(KlondikeModel model, CharSequence s, int start, int end) {
+		if (start < 0 || end > s.length() || start > end) {
+			throw new IndexOutOfBoundsException("Invalid range " + start + " to " + end);
 		}
-		stringToPile(model.getMainDeck(), pileData[0]);
-		stringToPile(model.getWastePile(), pileData[1]);
-		for (int i = 0; i < 4; i++) {
-			stringToPile(model.getFoundationPile(i), pileData[i+2]);
+		
+		// trailing separators are ignored (as String.split would)
+		while (end > start && s.charAt(end - 1) == SEPARATOR) {
+			end--;
 		}
-		for (int i = 0; i < 7; i++) {
-			stringToPile(model.getTableauPile(i), pileData[i+6]);
+		
+		int pos = start;
+		for (int p = 0; p < KlondikeModel.NUM_PILES; p++) {
+			int pileEnd = pos;
+			while (pileEnd < end && s.charAt(pileEnd) != SEPARATOR) {
+				pileEnd++;
+			}
+			boolean lastPile = (p == KlondikeModel.NUM_PILES - 1);
+			if (lastPile != (pileEnd == end)) {
+				// ran out of piles early, or there are more than 13
+				throw new IllegalArgumentException("Invalid game state data (wrong number of piles)");
+			}
+			charsToPile(model.getPile(p), s, pos, pileEnd);
+			pos = pileEnd + 1;
 		}
 	}
 	
-	private static Card charToCard(char c) {
-		if (c < FIRST_CARD || c >= (FIRST_CARD+52)) {
+	
+	private static int charToCardId(char c) {
+		if (c < FIRST_CARD || c >= (FIRST_CARD+Card.NUM_CARDS)) {
 			throw new IllegalArgumentException("Character " + c + " doesn't correspond to a legal Card");
 		}
-		return CARDS[c - FIRST_CARD];
-	}
-	
-	private static char cardToChar(Card card) {
-		return (char) (FIRST_CARD + card.getSuit().ordinal() * 13 + card.getRank().ordinal());
+		return c - FIRST_CARD;
 	}
 	
-	private static void stringToPile(Pile pile, String s) {
+	private static void charsToPile(Pile pile, CharSequence s, int start, int end) {
 		if (!pile.isEmpty()) {
 			throw new IllegalArgumentException("Pile must be empty");
 		}
-		for (int i = EXPOSE_INDEX_NUM_DIGITS; i < s.length(); i++) {
-			pile.addCard(charToCard(s.charAt(i)));
+		if (end - start < EXPOSE_INDEX_NUM_DIGITS) {
+			throw new IllegalArgumentException("Invalid game state data (pile too short)");
 		}
-		pile.setExposeIndex(Integer.parseInt(s.substring(0, EXPOSE_INDEX_NUM_DIGITS)));
+		for (int i = start + EXPOSE_INDEX_NUM_DIGITS; i < end; i++) {
+			pile.addCardId(charToCardId(s.charAt(i)));
+		}
+		pile.setExposeIndex(parseExposeIndex(s, start));
 	}
 	
-	private static String pileToString(Pile pile) {
-		StringBuilder buf = new StringBuilder();
-		
-		buf.append(String.format("%0"+EXPOSE_INDEX_NUM_DIGITS+"d", pile.getExposeIndex()));
-		for (int i = 0; i < pile.getNumCards(); i++) {
-			buf.append(cardToChar(pile.getCard(i)));
+	// parse the expose index at the start of a pile, accepting what Integer.parseInt would
+	private static int parseExposeIndex(CharSequence s, int start) {
+		int pos = start;
+		int end = start + EXPOSE_INDEX_NUM_DIGITS;
+		boolean negative = false;
+		char first = s.charAt(pos);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			pos++;
 		}
-		
-		return buf.toString();
+		if (pos == end) {
+			throw new NumberFormatException("Invalid expose index");
+		}
+		long value = 0;
+		for (; pos < end; pos++) {
+			int digit = s.charAt(pos) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Invalid expose index");
+			}
+			value = value * 10 + digit;
+		}
+		return (int) (negative ? -value : value);
+	}
+	
+	// the number of characters written for an expose index: the same as
+	// String.format("%08d", exposeIndex)
+	private static int exposeIndexLength(int exposeIndex) {
+		long value = Math.abs((long) exposeIndex);
+		int length = 1;
+		while (value >= 10) {
+			value /= 10;
+			length++;
+		}
+		if (exposeIndex < 0) {
+			length++;
+		}
+		return Math.max(length, EXPOSE_INDEX_NUM_DIGITS);
+	}
+	
+	private static void appendExposeIndex(Appendable out, int exposeIndex) throws IOException {
+		int length = exposeIndexLength(exposeIndex);
+		long value = Math.abs((long) exposeIndex);
+		if (exposeIndex < 0) {
+			out.append('-');
+			length--;
+		}
+		long divisor = 1;
+		for (int i = 1; i < length; i++) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			out.append((char) ('0' + (value / divisor) % 10));
+		}
+	}
+	
+	private static int writeExposeIndex(char[] buf, int pos, int exposeIndex) {
+		int length = exposeIndexLength(exposeIndex);
+		long value = Math.abs((long) exposeIndex);
+		if (exposeIndex < 0) {
+			buf[pos++] = '-';
+			length--;
+		}
+		// fill in the digits from the right, padding with zeros
+		for (int i = pos + length - 1; i >= pos; i--) {
+			buf[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return pos + length;
 	}
 }
@@ -0,0 +1,101 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * A stack of moves made by
+ * {@link KlondikeController#makeMove(KlondikeModel, int, UndoLog)},
+ * recording just enough information for
+ * {@link KlondikeController#unmakeMove(KlondikeModel, UndoLog)}
+ * to revert each one.  The entries are stored in a primitive array,
+ * so making and unmaking moves does not allocate (once the log has
+ * grown to the maximum depth used).
+ */
+public class UndoLog {
+	// each entry is: encoded move, number of cards moved (-1 for a recycle), previous expose index of the origin pile
+	private static final int ENTRY_SIZE = 3;
+	
+	private int[] entries;
+	private int size;
+	
+	/**
+	 * Constructor.  Creates an empty log.
+	 */
+	public UndoLog() {
+		this(64);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity the initial number of moves the log can hold (it grows if needed)
+	 */
+	public UndoLog(int capacity) {
+		entries = new int[Math.max(1, capacity) * ENTRY_SIZE];
+		size = 0;
+	}
+	
+	/**
+	 * @return the number of moves in the log
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return true if the log has no moves, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Remove all moves from the log (without changing any model).
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Get one of the logged moves, in the order they were made.
+	 * 
+	 * @param index the index of the move (0 is the first move made)
+	 * @return the encoded move (see {@link Move})
+	 */
+	public int getMove(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Move index " + index + " out of range");
+		}
+		return entries[index * ENTRY_SIZE];
+	}
+	
+	void push(int move, int numCards, int prevExposeIndex) {
+		if ((size + 1) * ENTRY_SIZE > entries.length) {
+			int[] bigger = new int[entries.length * 2];
+			System.arraycopy(entries, 0, bigger, 0, size * ENTRY_SIZE);
+			entries = bigger;
+		}
+		int base = size * ENTRY_SIZE;
+		entries[base] = move;
+		entries[base + 1] = numCards;
+		entries[base + 2] = prevExposeIndex;
+		size++;
+	}
+	
+	void pop() {
+		if (size == 0) {
+			throw new IllegalStateException("No moves to undo");
+		}
+		size--;
+	}
+	
+	int topMove() {
+		return entries[(size - 1) * ENTRY_SIZE];
+	}
+	
+	int topNumCards() {
+		return entries[(size - 1) * ENTRY_SIZE + 1];
+	}
+	
+	int topPrevExposeIndex() {
+		return entries[(size - 1) * ENTRY_SIZE + 2];
+	}
+}
@@ -0,0 +1,104 @@
+package edu.ycp.cs201.cards;
+
+/**
+ * Random keys used to compute Zobrist hashes of game states.
+ * There is one key for each combination of pile slot, position
+ * within the pile, and card id, plus one key for each combination
+ * of pile slot and position that is XORed in when the card at
+ * that position is face-up.
+ * 
+ * The keys are generated from a fixed seed, so hash values are
+ * the same in every run of the program.
+ * 
+ * The keys of each tableau slot after the first are the keys of the
+ * first tableau slot, rotated left by {@link #TABLEAU_ROTATION} bits per
+ * slot.  Since rotation distributes over XOR, the hash of a tableau pile
+ * rotated back by its slot's amount (see {@link #unrotate(int, long)}) is
+ * the same in every tableau slot, which lets {@link CanonicalPosition}
+ * compare piles without rehashing their cards.
+ */
+final class ZobristKeys {
+	/** Number of pile slots: main deck, waste, 4 foundation piles, 7 tableau piles. */
+	static final int NUM_SLOTS = 13;
+	
+	/** Slot of the first foundation pile. */
+	static final int FIRST_FOUNDATION_SLOT = 2;
+	
+	/** Slot of the first tableau pile. */
+	static final int FIRST_TABLEAU_SLOT = 6;
+	
+	/** Number of bits the keys of each tableau slot are rotated from the previous slot's. */
+	static final int TABLEAU_ROTATION = 9;
+	
+	private static final long[] CARD_KEYS = new long[NUM_SLOTS * Card.NUM_CARDS * Card.NUM_CARDS];
+	private static final long[] FACE_UP_KEYS = new long[NUM_SLOTS * Card.NUM_CARDS];
+	static {
+		long state = 0x4B4C4F4E44494B45L;
+		for (int i = 0; i < CARD_KEYS.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			CARD_KEYS[i] = mix(state);
+		}
+		for (int i = 0; i < FACE_UP_KEYS.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			FACE_UP_KEYS[i] = mix(state);
+		}
+		
+		// the other tableau slots' keys are rotations of the first's
+		int cardKeysPerSlot = Card.NUM_CARDS * Card.NUM_CARDS;
+		for (int slot = FIRST_TABLEAU_SLOT + 1; slot < NUM_SLOTS; slot++) {
+			int distance = (slot - FIRST_TABLEAU_SLOT) * TABLEAU_ROTATION;
+			for (int i = 0; i < cardKeysPerSlot; i++) {
+				CARD_KEYS[slot * cardKeysPerSlot + i] =
+						Long.rotateLeft(CARD_KEYS[FIRST_TABLEAU_SLOT * cardKeysPerSlot + i], distance);
+			}
+			for (int i = 0; i < Card.NUM_CARDS; i++) {
+				FACE_UP_KEYS[slot * Card.NUM_CARDS + i] =
+						Long.rotateLeft(FACE_UP_KEYS[FIRST_TABLEAU_SLOT * Card.NUM_CARDS + i], distance);
+			}
+		}
+	}
+	
+	private ZobristKeys() {
+	}
+	
+	/**
+	 * @param slot   the pile slot
+	 * @param pos    the position within the pile
+	 * @param cardId the card id
+	 * @return the key for the card at the given position of the given pile
+	 */
+	static long card(int slot, int pos, int cardId) {
+		return CARD_KEYS[(slot * Card.NUM_CARDS + pos) * Card.NUM_CARDS + cardId];
+	}
+	
+	/**
+	 * @param slot the pile slot
+	 * @param pos  the position within the pile
+	 * @return the key for a face-up card at the given position of the given pile
+	 */
+	static long faceUp(int slot, int pos) {
+		return FACE_UP_KEYS[slot * Card.NUM_CARDS + pos];
+	}
+	
+	/**
+	 * @param slot a tableau slot
+	 * @param hash the hash of a pile in that slot
+	 * @return the hash the same pile would have in the first tableau slot
+	 */
+	static long unrotate(int slot, long hash) {
+		return Long.rotateRight(hash, (slot - FIRST_TABLEAU_SLOT) * TABLEAU_ROTATION);
+	}
+	
+	/**
+	 * SplitMix64 finalizer: scramble a value so that every bit of the
+	 * result depends on every bit of the input.
+	 * 
+	 * @param z the value
+	 * @return the scrambled value (0 for 0)
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
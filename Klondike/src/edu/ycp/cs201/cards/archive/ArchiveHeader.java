@@ -0,0 +1,104 @@
+package edu.ycp.cs201.cards.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+
+/**
+ * The header at the start of a game state archive file (see
+ * {@link GameStateArchive}).  It is {@link #SIZE} bytes long:
+ * <ul>
+ *   <li>8 bytes: the magic number <code>KLNDKARC</code></li>
+ *   <li>4 bytes: the format version</li>
+ *   <li>4 bytes: the size of each record</li>
+ *   <li>8 bytes: the number of records committed to the file</li>
+ *   <li>8 bytes: reserved (0)</li>
+ * </ul>
+ * All values are big-endian.  Record <i>i</i> starts at byte
+ * <code>SIZE + i * recordSize</code>, so the header doubles as the index.
+ * Bytes after the last committed record (from an interrupted write) are
+ * not part of the archive.
+ */
+class ArchiveHeader {
+	static final int SIZE = 32;
+	static final long MAGIC = 0x4B4C4E444B415243L; // "KLNDKARC"
+	static final int VERSION = 1;
+	static final int RECORD_SIZE = BinaryGameState.RECORD_SIZE;
+	
+	private static final int COUNT_OFFSET = 16;
+	
+	private ArchiveHeader() {
+	}
+	
+	/**
+	 * Read and check the header of an archive file.
+	 * 
+	 * @param channel the file
+	 * @return the number of records committed to the file
+	 * @throws IOException if the file is not a valid archive
+	 */
+	static long read(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				throw new IOException("Not a game state archive (file too short)");
+			}
+		}
+		header.flip();
+		if (header.getLong() != MAGIC) {
+			throw new IOException("Not a game state archive (bad magic number)");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported game state archive version " + version);
+		}
+		int recordSize = header.getInt();
+		if (recordSize != RECORD_SIZE) {
+			throw new IOException("Unsupported game state archive record size " + recordSize);
+		}
+		long count = header.getLong();
+		if (count < 0 || SIZE + count * RECORD_SIZE > channel.size()) {
+			throw new IOException("Corrupt game state archive (records missing)");
+		}
+		return count;
+	}
+	
+	/**
+	 * Write a new header, for an empty archive.
+	 * 
+	 * @param channel the file
+	 * @throws IOException if the header cannot be written
+	 */
+	static void writeNew(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(SIZE);
+		header.putLong(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(RECORD_SIZE);
+		header.putLong(0L);
+		header.putLong(0L);
+		header.flip();
+		writeFully(channel, header, 0L);
+	}
+	
+	/**
+	 * Update the number of committed records.
+	 * 
+	 * @param channel the file
+	 * @param count   the number of records
+	 * @throws IOException if the header cannot be written
+	 */
+	static void writeCount(FileChannel channel, long count) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(8);
+		buf.putLong(count);
+		buf.flip();
+		writeFully(channel, buf, COUNT_OFFSET);
+	}
+	
+	static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			position += channel.write(buf, position);
+		}
+	}
+}
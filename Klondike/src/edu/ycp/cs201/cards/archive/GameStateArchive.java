@@ -0,0 +1,202 @@
+package edu.ycp.cs201.cards.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * <p>Read access to an archive file of game states: a short header (see
+ * {@link ArchiveHeader}) followed by fixed-size {@link BinaryGameState}
+ * records, written by a {@link GameStateArchiveWriter}.</p>
+ * 
+ * <p>The file is mapped into memory with {@link FileChannel#map}, in
+ * segments of up to 2 GB, so records are read straight from the operating
+ * system's page cache: fetching record <i>i</i> is a little arithmetic
+ * and no copying, and the file is never loaded into the Java heap.
+ * The archive shows the records that were committed when it was opened.</p>
+ * 
+ * <p>All methods only read the mapped buffers at absolute indexes, so
+ * any number of threads can share one archive object.</p>
+ */
+public class GameStateArchive implements Closeable {
+	private static final int RECORD_SIZE = ArchiveHeader.RECORD_SIZE;
+	
+	// records per scan task in parallelScan
+	private static final int SCAN_CHUNK = 4096;
+	
+	private final FileChannel channel;
+	private final long count;
+	private final int recordsPerSegment;
+	private final ByteBuffer[] segments;
+	
+	/**
+	 * Open an archive file for reading.
+	 * 
+	 * @param path the archive file
+	 * @throws IOException if the file cannot be opened or is not a valid archive
+	 */
+	public GameStateArchive(Path path) throws IOException {
+		this(path, Integer.MAX_VALUE / RECORD_SIZE);
+	}
+	
+	// the segment size can be made small for testing
+	GameStateArchive(Path path, int recordsPerSegment) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			this.count = ArchiveHeader.read(channel);
+			this.recordsPerSegment = recordsPerSegment;
+			int numSegments = (int) ((count + recordsPerSegment - 1) / recordsPerSegment);
+			this.segments = new ByteBuffer[numSegments];
+			for (int i = 0; i < numSegments; i++) {
+				long first = (long) i * recordsPerSegment;
+				long records = Math.min(recordsPerSegment, count - first);
+				MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+						ArchiveHeader.SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+				segments[i] = map;
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @return the number of records in the archive
+	 */
+	public long size() {
+		return count;
+	}
+	
+	/**
+	 * Get a record without copying it.
+	 * 
+	 * @param index the record number
+	 * @return a read-only buffer whose position is 0 and whose
+	 *         limit is {@link BinaryGameState#RECORD_SIZE}, holding the record
+	 * @throws IndexOutOfBoundsException if there is no such record
+	 */
+	public ByteBuffer getRecord(long index) {
+		checkIndex(index);
+		ByteBuffer view = segments[segment(index)].duplicate();
+		int offset = offset(index);
+		view.limit(offset + RECORD_SIZE).position(offset);
+		return view.slice().asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Read a record into an empty {@link KlondikeModel} object.
+	 * 
+	 * @param index the record number
+	 * @param model an empty {@link KlondikeModel} object
+	 * @throws IndexOutOfBoundsException if there is no such record
+	 */
+	public void read(long index, KlondikeModel model) {
+		checkIndex(index);
+		BinaryGameState.bufferToModel(model, segments[segment(index)], offset(index));
+	}
+	
+	/**
+	 * Read a record in the string form (see
+	 * {@link StringifyGameState#modelToString(KlondikeModel)}).
+	 * 
+	 * @param index the record number
+	 * @return the encoded game state
+	 * @throws IndexOutOfBoundsException if there is no such record
+	 */
+	public String readString(long index) {
+		KlondikeModel model = new KlondikeModel();
+		read(index, model);
+		return StringifyGameState.modelToString(model);
+	}
+	
+	/**
+	 * Pass a range of records, in order, to a {@link RecordVisitor}.
+	 * 
+	 * @param from    the first record number
+	 * @param to      one past the last record number
+	 * @param visitor the {@link RecordVisitor}
+	 */
+	public void scan(long from, long to, RecordVisitor visitor) {
+		if (from < 0 || to > count || from > to) {
+			throw new IndexOutOfBoundsException("Invalid range " + from + " to " + to);
+		}
+		for (long index = from; index < to; index++) {
+			visitor.visit(index, segments[segment(index)], offset(index));
+		}
+	}
+	
+	/**
+	 * Pass every record to a {@link RecordVisitor}, splitting the archive
+	 * into chunks that are scanned in parallel by a {@link ForkJoinPool}.
+	 * Records are visited in no particular order, by several threads at
+	 * once, so the visitor must be thread-safe.
+	 * 
+	 * @param pool    the {@link ForkJoinPool} to scan in
+	 * @param visitor the {@link RecordVisitor}
+	 */
+	public void parallelScan(ForkJoinPool pool, RecordVisitor visitor) {
+		pool.invoke(new ScanTask(0, count, visitor));
+	}
+	
+	/**
+	 * Close the archive's file channel.  Java has no way to unmap a file,
+	 * so the mapping stays in place until the mapped buffers (and any
+	 * returned by {@link #getRecord(long)}) are garbage collected; callers
+	 * must not count on the file being released when this returns (on
+	 * Windows, for example, it may not yet be possible to delete or rename
+	 * it).  The archive must not be used afterwards.
+	 * 
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	private void checkIndex(long index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("No record " + index + " in archive of " + count);
+		}
+	}
+	
+	private int segment(long index) {
+		return (int) (index / recordsPerSegment);
+	}
+	
+	private int offset(long index) {
+		return (int) (index % recordsPerSegment) * RECORD_SIZE;
+	}
+	
+	private class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final long from, to;
+		private final RecordVisitor visitor;
+		
+		ScanTask(long from, long to, RecordVisitor visitor) {
+			this.from = from;
+			this.to = to;
+			this.visitor = visitor;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= SCAN_CHUNK) {
+				scan(from, to, visitor);
+			} else {
+				long mid = (from + to) >>> 1;
+				invokeAll(new ScanTask(from, mid, visitor), new ScanTask(mid, to, visitor));
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package edu.ycp.cs201.cards.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * <p>Appends game states to an archive file (see {@link GameStateArchive}),
+ * creating it if necessary.</p>
+ * 
+ * <p>Records are collected in a buffer and written to the file in large
+ * batches.  They become part of the archive (visible to a
+ * {@link GameStateArchive} opened afterwards) when the record count in the
+ * header is updated by {@link #flush()} or {@link #close()}; if the
+ * program stops before then, the records written since the last flush
+ * are ignored, and are overwritten the next time the archive is opened
+ * for writing.</p>
+ * 
+ * <p>A writer is not thread-safe, and only one writer may have a file
+ * open at a time.</p>
+ */
+public class GameStateArchiveWriter implements Closeable {
+	/** Default number of records collected before they are written. */
+	public static final int DEFAULT_BATCH_RECORDS = 4096;
+	
+	private final FileChannel channel;
+	private final ByteBuffer batch;
+	private long committed;
+	private long count;
+	
+	/**
+	 * Open an archive file for appending, with the default batch size.
+	 * 
+	 * @param path the archive file
+	 * @throws IOException if the file cannot be opened or is not a valid archive
+	 */
+	public GameStateArchiveWriter(Path path) throws IOException {
+		this(path, DEFAULT_BATCH_RECORDS);
+	}
+	
+	/**
+	 * Open an archive file for appending.
+	 * 
+	 * @param path         the archive file
+	 * @param batchRecords the number of records collected before they are written
+	 * @throws IOException if the file cannot be opened or is not a valid archive
+	 */
+	public GameStateArchiveWriter(Path path, int batchRecords) throws IOException {
+		if (batchRecords < 1) {
+			throw new IllegalArgumentException("Batch must hold at least one record");
+		}
+		this.channel = FileChannel.open(path, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			if (channel.size() == 0) {
+				ArchiveHeader.writeNew(channel);
+				this.committed = 0L;
+			} else {
+				this.committed = ArchiveHeader.read(channel);
+				// drop anything written after the last commit
+				channel.truncate(ArchiveHeader.SIZE + committed * ArchiveHeader.RECORD_SIZE);
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		this.count = committed;
+		this.batch = ByteBuffer.allocateDirect(batchRecords * ArchiveHeader.RECORD_SIZE);
+	}
+	
+	/**
+	 * Append a game state.
+	 * 
+	 * @param model the game state
+	 * @return the record number of the game state
+	 * @throws IOException if a batch of records cannot be written
+	 * @throws IllegalArgumentException if the game state cannot be stored
+	 *         as a {@link BinaryGameState} record
+	 */
+	public long append(KlondikeModel model) throws IOException {
+		if (!batch.hasRemaining()) {
+			writeBatch();
+		}
+		BinaryGameState.modelToBuffer(model, batch);
+		return count++;
+	}
+	
+	/**
+	 * Append a game state in the string form (see
+	 * {@link StringifyGameState#modelToString(KlondikeModel)}).
+	 * 
+	 * @param s the encoded game state
+	 * @return the record number of the game state
+	 * @throws IOException if a batch of records cannot be written
+	 */
+	public long append(CharSequence s) throws IOException {
+		KlondikeModel model = new KlondikeModel();
+		StringifyGameState.stringToModel(model, s);
+		return append(model);
+	}
+	
+	/**
+	 * @return the number of records appended (including those not yet flushed)
+	 */
+	public long size() {
+		return count;
+	}
+	
+	/**
+	 * Write any collected records, and commit them by updating the header.
+	 * 
+	 * @throws IOException if the records cannot be written
+	 */
+	public void flush() throws IOException {
+		writeBatch();
+		if (committed != count) {
+			ArchiveHeader.writeCount(channel, count);
+			committed = count;
+		}
+	}
+	
+	/**
+	 * Flush the archive, and force it (including the header) to be
+	 * written to the storage device.
+	 * 
+	 * @throws IOException if the records cannot be written
+	 */
+	public void sync() throws IOException {
+		flush();
+		channel.force(true);
+	}
+	
+	/**
+	 * Flush and close the archive.
+	 * 
+	 * @throws IOException if the records cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+	
+	private void writeBatch() throws IOException {
+		if (batch.position() == 0) {
+			return;
+		}
+		batch.flip();
+		long records = batch.remaining() / ArchiveHeader.RECORD_SIZE;
+		ArchiveHeader.writeFully(channel, batch, ArchiveHeader.SIZE + (count - records) * ArchiveHeader.RECORD_SIZE);
+		batch.clear();
+	}
+}
@@ -0,0 +1,23 @@
+package edu.ycp.cs201.cards.archive;
+
+import java.nio.ByteBuffer;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+
+/**
+ * Receives the records of a {@link GameStateArchive} during a scan.
+ * Each record is passed in place, as a read-only buffer and the index
+ * of the record's first byte in it, so nothing is copied; use
+ * {@link BinaryGameState#bufferToModel(edu.ycp.cs201.cards.KlondikeModel, ByteBuffer, int)}
+ * to decode it.
+ */
+public interface RecordVisitor {
+	/**
+	 * Visit one record.  The buffer must not be kept after returning.
+	 * 
+	 * @param index  the record number
+	 * @param buf    a read-only buffer holding the record
+	 * @param offset the index of the record's first byte in the buffer
+	 */
+	public void visit(long index, ByteBuffer buf, int offset);
+}
@@ -0,0 +1,146 @@
+package edu.ycp.cs201.cards.journal;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.Pile;
+
+/**
+ * <p>The byte encoding of the entries in a move journal (see
+ * {@link JournalWriter}).  Every legal move (see
+ * {@link edu.ycp.cs201.cards.KlondikeController#generateLegalMoves})
+ * takes one or two bytes; the card index is left out whenever it must
+ * be the top card of the source pile, and is filled in from the game
+ * state when the entry is decoded.</p>
+ * 
+ * <table>
+ *   <tr><th>first byte</th><th>length</th><th>entry</th></tr>
+ *   <tr><td>0x00</td><td>1</td><td>{@link Move#DRAW}</td></tr>
+ *   <tr><td>0x01 + d</td><td>1</td><td>top card of the main deck to destination d
+ *   (0-3: foundation piles, 4-10: tableau piles)</td></tr>
+ *   <tr><td>0x10 + 4t + f</td><td>1</td><td>top card of tableau pile t to foundation pile f</td></tr>
+ *   <tr><td>0x7F</td><td>1 + {@link BinaryGameState#RECORD_SIZE}</td><td>keyframe: the game state, as a
+ *   {@link BinaryGameState} record</td></tr>
+ *   <tr><td>0x80 + 8t + u</td><td>2</td><td>cards of tableau pile t, from the card index in
+ *   the second byte up, to tableau pile u</td></tr>
+ * </table>
+ */
+final class JournalCodec {
+	static final int KEYFRAME = 0x7F;
+	static final int KEYFRAME_LENGTH = 1 + BinaryGameState.RECORD_SIZE;
+	
+	private static final int DRAW = 0x00;
+	private static final int FROM_MAIN = 0x01;
+	private static final int TABLEAU_TO_FOUNDATION = 0x10;
+	private static final int TABLEAU_TO_TABLEAU = 0x80;
+	
+	private JournalCodec() {
+	}
+	
+	/**
+	 * Encode a move.
+	 * 
+	 * @param move an encoded {@link Move}, as generated by
+	 *             {@link edu.ycp.cs201.cards.KlondikeController#generateLegalMoves}
+	 * @param out  the array to store the bytes in (at least 2 long)
+	 * @return the number of bytes stored (1 or 2)
+	 * @throws IllegalArgumentException if the move can never be legal
+	 */
+	static int encode(int move, byte[] out) {
+		if (move == Move.DRAW) {
+			out[0] = DRAW;
+			return 1;
+		}
+		LocationType sourceType = Move.getSourceType(move);
+		LocationType destType = Move.getDestType(move);
+		int sourcePile = Move.getSourcePile(move);
+		int destPile = Move.getDestPile(move);
+		
+		if (sourceType == LocationType.MAIN_DECK && destType == LocationType.FOUNDATION_PILE && destPile < 4) {
+			out[0] = (byte) (FROM_MAIN + destPile);
+			return 1;
+		}
+		if (sourceType == LocationType.MAIN_DECK && destType == LocationType.TABLEAU_PILE && destPile < 7) {
+			out[0] = (byte) (FROM_MAIN + 4 + destPile);
+			return 1;
+		}
+		if (sourceType == LocationType.TABLEAU_PILE && sourcePile < 7) {
+			if (destType == LocationType.FOUNDATION_PILE && destPile < 4) {
+				out[0] = (byte) (TABLEAU_TO_FOUNDATION + 4 * sourcePile + destPile);
+				return 1;
+			}
+			if (destType == LocationType.TABLEAU_PILE && destPile < 7) {
+				out[0] = (byte) (TABLEAU_TO_TABLEAU + 8 * sourcePile + destPile);
+				out[1] = (byte) Move.getCardIndex(move);
+				return 2;
+			}
+		}
+		throw new IllegalArgumentException("Move cannot be journaled: " + Move.toString(move));
+	}
+	
+	/**
+	 * @param first the first byte of an entry
+	 * @return the length of the entry, in bytes
+	 * @throws IllegalArgumentException if the byte does not start an entry
+	 */
+	static int length(int first) {
+		first &= 0xFF;
+		if (first == KEYFRAME) {
+			return KEYFRAME_LENGTH;
+		}
+		if (first >= TABLEAU_TO_TABLEAU) {
+			return 2;
+		}
+		if (first <= FROM_MAIN + 10 || (first >= TABLEAU_TO_FOUNDATION && first < TABLEAU_TO_FOUNDATION + 28)) {
+			return 1;
+		}
+		throw new IllegalArgumentException("Invalid journal entry " + first);
+	}
+	
+	/**
+	 * Decode a move entry.
+	 * 
+	 * @param first  the first byte of the entry
+	 * @param second the second byte of the entry (ignored for one-byte entries)
+	 * @param model  the game state the move is made in, used to fill in
+	 *               the index of the top card of the source pile
+	 * @return the encoded {@link Move}
+	 * @throws IllegalArgumentException if the bytes are not a move entry
+	 */
+	static int decode(int first, int second, KlondikeModel model) {
+		first &= 0xFF;
+		if (first == DRAW) {
+			return Move.DRAW;
+		}
+		if (first <= FROM_MAIN + 10) {
+			int dest = first - FROM_MAIN;
+			int top = topIndex(model.getMainDeck());
+			if (dest < 4) {
+				return Move.encode(LocationType.MAIN_DECK, 0, top, LocationType.FOUNDATION_PILE, dest);
+			}
+			return Move.encode(LocationType.MAIN_DECK, 0, top, LocationType.TABLEAU_PILE, dest - 4);
+		}
+		if (first >= TABLEAU_TO_FOUNDATION && first < TABLEAU_TO_FOUNDATION + 28) {
+			int source = (first - TABLEAU_TO_FOUNDATION) / 4;
+			int dest = (first - TABLEAU_TO_FOUNDATION) % 4;
+			int top = topIndex(model.getTableauPile(source));
+			return Move.encode(LocationType.TABLEAU_PILE, source, top, LocationType.FOUNDATION_PILE, dest);
+		}
+		if (first >= TABLEAU_TO_TABLEAU) {
+			int source = (first >> 3) & 7;
+			int dest = first & 7;
+			if (source < 7 && dest < 7) {
+				return Move.encode(LocationType.TABLEAU_PILE, source, second & 0x3F, LocationType.TABLEAU_PILE, dest);
+			}
+		}
+		throw new IllegalArgumentException("Invalid journal entry " + first);
+	}
+	
+	private static int topIndex(Pile pile) {
+		if (pile.isEmpty()) {
+			throw new IllegalArgumentException("Journal entry moves a card from an empty pile");
+		}
+		return pile.getIndexOfTopCard();
+	}
+}
@@ -0,0 +1,251 @@
+package edu.ycp.cs201.cards.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * <p>Reads a journal written by a {@link JournalWriter}, and recreates the
+ * game state after any number of moves.</p>
+ * 
+ * <p>The whole journal is read into memory and scanned once, without
+ * making any moves, to count the moves and find the keyframes.  Seeking
+ * to move <i>n</i> then starts from the last keyframe at or before
+ * <i>n</i> (or from the current position, if that is closer), so it never
+ * re-applies more than one keyframe interval of moves.  An incomplete
+ * entry at the end of the file (left by a writer that was not closed) is
+ * ignored.</p>
+ * 
+ * <p>A reader can be shared by any number of threads, each with its own
+ * {@link Replay}.</p>
+ */
+public class JournalReader {
+	private final byte[] data;
+	private final int keyframeInterval;
+	private final int numMoves;
+	private int[] keyframeOffsets;
+	private int numKeyframes;
+	
+	/**
+	 * Read a journal file.
+	 * 
+	 * @param path the journal file
+	 * @throws IOException if the file cannot be read or is not a journal
+	 */
+	public JournalReader(Path path) throws IOException {
+		this(Files.readAllBytes(path));
+	}
+	
+	/**
+	 * Read a journal held in a byte array.  The array is not copied,
+	 * so it must not be modified while the reader is in use.
+	 * 
+	 * @param data the journal's bytes
+	 * @throws IOException if the data is not a journal
+	 */
+	public JournalReader(byte[] data) throws IOException {
+		this.data = data;
+		if (data.length < JournalWriter.HEADER_SIZE
+				|| !Arrays.equals(Arrays.copyOf(data, JournalWriter.MAGIC.length), JournalWriter.MAGIC)) {
+			throw new IOException("Not a journal file");
+		}
+		ByteBuffer header = ByteBuffer.wrap(data, JournalWriter.MAGIC.length, 8);
+		int version = header.getInt();
+		if (version != JournalWriter.VERSION) {
+			throw new IOException("Unsupported journal version " + version);
+		}
+		this.keyframeInterval = header.getInt();
+		if (keyframeInterval < 1) {
+			throw new IOException("Invalid keyframe interval " + keyframeInterval);
+		}
+		
+		// find the keyframes and count the complete moves
+		this.keyframeOffsets = new int[16];
+		this.numKeyframes = 0;
+		int pos = JournalWriter.HEADER_SIZE;
+		int moves = 0;
+		while (pos < data.length) {
+			int length;
+			try {
+				length = JournalCodec.length(data[pos]);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid journal entry at offset " + pos);
+			}
+			if (length > data.length - pos) {
+				break;
+			}
+			if (length == JournalCodec.KEYFRAME_LENGTH) {
+				if (moves != numKeyframes * keyframeInterval) {
+					throw new IOException("Keyframe out of place at offset " + pos);
+				}
+				addKeyframe(pos);
+			} else {
+				if (numKeyframes == 0) {
+					throw new IOException("Journal has no initial game state");
+				}
+				moves++;
+			}
+			pos += length;
+		}
+		if (numKeyframes == 0) {
+			throw new IOException("Journal has no initial game state");
+		}
+		this.numMoves = moves;
+	}
+	
+	/**
+	 * @return the number of moves between keyframes
+	 */
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+	
+	/**
+	 * @return the number of complete moves in the journal
+	 */
+	public int getNumMoves() {
+		return numMoves;
+	}
+	
+	/**
+	 * Get the game state after a given number of moves.
+	 * 
+	 * @param n the number of moves (0 for the initial game state)
+	 * @return a new {@link KlondikeModel} holding the game state
+	 * @throws IndexOutOfBoundsException if <code>n</code> is negative or greater
+	 *         than {@link #getNumMoves()}
+	 */
+	public KlondikeModel stateAt(int n) {
+		Replay replay = new Replay();
+		replay.seek(n);
+		return replay.getModel();
+	}
+	
+	/**
+	 * @return a new {@link Replay}, positioned at the initial game state
+	 */
+	public Replay replay() {
+		Replay replay = new Replay();
+		replay.seek(0);
+		return replay;
+	}
+	
+	private void addKeyframe(int offset) {
+		if (numKeyframes == keyframeOffsets.length) {
+			keyframeOffsets = Arrays.copyOf(keyframeOffsets, numKeyframes * 2);
+		}
+		keyframeOffsets[numKeyframes++] = offset;
+	}
+	
+	/**
+	 * A position in the journal, which can step forward one move at a
+	 * time or seek to any move.  A replay is not thread-safe.
+	 */
+	public class Replay {
+		private final KlondikeController controller;
+		private final UndoLog undo;
+		private KlondikeModel model;
+		private int position;
+		private int offset;
+		private int lastMove;
+		
+		private Replay() {
+			this.controller = new KlondikeController();
+			this.undo = new UndoLog();
+			this.position = -1;
+		}
+		
+		/**
+		 * @return the number of moves made so far
+		 */
+		public int getPosition() {
+			return position;
+		}
+		
+		/**
+		 * @return the game state after {@link #getPosition()} moves;
+		 *         it is changed by later calls to {@link #next()} and
+		 *         {@link #seek(int)}, which may also replace it with a
+		 *         different object
+		 */
+		public KlondikeModel getModel() {
+			return model;
+		}
+		
+		/**
+		 * @return the most recent move made by {@link #next()} (see
+		 *         {@link edu.ycp.cs201.cards.Move}), or -1 if the replay
+		 *         has just been positioned at a keyframe
+		 */
+		public int getLastMove() {
+			return lastMove;
+		}
+		
+		/**
+		 * @return true if there are more moves to make
+		 */
+		public boolean hasNext() {
+			return position < numMoves;
+		}
+		
+		/**
+		 * Make the next move.
+		 * 
+		 * @return the move made (see {@link edu.ycp.cs201.cards.Move})
+		 * @throws NoSuchElementException if there are no more moves
+		 */
+		public int next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("End of journal");
+			}
+			// a keyframe just repeats the state we already have
+			if (JournalCodec.length(data[offset]) == JournalCodec.KEYFRAME_LENGTH) {
+				offset += JournalCodec.KEYFRAME_LENGTH;
+			}
+			int first = data[offset];
+			int length = JournalCodec.length(first);
+			int second = (length == 2) ? data[offset + 1] : 0;
+			int move = JournalCodec.decode(first, second, model);
+			controller.makeMove(model, move, undo);
+			undo.clear();
+			offset += length;
+			position++;
+			lastMove = move;
+			return move;
+		}
+		
+		/**
+		 * Move to the game state after a given number of moves, starting from
+		 * the nearest keyframe (or the current position, if that is closer).
+		 * 
+		 * @param n the number of moves (0 for the initial game state)
+		 * @throws IndexOutOfBoundsException if <code>n</code> is negative or greater
+		 *         than {@link #getNumMoves()}
+		 */
+		public void seek(int n) {
+			if (n < 0 || n > numMoves) {
+				throw new IndexOutOfBoundsException("No move " + n + " in a journal of " + numMoves + " moves");
+			}
+			int keyframe = Math.min(n / keyframeInterval, numKeyframes - 1);
+			int keyframeMove = keyframe * keyframeInterval;
+			if (position < keyframeMove || position > n) {
+				model = new KlondikeModel();
+				BinaryGameState.bufferToModel(model, ByteBuffer.wrap(data), keyframeOffsets[keyframe] + 1);
+				offset = keyframeOffsets[keyframe] + JournalCodec.KEYFRAME_LENGTH;
+				position = keyframeMove;
+				lastMove = -1;
+			}
+			while (position < n) {
+				next();
+			}
+		}
+	}
+}
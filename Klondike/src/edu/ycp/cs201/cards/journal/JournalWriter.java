@@ -0,0 +1,198 @@
+package edu.ycp.cs201.cards.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * <p>Records the moves of a game to a compact journal, which a
+ * {@link JournalReader} can replay from any point.</p>
+ * 
+ * <p>A journal starts with a header ({@link #MAGIC}, a version number
+ * and the keyframe interval, as big-endian <code>int</code>s) and a keyframe
+ * holding the initial game state.  Each move follows as a one- or two-byte
+ * entry (see {@link JournalCodec}), and after every <i>interval</i> moves
+ * another keyframe is written holding the game state at that point, so
+ * that a reader never has to re-apply more than <i>interval</i> moves to
+ * reach any position.</p>
+ * 
+ * <p>Entries are written through a buffer as they are recorded; if the
+ * program stops without closing the writer, a reader sees every complete
+ * entry that reached the file.  The writer keeps its own copy of the game
+ * state, so the caller's model is never read after the constructor returns.
+ * A writer is not thread-safe.</p>
+ */
+public class JournalWriter implements Closeable, Flushable {
+	/** The bytes every journal file starts with. */
+	public static final byte[] MAGIC = { 'K', 'L', 'N', 'D', 'J', 'R', 'N', 'L' };
+	
+	/** The current journal format version. */
+	public static final int VERSION = 1;
+	
+	/** The size of the header, in bytes. */
+	public static final int HEADER_SIZE = MAGIC.length + 4 + 4;
+	
+	/** Default number of moves between keyframes. */
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+	
+	private final DataOutputStream out;
+	private final int keyframeInterval;
+	private final KlondikeController controller;
+	private final KlondikeModel model;
+	private final UndoLog undo;
+	private final byte[] entry;
+	private int numMoves;
+	
+	/**
+	 * Create a journal file (replacing any existing file), with the
+	 * default keyframe interval.
+	 * 
+	 * @param path  the journal file
+	 * @param model the initial game state
+	 * @throws IOException if the file cannot be written
+	 */
+	public JournalWriter(Path path, KlondikeModel model) throws IOException {
+		this(Files.newOutputStream(path), model, DEFAULT_KEYFRAME_INTERVAL);
+	}
+	
+	/**
+	 * Start a journal on an output stream.  The stream is closed when
+	 * the writer is closed.
+	 * 
+	 * @param out              the stream to write the journal to
+	 * @param model            the initial game state
+	 * @param keyframeInterval the number of moves between keyframes
+	 * @throws IOException if the stream throws one
+	 */
+	public JournalWriter(OutputStream out, KlondikeModel model, int keyframeInterval) throws IOException {
+		if (keyframeInterval < 1) {
+			throw new IllegalArgumentException("Keyframe interval must be at least 1");
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.keyframeInterval = keyframeInterval;
+		this.controller = new KlondikeController();
+		this.model = new KlondikeModel();
+		this.undo = new UndoLog();
+		this.entry = new byte[2];
+		this.numMoves = 0;
+		
+		byte[] initial = BinaryGameState.modelToBytes(model);
+		BinaryGameState.bytesToModel(this.model, initial);
+		try {
+			this.out.write(MAGIC);
+			this.out.writeInt(VERSION);
+			this.out.writeInt(keyframeInterval);
+			writeKeyframe(initial);
+		} catch (IOException e) {
+			this.out.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @return the number of moves between keyframes
+	 */
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+	
+	/**
+	 * @return the number of moves recorded so far
+	 */
+	public int getNumMoves() {
+		return numMoves;
+	}
+	
+	/**
+	 * Record a move.  Like
+	 * {@link KlondikeController#makeMove(KlondikeModel, int, edu.ycp.cs201.cards.UndoLog)},
+	 * this assumes that the move is legal in the current game state.
+	 * 
+	 * @param move an encoded {@link Move}, as generated by
+	 *             {@link KlondikeController#generateLegalMoves}
+	 * @throws IllegalArgumentException if the move is not of a kind the game allows
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void recordMove(int move) throws IOException {
+		int length = JournalCodec.encode(move, entry);
+		if (move != Move.DRAW) {
+			// check before writing anything, so a bad move never reaches the journal
+			int top = (Move.getSourceType(move) == LocationType.MAIN_DECK)
+					? model.getMainDeck().getIndexOfTopCard()
+					: model.getTableauPile(Move.getSourcePile(move)).getIndexOfTopCard();
+			int cardIndex = Move.getCardIndex(move);
+			// for a one-byte entry the card index is implied, so it had better be the top card
+			if (cardIndex > top || (length == 1 && cardIndex != top)) {
+				throw new IllegalArgumentException("No such card to move: " + Move.toString(move));
+			}
+		}
+		out.write(entry, 0, length);
+		controller.makeMove(model, move, undo);
+		undo.clear();
+		numMoves++;
+		if (numMoves % keyframeInterval == 0) {
+			writeKeyframe(BinaryGameState.modelToBytes(model));
+		}
+	}
+	
+	/**
+	 * Record a call to {@link KlondikeController#drawCardOrRecycleWaste(KlondikeModel)}.
+	 * 
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void recordDraw() throws IOException {
+		recordMove(Move.DRAW);
+	}
+	
+	/**
+	 * Record a call to {@link KlondikeController#select(KlondikeModel, Location)}
+	 * followed by {@link KlondikeController#moveCards(KlondikeModel, edu.ycp.cs201.cards.Selection, Location)}.
+	 * 
+	 * @param source the {@link Location} passed to <code>select</code>
+	 * @param dest   the destination {@link Location} passed to <code>moveCards</code>
+	 * @throws IllegalArgumentException if the move is not of a kind the game allows
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void recordMove(Location source, Location dest) throws IOException {
+		recordMove(Move.encode(source.getLocationType(), source.getPileIndex(), source.getCardIndex(),
+				dest.getLocationType(), dest.getPileIndex()));
+	}
+	
+	/**
+	 * Write any buffered entries to the underlying stream.
+	 * 
+	 * @throws IOException if the journal cannot be written
+	 */
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+	
+	/**
+	 * Write any buffered entries and close the underlying stream.
+	 * 
+	 * @throws IOException if the journal cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+	
+	private void writeKeyframe(byte[] record) throws IOException {
+		out.write(JournalCodec.KEYFRAME);
+		out.write(record);
+	}
+}
@@ -0,0 +1,251 @@
+package edu.ycp.cs201.cards.server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.ycp.cs201.cards.GameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.Selection;
+
+/**
+ * <p>One game, owned by a single writer: commands for the game are added to
+ * a lock-free mailbox by any number of threads, and applied one at a time,
+ * in the order they were added, by whichever thread of an {@link Executor}
+ * is running the actor at the time.  Each command's result is returned
+ * through a {@link Future}.  Nothing is ever locked, so a thread submitting
+ * a command never waits for another game, or even for this one.</p>
+ * 
+ * <p>An actor only occupies an executor thread while its mailbox has
+ * commands in it, and gives the thread up after {@link #BATCH_SIZE}
+ * commands (rescheduling itself if more are waiting), so a busy game cannot
+ * starve the others.  Many actors can share one executor, and they run in
+ * parallel on as many threads as it has; a <code>ForkJoinPool</code> in
+ * async mode, or a fixed pool sized to the number of processors, works
+ * well.</p>
+ * 
+ * <p>The model and any {@link Selection} are touched only by commands,
+ * so they never need to be shared; use {@link #snapshot()} to get an
+ * immutable {@link GameState} that other threads can read.</p>
+ */
+public class GameActor {
+	/** The most commands applied before the actor gives up its thread. */
+	public static final int BATCH_SIZE = 64;
+	
+	private final long id;
+	private final Executor executor;
+	private final KlondikeController controller;
+	private final KlondikeModel model;
+	private final ConcurrentLinkedQueue<FutureTask<?>> mailbox;
+	private final AtomicBoolean scheduled;
+	private final Runnable drain;
+	
+	// the selection made by select(), if any; only touched by commands
+	private Selection selection;
+	
+	/**
+	 * Constructor.  Deals a new game.
+	 * 
+	 * @param id         the game id
+	 * @param dealNumber the deal to play (see
+	 *                   {@link KlondikeController#initModel(KlondikeModel, long)})
+	 * @param executor   the {@link Executor} to apply commands on
+	 */
+	public GameActor(long id, long dealNumber, Executor executor) {
+		this.id = id;
+		this.executor = executor;
+		this.controller = new KlondikeController();
+		this.model = new KlondikeModel();
+		this.mailbox = new ConcurrentLinkedQueue<FutureTask<?>>();
+		this.scheduled = new AtomicBoolean(false);
+		this.drain = new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		};
+		controller.initModel(model, dealNumber);
+	}
+	
+	/**
+	 * @return the game id
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	/**
+	 * Add a command to the mailbox.
+	 * 
+	 * @param command the {@link GameCommand}
+	 * @return a {@link Future} for the command's result
+	 * @throws RejectedExecutionException if the executor will not run the actor
+	 *         (for example, because it has been shut down); the command, and any
+	 *         others still waiting in the mailbox, are cancelled
+	 */
+	public <T> Future<T> submit(final GameCommand<T> command) {
+		FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return command.apply(controller, model);
+			}
+		});
+		mailbox.add(task);
+		schedule();
+		return task;
+	}
+	
+	/**
+	 * Draw a card from the main deck, or recycle the waste pile
+	 * (see {@link KlondikeController#drawCardOrRecycleWaste(KlondikeModel)}).
+	 * 
+	 * @return a {@link Future} that completes when the card has been drawn
+	 */
+	public Future<Void> draw() {
+		return submit(new GameCommand<Void>() {
+			@Override
+			public Void apply(KlondikeController controller, KlondikeModel model) {
+				controller.drawCardOrRecycleWaste(model);
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Select cards to move (see {@link KlondikeController#select(KlondikeModel, Location)}),
+	 * replacing any selection made earlier (whose cards go back where they came from).
+	 * 
+	 * @param source the {@link Location} of the card or cards to select
+	 * @return a {@link Future} for whether the cards could be selected
+	 */
+	public Future<Boolean> select(final Location source) {
+		return submit(new GameCommand<Boolean>() {
+			@Override
+			public Boolean apply(KlondikeController controller, KlondikeModel model) {
+				unselect(controller, model);
+				selection = controller.select(model, source);
+				return selection != null;
+			}
+		});
+	}
+	
+	/**
+	 * Move the selected cards, if that is legal (see
+	 * {@link KlondikeController#allowMove(KlondikeModel, Selection, Location)} and
+	 * {@link KlondikeController#moveCards(KlondikeModel, Selection, Location)}).
+	 * Either way the selection is cleared; if the move is not legal, the
+	 * cards go back where they came from.
+	 * 
+	 * @param dest the destination {@link Location}
+	 * @return a {@link Future} for whether the cards were moved (false if there
+	 *         was no selection, or the move is not legal)
+	 */
+	public Future<Boolean> moveSelection(final Location dest) {
+		return submit(new GameCommand<Boolean>() {
+			@Override
+			public Boolean apply(KlondikeController controller, KlondikeModel model) {
+				if (selection == null) {
+					return false;
+				}
+				if (!controller.allowMove(model, selection, dest)) {
+					unselect(controller, model);
+					return false;
+				}
+				controller.moveCards(model, selection, dest);
+				selection = null;
+				return true;
+			}
+		});
+	}
+	
+	/**
+	 * Select cards and move them, if that is legal, as one command.
+	 * 
+	 * @param source the {@link Location} of the card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @return a {@link Future} for whether the cards were moved
+	 */
+	public Future<Boolean> move(final Location source, final Location dest) {
+		return submit(new GameCommand<Boolean>() {
+			@Override
+			public Boolean apply(KlondikeController controller, KlondikeModel model) {
+				unselect(controller, model);
+				if (!controller.allowMove(model, source, dest)) {
+					return false;
+				}
+				controller.moveCards(model, controller.select(model, source), dest);
+				return true;
+			}
+		});
+	}
+	
+	/**
+	 * @return a {@link Future} for an immutable snapshot of the game, as it is
+	 *         after every command submitted earlier (with any selected cards
+	 *         back where they came from)
+	 */
+	public Future<GameState> snapshot() {
+		return submit(new GameCommand<GameState>() {
+			@Override
+			public GameState apply(KlondikeController controller, KlondikeModel model) {
+				if (selection == null) {
+					return GameState.fromModel(model);
+				}
+				controller.unselect(model, selection);
+				GameState state = GameState.fromModel(model);
+				selection = controller.select(model, selection.getOrigin());
+				return state;
+			}
+		});
+	}
+	
+	// put back any selected cards; called only by commands
+	private void unselect(KlondikeController controller, KlondikeModel model) {
+		if (selection != null) {
+			controller.unselect(model, selection);
+			selection = null;
+		}
+	}
+	
+	// make sure a drain is running or about to run, if there are commands
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(drain);
+			} catch (RejectedExecutionException e) {
+				// nothing will run the waiting commands: cancel them, so that no
+				// caller waits forever, and let the next submit try again
+				scheduled.set(false);
+				FutureTask<?> task;
+				while ((task = mailbox.poll()) != null) {
+					task.cancel(false);
+				}
+				throw e;
+			}
+		}
+	}
+	
+	// apply up to a batch of commands, then give up the thread
+	private void drain() {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			FutureTask<?> task = mailbox.poll();
+			if (task == null) {
+				break;
+			}
+			task.run();
+		}
+		scheduled.set(false);
+		
+		// a command added after the last poll (whose submitter saw
+		// scheduled == true) would otherwise wait until the next submit
+		if (!mailbox.isEmpty()) {
+			schedule();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package edu.ycp.cs201.cards.server;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+
+/**
+ * A command applied to the game owned by a {@link GameActor}.  Commands
+ * for the same game are applied one at a time, in the order they were
+ * submitted, so a command can use the model freely, but must not keep a
+ * reference to it (or to anything in it) after it returns.
+ * 
+ * @param <T> the type of the command's result
+ */
+public interface GameCommand<T> {
+	/**
+	 * Apply the command.
+	 * 
+	 * @param controller the {@link KlondikeController}
+	 * @param model      the game's {@link KlondikeModel}
+	 * @return the result, passed to the command's future
+	 * @throws Exception if the command fails (the future then throws an
+	 *         <code>ExecutionException</code>; the game goes on)
+	 */
+	T apply(KlondikeController controller, KlondikeModel model) throws Exception;
+}
@@ -0,0 +1,398 @@
+package edu.ycp.cs201.cards.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+
+/**
+ * <p>A small HTTP service for playing games of Klondike, built on the
+ * JDK's <code>com.sun.net.httpserver</code>.  Each game is a
+ * {@link GameSession}, identified by a number, and kept in a
+ * {@link SessionStore}.</p>
+ * 
+ * <table>
+ *   <tr><th>request</th><th>effect</th></tr>
+ *   <tr><td><code>POST /games[?deal=n]</code></td><td>start a new game (with a random
+ *   deal by default); responds 201 with the game's path in the <code>Location</code> header</td></tr>
+ *   <tr><td><code>GET /games/{id}</code></td><td>get the game state</td></tr>
+ *   <tr><td><code>POST /games/{id}/draw</code></td><td>draw a card or recycle the waste pile</td></tr>
+ *   <tr><td><code>POST /games/{id}/move?from=TYPE,pile,card&amp;to=TYPE,pile</code></td><td>move
+ *   cards, where <code>TYPE</code> is a {@link LocationType} name; responds 409 if the
+ *   move is not legal</td></tr>
+ *   <tr><td><code>DELETE /games/{id}</code></td><td>end the game</td></tr>
+ *   <tr><td><code>GET /stats</code></td><td>report the {@link SessionStoreStats}, as text</td></tr>
+ * </table>
+ * 
+ * <p>Every request except <code>DELETE</code> responds with the game state:
+ * the text form of {@link edu.ycp.cs201.cards.StringifyGameState} by default,
+ * or a {@link edu.ycp.cs201.cards.BinaryGameState} record if the request has
+ * <code>format=binary</code> in its query or asks to <code>Accept</code>
+ * <code>application/octet-stream</code>.  The <code>X-Game-Won</code> header
+ * says whether the game has been won.</p>
+ * 
+ * <p>Requests are handled by a fixed pool of threads.  Handling a request
+ * never blocks (apart from waiting for other requests for the same game),
+ * so a pool about the size of the number of processors is enough.</p>
+ */
+public class GameServer {
+	/** The path all game requests are under. */
+	public static final String GAMES_PATH = "/games";
+	
+	/** The path that reports the {@link SessionStoreStats}. */
+	public static final String STATS_PATH = "/stats";
+	
+	/** The number of games kept live by default. */
+	public static final int DEFAULT_MAX_LIVE_SESSIONS = 10000;
+	
+	private static final String TEXT = "text/plain; charset=US-ASCII";
+	private static final String BINARY = "application/octet-stream";
+	
+	private static final Logger LOG = Logger.getLogger(GameServer.class.getName());
+	
+	static {
+		// the server writes the response headers and body separately; without
+		// TCP_NODELAY, Nagle's algorithm holds the body back until the client's
+		// delayed ACK, adding about 40 ms to every response
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+	
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final SessionStore sessions;
+	
+	/**
+	 * Constructor for a server that keeps up to
+	 * {@link #DEFAULT_MAX_LIVE_SESSIONS} games live and never spills
+	 * games to disk.  The server does not accept requests until
+	 * {@link #start()} is called.
+	 * 
+	 * @param address the address to listen on (port 0 picks a free port)
+	 * @param threads the number of threads handling requests
+	 * @throws IOException if the server cannot listen on the address
+	 */
+	public GameServer(InetSocketAddress address, int threads) throws IOException {
+		this(address, threads, new SessionStore(DEFAULT_MAX_LIVE_SESSIONS));
+	}
+	
+	/**
+	 * Constructor.  The server does not accept requests until
+	 * {@link #start()} is called.
+	 * 
+	 * @param address  the address to listen on (port 0 picks a free port)
+	 * @param threads  the number of threads handling requests
+	 * @param sessions the {@link SessionStore} to keep games in
+	 * @throws IOException if the server cannot listen on the address
+	 */
+	public GameServer(InetSocketAddress address, int threads, SessionStore sessions) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.sessions = sessions;
+		this.server = HttpServer.create(address, 1024);
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "game-server-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+		server.createContext(GAMES_PATH, new GamesHandler());
+		server.createContext(STATS_PATH, new StatsHandler());
+	}
+	
+	/**
+	 * Start accepting requests.
+	 */
+	public void start() {
+		server.start();
+	}
+	
+	/**
+	 * Stop accepting requests, wait up to the given time for requests being
+	 * handled to finish, and shut down the request threads.
+	 * 
+	 * @param delaySeconds the longest time to wait, in seconds
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * @return the port the server is listening on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+	
+	/**
+	 * @return the number of games in progress
+	 */
+	public int getNumSessions() {
+		return sessions.size();
+	}
+	
+	/**
+	 * @return the {@link SessionStore} the games are kept in
+	 */
+	public SessionStore getSessionStore() {
+		return sessions;
+	}
+	
+	/**
+	 * Start a new game.
+	 * 
+	 * @param dealNumber the deal to play
+	 * @return the new {@link GameSession}
+	 */
+	public GameSession newSession(long dealNumber) {
+		return sessions.create(dealNumber);
+	}
+	
+	/**
+	 * @param id a session id
+	 * @return the {@link GameSession} with the id, or null if there is none
+	 */
+	public GameSession getSession(long id) {
+		return sessions.get(id);
+	}
+	
+	/**
+	 * End a game.
+	 * 
+	 * @param id a session id
+	 * @return true if there was a game with the id
+	 */
+	public boolean removeSession(long id) {
+		return sessions.remove(id);
+	}
+	
+	private class GamesHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				handleRequest(exchange);
+			} catch (BadRequestException e) {
+				sendError(exchange, 400, e.getMessage());
+			} catch (GameSession.EndedException e) {
+				// the game was ended by another request after this one looked it up
+				sendError(exchange, 404, "No such game");
+			} catch (RuntimeException e) {
+				// details stay in the log, not in the response
+				LOG.log(Level.WARNING, "Error handling " + exchange.getRequestMethod() + " "
+						+ exchange.getRequestURI(), e);
+				sendError(exchange, 500, "Internal server error");
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+	
+	private class StatsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (exchange.getRequestMethod().equals("GET")) {
+					exchange.getResponseHeaders().set("Content-Type", TEXT);
+					send(exchange, 200, sessions.getStats().toString().getBytes(StandardCharsets.US_ASCII));
+				} else {
+					sendError(exchange, 405, "Use GET for stats");
+				}
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+	
+	private void handleRequest(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getRawPath();
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+		
+		// "/games" or "/games/" starts a new game
+		String rest = path.substring(GAMES_PATH.length());
+		if (rest.isEmpty() || rest.equals("/")) {
+			if (!method.equals("POST")) {
+				sendError(exchange, 405, "Use POST to start a game");
+				return;
+			}
+			long dealNumber = query.containsKey("deal")
+					? parseLong(query.get("deal"))
+					: ThreadLocalRandom.current().nextLong();
+			GameSession session = newSession(dealNumber);
+			exchange.getResponseHeaders().set("Location", GAMES_PATH + "/" + session.getId());
+			sendState(exchange, 201, session.encode(wantsBinary(exchange, query)));
+			return;
+		}
+		if (rest.charAt(0) != '/') {
+			sendError(exchange, 404, "No such path");
+			return;
+		}
+		
+		// "/games/{id}" or "/games/{id}/{action}"
+		int slash = rest.indexOf('/', 1);
+		String idString = (slash < 0) ? rest.substring(1) : rest.substring(1, slash);
+		String action = (slash < 0) ? "" : rest.substring(slash + 1);
+		long id;
+		try {
+			id = Long.parseLong(idString);
+		} catch (NumberFormatException e) {
+			sendError(exchange, 404, "No such game");
+			return;
+		}
+		GameSession session = sessions.get(id);
+		if (session == null) {
+			sendError(exchange, 404, "No such game");
+			return;
+		}
+		
+		if (action.isEmpty()) {
+			if (method.equals("GET")) {
+				sendState(exchange, 200, session.encode(wantsBinary(exchange, query)));
+			} else if (method.equals("DELETE")) {
+				removeSession(id);
+				exchange.sendResponseHeaders(204, -1);
+			} else {
+				sendError(exchange, 405, "Use GET or DELETE");
+			}
+		} else if (action.equals("draw") || action.equals("move")) {
+			if (!method.equals("POST")) {
+				sendError(exchange, 405, "Use POST to " + action);
+				return;
+			}
+			// apply the action and encode the result as one step, so that the
+			// response shows exactly this action's effect
+			boolean binary = wantsBinary(exchange, query);
+			GameSession.EncodedState state;
+			if (action.equals("draw")) {
+				state = session.drawAndEncode(binary);
+			} else {
+				state = session.moveAndEncode(parseLocation(query.get("from"), true),
+						parseLocation(query.get("to"), false), binary);
+				if (state == null) {
+					sendError(exchange, 409, "Illegal move");
+					return;
+				}
+			}
+			sendState(exchange, 200, state);
+		} else {
+			sendError(exchange, 404, "No such action");
+		}
+	}
+	
+	private static boolean wantsBinary(HttpExchange exchange, Map<String, String> query) {
+		return "binary".equals(query.get("format"))
+				|| BINARY.equals(exchange.getRequestHeaders().getFirst("Accept"));
+	}
+	
+	private static void sendState(HttpExchange exchange, int status, GameSession.EncodedState state) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", state.isBinary() ? BINARY : TEXT);
+		exchange.getResponseHeaders().set("X-Game-Won", Boolean.toString(state.isWin()));
+		send(exchange, status, state.getBytes());
+	}
+	
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", TEXT);
+		send(exchange, status, message.getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+	
+	// parse "TYPE,pile,card" (or "TYPE,pile" for a destination)
+	private static Location parseLocation(String s, boolean source) {
+		if (s == null) {
+			throw new BadRequestException("Missing " + (source ? "from" : "to") + " location");
+		}
+		String[] parts = s.split(",");
+		if (parts.length < (source ? 3 : 2) || parts.length > 3) {
+			throw new BadRequestException("Invalid location " + s);
+		}
+		LocationType type;
+		try {
+			type = LocationType.valueOf(parts[0]);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid location type " + parts[0]);
+		}
+		int pile = (int) parseLong(parts[1]);
+		int card = parts.length == 3 ? (int) parseLong(parts[2]) : 0;
+		int numPiles = (type == LocationType.TABLEAU_PILE) ? 7 : (type == LocationType.FOUNDATION_PILE) ? 4 : 1;
+		if (pile < 0 || pile >= numPiles || card < 0 || card > 51) {
+			throw new BadRequestException("Invalid location " + s);
+		}
+		return new Location(type, pile, card);
+	}
+	
+	private static long parseLong(String s) {
+		try {
+			return Long.parseLong(s);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid number " + s);
+		}
+	}
+	
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> query = new HashMap<String, String>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return query;
+		}
+		try {
+			for (String param : rawQuery.split("&")) {
+				int eq = param.indexOf('=');
+				String name = (eq < 0) ? param : param.substring(0, eq);
+				String value = (eq < 0) ? "" : param.substring(eq + 1);
+				query.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+			}
+		} catch (UnsupportedEncodingException e) {
+			// every JVM supports UTF-8
+			throw new IllegalStateException(e);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid query");
+		}
+		return query;
+	}
+	
+	// a request that can't be understood, reported as 400 Bad Request
+	private static class BadRequestException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		public BadRequestException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package edu.ycp.cs201.cards.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+
+/**
+ * Command-line driver for the {@link GameServer}.  Serves on all
+ * interfaces until the program is killed.  If a spill file is given,
+ * idle games beyond the memory budget are spilled to it (see
+ * {@link SessionStore}).
+ * 
+ * Usage: <code>GameServerMain [port [threads [maxLive [budgetMB spillFile]]]]</code>
+ */
+public class GameServerMain {
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int maxLive = args.length > 2 ? Integer.parseInt(args[2]) : GameServer.DEFAULT_MAX_LIVE_SESSIONS;
+		
+		SessionStore sessions;
+		if (args.length > 4) {
+			long budget = Long.parseLong(args[3]) * 1024L * 1024L;
+			sessions = new SessionStore(maxLive, budget, Paths.get(args[4]));
+		} else {
+			sessions = new SessionStore(maxLive);
+		}
+		
+		GameServer server = new GameServer(new InetSocketAddress(port), threads, sessions);
+		server.start();
+		System.out.println("Serving games on port " + server.getPort() + " with " + threads + " threads");
+	}
+}
@@ -0,0 +1,336 @@
+package edu.ycp.cs201.cards.server;
+
+import java.io.IOException;
+
+import edu.ycp.cs201.cards.BinaryGameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.PackedGameState;
+import edu.ycp.cs201.cards.Selection;
+import edu.ycp.cs201.cards.StringifyGameState;
+
+/**
+ * <p>One game being played through the {@link GameServer}.  Every
+ * method locks the session, so requests for the same game are
+ * applied one at a time, while different games proceed in parallel.</p>
+ * 
+ * <p>A session that belongs to a {@link SessionStore} may be compacted
+ * into a {@link PackedGameState}, or spilled to the store's
+ * {@link SpillFile}, while it is idle.  Its game state is brought back
+ * into a {@link KlondikeModel} the next time it is used, so this is
+ * invisible to callers.</p>
+ */
+public class GameSession {
+	/** Where a session's game state is kept. */
+	enum Tier {
+		/** In a {@link KlondikeModel}. */
+		LIVE,
+		/** In a {@link PackedGameState}. */
+		PACKED,
+		/** In a slot of the store's {@link SpillFile}. */
+		SPILLED
+	}
+	
+	// the controller has no state of its own, so every session can share it
+	private static final KlondikeController CONTROLLER = new KlondikeController();
+	
+	private final long id;
+	private final SessionStore store;
+	private KlondikeModel model;
+	private PackedGameState packed;
+	private int slot;
+	private boolean ended;
+	
+	/**
+	 * Constructor.  Deals a new game, which is always kept live.
+	 * 
+	 * @param id         the session id
+	 * @param dealNumber the deal to play (see
+	 *                   {@link KlondikeController#initModel(KlondikeModel, long)})
+	 */
+	public GameSession(long id, long dealNumber) {
+		this(id, dealNumber, null);
+	}
+	
+	/**
+	 * Constructor for a session that belongs to a {@link SessionStore}.
+	 * 
+	 * @param id         the session id
+	 * @param dealNumber the deal to play
+	 * @param store      the store, or null
+	 */
+	GameSession(long id, long dealNumber, SessionStore store) {
+		this.id = id;
+		this.store = store;
+		this.model = new KlondikeModel();
+		this.slot = -1;
+		CONTROLLER.initModel(model, dealNumber);
+	}
+	
+	/**
+	 * @return the session id
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	/**
+	 * Draw a card from the main deck, or recycle the waste pile
+	 * (see {@link KlondikeController#drawCardOrRecycleWaste(KlondikeModel)}).
+	 */
+	public synchronized void draw() {
+		CONTROLLER.drawCardOrRecycleWaste(access());
+	}
+	
+	/**
+	 * Select cards and move them, as the GUI does: see
+	 * {@link KlondikeController#select(KlondikeModel, Location)},
+	 * {@link KlondikeController#allowMove(KlondikeModel, Selection, Location)} and
+	 * {@link KlondikeController#moveCards(KlondikeModel, Selection, Location)}.
+	 * 
+	 * @param source the {@link Location} of the card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @return true if the move was made, false if it is not legal
+	 *         (in which case the game state is unchanged)
+	 */
+	public synchronized boolean move(Location source, Location dest) {
+		return move(access(), source, dest);
+	}
+	
+	/**
+	 * Draw a card (as {@link #draw()} does) and encode the resulting game
+	 * state, as one step, so that no other request for the game can come
+	 * in between.
+	 * 
+	 * @param binary true for a {@link BinaryGameState} record, false for text
+	 * @return the game state after the draw
+	 */
+	public synchronized EncodedState drawAndEncode(boolean binary) {
+		KlondikeModel model = access();
+		CONTROLLER.drawCardOrRecycleWaste(model);
+		return encode(model, binary);
+	}
+	
+	/**
+	 * Move cards (as {@link #move(Location, Location)} does) and encode the
+	 * resulting game state, as one step, so that no other request for the
+	 * game can come in between.
+	 * 
+	 * @param source the {@link Location} of the card or cards to move
+	 * @param dest   the destination {@link Location}
+	 * @param binary true for a {@link BinaryGameState} record, false for text
+	 * @return the game state after the move, or null if the move is not legal
+	 */
+	public synchronized EncodedState moveAndEncode(Location source, Location dest, boolean binary) {
+		KlondikeModel model = access();
+		if (!move(model, source, dest)) {
+			return null;
+		}
+		return encode(model, binary);
+	}
+	
+	/**
+	 * Encode the game state, together with whether it is won.
+	 * 
+	 * @param binary true for a {@link BinaryGameState} record, false for text
+	 * @return the game state
+	 */
+	public synchronized EncodedState encode(boolean binary) {
+		return encode(access(), binary);
+	}
+	
+	/**
+	 * @return true if the game has been won
+	 */
+	public synchronized boolean isWin() {
+		return CONTROLLER.isWin(access());
+	}
+	
+	/**
+	 * @return the game state as an ASCII string, encoded by
+	 *         {@link StringifyGameState#modelToString(KlondikeModel)}
+	 */
+	public synchronized byte[] toText() {
+		return toText(access());
+	}
+	
+	/**
+	 * @return the game state as a {@link BinaryGameState} record
+	 */
+	public synchronized byte[] toBinary() {
+		return BinaryGameState.modelToBytes(access());
+	}
+	
+	/**
+	 * Thrown when a session is used after it has ended (for example, by a
+	 * request that looked the session up just before another request
+	 * ended it).
+	 */
+	static class EndedException extends IllegalStateException {
+		private static final long serialVersionUID = 1L;
+		
+		EndedException(long id) {
+			super("Game " + id + " has ended");
+		}
+	}
+	
+	/**
+	 * A game state encoded for a response, and whether that state is a
+	 * won game, taken together so that they always agree.
+	 */
+	public static final class EncodedState {
+		private final byte[] bytes;
+		private final boolean binary;
+		private final boolean win;
+		
+		EncodedState(byte[] bytes, boolean binary, boolean win) {
+			this.bytes = bytes;
+			this.binary = binary;
+			this.win = win;
+		}
+		
+		/**
+		 * @return the encoded game state (the array is not copied)
+		 */
+		public byte[] getBytes() {
+			return bytes;
+		}
+		
+		/**
+		 * @return true if the state is a {@link BinaryGameState} record, false if text
+		 */
+		public boolean isBinary() {
+			return binary;
+		}
+		
+		/**
+		 * @return true if the game state is a won game
+		 */
+		public boolean isWin() {
+			return win;
+		}
+	}
+	
+	/**
+	 * @return where the game state is kept at the moment
+	 */
+	synchronized Tier getTier() {
+		return model != null ? Tier.LIVE : packed != null ? Tier.PACKED : Tier.SPILLED;
+	}
+	
+	/**
+	 * Pack the game state, if the store still wants this session packed
+	 * (it may have been used since the store chose it).
+	 * 
+	 * @return true if the session was live and is now packed
+	 */
+	synchronized boolean compact() {
+		if (ended || model == null || !store.shouldBe(this, Tier.PACKED)) {
+			return false;
+		}
+		packed = PackedGameState.fromModel(model);
+		model = null;
+		return true;
+	}
+	
+	/**
+	 * Write the game state to the store's {@link SpillFile}, if the store
+	 * still wants this session spilled.
+	 * 
+	 * @param spillFile the store's spill file
+	 * @return true if the session was live or packed and is now spilled
+	 * @throws IOException if the file cannot be written (the session is unchanged)
+	 */
+	synchronized boolean spill(SpillFile spillFile) throws IOException {
+		if (ended || slot >= 0 || !store.shouldBe(this, Tier.SPILLED)) {
+			return false;
+		}
+		PackedGameState state = (packed != null) ? packed : PackedGameState.fromModel(model);
+		slot = spillFile.write(state);
+		packed = null;
+		model = null;
+		return true;
+	}
+	
+	/**
+	 * End the session, releasing its spill file slot if it has one.
+	 * Any later use of the session throws {@link EndedException}.
+	 * 
+	 * @param spillFile the store's spill file (if the session belongs to a store)
+	 */
+	synchronized void end(SpillFile spillFile) {
+		if (slot >= 0) {
+			spillFile.free(slot);
+			slot = -1;
+		}
+		model = null;
+		packed = null;
+		ended = true;
+	}
+	
+	// select cards and move them, if that is legal
+	private static boolean move(KlondikeModel model, Location source, Location dest) {
+		Selection selection = CONTROLLER.select(model, source);
+		if (selection == null) {
+			return false;
+		}
+		if (!CONTROLLER.allowMove(model, selection, dest)) {
+			CONTROLLER.unselect(model, selection);
+			return false;
+		}
+		CONTROLLER.moveCards(model, selection, dest);
+		return true;
+	}
+	
+	// the game state and whether it is won
+	private static EncodedState encode(KlondikeModel model, boolean binary) {
+		byte[] bytes = binary ? BinaryGameState.modelToBytes(model) : toText(model);
+		return new EncodedState(bytes, binary, CONTROLLER.isWin(model));
+	}
+	
+	// the game state as an ASCII string
+	private static byte[] toText(KlondikeModel model) {
+		char[] chars = new char[StringifyGameState.encodedLength(model)];
+		StringifyGameState.modelToChars(model, chars, 0);
+		byte[] bytes = new byte[chars.length];
+		for (int i = 0; i < chars.length; i++) {
+			bytes[i] = (byte) chars[i];
+		}
+		return bytes;
+	}
+	
+	// the live game state, brought back from wherever it is kept; called
+	// once by each public method, so that the store counts one access each
+	private KlondikeModel access() {
+		if (ended) {
+			throw new EndedException(id);
+		}
+		if (store == null) {
+			return model;
+		}
+		Tier tier = Tier.LIVE;
+		long start = System.nanoTime();
+		if (packed != null) {
+			tier = Tier.PACKED;
+			model = new KlondikeModel();
+			packed.toModel(model);
+			packed = null;
+		} else if (model == null) {
+			tier = Tier.SPILLED;
+			SpillFile spillFile = store.getSpillFile();
+			PackedGameState state;
+			try {
+				state = spillFile.read(slot);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot read spilled game " + id, e);
+			}
+			model = new KlondikeModel();
+			state.toModel(model);
+			spillFile.free(slot);
+			slot = -1;
+		}
+		store.accessed(this, tier, tier == Tier.LIVE ? 0L : System.nanoTime() - start);
+		return model;
+	}
+}
@@ -0,0 +1,341 @@
+package edu.ycp.cs201.cards.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.PackedGameState;
+
+/**
+ * <p>The {@link GameSession}s of a {@link GameServer}, keyed by id, kept in
+ * three tiers so that idle games cost as little memory as possible:</p>
+ * <ul>
+ *   <li>the most recently used sessions (up to a maximum number) are
+ *   <i>live</i>, with their game state in a {@link KlondikeModel}</li>
+ *   <li>less recently used sessions are <i>packed</i> into a
+ *   {@link PackedGameState} of 64 bytes</li>
+ *   <li>when the estimated memory used by live and packed sessions
+ *   exceeds a budget, the least recently used sessions are <i>spilled</i>
+ *   to a scratch file, and only their id and file slot stay in memory</li>
+ * </ul>
+ * <p>If the scratch file cannot be written, the sessions stay in memory
+ * and no more are spilled for a second, even if that means going over
+ * the budget.</p>
+ * <p>A session is brought back to life the next time any of its methods
+ * is called, so callers never see the difference, apart from the
+ * time it takes (reported by {@link #getStats()}).  It is live from then
+ * on, so the number of live sessions can go over the maximum until the
+ * next call to {@link #create(long)} or {@link #get(long)}, which moves
+ * the least recently used sessions back down (a session in use holds its
+ * own lock, so it cannot compact others as it is brought back).</p>
+ * 
+ * <p>The store is thread-safe.  Sessions are moved between tiers when
+ * sessions are created or looked up, by the thread doing so, and never
+ * while the session is in use.</p>
+ */
+public class SessionStore implements Closeable {
+	/** Estimated heap size of a live session, in bytes (13 piles of 52 bytes, plus objects). */
+	public static final long LIVE_SESSION_BYTES = 1700L;
+	
+	/** Estimated heap size of a packed session, in bytes (64 bytes of state, plus objects). */
+	public static final long PACKED_SESSION_BYTES = 240L;
+	
+	/** How long to stop spilling sessions after a spill fails, in nanoseconds. */
+	static final long SPILL_BACKOFF_NANOS = 1000000000L;
+	
+	private final ConcurrentHashMap<Long, GameSession> sessions;
+	private final AtomicLong nextId;
+	private final int maxLive;
+	private final long memoryBudget;
+	private final SpillFile spillFile;
+	
+	// least recently used first; a session is in at most one of these,
+	// and a spilled session is in neither
+	private final LinkedHashMap<Long, GameSession> live;
+	private final LinkedHashMap<Long, GameSession> packed;
+	
+	private long accesses;
+	private long liveHits;
+	private long packedHits;
+	private long spilledHits;
+	private long packedRehydrateNanos;
+	private long spilledRehydrateNanos;
+	private long compactions;
+	private long spills;
+	private long spillNanos;
+	private long spillFailures;
+	
+	// System.nanoTime() at which spilling may resume after a failure (0 if none)
+	private long spillResumeNanos;
+	
+	/**
+	 * Constructor for a store that never spills sessions to disk.
+	 * 
+	 * @param maxLive the most sessions to keep live (see {@link SessionStore})
+	 */
+	public SessionStore(int maxLive) {
+		this(maxLive, Long.MAX_VALUE, (SpillFile) null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxLive      the most sessions to keep live (see {@link SessionStore})
+	 * @param memoryBudget the most memory (estimated, in bytes) for live and
+	 *                     packed sessions, beyond which sessions are spilled
+	 * @param spillPath    the scratch file to spill sessions to (created, or
+	 *                     truncated if it exists)
+	 * @throws IOException if the scratch file cannot be created
+	 */
+	public SessionStore(int maxLive, long memoryBudget, Path spillPath) throws IOException {
+		this(maxLive, memoryBudget, new SpillFile(spillPath));
+	}
+	
+	private SessionStore(int maxLive, long memoryBudget, SpillFile spillFile) {
+		if (maxLive < 0 || memoryBudget < 0) {
+			throw new IllegalArgumentException("maxLive and memoryBudget must not be negative");
+		}
+		this.sessions = new ConcurrentHashMap<Long, GameSession>();
+		this.nextId = new AtomicLong(1L);
+		this.maxLive = maxLive;
+		this.memoryBudget = memoryBudget;
+		this.spillFile = spillFile;
+		this.live = new LinkedHashMap<Long, GameSession>(16, 0.75f, true);
+		this.packed = new LinkedHashMap<Long, GameSession>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Start a new game.
+	 * 
+	 * @param dealNumber the deal to play
+	 * @return the new {@link GameSession}, which is live
+	 */
+	public GameSession create(long dealNumber) {
+		GameSession session = new GameSession(nextId.getAndIncrement(), dealNumber, this);
+		sessions.put(session.getId(), session);
+		synchronized (this) {
+			live.put(session.getId(), session);
+		}
+		evict();
+		return session;
+	}
+	
+	/**
+	 * @param id a session id
+	 * @return the {@link GameSession} with the id, or null if there is none
+	 */
+	public GameSession get(long id) {
+		evict();
+		return sessions.get(id);
+	}
+	
+	/**
+	 * End a game.  A thread still using the session will get an
+	 * {@link IllegalStateException}.
+	 * 
+	 * @param id a session id
+	 * @return true if there was a game with the id
+	 */
+	public boolean remove(long id) {
+		GameSession session = sessions.remove(id);
+		if (session == null) {
+			return false;
+		}
+		synchronized (session) {
+			synchronized (this) {
+				live.remove(id);
+				packed.remove(id);
+			}
+			session.end(spillFile);
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the number of games in progress
+	 */
+	public int size() {
+		return sessions.size();
+	}
+	
+	/**
+	 * @return a snapshot of the store's statistics
+	 */
+	public synchronized SessionStoreStats getStats() {
+		int numLive = live.size();
+		int numPacked = packed.size();
+		int numSpilled = Math.max(0, sessions.size() - numLive - numPacked);
+		return new SessionStoreStats(numLive, numPacked, numSpilled, residentBytes(),
+				spillFile != null ? spillFile.size() : 0L,
+				accesses, liveHits, packedHits, spilledHits,
+				packedRehydrateNanos, spilledRehydrateNanos,
+				compactions, spills, spillNanos, spillFailures);
+	}
+	
+	/**
+	 * Close the scratch file.  The store must not be used afterwards.
+	 * 
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (spillFile != null) {
+			spillFile.close();
+		}
+	}
+	
+	SpillFile getSpillFile() {
+		return spillFile;
+	}
+	
+	/**
+	 * Called by a session (holding its own lock) each time it is used.
+	 * 
+	 * @param session        the session
+	 * @param from           the tier the session was in
+	 * @param rehydrateNanos the time taken to bring it back to life
+	 */
+	synchronized void accessed(GameSession session, GameSession.Tier from, long rehydrateNanos) {
+		accesses++;
+		switch (from) {
+		case LIVE:
+			liveHits++;
+			break;
+		case PACKED:
+			packedHits++;
+			packedRehydrateNanos += rehydrateNanos;
+			break;
+		case SPILLED:
+			spilledHits++;
+			spilledRehydrateNanos += rehydrateNanos;
+			break;
+		}
+		Long id = session.getId();
+		packed.remove(id);
+		live.put(id, session);
+	}
+	
+	/**
+	 * Called by a session (holding its own lock) before it moves to a
+	 * lower tier, to check that the store still wants it there: it may
+	 * have been used (or ended) since the store chose it.
+	 */
+	synchronized boolean shouldBe(GameSession session, GameSession.Tier tier) {
+		Long id = session.getId();
+		switch (tier) {
+		case PACKED:
+			return packed.containsKey(id);
+		case SPILLED:
+			return !live.containsKey(id) && !packed.containsKey(id) && sessions.containsKey(id);
+		default:
+			return live.containsKey(id);
+		}
+	}
+	
+	// move the least recently used sessions down a tier, if there are too
+	// many live ones or the memory budget is exceeded
+	private void evict() {
+		List<GameSession> toCompact = null;
+		List<GameSession> toSpill = null;
+		synchronized (this) {
+			while (live.size() > maxLive) {
+				GameSession session = removeEldest(live);
+				packed.put(session.getId(), session);
+				toCompact = add(toCompact, session);
+			}
+			if (canSpill()) {
+				while (residentBytes() > memoryBudget && !(packed.isEmpty() && live.isEmpty())) {
+					GameSession session = removeEldest(packed.isEmpty() ? live : packed);
+					toSpill = add(toSpill, session);
+				}
+			}
+		}
+		
+		// the sessions are changed outside the store's lock, since a session
+		// in use holds its own lock while it waits for the store's
+		if (toCompact != null) {
+			for (GameSession session : toCompact) {
+				if (session.compact()) {
+					synchronized (this) {
+						compactions++;
+					}
+				}
+			}
+		}
+		if (toSpill != null) {
+			for (int i = 0; i < toSpill.size(); i++) {
+				GameSession session = toSpill.get(i);
+				long start = System.nanoTime();
+				try {
+					if (session.spill(spillFile)) {
+						long elapsed = System.nanoTime() - start;
+						synchronized (this) {
+							spills++;
+							spillNanos += elapsed;
+						}
+					}
+				} catch (IOException e) {
+					// keep this session, and the rest, in memory, and give the
+					// disk a rest rather than failing again on every request
+					synchronized (this) {
+						spillFailures++;
+						spillResumeNanos = System.nanoTime() + SPILL_BACKOFF_NANOS;
+					}
+					for (GameSession unspilled : toSpill.subList(i, toSpill.size())) {
+						restore(unspilled);
+					}
+					break;
+				}
+			}
+		}
+	}
+	
+	// put a session that could not be spilled back in the tier its state is in
+	private void restore(GameSession session) {
+		GameSession.Tier tier = session.getTier();
+		Long id = session.getId();
+		synchronized (this) {
+			// it may have been used (and so made live) or ended in the meantime
+			if (!sessions.containsKey(id) || live.containsKey(id) || packed.containsKey(id)) {
+				return;
+			}
+			if (tier == GameSession.Tier.LIVE) {
+				live.put(id, session);
+			} else if (tier == GameSession.Tier.PACKED) {
+				packed.put(id, session);
+			}
+		}
+	}
+	
+	// whether sessions may be spilled now (not if a spill failed recently)
+	private boolean canSpill() {
+		return spillFile != null && (spillResumeNanos == 0L || System.nanoTime() - spillResumeNanos >= 0L);
+	}
+	
+	// the estimated memory used by live and packed sessions
+	private long residentBytes() {
+		return live.size() * LIVE_SESSION_BYTES + packed.size() * PACKED_SESSION_BYTES;
+	}
+	
+	private static GameSession removeEldest(LinkedHashMap<Long, GameSession> map) {
+		Iterator<GameSession> it = map.values().iterator();
+		GameSession eldest = it.next();
+		it.remove();
+		return eldest;
+	}
+	
+	private static List<GameSession> add(List<GameSession> list, GameSession session) {
+		if (list == null) {
+			list = new ArrayList<GameSession>();
+		}
+		list.add(session);
+		return list;
+	}
+}
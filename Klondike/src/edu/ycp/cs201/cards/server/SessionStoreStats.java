@@ -0,0 +1,147 @@
+package edu.ycp.cs201.cards.server;
+
+import java.util.Locale;
+
+/**
+ * A snapshot of the statistics of a {@link SessionStore}: how many
+ * sessions are in each tier, how much memory they are estimated to use,
+ * how often a session was found live, and how long it took to pack,
+ * spill and bring back sessions.
+ */
+public class SessionStoreStats {
+	private final int liveSessions;
+	private final int packedSessions;
+	private final int spilledSessions;
+	private final long residentBytes;
+	private final long spillFileBytes;
+	private final long accesses;
+	private final long liveHits;
+	private final long packedHits;
+	private final long spilledHits;
+	private final long packedRehydrateNanos;
+	private final long spilledRehydrateNanos;
+	private final long compactions;
+	private final long spills;
+	private final long spillNanos;
+	private final long spillFailures;
+	
+	SessionStoreStats(int liveSessions, int packedSessions, int spilledSessions, long residentBytes,
+			long spillFileBytes, long accesses, long liveHits, long packedHits, long spilledHits,
+			long packedRehydrateNanos, long spilledRehydrateNanos,
+			long compactions, long spills, long spillNanos, long spillFailures) {
+		this.liveSessions = liveSessions;
+		this.packedSessions = packedSessions;
+		this.spilledSessions = spilledSessions;
+		this.residentBytes = residentBytes;
+		this.spillFileBytes = spillFileBytes;
+		this.accesses = accesses;
+		this.liveHits = liveHits;
+		this.packedHits = packedHits;
+		this.spilledHits = spilledHits;
+		this.packedRehydrateNanos = packedRehydrateNanos;
+		this.spilledRehydrateNanos = spilledRehydrateNanos;
+		this.compactions = compactions;
+		this.spills = spills;
+		this.spillNanos = spillNanos;
+		this.spillFailures = spillFailures;
+	}
+	
+	public int getLiveSessions() {
+		return liveSessions;
+	}
+	
+	public int getPackedSessions() {
+		return packedSessions;
+	}
+	
+	public int getSpilledSessions() {
+		return spilledSessions;
+	}
+	
+	/**
+	 * @return the estimated memory used by live and packed sessions, in bytes
+	 */
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+	
+	/**
+	 * @return the size of the spill file, in bytes
+	 */
+	public long getSpillFileBytes() {
+		return spillFileBytes;
+	}
+	
+	/**
+	 * @return the number of times a session was used
+	 */
+	public long getAccesses() {
+		return accesses;
+	}
+	
+	public long getLiveHits() {
+		return liveHits;
+	}
+	
+	public long getPackedHits() {
+		return packedHits;
+	}
+	
+	public long getSpilledHits() {
+		return spilledHits;
+	}
+	
+	/**
+	 * @return the fraction of accesses that found the session live
+	 *         (1 if there have been no accesses)
+	 */
+	public double getHitRate() {
+		return accesses > 0 ? liveHits / (double) accesses : 1.0;
+	}
+	
+	public long getCompactions() {
+		return compactions;
+	}
+	
+	public long getSpills() {
+		return spills;
+	}
+	
+	public long getSpillFailures() {
+		return spillFailures;
+	}
+	
+	/**
+	 * @return the mean time to spill a session, in microseconds
+	 */
+	public double getMeanSpillMicros() {
+		return spills > 0 ? spillNanos / 1000.0 / spills : 0.0;
+	}
+	
+	/**
+	 * @return the mean time to bring back a packed session, in microseconds
+	 */
+	public double getMeanPackedRehydrateMicros() {
+		return packedHits > 0 ? packedRehydrateNanos / 1000.0 / packedHits : 0.0;
+	}
+	
+	/**
+	 * @return the mean time to bring back a spilled session, in microseconds
+	 */
+	public double getMeanSpilledRehydrateMicros() {
+		return spilledHits > 0 ? spilledRehydrateNanos / 1000.0 / spilledHits : 0.0;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"sessions: %d live, %d packed, %d spilled; resident %d bytes, spill file %d bytes%n" +
+				"accesses: %d, hit rate %.2f%% (%d packed, %d spilled)%n" +
+				"compactions: %d, spills: %d (%d failed), mean spill %.1f us%n" +
+				"mean rehydrate: %.1f us packed, %.1f us spilled",
+				liveSessions, packedSessions, spilledSessions, residentBytes, spillFileBytes,
+				accesses, getHitRate() * 100, packedHits, spilledHits,
+				compactions, spills, spillFailures, getMeanSpillMicros(),
+				getMeanPackedRehydrateMicros(), getMeanSpilledRehydrateMicros());
+	}
+}
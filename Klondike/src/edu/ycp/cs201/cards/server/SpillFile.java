@@ -0,0 +1,118 @@
+package edu.ycp.cs201.cards.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import edu.ycp.cs201.cards.PackedGameState;
+
+/**
+ * A scratch file holding packed game states (see {@link PackedGameState})
+ * in fixed-size slots, for sessions spilled out of memory by a
+ * {@link SessionStore}.  Freed slots are reused, so the file only grows
+ * to the largest number of sessions spilled at once.  The file is
+ * truncated when it is opened: nothing in it outlives the store.
+ * Reads and writes of different slots may happen at the same time;
+ * allocating and freeing slots is synchronized.
+ */
+class SpillFile implements Closeable {
+	static final int SLOT_SIZE = PackedGameState.NUM_WORDS * 8;
+	
+	private final FileChannel channel;
+	private int numSlots;
+	private int[] freeSlots;
+	private int numFree;
+	
+	SpillFile(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.numSlots = 0;
+		this.freeSlots = new int[64];
+		this.numFree = 0;
+	}
+	
+	/**
+	 * Write a packed game state to a free slot.
+	 * 
+	 * @param state the packed game state
+	 * @return the slot
+	 * @throws IOException if the file cannot be written (the slot is freed again)
+	 */
+	int write(PackedGameState state) throws IOException {
+		int slot = allocate();
+		ByteBuffer buf = ByteBuffer.allocate(SLOT_SIZE);
+		for (int i = 0; i < PackedGameState.NUM_WORDS; i++) {
+			buf.putLong(state.getWord(i));
+		}
+		buf.flip();
+		try {
+			long pos = (long) slot * SLOT_SIZE;
+			while (buf.hasRemaining()) {
+				pos += channel.write(buf, pos);
+			}
+		} catch (IOException e) {
+			free(slot);
+			throw e;
+		}
+		return slot;
+	}
+	
+	/**
+	 * Read the packed game state in a slot.  The slot stays allocated.
+	 * 
+	 * @param slot the slot
+	 * @return the packed game state
+	 * @throws IOException if the file cannot be read
+	 */
+	PackedGameState read(int slot) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SLOT_SIZE);
+		long pos = (long) slot * SLOT_SIZE;
+		while (buf.hasRemaining()) {
+			int n = channel.read(buf, pos + buf.position());
+			if (n < 0) {
+				throw new IOException("Spill file is missing slot " + slot);
+			}
+		}
+		buf.flip();
+		long[] words = new long[PackedGameState.NUM_WORDS];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = buf.getLong();
+		}
+		return PackedGameState.fromWords(words);
+	}
+	
+	/**
+	 * Free a slot, so that it can be reused.
+	 * 
+	 * @param slot the slot
+	 */
+	synchronized void free(int slot) {
+		if (numFree == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, numFree * 2);
+		}
+		freeSlots[numFree++] = slot;
+	}
+	
+	/**
+	 * @return the size of the file, in bytes (including free slots)
+	 */
+	synchronized long size() {
+		return (long) numSlots * SLOT_SIZE;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	private synchronized int allocate() {
+		if (numFree > 0) {
+			return freeSlots[--numFree];
+		}
+		return numSlots++;
+	}
+}
@@ -0,0 +1,97 @@
+package edu.ycp.cs201.cards.sim;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * Plays a game of Klondike to the end with a {@link PlayPolicy}.
+ * A game ends when it is won, when the policy resigns or has no legal
+ * moves, when the policy draws through the whole stock and recycles
+ * it without making any other move (a stalemate), or after a maximum
+ * number of moves.
+ * 
+ * A game player reuses its buffers from game to game, so it is not
+ * thread-safe: each thread should have its own.
+ */
+public class GamePlayer {
+	/** Default maximum number of moves (including draws) in one game. */
+	public static final int DEFAULT_MAX_MOVES = 2000;
+	
+	private final KlondikeController controller;
+	private final MoveBuffer legal;
+	private final UndoLog undo;
+	private int maxMoves;
+	private int numMoves;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param controller the {@link KlondikeController} whose rules to play by
+	 */
+	public GamePlayer(KlondikeController controller) {
+		this.controller = controller;
+		this.legal = new MoveBuffer();
+		this.undo = new UndoLog(1);
+		this.maxMoves = DEFAULT_MAX_MOVES;
+	}
+	
+	/**
+	 * Set the maximum number of moves in one game.
+	 * 
+	 * @param maxMoves the move limit
+	 */
+	public void setMaxMoves(int maxMoves) {
+		this.maxMoves = maxMoves;
+	}
+	
+	/**
+	 * Play a game to the end.
+	 * 
+	 * @param model  the game, which is played in place
+	 * @param policy the {@link PlayPolicy} choosing the moves
+	 * @return true if the game was won
+	 */
+	public boolean play(KlondikeModel model, PlayPolicy policy) {
+		numMoves = 0;
+		int drawsSinceProgress = 0;
+		while (!controller.isWin(model)) {
+			if (numMoves >= maxMoves) {
+				return false;
+			}
+			controller.generateLegalMoves(model, legal);
+			if (legal.isEmpty()) {
+				return false;
+			}
+			int move = policy.chooseMove(model, legal);
+			if (move == PlayPolicy.RESIGN) {
+				return false;
+			}
+			
+			if (move == Move.DRAW) {
+				// a full pass is one draw per card in the stock plus a recycle
+				int stockSize = model.getMainDeck().getNumCards() + model.getWastePile().getNumCards();
+				if (++drawsSinceProgress > stockSize + 1) {
+					return false;
+				}
+			} else {
+				drawsSinceProgress = 0;
+			}
+			
+			// the log is only needed by makeMove, never to undo
+			undo.clear();
+			controller.makeMove(model, move, undo);
+			numMoves++;
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the number of moves made in the last game played
+	 */
+	public int getNumMoves() {
+		return numMoves;
+	}
+}
@@ -0,0 +1,87 @@
+package edu.ycp.cs201.cards.sim;
+
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.Pile;
+import edu.ycp.cs201.cards.Rank;
+
+/**
+ * <p>A simple {@link PlayPolicy} that plays the first legal move of the
+ * best kind available:
+ * <ol>
+ *   <li>a move to a foundation pile</li>
+ *   <li>a tableau move that exposes a face-down card or empties a tableau pile</li>
+ *   <li>a move from the main deck to a tableau pile</li>
+ *   <li>{@link Move#DRAW}</li>
+ * </ol>
+ * Other moves (shuffling cards between tableau piles, or back off the
+ * foundations) are never made, so every move except a draw makes
+ * progress and the policy cannot loop forever.</p>
+ * 
+ * <p>The policy has no state, so one instance can be shared.</p>
+ */
+public class GreedyPolicy implements PlayPolicy {
+	/** A factory that returns a shared {@link GreedyPolicy}. */
+	public static final PlayPolicyFactory FACTORY = new PlayPolicyFactory() {
+		private final GreedyPolicy policy = new GreedyPolicy();
+		
+		@Override
+		public PlayPolicy createPolicy(int worker) {
+			return policy;
+		}
+		
+		@Override
+		public String getName() {
+			return "greedy";
+		}
+	};
+	
+	private static final int NONE = 4;
+	
+	@Override
+	public int chooseMove(KlondikeModel model, MoveBuffer legal) {
+		int best = PlayPolicy.RESIGN;
+		int bestRank = NONE;
+		for (int i = 0; i < legal.size(); i++) {
+			int move = legal.get(i);
+			int rank = rank(model, move);
+			if (rank < bestRank) {
+				best = move;
+				bestRank = rank;
+				if (rank == 0) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+	
+	// the kind of move, from 0 (best) to 3 (draw), or NONE if the move should not be made
+	private static int rank(KlondikeModel model, int move) {
+		if (move == Move.DRAW) {
+			return 3;
+		}
+		LocationType sourceType = Move.getSourceType(move);
+		if (Move.getDestType(move) == LocationType.FOUNDATION_PILE) {
+			return 0;
+		}
+		if (sourceType == LocationType.MAIN_DECK) {
+			return 2;
+		}
+		if (sourceType == LocationType.TABLEAU_PILE) {
+			Pile src = model.getTableauPile(Move.getSourcePile(move));
+			int index = Move.getCardIndex(move);
+			if (index == src.getExposeIndex() && index > 0) {
+				// exposes a face-down card
+				return 1;
+			}
+			if (index == 0 && src.getCard(0).getRank() != Rank.KING) {
+				// empties a tableau pile
+				return 1;
+			}
+		}
+		return NONE;
+	}
+}
@@ -0,0 +1,169 @@
+package edu.ycp.cs201.cards.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+
+/**
+ * <p>Estimates the win rate of a {@link PlayPolicy} by dealing and
+ * playing a large number of games.  Games are numbered deals, so each
+ * worker deals its own games without sharing a random number generator.</p>
+ * 
+ * <p>Games are split among worker threads, which claim them in batches
+ * from a shared counter.  Each worker has its own controller, model,
+ * {@link GamePlayer} and policy, and keeps its own totals, so the
+ * workers share nothing but the counter; the totals are added up when
+ * all the games have been played.</p>
+ */
+public class MonteCarloSimulator {
+	// number of games a worker claims at a time
+	private static final int BATCH = 256;
+	
+	private final PlayPolicyFactory policyFactory;
+	private int threads;
+	private int maxMovesPerGame;
+	private long firstDeal;
+	
+	/**
+	 * Constructor.  Uses one worker thread per available processor.
+	 * 
+	 * @param policyFactory the {@link PlayPolicyFactory} to create each worker's policy
+	 */
+	public MonteCarloSimulator(PlayPolicyFactory policyFactory) {
+		this.policyFactory = policyFactory;
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.maxMovesPerGame = GamePlayer.DEFAULT_MAX_MOVES;
+		this.firstDeal = 0L;
+	}
+	
+	/**
+	 * Set the number of worker threads.
+	 * 
+	 * @param threads the number of threads
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.threads = threads;
+	}
+	
+	/**
+	 * @return the number of worker threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Set the maximum number of moves in one game.
+	 * 
+	 * @param maxMoves the move limit
+	 */
+	public void setMaxMovesPerGame(int maxMoves) {
+		this.maxMovesPerGame = maxMoves;
+	}
+	
+	/**
+	 * Set the deal number of the first game.  Game <i>i</i> of a run is
+	 * always deal number <code>firstDeal + i</code> (see
+	 * {@link KlondikeController#initModel(KlondikeModel, long)}), so a
+	 * run can be repeated exactly with a deterministic policy.
+	 * 
+	 * @param firstDeal the first deal number
+	 */
+	public void setFirstDeal(long firstDeal) {
+		this.firstDeal = firstDeal;
+	}
+	
+	/**
+	 * Deal and play the given number of games.
+	 * 
+	 * @param numGames the number of games
+	 * @return the {@link SimulationResult}
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public SimulationResult run(long numGames) throws InterruptedException {
+		long start = System.nanoTime();
+		AtomicLong nextGame = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<long[]>> futures = new ArrayList<Future<long[]>>(threads);
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(new Worker(policyFactory.createPolicy(i), nextGame, numGames)));
+			}
+			
+			long wins = 0, moves = 0;
+			for (Future<long[]> future : futures) {
+				long[] totals = getResult(future);
+				wins += totals[0];
+				moves += totals[1];
+			}
+			return new SimulationResult(policyFactory.getName(), threads, numGames, wins, moves,
+					System.nanoTime() - start);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static long[] getResult(Future<long[]> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Simulation failed", cause);
+		}
+	}
+	
+	// plays games until there are none left to claim; returns {wins, moves}
+	private class Worker implements Callable<long[]> {
+		private final PlayPolicy policy;
+		private final AtomicLong nextGame;
+		private final long numGames;
+		
+		Worker(PlayPolicy policy, AtomicLong nextGame, long numGames) {
+			this.policy = policy;
+			this.nextGame = nextGame;
+			this.numGames = numGames;
+		}
+		
+		@Override
+		public long[] call() {
+			KlondikeController controller = new KlondikeController();
+			GamePlayer player = new GamePlayer(controller);
+			player.setMaxMoves(maxMovesPerGame);
+			long wins = 0, moves = 0;
+			
+			while (true) {
+				long first = nextGame.getAndAdd(BATCH);
+				if (first >= numGames) {
+					break;
+				}
+				long last = Math.min(first + BATCH, numGames);
+				for (long game = first; game < last; game++) {
+					KlondikeModel model = new KlondikeModel();
+					controller.initModel(model, firstDeal + game);
+					if (player.play(model, policy)) {
+						wins++;
+					}
+					moves += player.getNumMoves();
+				}
+			}
+			return new long[] { wins, moves };
+		}
+	}
+}
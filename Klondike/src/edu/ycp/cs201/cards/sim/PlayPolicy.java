@@ -0,0 +1,27 @@
+package edu.ycp.cs201.cards.sim;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+
+/**
+ * A strategy for playing Klondike: given a position and its legal moves,
+ * choose the move to make.  A policy is only ever used by one thread
+ * (see {@link PlayPolicyFactory}), so it may keep mutable state.
+ */
+public interface PlayPolicy {
+	/** Returned by {@link #chooseMove(KlondikeModel, MoveBuffer)} to give up the game. */
+	public static final int RESIGN = -1;
+	
+	/**
+	 * Choose a move.
+	 * 
+	 * @param model the current position (must not be modified)
+	 * @param legal the legal moves in the position, as generated by
+	 *              {@link KlondikeController#generateLegalMoves(KlondikeModel, MoveBuffer)};
+	 *              never empty
+	 * @return one of the legal moves (see {@link Move}), or {@link #RESIGN}
+	 */
+	public int chooseMove(KlondikeModel model, MoveBuffer legal);
+}
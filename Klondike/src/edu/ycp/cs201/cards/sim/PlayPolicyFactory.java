@@ -0,0 +1,21 @@
+package edu.ycp.cs201.cards.sim;
+
+/**
+ * Creates {@link PlayPolicy} objects.  The {@link MonteCarloSimulator}
+ * creates one policy per worker thread, so that policies never
+ * need to be thread-safe.
+ */
+public interface PlayPolicyFactory {
+	/**
+	 * Create a policy for one worker.
+	 * 
+	 * @param worker the index of the worker the policy is for
+	 * @return the new {@link PlayPolicy}
+	 */
+	public PlayPolicy createPolicy(int worker);
+	
+	/**
+	 * @return a short name for the policy, used in simulation summaries
+	 */
+	public String getName();
+}
@@ -0,0 +1,49 @@
+package edu.ycp.cs201.cards.sim;
+
+import java.util.Random;
+
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.MoveBuffer;
+
+/**
+ * A {@link PlayPolicy} that chooses uniformly among the legal moves.
+ * Useful as a baseline.
+ */
+public class RandomPolicy implements PlayPolicy {
+	private final Random random;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param seed the seed for the policy's random number generator
+	 */
+	public RandomPolicy(long seed) {
+		this.random = new Random(seed);
+	}
+	
+	@Override
+	public int chooseMove(KlondikeModel model, MoveBuffer legal) {
+		return legal.get(random.nextInt(legal.size()));
+	}
+	
+	/**
+	 * Create a factory for random policies.  Each worker's policy
+	 * gets its own seed derived from the given seed.
+	 * 
+	 * @param seed the seed
+	 * @return the {@link PlayPolicyFactory}
+	 */
+	public static PlayPolicyFactory factory(final long seed) {
+		return new PlayPolicyFactory() {
+			@Override
+			public PlayPolicy createPolicy(int worker) {
+				return new RandomPolicy(seed + 0x9E3779B97F4A7C15L * (worker + 1));
+			}
+			
+			@Override
+			public String getName() {
+				return "random";
+			}
+		};
+	}
+}
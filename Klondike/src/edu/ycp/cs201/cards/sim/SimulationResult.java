@@ -0,0 +1,112 @@
+package edu.ycp.cs201.cards.sim;
+
+import java.util.Locale;
+
+/**
+ * The totals from a run of the {@link MonteCarloSimulator}.
+ */
+public class SimulationResult {
+	private final String policyName;
+	private final int threads;
+	private final long games;
+	private final long wins;
+	private final long totalMoves;
+	private final long elapsedNanos;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param policyName   the name of the policy that played the games
+	 * @param threads      the number of worker threads
+	 * @param games        the number of games played
+	 * @param wins         the number of games won
+	 * @param totalMoves   the total number of moves made in all games
+	 * @param elapsedNanos the wall-clock time taken, in nanoseconds
+	 */
+	public SimulationResult(String policyName, int threads, long games, long wins, long totalMoves, long elapsedNanos) {
+		this.policyName = policyName;
+		this.threads = threads;
+		this.games = games;
+		this.wins = wins;
+		this.totalMoves = totalMoves;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	public String getPolicyName() {
+		return policyName;
+	}
+	
+	public int getThreads() {
+		return threads;
+	}
+	
+	public long getGames() {
+		return games;
+	}
+	
+	public long getWins() {
+		return wins;
+	}
+	
+	public long getTotalMoves() {
+		return totalMoves;
+	}
+	
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	/**
+	 * @return the fraction of games won
+	 */
+	public double getWinRate() {
+		return games == 0 ? 0.0 : (double) wins / games;
+	}
+	
+	/**
+	 * @return the average number of moves (including draws) per game
+	 */
+	public double getMovesPerGame() {
+		return games == 0 ? 0.0 : (double) totalMoves / games;
+	}
+	
+	/**
+	 * @return the number of games played per second of wall-clock time
+	 */
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0.0 : games / (elapsedNanos / 1e9);
+	}
+	
+	/**
+	 * @return the header line for {@link #toCsv()}
+	 */
+	public static String csvHeader() {
+		return "policy,threads,games,wins,win_rate,moves_per_game,games_per_second,elapsed_ms";
+	}
+	
+	/**
+	 * @return the result as one line of comma-separated values (see {@link #csvHeader()})
+	 */
+	public String toCsv() {
+		return String.format(Locale.ROOT, "%s,%d,%d,%d,%.6f,%.2f,%.1f,%d",
+				policyName, threads, games, wins, getWinRate(), getMovesPerGame(),
+				getGamesPerSecond(), elapsedNanos / 1000000L);
+	}
+	
+	/**
+	 * @return the result as a JSON object
+	 */
+	public String toJson() {
+		return String.format(Locale.ROOT,
+				"{\"policy\":\"%s\",\"threads\":%d,\"games\":%d,\"wins\":%d,\"winRate\":%.6f," +
+				"\"movesPerGame\":%.2f,\"gamesPerSecond\":%.1f,\"elapsedMs\":%d}",
+				policyName.replace("\\", "\\\\").replace("\"", "\\\""), threads, games, wins,
+				getWinRate(), getMovesPerGame(), getGamesPerSecond(), elapsedNanos / 1000000L);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%s: %d/%d won (%.2f%%), %.1f moves/game, %.0f games/s on %d threads",
+				policyName, wins, games, getWinRate() * 100, getMovesPerGame(), getGamesPerSecond(), threads);
+	}
+}
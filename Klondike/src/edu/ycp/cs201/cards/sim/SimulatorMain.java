@@ -0,0 +1,40 @@
+package edu.ycp.cs201.cards.sim;
+
+/**
+ * Command-line driver for the {@link MonteCarloSimulator}.  Prints a
+ * summary of the run in CSV (with a header line) or JSON.
+ * 
+ * Usage: <code>SimulatorMain [numGames [greedy|random [threads [csv|json [firstDeal]]]]]</code>
+ */
+public class SimulatorMain {
+	public static void main(String[] args) throws InterruptedException {
+		long numGames = args.length > 0 ? Long.parseLong(args[0]) : 100000L;
+		String policy = args.length > 1 ? args[1] : "greedy";
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		String format = args.length > 3 ? args[3] : "csv";
+		long firstDeal = args.length > 4 ? Long.parseLong(args[4]) : 0L;
+		
+		PlayPolicyFactory factory;
+		if (policy.equals("greedy")) {
+			factory = GreedyPolicy.FACTORY;
+		} else if (policy.equals("random")) {
+			factory = RandomPolicy.factory(firstDeal);
+		} else {
+			System.err.println("Unknown policy: " + policy);
+			System.exit(1);
+			return;
+		}
+		
+		MonteCarloSimulator simulator = new MonteCarloSimulator(factory);
+		simulator.setThreads(threads);
+		simulator.setFirstDeal(firstDeal);
+		SimulationResult result = simulator.run(numGames);
+		
+		if (format.equals("json")) {
+			System.out.println(result.toJson());
+		} else {
+			System.out.println(SimulationResult.csvHeader());
+			System.out.println(result.toCsv());
+		}
+	}
+}
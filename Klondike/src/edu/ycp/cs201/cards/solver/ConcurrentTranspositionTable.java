@@ -0,0 +1,82 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe version of {@link TranspositionTable}, shared by the
+ * workers of a {@link ParallelKlondikeSolver}.
+ * 
+ * Slots are claimed with a compare-and-set, so two threads reaching the
+ * same position at the same time cannot both see it as new.  As in
+ * {@link TranspositionTable}, a full probe sequence overwrites its first
+ * slot, which can only cause a position to be searched twice.
+ */
+public class ConcurrentTranspositionTable implements PositionSet {
+	private static final int MAX_PROBES = 8;
+	
+	private final AtomicLongArray slots;
+	private final int mask;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxBytes the maximum number of bytes the table may use
+	 *                 (rounded down to a power of two, at least 1024 entries)
+	 */
+	public ConcurrentTranspositionTable(long maxBytes) {
+		long entries = Math.max(1024L, maxBytes / 8);
+		int capacity = (int) Long.highestOneBit(Math.min(entries, 1L << 30));
+		slots = new AtomicLongArray(capacity);
+		mask = capacity - 1;
+	}
+	
+	@Override
+	public boolean visit(long hash) {
+		// 0 marks an empty slot
+		if (hash == 0L) {
+			hash = 1L;
+		}
+		int index = (int) mix(hash) & mask;
+		for (int i = 0; i < MAX_PROBES; i++) {
+			int pos = (index + i) & mask;
+			long slot = slots.get(pos);
+			if (slot == 0L) {
+				if (slots.compareAndSet(pos, 0L, hash)) {
+					return false;
+				}
+				// another thread claimed the slot first
+				slot = slots.get(pos);
+			}
+			if (slot == hash) {
+				return true;
+			}
+		}
+		// probe sequence is full: replace the first entry
+		slots.set(index, hash);
+		return false;
+	}
+	
+	/**
+	 * @return the number of positions the table can hold
+	 */
+	public int capacity() {
+		return slots.length();
+	}
+	
+	/**
+	 * Remove all positions from the table.  This must not be called
+	 * while a search is using the table.
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.set(i, 0L);
+		}
+	}
+	
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		return h ^ (h >>> 33);
+	}
+}
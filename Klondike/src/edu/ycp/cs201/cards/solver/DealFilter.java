@@ -0,0 +1,197 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Pile;
+import edu.ycp.cs201.cards.Suit;
+
+/**
+ * <p>Quickly recognizes freshly dealt games that can never be won, so that
+ * they can be skipped (or put last) before running a {@link KlondikeSolver},
+ * which spends most of its time proving games lost.</p>
+ * 
+ * <p>The rules are the solver's: one card drawn at a time, any number of
+ * passes through the stock, and full knowledge of the face-down cards.
+ * Two tests are made, each of which only ever rejects games that are truly
+ * lost (it never rejects a game that can be won, although it accepts
+ * many that cannot):
+ * <ul>
+ *   <li><b>No first move.</b>  No ace is in the stock or face up on the
+ *   tableau, and no card in the stock or face up on the tableau can be
+ *   placed on a face-up tableau card.  Drawing changes nothing, so no move
+ *   will ever be possible.</li>
+ *   <li><b>Blocked cards.</b>  Every card must leave the place it was dealt
+ *   to before the game is won.  A card can first leave only after every card
+ *   dealt on top of it has left, and then only to its foundation pile (after
+ *   every lower card of its suit has left), onto one of the two cards it can
+ *   be placed on (after that card has left, or while it is still uncovered in
+ *   the tableau pile it was dealt to, unless it is underneath), or, for a king,
+ *   to an empty tableau pile.  Starting with no cards, cards are marked as
+ *   able to leave until no more can be; if any card is never marked, then
+ *   no order of play lets it leave (for example, a card dealt on top of a
+ *   lower card of its own suit and of both cards it could be placed on, or
+ *   face-down cards blocking each other in a cycle), and the game is lost.</li>
+ * </ul>
+ * Each test takes a few microseconds.</p>
+ */
+public class DealFilter {
+	private static final int NUM_RANKS = 13;
+	private static final int KING = NUM_RANKS - 1;
+	
+	// the two cards each card can be placed on in the tableau (none for kings)
+	private static final int[][] PARENTS = new int[Card.NUM_CARDS][];
+	
+	// mask of the lower cards of each card's suit
+	private static final long[] LOWER_IN_SUIT = new long[Card.NUM_CARDS];
+	
+	static {
+		Suit[] suits = Suit.values();
+		for (int id = 0; id < Card.NUM_CARDS; id++) {
+			int suit = id / NUM_RANKS;
+			int rank = id % NUM_RANKS;
+			LOWER_IN_SUIT[id] = ((1L << rank) - 1) << (suit * NUM_RANKS);
+			if (rank == KING) {
+				PARENTS[id] = new int[0];
+				continue;
+			}
+			PARENTS[id] = new int[2];
+			int n = 0;
+			for (Suit other : suits) {
+				if (other.getColor() != suits[suit].getColor()) {
+					PARENTS[id][n++] = other.ordinal() * NUM_RANKS + rank + 1;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Check whether a freshly dealt game can be proved lost by either test.
+	 * 
+	 * @param model the freshly dealt game (it is not modified)
+	 * @return true if the game can never be won, false if it might be
+	 * @throws IllegalArgumentException if the game is not freshly dealt
+	 *         (foundation piles empty, and each tableau pile holding at least
+	 *         one card, with only its top card face up)
+	 */
+	public static boolean isUnwinnable(KlondikeModel model) {
+		checkFreshDeal(model);
+		return hasNoFirstMove(model) || hasBlockedCard(model);
+	}
+	
+	/**
+	 * Check for a freshly dealt game in which no move but drawing is possible.
+	 * 
+	 * @param model the freshly dealt game
+	 * @return true if no card can ever be moved
+	 */
+	static boolean hasNoFirstMove(KlondikeModel model) {
+		long tops = 0L;
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			tops |= 1L << tableau.getCardId(tableau.getNumCards() - 1);
+		}
+		long playable = tops | stockMask(model);
+		for (int id = 0; id < Card.NUM_CARDS; id++) {
+			if ((playable & (1L << id)) == 0L) {
+				continue;
+			}
+			if (id % NUM_RANKS == 0) {
+				return false;
+			}
+			for (int parent : PARENTS[id]) {
+				if ((tops & (1L << parent)) != 0L) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Check for a freshly dealt game with a card that can never leave
+	 * the place it was dealt to.
+	 * 
+	 * @param model the freshly dealt game
+	 * @return true if some card can never leave
+	 */
+	static boolean hasBlockedCard(KlondikeModel model) {
+		// for each card: the cards dealt on top of it, and the cards dealt underneath it
+		long[] above = new long[Card.NUM_CARDS];
+		long[] below = new long[Card.NUM_CARDS];
+		long dealt = 0L;
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			long under = 0L;
+			for (int j = 0; j < tableau.getNumCards(); j++) {
+				int id = tableau.getCardId(j);
+				below[id] = under;
+				under |= 1L << id;
+			}
+			dealt |= under;
+			long over = 0L;
+			for (int j = tableau.getNumCards() - 1; j >= 0; j--) {
+				int id = tableau.getCardId(j);
+				above[id] = over;
+				over |= 1L << id;
+			}
+		}
+		
+		long all = (1L << Card.NUM_CARDS) - 1;
+		long left = 0L;
+		boolean changed = true;
+		while (changed && left != all) {
+			changed = false;
+			for (int id = 0; id < Card.NUM_CARDS; id++) {
+				long bit = 1L << id;
+				if ((left & bit) == 0L && (above[id] & ~left) == 0L && canLeave(id, left, dealt, above, below)) {
+					left |= bit;
+					changed = true;
+				}
+			}
+		}
+		return left != all;
+	}
+	
+	// whether an uncovered card has somewhere to go, given the cards that have already
+	// left (a card in the stock must leave it before anything is placed on it)
+	private static boolean canLeave(int id, long left, long tableau, long[] above, long[] below) {
+		if (id % NUM_RANKS == KING || (LOWER_IN_SUIT[id] & ~left) == 0L) {
+			return true;
+		}
+		for (int parent : PARENTS[id]) {
+			long bit = 1L << parent;
+			if ((left & bit) != 0L
+					|| ((tableau & bit) != 0L && (below[id] & bit) == 0L && (above[parent] & ~left) == 0L)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static long stockMask(KlondikeModel model) {
+		long mask = 0L;
+		Pile main = model.getMainDeck();
+		for (int i = 0; i < main.getNumCards(); i++) {
+			mask |= 1L << main.getCardId(i);
+		}
+		Pile waste = model.getWastePile();
+		for (int i = 0; i < waste.getNumCards(); i++) {
+			mask |= 1L << waste.getCardId(i);
+		}
+		return mask;
+	}
+	
+	private static void checkFreshDeal(KlondikeModel model) {
+		for (int i = 0; i < 4; i++) {
+			if (!model.getFoundationPile(i).isEmpty()) {
+				throw new IllegalArgumentException("Game is not freshly dealt (cards on the foundations)");
+			}
+		}
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			if (tableau.isEmpty() || tableau.getExposeIndex() != tableau.getNumCards() - 1) {
+				throw new IllegalArgumentException("Game is not freshly dealt (tableau pile " + i + ")");
+			}
+		}
+	}
+}
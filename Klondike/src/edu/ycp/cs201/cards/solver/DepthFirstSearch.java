@@ -0,0 +1,148 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * The depth-first search used by {@link KlondikeSolver} (and by each
+ * worker of {@link ParallelKlondikeSolver}).  It makes and unmakes
+ * the moves chosen by {@link MoveOrdering} in place, using an explicit
+ * stack rather than recursion, and skips positions already in a
+ * {@link PositionSet}.
+ * 
+ * A search object is not thread-safe, but can be reused.
+ */
+class DepthFirstSearch {
+	// number of nodes acquired from the budget at a time
+	private static final int BATCH = 1024;
+	
+	private final KlondikeController controller;
+	private final MoveOrdering ordering;
+	private final MoveBuffer legal;
+	private final UndoLog undo;
+	
+	// moves still to try at each depth are moveStack[frameNext[d]] through moveStack[frameEnd[d]-1]
+	private int[] moveStack;
+	private int[] frameNext;
+	private int[] frameEnd;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param controller the {@link KlondikeController} whose rules to use
+	 */
+	DepthFirstSearch(KlondikeController controller) {
+		this.controller = controller;
+		this.ordering = new MoveOrdering(controller);
+		this.legal = new MoveBuffer();
+		this.undo = new UndoLog(256);
+		this.moveStack = new int[4096];
+		this.frameNext = new int[256];
+		this.frameEnd = new int[256];
+	}
+	
+	/**
+	 * Search for a win from the given position.  If the outcome is
+	 * {@link Outcome#WIN}, the game is left in the winning position and
+	 * the winning moves can be retrieved with {@link #getWinningMoves()};
+	 * otherwise the game is left as it was.
+	 * 
+	 * @param game    the position to search from
+	 * @param visited the positions already visited (the starting position is added)
+	 * @param budget  the {@link SearchBudget} to acquire nodes from
+	 * @return {@link Outcome#WIN}, {@link Outcome#LOSS}, or {@link Outcome#UNKNOWN}
+	 *         if the budget ran out or was stopped
+	 */
+	Outcome search(KlondikeModel game, PositionSet visited, SearchBudget budget) {
+		undo.clear();
+		if (controller.isWin(game)) {
+			return Outcome.WIN;
+		}
+		
+		visited.visit(PositionKey.of(game));
+		int depth = 0;
+		pushFrame(game, depth, 0);
+		long allowance = 0L;
+		
+		while (depth >= 0) {
+			if (frameNext[depth] == frameEnd[depth]) {
+				// all moves at this depth have been tried
+				depth--;
+				if (depth >= 0) {
+					unmakeLast(game, depth);
+				}
+				continue;
+			}
+			
+			if (allowance == 0L) {
+				allowance = budget.acquire(BATCH);
+				if (allowance == 0L) {
+					// put the game back the way it was
+					while (depth > 0) {
+						depth--;
+						unmakeLast(game, depth);
+					}
+					return Outcome.UNKNOWN;
+				}
+			}
+			
+			ordering.make(game, moveStack[frameNext[depth]++], undo);
+			allowance--;
+			
+			if (controller.isWin(game)) {
+				budget.release(allowance);
+				return Outcome.WIN;
+			}
+			
+			if (visited.visit(PositionKey.of(game))) {
+				// already searched (or being searched) from this position
+				unmakeLast(game, depth);
+				continue;
+			}
+			
+			depth++;
+			pushFrame(game, depth, frameEnd[depth - 1]);
+		}
+		
+		budget.release(allowance);
+		return Outcome.LOSS;
+	}
+	
+	/**
+	 * @return the moves made to reach the win found by the last search
+	 */
+	int[] getWinningMoves() {
+		int[] moves = new int[undo.size()];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = undo.getMove(i);
+		}
+		return moves;
+	}
+	
+	// generate and order the moves for the position at the given depth,
+	// storing them on the move stack starting at the given offset
+	private void pushFrame(KlondikeModel game, int depth, int offset) {
+		if (depth == frameNext.length) {
+			frameNext = grow(frameNext);
+			frameEnd = grow(frameEnd);
+		}
+		while (offset + MoveOrdering.MAX_MOVES > moveStack.length) {
+			moveStack = grow(moveStack);
+		}
+		frameNext[depth] = offset;
+		frameEnd[depth] = offset + ordering.order(game, legal, moveStack, offset);
+	}
+	
+	// unmake the search move most recently made at the given depth
+	private void unmakeLast(KlondikeModel game, int depth) {
+		ordering.unmake(game, MoveOrdering.numLoggedMoves(moveStack[frameNext[depth] - 1]), undo);
+	}
+	
+	private static int[] grow(int[] a) {
+		int[] bigger = new int[a.length * 2];
+		System.arraycopy(a, 0, bigger, 0, a.length);
+		return bigger;
+	}
+}
@@ -0,0 +1,83 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.Move;
+
+/**
+ * A hint from a {@link HintEngine}: the move it suggests making next,
+ * and how sure it is of it.
+ */
+public class Hint {
+	private final int move;
+	private final int score;
+	private final int depth;
+	private final boolean winning;
+	private final long elapsedNanos;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param move         the suggested move (see {@link Move}), or -1 if there is none
+	 * @param score        the evaluation of the best position found after the move
+	 * @param depth        the search depth completed (0 if the search did not finish
+	 *                     even one level, and the move is the best guess without searching)
+	 * @param winning      true if the move leads to a win that the search found
+	 * @param elapsedNanos time spent searching, in nanoseconds
+	 */
+	public Hint(int move, int score, int depth, boolean winning, long elapsedNanos) {
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.winning = winning;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * @return true if there is a move to suggest (false if no move is legal)
+	 */
+	public boolean hasMove() {
+		return move != -1;
+	}
+	
+	/**
+	 * @return the suggested move (see {@link Move}): {@link Move#DRAW} if the
+	 *         card to play next must be drawn first, -1 if there is no move
+	 */
+	public int getMove() {
+		return move;
+	}
+	
+	/**
+	 * @return the evaluation of the best position found after the move
+	 *         (higher is better)
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * @return the number of moves ahead the search looked
+	 */
+	public int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * @return true if the search found a win that starts with this move
+	 */
+	public boolean isWinning() {
+		return winning;
+	}
+	
+	/**
+	 * @return time spent searching, in nanoseconds (0 if the hint came from the cache)
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s (score %d, depth %d%s)", hasMove() ? Move.toString(move) : "no move",
+				score, depth, winning ? ", winning" : "");
+	}
+}
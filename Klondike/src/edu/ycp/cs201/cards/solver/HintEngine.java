@@ -0,0 +1,383 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.ycp.cs201.cards.GameState;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.Pile;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * <p>Suggests the next move to make, within a hard time limit
+ * ({@link #DEFAULT_DEADLINE_MILLIS} by default), for a player asking for
+ * a hint.</p>
+ * 
+ * <p>The engine does an iterative-deepening search: a depth-limited search
+ * one move deep, then two, and so on, each time choosing the move that leads
+ * to the best-scoring position (by {@link #evaluate(KlondikeModel)}) within
+ * that depth.  The moves searched are the same as {@link KlondikeSolver}'s,
+ * so a move may play a card from anywhere in the stock; the hint for such a
+ * move is {@link Move#DRAW}, until the card is on top of the main deck.
+ * Before the first level is searched the best move is the first one
+ * {@link KlondikeSolver} would try, so there is always an answer ready, and
+ * when the deadline passes the answer from the deepest completed level is
+ * returned.  The search stops early if it finds a win.</p>
+ * 
+ * <p>Each answer is cached by position (see {@link KlondikeModel#getHash()}),
+ * with the depth its search completed, so asking again for the same position
+ * returns at once, even if the search was cut short by the deadline.  To
+ * spend another deadline on a position, call
+ * {@link #searchDeeper(KlondikeModel)}, which carries on from the cached
+ * depth rather than starting again; an answer whose search reached the
+ * depth limit or found a win is final.  (A search that did not complete
+ * even the first level is not cached.)  Changing the deadline or depth
+ * limit clears the cache.  The search runs on
+ * a private copy of the game state, so the caller's model is never changed;
+ * it must just not be changed by another thread while
+ * {@link #getHint(KlondikeModel)} copies it (or pass an immutable
+ * {@link GameState} instead).</p>
+ * 
+ * <p>A hint engine is not thread-safe.</p>
+ */
+public class HintEngine {
+	/** Default time limit for a hint, in milliseconds. */
+	public static final long DEFAULT_DEADLINE_MILLIS = 50L;
+	
+	/** Default deepest level to search. */
+	public static final int DEFAULT_MAX_DEPTH = 64;
+	
+	/** Default number of positions whose hints are cached. */
+	public static final int DEFAULT_CACHE_SIZE = 4096;
+	
+	/** Score of a won game (less the number of moves taken to win it). */
+	static final int WIN_SCORE = 1000000;
+	
+	// how often (in positions searched) to check the clock
+	private static final int CHECK_INTERVAL = 256;
+	
+	private final KlondikeController controller;
+	private final MoveOrdering ordering;
+	private final MoveBuffer legal;
+	private final UndoLog undo;
+	private final Map<Long, Entry> cache;
+	
+	// highest remaining depth each position has been searched to, in the current level
+	private final HashMap<Long, Integer> searched;
+	
+	private long deadlineNanos;
+	private int maxDepth;
+	
+	// state of the current search
+	private long stopAt;
+	private boolean timedOut;
+	private int nodes;
+	private int[][] moveBuffers;
+	
+	/**
+	 * Constructor.  Uses the default deadline, depth limit and cache size.
+	 */
+	public HintEngine() {
+		this(DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param cacheSize the number of positions whose hints are cached
+	 */
+	public HintEngine(final int cacheSize) {
+		this.controller = new KlondikeController();
+		this.ordering = new MoveOrdering(controller);
+		this.legal = new MoveBuffer();
+		this.undo = new UndoLog(256);
+		this.cache = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.searched = new HashMap<Long, Integer>();
+		this.deadlineNanos = DEFAULT_DEADLINE_MILLIS * 1000000L;
+		this.maxDepth = DEFAULT_MAX_DEPTH;
+		this.moveBuffers = new int[0][];
+	}
+	
+	/**
+	 * Set the time limit for a hint, and forget all cached hints.
+	 * 
+	 * @param millis the time limit in milliseconds
+	 */
+	public void setDeadlineMillis(long millis) {
+		this.deadlineNanos = millis * 1000000L;
+		clearCache();
+	}
+	
+	/**
+	 * Set the deepest level to search, even if there is time left, and
+	 * forget all cached hints.
+	 * 
+	 * @param maxDepth the depth limit (at least 1)
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("Depth limit must be at least 1");
+		}
+		this.maxDepth = maxDepth;
+		clearCache();
+	}
+	
+	/**
+	 * Forget all cached hints.
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+	
+	/**
+	 * Suggest a move for the game in the given {@link KlondikeModel},
+	 * which is not modified.
+	 * 
+	 * @param model the game
+	 * @return the {@link Hint}
+	 */
+	public Hint getHint(KlondikeModel model) {
+		Entry cached = cache.get(model.getHash());
+		if (cached != null) {
+			return cached.hint;
+		}
+		return search(KlondikeSolver.copyOf(model), null);
+	}
+	
+	/**
+	 * Suggest a move for the game in the given {@link GameState}.
+	 * 
+	 * @param state the game
+	 * @return the {@link Hint}
+	 */
+	public Hint getHint(GameState state) {
+		Entry cached = cache.get(state.getHash());
+		if (cached != null) {
+			return cached.hint;
+		}
+		return search(state.toModel(), null);
+	}
+	
+	/**
+	 * Search the game in the given {@link KlondikeModel} (which is not
+	 * modified) for another deadline, carrying on from the depth of its
+	 * cached hint, if there is one, and cache the deeper answer.  A cached
+	 * hint whose search reached the depth limit or found a win is returned
+	 * at once.
+	 * 
+	 * @param model the game
+	 * @return the {@link Hint}, from a search at least as deep as the cached one
+	 */
+	public Hint searchDeeper(KlondikeModel model) {
+		return search(KlondikeSolver.copyOf(model), cache.get(model.getHash()));
+	}
+	
+	/**
+	 * Search the game in the given {@link GameState} for another deadline
+	 * (see {@link #searchDeeper(KlondikeModel)}).
+	 * 
+	 * @param state the game
+	 * @return the {@link Hint}, from a search at least as deep as the cached one
+	 */
+	public Hint searchDeeper(GameState state) {
+		return search(state.toModel(), cache.get(state.getHash()));
+	}
+	
+	/**
+	 * Score a position for the search: the more cards on the foundations and
+	 * the fewer face-down cards on the tableau, the better.
+	 * 
+	 * @param model the position
+	 * @return the score (higher is better)
+	 */
+	static int evaluate(KlondikeModel model) {
+		int score = 0;
+		for (int i = 0; i < 4; i++) {
+			score += 100 * model.getFoundationPile(i).getNumCards();
+		}
+		for (int i = 0; i < 7; i++) {
+			Pile tableau = model.getTableauPile(i);
+			if (tableau.isEmpty()) {
+				score += 10;
+			} else {
+				score -= 30 * Math.min(tableau.getNumCards(), Math.max(0, tableau.getExposeIndex()));
+			}
+		}
+		score -= 2 * (model.getMainDeck().getNumCards() + model.getWastePile().getNumCards());
+		return score;
+	}
+	
+	// search the game (a private copy) until the deadline, carrying on from
+	// the cached entry for it (if not null), and cache the answer
+	private Hint search(KlondikeModel game, Entry from) {
+		if (from != null && from.complete) {
+			return from.hint;
+		}
+		long start = System.nanoTime();
+		stopAt = start + deadlineNanos;
+		timedOut = false;
+		nodes = 0;
+		undo.clear();
+		long hash = game.getHash();
+		
+		int[] rootMoves = movesAt(0);
+		int numRoot = ordering.order(game, legal, rootMoves, 0);
+		if (numRoot == 0) {
+			// nothing to play: draw if that is possible at all (no deeper
+			// search could say otherwise, so this is always cached)
+			controller.generateLegalMoves(game, legal);
+			int move = legal.contains(Move.DRAW) ? Move.DRAW : -1;
+			return remember(hash, new Hint(move, evaluate(game), 0, false, System.nanoTime() - start), -1, true);
+		}
+		
+		int best = rootMoves[0];
+		int bestScore = evaluate(game);
+		int depth = 0;
+		if (from != null) {
+			// start at the level after the cached one, with its best move first
+			for (int i = 0; i < numRoot; i++) {
+				if (rootMoves[i] == from.searchMove) {
+					rootMoves[i] = rootMoves[0];
+					rootMoves[0] = from.searchMove;
+					best = from.searchMove;
+					bestScore = from.hint.getScore();
+					depth = from.hint.getDepth();
+					break;
+				}
+			}
+		}
+		while (depth < maxDepth && !isWinScore(bestScore)) {
+			searched.clear();
+			int levelBest = -1;
+			int levelScore = Integer.MIN_VALUE;
+			for (int i = 0; i < numRoot; i++) {
+				int numLogged = ordering.make(game, rootMoves[i], undo);
+				int score = value(game, depth, 1);
+				ordering.unmake(game, numLogged, undo);
+				if (timedOut) {
+					break;
+				}
+				if (score > levelScore) {
+					levelScore = score;
+					levelBest = i;
+				}
+			}
+			if (timedOut || levelBest < 0) {
+				break;
+			}
+			depth++;
+			best = rootMoves[levelBest];
+			bestScore = levelScore;
+			
+			// try the best move first at the next level
+			rootMoves[levelBest] = rootMoves[0];
+			rootMoves[0] = best;
+		}
+		
+		// a move that first needs draws is hinted as a draw
+		int move = (MoveOrdering.numLoggedMoves(best) > 1) ? Move.DRAW : firstMove(game, best);
+		boolean winning = depth > 0 && isWinScore(bestScore);
+		Hint hint = new Hint(move, bestScore, depth, winning, System.nanoTime() - start);
+		if (depth == 0) {
+			// not even the first level was searched
+			return hint;
+		}
+		return remember(hash, hint, best, depth >= maxDepth || winning);
+	}
+	
+	// the best score reachable from the position within the given number of further moves
+	private int value(KlondikeModel game, int remaining, int ply) {
+		if (++nodes % CHECK_INTERVAL == 0 && System.nanoTime() > stopAt) {
+			timedOut = true;
+			return 0;
+		}
+		if (controller.isWin(game)) {
+			return WIN_SCORE - ply;
+		}
+		if (remaining == 0) {
+			return evaluate(game);
+		}
+		
+		// skip positions already searched at least this deep in this level
+		Long key = PositionKey.of(game);
+		Integer done = searched.get(key);
+		if (done != null && done >= remaining) {
+			return Integer.MIN_VALUE;
+		}
+		searched.put(key, remaining);
+		
+		int[] moves = movesAt(ply);
+		int numMoves = ordering.order(game, legal, moves, 0);
+		if (numMoves == 0) {
+			return evaluate(game);
+		}
+		int best = Integer.MIN_VALUE;
+		for (int i = 0; i < numMoves && !timedOut; i++) {
+			int numLogged = ordering.make(game, moves[i], undo);
+			best = Math.max(best, value(game, remaining - 1, ply + 1));
+			ordering.unmake(game, numLogged, undo);
+		}
+		return best;
+	}
+	
+	private static boolean isWinScore(int score) {
+		return score > WIN_SCORE / 2;
+	}
+	
+	// the controller move that a search move with no draws makes
+	private static int firstMove(KlondikeModel game, int searchMove) {
+		if (Move.getSourceType(searchMove) == LocationType.MAIN_DECK) {
+			return Move.encode(LocationType.MAIN_DECK, 0, game.getMainDeck().getIndexOfTopCard(),
+					Move.getDestType(searchMove), Move.getDestPile(searchMove));
+		}
+		return searchMove;
+	}
+	
+	// a move buffer for each ply, so the search allocates nothing once warmed up
+	private int[] movesAt(int ply) {
+		if (ply >= moveBuffers.length) {
+			int[][] bigger = new int[Math.max(ply + 1, moveBuffers.length * 2)][];
+			System.arraycopy(moveBuffers, 0, bigger, 0, moveBuffers.length);
+			moveBuffers = bigger;
+		}
+		if (moveBuffers[ply] == null) {
+			moveBuffers[ply] = new int[MoveOrdering.MAX_MOVES];
+		}
+		return moveBuffers[ply];
+	}
+	
+	private Hint remember(long hash, Hint hint, int searchMove, boolean complete) {
+		Hint cached = new Hint(hint.getMove(), hint.getScore(), hint.getDepth(), hint.isWinning(), 0L);
+		cache.put(hash, new Entry(cached, searchMove, complete));
+		return hint;
+	}
+	
+	// a cached hint, with what is needed to search the position deeper
+	private static class Entry {
+		final Hint hint;
+		
+		// the best search move at the hint's depth (-1 if there is none)
+		final int searchMove;
+		
+		// whether a deeper search could not change the answer
+		final boolean complete;
+		
+		Entry(Hint hint, int searchMove, boolean complete) {
+			this.hint = hint;
+			this.searchMove = searchMove;
+			this.complete = complete;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.PackedGameState;
+
+/**
+ * <p>Determines whether a game of Klondike can be won, assuming full
+ * knowledge of the face-down cards, and finds a winning sequence of moves.</p>
+ * 
+ * <p>The solver does a depth-first search over the moves produced by
+ * {@link KlondikeController#generateLegalMoves(KlondikeModel, MoveBuffer)},
+ * making and unmaking moves in place on a private copy of the model.
+ * Rather than drawing one card at a time, the search plays any card in the
+ * stock directly, drawing as many cards as needed first.
+ * Positions already visited are recorded (by a Zobrist hash that ignores
+ * how far through the stock the player has drawn) in a
+ * {@link TranspositionTable} so that they are not searched again.
+ * The search stops with {@link Outcome#UNKNOWN} if it exceeds its node or
+ * time limit.  Note that a {@link Outcome#LOSS} result is exact up to
+ * the (very unlikely) event of a 64-bit hash collision.</p>
+ * 
+ * <p>A solver object is not thread-safe, but may be reused to solve
+ * any number of games.</p>
+ */
+public class KlondikeSolver {
+	/** Default memory budget for the transposition table (32 MB). */
+	public static final long DEFAULT_TABLE_BYTES = 32L << 20;
+	
+	/** Default maximum number of positions to search. */
+	public static final long DEFAULT_MAX_NODES = 5000000L;
+	
+	private final KlondikeController controller;
+	private final TranspositionTable table;
+	private final DepthFirstSearch search;
+	private long maxNodes;
+	private long timeLimitNanos;
+	
+	/**
+	 * Constructor.  Uses a transposition table of
+	 * {@link #DEFAULT_TABLE_BYTES} bytes.
+	 */
+	public KlondikeSolver() {
+		this(DEFAULT_TABLE_BYTES);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxTableBytes memory budget for the transposition table, in bytes
+	 */
+	public KlondikeSolver(long maxTableBytes) {
+		this(new KlondikeController(), new TranspositionTable(maxTableBytes));
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param controller the {@link KlondikeController} whose rules to use
+	 * @param table      the {@link TranspositionTable} to record visited positions in
+	 */
+	public KlondikeSolver(KlondikeController controller, TranspositionTable table) {
+		this.controller = controller;
+		this.table = table;
+		this.search = new DepthFirstSearch(controller);
+		this.maxNodes = DEFAULT_MAX_NODES;
+		this.timeLimitNanos = 0L;
+	}
+	
+	/**
+	 * Set the maximum number of positions to search before giving up.
+	 * 
+	 * @param maxNodes the node limit
+	 */
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+	
+	/**
+	 * @return the maximum number of positions to search before giving up
+	 */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+	
+	/**
+	 * Set the maximum time to search before giving up.
+	 * 
+	 * @param millis the time limit in milliseconds, or 0 for no limit
+	 */
+	public void setTimeLimitMillis(long millis) {
+		this.timeLimitNanos = millis * 1000000L;
+	}
+	
+	/**
+	 * Solve the game in the given {@link KlondikeModel}.  The model
+	 * is not modified.
+	 * 
+	 * @param model the game to solve
+	 * @return the {@link SolverResult}
+	 */
+	public SolverResult solve(KlondikeModel model) {
+		long start = System.nanoTime();
+		KlondikeModel game = copyOf(model);
+		table.clear();
+		
+		SearchBudget budget = new SearchBudget(maxNodes, timeLimitNanos);
+		Outcome outcome = search.search(game, table, budget);
+		int[] moves = outcome == Outcome.WIN ? search.getWinningMoves() : new int[0];
+		return new SolverResult(outcome, moves, budget.getNodes(), System.nanoTime() - start);
+	}
+	
+	/**
+	 * Make a copy of a model, so that searching never modifies the original.
+	 * 
+	 * @param model the model to copy
+	 * @return the copy
+	 */
+	static KlondikeModel copyOf(KlondikeModel model) {
+		KlondikeModel copy = new KlondikeModel();
+		PackedGameState.fromModel(model).toModel(copy);
+		return copy;
+	}
+}
@@ -0,0 +1,249 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Location;
+import edu.ycp.cs201.cards.LocationType;
+import edu.ycp.cs201.cards.Move;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.Pile;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * <p>Produces the moves a depth-first search should try in a position,
+ * most promising first.</p>
+ * 
+ * <p>Since the waste pile can be recycled any number of times, every card
+ * in the main deck or the waste pile can be reached just by drawing.
+ * Instead of searching {@link Move#DRAW} moves one at a time, the search
+ * uses "stock moves" that draw as many cards as needed and then play the
+ * card that is on top of the main deck.  A search move is therefore an
+ * encoded {@link Move} in the low 16 bits plus a number of draws in the
+ * bits above; see {@link #make(KlondikeModel, int, UndoLog)}.</p>
+ * 
+ * <p>Moves are tried in this order:
+ * <ol>
+ *   <li>moves to a foundation pile</li>
+ *   <li>tableau moves that expose a face-down card or empty a tableau pile</li>
+ *   <li>moves from the stock to a tableau pile</li>
+ *   <li>other tableau moves</li>
+ * </ol>
+ * Moves that can never help are dropped: moving a king that is already at
+ * the bottom of a tableau pile onto an empty tableau pile, moving an ace to
+ * any empty foundation pile other than the first one, and every other move
+ * when a "safe" foundation move exists.  A card is safe to move to its
+ * foundation pile when it is an ace or two, or when both cards of the opposite
+ * color and one rank lower are already on the foundations, since then no card
+ * can ever need to be placed on it.</p>
+ */
+class MoveOrdering {
+	/** Upper bound on the number of search moves in a position: one per card and destination pile. */
+	static final int MAX_MOVES = Card.NUM_CARDS * 11;
+	
+	private static final int NUM_CLASSES = 4;
+	private static final int DRAWS_SHIFT = 16;
+	private static final int MOVE_MASK = (1 << DRAWS_SHIFT) - 1;
+	
+	private final KlondikeController controller;
+	
+	// destination locations: 4 foundation piles, then 7 tableau piles
+	private final Location[] dests;
+	
+	// number of cards on the foundations for each suit, refreshed by each call to order
+	private final int[] foundationCounts = new int[4];
+	
+	// candidate moves and their priority classes
+	private int[] candidates = new int[256];
+	private int[] classes = new int[256];
+	private int numCandidates;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param controller the {@link KlondikeController} whose rules to use
+	 */
+	MoveOrdering(KlondikeController controller) {
+		this.controller = controller;
+		this.dests = new Location[11];
+		for (int i = 0; i < 4; i++) {
+			dests[i] = new Location(LocationType.FOUNDATION_PILE, i, -1);
+		}
+		for (int i = 0; i < 7; i++) {
+			dests[4 + i] = new Location(LocationType.TABLEAU_PILE, i, -1);
+		}
+	}
+	
+	/**
+	 * Find, filter and order the search moves in a position.
+	 * 
+	 * @param model  the position
+	 * @param legal  a scratch buffer for legal moves
+	 * @param dest   array to store the ordered search moves in
+	 * @param offset index in <code>dest</code> of the first search move
+	 * @return the number of search moves stored
+	 */
+	int order(KlondikeModel model, MoveBuffer legal, int[] dest, int offset) {
+		countFoundations(model);
+		numCandidates = 0;
+		
+		// tableau moves
+		controller.generateLegalMoves(model, legal);
+		for (int i = 0; i < legal.size(); i++) {
+			int move = legal.get(i);
+			if (move == Move.DRAW || Move.getSourceType(move) == LocationType.MAIN_DECK) {
+				continue;
+			}
+			int cardId = model.getTableauPile(Move.getSourcePile(move)).getCardId(Move.getCardIndex(move));
+			if (addCandidate(model, move, cardId, classifyTableauMove(model, move))) {
+				dest[offset] = move;
+				return 1;
+			}
+		}
+		
+		// stock moves: the card on top of the main deck after each number of draws
+		Pile main = model.getMainDeck();
+		Pile waste = model.getWastePile();
+		int mainCount = main.getNumCards();
+		int stockCount = mainCount + waste.getNumCards();
+		for (int s = 0; s < stockCount; s++) {
+			// draw s cards, or draw all of the main deck, recycle, and draw the rest
+			int draws = s < mainCount ? s : s + 1;
+			int cardId = s < mainCount ? main.getCardId(mainCount - 1 - s) : waste.getCardId(s - mainCount);
+			for (int d = 0; d < dests.length; d++) {
+				if (controller.allowMove(model, cardId, 1, dests[d])) {
+					int move = (draws << DRAWS_SHIFT)
+							| Move.encode(LocationType.MAIN_DECK, 0, 0, dests[d].getLocationType(), dests[d].getPileIndex());
+					if (addCandidate(model, move, cardId, d < 4 ? 0 : 2)) {
+						dest[offset] = move;
+						return 1;
+					}
+				}
+			}
+		}
+		
+		int count = 0;
+		for (int cls = 0; cls < NUM_CLASSES; cls++) {
+			for (int i = 0; i < numCandidates; i++) {
+				if (classes[i] == cls) {
+					dest[offset + count++] = candidates[i];
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Make a search move returned by {@link #order(KlondikeModel, MoveBuffer, int[], int)},
+	 * recording each draw and the final move in the {@link UndoLog}.
+	 * 
+	 * @return the number of moves recorded (to pass to {@link #unmake(KlondikeModel, int, UndoLog)})
+	 */
+	int make(KlondikeModel model, int searchMove, UndoLog undo) {
+		int draws = searchMove >>> DRAWS_SHIFT;
+		int move = searchMove & MOVE_MASK;
+		for (int i = 0; i < draws; i++) {
+			controller.makeMove(model, Move.DRAW, undo);
+		}
+		if (Move.getSourceType(move) == LocationType.MAIN_DECK) {
+			move = Move.encode(LocationType.MAIN_DECK, 0, model.getMainDeck().getIndexOfTopCard(),
+					Move.getDestType(move), Move.getDestPile(move));
+		}
+		controller.makeMove(model, move, undo);
+		return draws + 1;
+	}
+	
+	/**
+	 * Unmake the given number of moves.
+	 */
+	void unmake(KlondikeModel model, int numMoves, UndoLog undo) {
+		for (int i = 0; i < numMoves; i++) {
+			controller.unmakeMove(model, undo);
+		}
+	}
+	
+	/**
+	 * @return the number of log entries the search move will make
+	 */
+	static int numLoggedMoves(int searchMove) {
+		return (searchMove >>> DRAWS_SHIFT) + 1;
+	}
+	
+	// record a candidate move; returns true if it is a safe foundation move,
+	// which should be the only move tried
+	private boolean addCandidate(KlondikeModel model, int move, int cardId, int moveClass) {
+		if (moveClass < 0) {
+			return false;
+		}
+		if (Move.getDestType(move) == LocationType.FOUNDATION_PILE) {
+			Pile foundation = model.getFoundationPile(Move.getDestPile(move));
+			if (foundation.isEmpty() && Move.getDestPile(move) != firstEmptyFoundation(model)) {
+				return false;
+			}
+			if (isSafe(cardId)) {
+				return true;
+			}
+		}
+		if (numCandidates == candidates.length) {
+			candidates = grow(candidates);
+			classes = grow(classes);
+		}
+		candidates[numCandidates] = move;
+		classes[numCandidates] = moveClass;
+		numCandidates++;
+		return false;
+	}
+	
+	// which of the priority classes a tableau move belongs to, or -1 if it should be dropped
+	private static int classifyTableauMove(KlondikeModel model, int move) {
+		if (Move.getDestType(move) == LocationType.FOUNDATION_PILE) {
+			return 0;
+		}
+		Pile src = model.getTableauPile(Move.getSourcePile(move));
+		int cardIndex = Move.getCardIndex(move);
+		if (cardIndex == 0) {
+			// moving a whole pile only helps if it lands on another card
+			return model.getTableauPile(Move.getDestPile(move)).isEmpty() ? -1 : 1;
+		}
+		return cardIndex <= src.getExposeIndex() ? 1 : 3;
+	}
+	
+	private boolean isSafe(int cardId) {
+		int rank = cardId % 13;
+		if (rank <= 1) {
+			return true;
+		}
+		// suits are ordered clubs, diamonds, hearts, spades: red suits are 1 and 2
+		boolean red = cardId / 13 == 1 || cardId / 13 == 2;
+		int a = red ? 0 : 1;
+		int b = red ? 3 : 2;
+		return foundationCounts[a] >= rank && foundationCounts[b] >= rank;
+	}
+	
+	private static int firstEmptyFoundation(KlondikeModel model) {
+		for (int i = 0; i < 4; i++) {
+			if (model.getFoundationPile(i).isEmpty()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private void countFoundations(KlondikeModel model) {
+		for (int i = 0; i < 4; i++) {
+			foundationCounts[i] = 0;
+		}
+		for (int i = 0; i < 4; i++) {
+			Pile foundation = model.getFoundationPile(i);
+			if (!foundation.isEmpty()) {
+				foundationCounts[foundation.getCardId(0) / 13] = foundation.getNumCards();
+			}
+		}
+	}
+	
+	private static int[] grow(int[] a) {
+		int[] bigger = new int[a.length * 2];
+		System.arraycopy(a, 0, bigger, 0, a.length);
+		return bigger;
+	}
+}
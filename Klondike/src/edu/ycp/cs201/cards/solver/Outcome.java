@@ -0,0 +1,15 @@
+package edu.ycp.cs201.cards.solver;
+
+/**
+ * Outcome of trying to solve a game.
+ */
+public enum Outcome {
+	/** The game can be won: a winning sequence of moves was found. */
+	WIN,
+	
+	/** The game can't be won from the given position. */
+	LOSS,
+	
+	/** The search ran out of nodes or time before finding an answer. */
+	UNKNOWN,
+}
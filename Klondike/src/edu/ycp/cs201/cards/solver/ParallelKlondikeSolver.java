@@ -0,0 +1,244 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import edu.ycp.cs201.cards.KlondikeController;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.MoveBuffer;
+import edu.ycp.cs201.cards.PackedGameState;
+import edu.ycp.cs201.cards.UndoLog;
+
+/**
+ * <p>A multi-threaded version of {@link KlondikeSolver}.</p>
+ * 
+ * <p>The first few levels of the game tree (see {@link #setSplitDepth(int)})
+ * are expanded into {@link ForkJoinPool} tasks, one per position, so idle
+ * workers steal whole subtrees from busy ones.  Below the split depth each
+ * task runs the same depth-first search as {@link KlondikeSolver} on its
+ * own copy of the game.  All tasks share one
+ * {@link ConcurrentTranspositionTable}, so a position searched by one
+ * worker is skipped by the others, and one node and time budget.  As soon
+ * as any task finds a win, every other task stops.</p>
+ * 
+ * <p>Moves are generated and ordered exactly as in {@link KlondikeSolver},
+ * so both solvers agree on which games can be won, although they may find
+ * different winning sequences.  A solver object may be used by one thread
+ * at a time.</p>
+ */
+public class ParallelKlondikeSolver {
+	/** Default number of levels of the game tree expanded into separate tasks. */
+	public static final int DEFAULT_SPLIT_DEPTH = 3;
+	
+	private final ForkJoinPool pool;
+	private final ConcurrentTranspositionTable table;
+	private long maxNodes;
+	private long timeLimitNanos;
+	private int splitDepth;
+	
+	/**
+	 * Constructor.  Uses one worker per available processor and a
+	 * transposition table of {@link KlondikeSolver#DEFAULT_TABLE_BYTES} bytes.
+	 */
+	public ParallelKlondikeSolver() {
+		this(new ForkJoinPool(), KlondikeSolver.DEFAULT_TABLE_BYTES);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param pool          the {@link ForkJoinPool} to run the search in
+	 * @param maxTableBytes memory budget for the transposition table, in bytes
+	 */
+	public ParallelKlondikeSolver(ForkJoinPool pool, long maxTableBytes) {
+		this.pool = pool;
+		this.table = new ConcurrentTranspositionTable(maxTableBytes);
+		this.maxNodes = KlondikeSolver.DEFAULT_MAX_NODES;
+		this.timeLimitNanos = 0L;
+		this.splitDepth = DEFAULT_SPLIT_DEPTH;
+	}
+	
+	/**
+	 * Set the maximum number of positions to search (over all workers)
+	 * before giving up.
+	 * 
+	 * @param maxNodes the node limit
+	 */
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+	
+	/**
+	 * @return the maximum number of positions to search before giving up
+	 */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+	
+	/**
+	 * Set the maximum time to search before giving up.
+	 * 
+	 * @param millis the time limit in milliseconds, or 0 for no limit
+	 */
+	public void setTimeLimitMillis(long millis) {
+		this.timeLimitNanos = millis * 1000000L;
+	}
+	
+	/**
+	 * Set how many levels of the game tree are expanded into separate
+	 * tasks.  Deeper splits give the workers more, smaller tasks to share.
+	 * 
+	 * @param splitDepth the split depth (0 searches the whole game in one task)
+	 */
+	public void setSplitDepth(int splitDepth) {
+		if (splitDepth < 0) {
+			throw new IllegalArgumentException("Split depth must not be negative");
+		}
+		this.splitDepth = splitDepth;
+	}
+	
+	/**
+	 * @return how many levels of the game tree are expanded into separate tasks
+	 */
+	public int getSplitDepth() {
+		return splitDepth;
+	}
+	
+	/**
+	 * @return the {@link ForkJoinPool} the search runs in
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Solve the game in the given {@link KlondikeModel}.  The model
+	 * is not modified.
+	 * 
+	 * @param model the game to solve
+	 * @return the {@link SolverResult}
+	 */
+	public SolverResult solve(KlondikeModel model) {
+		long start = System.nanoTime();
+		table.clear();
+		
+		SearchBudget budget = new SearchBudget(maxNodes, timeLimitNanos);
+		SplitTask root = new SplitTask(PackedGameState.fromModel(model), new int[0], 0, budget);
+		int[] moves = pool.invoke(root);
+		
+		Outcome outcome;
+		if (moves != null) {
+			outcome = Outcome.WIN;
+		} else {
+			outcome = budget.isExhausted() ? Outcome.UNKNOWN : Outcome.LOSS;
+			moves = new int[0];
+		}
+		return new SolverResult(outcome, moves, budget.getNodes(), System.nanoTime() - start);
+	}
+	
+	/**
+	 * Stop the worker threads.  The solver may not be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * Searches the subtree below one position.  Above the split depth the
+	 * task forks a child task for each new position one search move away;
+	 * at the split depth it searches the subtree itself.  The result is the
+	 * full list of moves from the root to a win, or null if no win was found.
+	 */
+	private class SplitTask extends RecursiveTask<int[]> {
+		private static final long serialVersionUID = 1L;
+		
+		private final PackedGameState state;
+		private final int[] prefix;
+		private final int depth;
+		private final SearchBudget budget;
+		
+		SplitTask(PackedGameState state, int[] prefix, int depth, SearchBudget budget) {
+			this.state = state;
+			this.prefix = prefix;
+			this.depth = depth;
+			this.budget = budget;
+		}
+		
+		@Override
+		protected int[] compute() {
+			if (budget.isStopped()) {
+				return null;
+			}
+			KlondikeController controller = new KlondikeController();
+			KlondikeModel game = new KlondikeModel();
+			state.toModel(game);
+			
+			if (depth >= splitDepth) {
+				DepthFirstSearch search = new DepthFirstSearch(controller);
+				if (search.search(game, table, budget) != Outcome.WIN) {
+					return null;
+				}
+				budget.stop();
+				return concat(prefix, search.getWinningMoves());
+			}
+			
+			if (controller.isWin(game)) {
+				budget.stop();
+				return prefix;
+			}
+			table.visit(PositionKey.of(game));
+			
+			// expand this position into one task per new child position
+			MoveOrdering ordering = new MoveOrdering(controller);
+			int[] searchMoves = new int[MoveOrdering.MAX_MOVES];
+			int numMoves = ordering.order(game, new MoveBuffer(), searchMoves, 0);
+			UndoLog undo = new UndoLog(64);
+			List<SplitTask> children = new ArrayList<SplitTask>(numMoves);
+			for (int i = 0; i < numMoves; i++) {
+				long granted = budget.acquire(1);
+				if (granted == 0L) {
+					break;
+				}
+				int logged = ordering.make(game, searchMoves[i], undo);
+				if (controller.isWin(game)) {
+					budget.stop();
+					return concat(prefix, loggedMoves(undo));
+				}
+				if (!table.visit(PositionKey.of(game))) {
+					children.add(new SplitTask(PackedGameState.fromModel(game),
+							concat(prefix, loggedMoves(undo)), depth + 1, budget));
+				}
+				ordering.unmake(game, logged, undo);
+			}
+			
+			// the child positions are already in the table, so each child
+			// task's own visit of its starting position is ignored
+			ForkJoinTask.invokeAll(children);
+			for (SplitTask child : children) {
+				int[] moves = child.join();
+				if (moves != null) {
+					return moves;
+				}
+			}
+			return null;
+		}
+	}
+	
+	private static int[] loggedMoves(UndoLog undo) {
+		int[] moves = new int[undo.size()];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = undo.getMove(i);
+		}
+		return moves;
+	}
+	
+	private static int[] concat(int[] a, int[] b) {
+		int[] result = new int[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+}
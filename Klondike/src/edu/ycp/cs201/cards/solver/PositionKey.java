@@ -0,0 +1,55 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.CanonicalPosition;
+import edu.ycp.cs201.cards.Card;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.Pile;
+
+/**
+ * Computes the key under which a search records a visited position.
+ * 
+ * <p>Since the waste pile can be recycled any number of times, positions
+ * that differ only in how far through the stock (the main deck plus the
+ * waste pile) the player has drawn can all be reached from each other
+ * by drawing, so a search should treat them as the same position.
+ * Likewise, positions that differ only in the order of the tableau piles
+ * or of the foundation piles play the same.  The key is the hash of the
+ * position's canonical form (see {@link CanonicalPosition#hash(KlondikeModel)})
+ * with the main deck and waste pile replaced by the stock in the order it
+ * would have after drawing every card and recycling: the main deck from
+ * bottom to top, followed by the waste pile from top to bottom.</p>
+ */
+final class PositionKey {
+	private static final long[] STOCK_KEYS = new long[Card.NUM_CARDS * Card.NUM_CARDS];
+	static {
+		long state = 0x53544F434B4B4559L;
+		for (int i = 0; i < STOCK_KEYS.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			long z = state;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			STOCK_KEYS[i] = z ^ (z >>> 31);
+		}
+	}
+	
+	private PositionKey() {
+	}
+	
+	/**
+	 * @param model the position
+	 * @return the position's search key
+	 */
+	static long of(KlondikeModel model) {
+		Pile main = model.getMainDeck();
+		Pile waste = model.getWastePile();
+		long key = CanonicalPosition.hash(model) ^ main.getHash() ^ waste.getHash();
+		int pos = 0;
+		for (int i = 0; i < main.getNumCards(); i++) {
+			key ^= STOCK_KEYS[pos++ * Card.NUM_CARDS + main.getCardId(i)];
+		}
+		for (int i = waste.getNumCards() - 1; i >= 0; i--) {
+			key ^= STOCK_KEYS[pos++ * Card.NUM_CARDS + waste.getCardId(i)];
+		}
+		return key;
+	}
+}
@@ -0,0 +1,20 @@
+package edu.ycp.cs201.cards.solver;
+
+/**
+ * A set of position keys (see {@link PositionKey}) recording which
+ * positions a search has visited.
+ */
+interface PositionSet {
+	/**
+	 * Add a position key to the set.
+	 * 
+	 * @param key the position key
+	 * @return true if the key was already in the set, false if it was added
+	 */
+	boolean visit(long key);
+	
+	/**
+	 * Remove all positions from the set.
+	 */
+	void clear();
+}
@@ -0,0 +1,99 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node and time limits for a search, which may be shared by several
+ * threads searching the same game.  Each search thread acquires
+ * nodes from the budget in batches, so the shared counter is only
+ * touched once per batch, and the budget can be stopped (for example,
+ * because another thread found a win).
+ */
+class SearchBudget {
+	private final long maxNodes;
+	private final long deadline;
+	private final AtomicLong nodes;
+	private final AtomicBoolean stopped;
+	private volatile boolean exhausted;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxNodes       the maximum number of nodes to search
+	 * @param timeLimitNanos the maximum time to search, or 0 for no limit
+	 */
+	SearchBudget(long maxNodes, long timeLimitNanos) {
+		this.maxNodes = maxNodes;
+		this.deadline = timeLimitNanos > 0 ? System.nanoTime() + timeLimitNanos : 0L;
+		this.nodes = new AtomicLong();
+		this.stopped = new AtomicBoolean();
+	}
+	
+	/**
+	 * Acquire up to the given number of nodes.
+	 * 
+	 * @param count the number of nodes wanted
+	 * @return the number of nodes granted, or 0 if the budget is used up,
+	 *         the time limit has passed, or the search has been stopped
+	 */
+	long acquire(long count) {
+		if (stopped.get()) {
+			return 0L;
+		}
+		if (deadline != 0L && System.nanoTime() - deadline >= 0) {
+			exhausted = true;
+			return 0L;
+		}
+		while (true) {
+			long used = nodes.get();
+			long granted = Math.min(count, maxNodes - used);
+			if (granted <= 0) {
+				exhausted = true;
+				return 0L;
+			}
+			if (nodes.compareAndSet(used, used + granted)) {
+				return granted;
+			}
+		}
+	}
+	
+	/**
+	 * Give back nodes that were acquired but not used.
+	 * 
+	 * @param count the number of unused nodes
+	 */
+	void release(long count) {
+		if (count > 0) {
+			nodes.addAndGet(-count);
+		}
+	}
+	
+	/**
+	 * Stop every search using this budget.
+	 */
+	void stop() {
+		stopped.set(true);
+	}
+	
+	/**
+	 * @return true if {@link #stop()} has been called
+	 */
+	boolean isStopped() {
+		return stopped.get();
+	}
+	
+	/**
+	 * @return true if a search was refused nodes because of the node or time limit
+	 */
+	boolean isExhausted() {
+		return exhausted;
+	}
+	
+	/**
+	 * @return the number of nodes used so far
+	 */
+	long getNodes() {
+		return nodes.get();
+	}
+}
@@ -0,0 +1,382 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.ycp.cs201.cards.CanonicalPosition;
+import edu.ycp.cs201.cards.KlondikeModel;
+import edu.ycp.cs201.cards.PackedGameState;
+
+/**
+ * <p>A file of solve results, so that a deal that has been solved once
+ * never has to be solved again, even by another program or after a
+ * restart.  Deals are identified by the {@link PackedGameState} of their
+ * canonical form (see {@link CanonicalPosition}), so deals that differ only
+ * in the order of their tableau piles share one result.</p>
+ * 
+ * <p>The file is a {@link #HEADER_SIZE}-byte header followed by
+ * fixed-size records, appended in the order they were stored:
+ * <ul>
+ *   <li>header: the magic number <code>KLNDSOLV</code> (8 bytes), the
+ *   format version (4 bytes), the record size (4 bytes), and the number of
+ *   records committed to the file (8 bytes)</li>
+ *   <li>record: the packed deal ({@link PackedGameState#NUM_WORDS} longs),
+ *   then the outcome (the {@link Outcome}'s ordinal) and the number of
+ *   winning moves (4 bytes each), then the nodes searched and the time
+ *   spent (8 bytes each)</li>
+ * </ul>
+ * All values are big-endian.  A record is written before the count that
+ * commits it, so bytes after the last committed record (from an
+ * interrupted write) are not part of the file, and are overwritten by
+ * the next record stored.  A later record for the same deal replaces an
+ * earlier one.</p>
+ * 
+ * <p>When the file is opened, every record is read once to build an
+ * in-memory index from deal to record.  Lookups are answered from a
+ * bounded front cache of recently used results when possible (without
+ * touching the file), and otherwise read the record the index points
+ * to.  Records appended by other programs since the file was opened (or
+ * last refreshed) are indexed by {@link #refresh()}.</p>
+ * 
+ * <p>Any number of programs can share the file: each append is made
+ * while holding an exclusive lock on the file, and readers only ever
+ * read committed records.  Within one program, open each file only
+ * once; a cache object can be shared by any number of threads.</p>
+ */
+public class SolveCache implements Closeable {
+	/** Size of the file header, in bytes. */
+	public static final int HEADER_SIZE = 24;
+	
+	/** Size of each record, in bytes. */
+	public static final int RECORD_SIZE = PackedGameState.NUM_WORDS * 8 + 4 + 4 + 8 + 8;
+	
+	/** Default number of results kept in the front cache. */
+	public static final int DEFAULT_FRONT_SIZE = 65536;
+	
+	private static final long MAGIC = 0x4B4C4E44534F4C56L; // "KLNDSOLV"
+	private static final int VERSION = 2;
+	private static final int COUNT_OFFSET = 16;
+	
+	private final FileChannel channel;
+	private final boolean readOnly;
+	
+	// record number of the latest record for each deal
+	private final Map<PackedGameState, Long> index;
+	
+	// recently used results
+	private final LinkedHashMap<PackedGameState, SolveSummary> front;
+	
+	// number of records indexed so far
+	private long numIndexed;
+	
+	/**
+	 * Open a cache file for reading and writing, creating it if it does
+	 * not exist.  Uses a front cache of {@link #DEFAULT_FRONT_SIZE} results.
+	 * 
+	 * @param path the cache file
+	 * @throws IOException if the file cannot be opened or is not a valid cache file
+	 */
+	public SolveCache(Path path) throws IOException {
+		this(path, DEFAULT_FRONT_SIZE, false);
+	}
+	
+	/**
+	 * Open a cache file.
+	 * 
+	 * @param path      the cache file
+	 * @param frontSize the number of results to keep in the front cache
+	 * @param readOnly  true to open an existing file for reading only
+	 *                  ({@link #put(PackedGameState, SolveSummary)} will fail),
+	 *                  false to open it for reading and writing, creating it if
+	 *                  it does not exist
+	 * @throws IOException if the file cannot be opened or is not a valid cache file
+	 */
+	public SolveCache(Path path, final int frontSize, boolean readOnly) throws IOException {
+		this.channel = readOnly
+				? FileChannel.open(path, StandardOpenOption.READ)
+				: FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.readOnly = readOnly;
+		this.index = new HashMap<PackedGameState, Long>();
+		this.front = new LinkedHashMap<PackedGameState, SolveSummary>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PackedGameState, SolveSummary> eldest) {
+				return size() > frontSize;
+			}
+		};
+		try {
+			if (!readOnly) {
+				initHeader();
+			}
+			refresh();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Look up the result for a deal.
+	 * 
+	 * @param deal the deal
+	 * @return the stored result, or null if the deal has not been solved
+	 * @throws IOException if the record cannot be read
+	 */
+	public SolveSummary get(KlondikeModel deal) throws IOException {
+		return get(keyOf(deal));
+	}
+	
+	/**
+	 * Look up the result for a deal.
+	 * 
+	 * @param deal the packed deal, in canonical form (see {@link #keyOf(KlondikeModel)})
+	 * @return the stored result, or null if the deal has not been solved
+	 * @throws IOException if the record cannot be read
+	 */
+	public synchronized SolveSummary get(PackedGameState deal) throws IOException {
+		SolveSummary summary = front.get(deal);
+		if (summary != null) {
+			return summary;
+		}
+		Long record = index.get(deal);
+		if (record == null) {
+			return null;
+		}
+		ByteBuffer buf = readRecord(record);
+		buf.position(PackedGameState.NUM_WORDS * 8);
+		summary = readSummary(buf);
+		front.put(deal, summary);
+		return summary;
+	}
+	
+	/**
+	 * Store the result for a deal.  A result whose outcome is
+	 * {@link Outcome#UNKNOWN} does not replace a known outcome.
+	 * 
+	 * @param deal    the deal
+	 * @param summary the result
+	 * @return true if the result was stored
+	 * @throws IOException if the record cannot be written
+	 */
+	public boolean put(KlondikeModel deal, SolveSummary summary) throws IOException {
+		return put(keyOf(deal), summary);
+	}
+	
+	/**
+	 * Store the result for a deal.  A result whose outcome is
+	 * {@link Outcome#UNKNOWN} does not replace a known outcome.
+	 * 
+	 * @param deal    the packed deal, in canonical form (see {@link #keyOf(KlondikeModel)})
+	 * @param summary the result
+	 * @return true if the result was stored
+	 * @throws IOException if the record cannot be written (or the file is read-only)
+	 */
+	public synchronized boolean put(PackedGameState deal, SolveSummary summary) throws IOException {
+		if (readOnly) {
+			throw new IOException("Solve cache is open read-only");
+		}
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+		for (int i = 0; i < PackedGameState.NUM_WORDS; i++) {
+			buf.putLong(deal.getWord(i));
+		}
+		buf.putInt(summary.getOutcome().ordinal());
+		buf.putInt(summary.getNumMoves());
+		buf.putLong(summary.getNodes());
+		buf.putLong(summary.getElapsedNanos());
+		buf.flip();
+		
+		FileLock lock = channel.lock();
+		try {
+			// pick up anything other programs have appended
+			refresh();
+			if (summary.getOutcome() == Outcome.UNKNOWN) {
+				SolveSummary old = get(deal);
+				if (old != null && old.getOutcome() != Outcome.UNKNOWN) {
+					return false;
+				}
+			}
+			long record = numIndexed;
+			writeFully(buf, HEADER_SIZE + record * RECORD_SIZE);
+			ByteBuffer count = ByteBuffer.allocate(8);
+			count.putLong(record + 1);
+			count.flip();
+			writeFully(count, COUNT_OFFSET);
+			
+			index.put(deal, record);
+			front.put(deal, summary);
+			numIndexed = record + 1;
+			return true;
+		} finally {
+			lock.release();
+		}
+	}
+	
+	/**
+	 * Return the stored result for a deal, or solve it and store the result.
+	 * A stored {@link Outcome#UNKNOWN} is solved again if the solver may
+	 * search more positions than the search that gave up did.
+	 * 
+	 * @param solver the solver to use if the deal has not been solved
+	 * @param deal   the deal
+	 * @return the result
+	 * @throws IOException if the cache file cannot be read or written
+	 */
+	public SolveSummary getOrSolve(KlondikeSolver solver, KlondikeModel deal) throws IOException {
+		PackedGameState key = keyOf(deal);
+		SolveSummary summary = get(key);
+		if (summary == null
+				|| (summary.getOutcome() == Outcome.UNKNOWN && solver.getMaxNodes() > summary.getNodes())) {
+			summary = new SolveSummary(solver.solve(deal));
+			put(key, summary);
+		}
+		return summary;
+	}
+	
+	/**
+	 * Get the key a deal's result is stored under: the packed canonical
+	 * form of the deal.
+	 * 
+	 * @param deal the deal (it is not modified)
+	 * @return the key
+	 */
+	public static PackedGameState keyOf(KlondikeModel deal) {
+		KlondikeModel canonical = KlondikeSolver.copyOf(deal);
+		CanonicalPosition.canonicalize(canonical);
+		return PackedGameState.fromModel(canonical);
+	}
+	
+	/**
+	 * Index any records committed to the file (by another program)
+	 * since it was opened or last refreshed.
+	 * 
+	 * @throws IOException if the file cannot be read or is not a valid cache file
+	 */
+	public synchronized void refresh() throws IOException {
+		long count = readHeader();
+		if (count <= numIndexed) {
+			return;
+		}
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 1024);
+		long[] words = new long[PackedGameState.NUM_WORDS];
+		for (long record = numIndexed; record < count; ) {
+			int batch = (int) Math.min(1024, count - record);
+			buf.clear().limit(batch * RECORD_SIZE);
+			readFully(buf, HEADER_SIZE + record * RECORD_SIZE);
+			buf.flip();
+			for (int i = 0; i < batch; i++, record++) {
+				for (int w = 0; w < words.length; w++) {
+					words[w] = buf.getLong();
+				}
+				PackedGameState deal = PackedGameState.fromWords(words);
+				readSummary(buf);
+				index.put(deal, record);
+				front.remove(deal);
+			}
+		}
+		numIndexed = count;
+	}
+	
+	/**
+	 * @return the number of different deals with stored results
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+	
+	/**
+	 * @return the number of results in the front cache
+	 */
+	synchronized int frontSize() {
+		return front.size();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	// write the header of a new (empty) file
+	private void initHeader() throws IOException {
+		FileLock lock = channel.lock();
+		try {
+			if (channel.size() == 0) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putLong(MAGIC);
+				header.putInt(VERSION);
+				header.putInt(RECORD_SIZE);
+				header.putLong(0L);
+				header.flip();
+				writeFully(header, 0L);
+			}
+		} finally {
+			lock.release();
+		}
+	}
+	
+	// check the header, and return the number of committed records
+	private long readHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (channel.size() < HEADER_SIZE) {
+			throw new IOException("Not a solve cache file (file too short)");
+		}
+		readFully(header, 0L);
+		header.flip();
+		if (header.getLong() != MAGIC) {
+			throw new IOException("Not a solve cache file (bad magic number)");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported solve cache version " + version);
+		}
+		int recordSize = header.getInt();
+		if (recordSize != RECORD_SIZE) {
+			throw new IOException("Unsupported solve cache record size " + recordSize);
+		}
+		long count = header.getLong();
+		if (count < numIndexed || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+			throw new IOException("Corrupt solve cache file (records missing)");
+		}
+		return count;
+	}
+	
+	private ByteBuffer readRecord(long record) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+		readFully(buf, HEADER_SIZE + record * RECORD_SIZE);
+		buf.flip();
+		return buf;
+	}
+	
+	private static SolveSummary readSummary(ByteBuffer buf) throws IOException {
+		int outcome = buf.getInt();
+		if (outcome < 0 || outcome >= Outcome.values().length) {
+			throw new IOException("Corrupt solve cache file (bad outcome " + outcome + ")");
+		}
+		int numMoves = buf.getInt();
+		long nodes = buf.getLong();
+		long elapsedNanos = buf.getLong();
+		return new SolveSummary(Outcome.values()[outcome], numMoves, nodes, elapsedNanos);
+	}
+	
+	private void readFully(ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			if (channel.read(buf, position + buf.position()) < 0) {
+				throw new IOException("Corrupt solve cache file (unexpected end of file)");
+			}
+		}
+	}
+	
+	private void writeFully(ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			position += channel.write(buf, position);
+		}
+	}
+}
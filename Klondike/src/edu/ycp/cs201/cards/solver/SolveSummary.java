@@ -0,0 +1,70 @@
+package edu.ycp.cs201.cards.solver;
+
+/**
+ * What a {@link SolveCache} remembers about solving a deal: the
+ * {@link Outcome}, the length of the solution found, and what it cost
+ * to find.
+ */
+public class SolveSummary {
+	private final Outcome outcome;
+	private final int numMoves;
+	private final long nodes;
+	private final long elapsedNanos;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param outcome      the {@link Outcome}
+	 * @param numMoves     the number of winning moves (0 unless the outcome is a win)
+	 * @param nodes        number of positions searched
+	 * @param elapsedNanos time spent searching, in nanoseconds
+	 */
+	public SolveSummary(Outcome outcome, int numMoves, long nodes, long elapsedNanos) {
+		this.outcome = outcome;
+		this.numMoves = numMoves;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param result the result of solving the deal
+	 */
+	public SolveSummary(SolverResult result) {
+		this(result.getOutcome(), result.getNumMoves(), result.getNodes(), result.getElapsedNanos());
+	}
+	
+	/**
+	 * @return the {@link Outcome}
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+	
+	/**
+	 * @return the number of winning moves (0 unless the outcome is {@link Outcome#WIN})
+	 */
+	public int getNumMoves() {
+		return numMoves;
+	}
+	
+	/**
+	 * @return the number of positions searched
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * @return the time spent searching, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s (%d moves, %d nodes, %.1f ms)", outcome, numMoves, nodes, elapsedNanos / 1e6);
+	}
+}
@@ -0,0 +1,72 @@
+package edu.ycp.cs201.cards.solver;
+
+import edu.ycp.cs201.cards.Move;
+
+/**
+ * The result of solving a game with {@link KlondikeSolver}: the
+ * {@link Outcome}, the winning moves (if the outcome is
+ * {@link Outcome#WIN}), and how much work the search did.
+ */
+public class SolverResult {
+	private final Outcome outcome;
+	private final int[] moves;
+	private final long nodes;
+	private final long elapsedNanos;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param outcome      the {@link Outcome}
+	 * @param moves        the winning moves (encoded as described in {@link Move}),
+	 *                     or an empty array if the outcome is not a win
+	 * @param nodes        number of positions searched
+	 * @param elapsedNanos time spent searching, in nanoseconds
+	 */
+	public SolverResult(Outcome outcome, int[] moves, long nodes, long elapsedNanos) {
+		this.outcome = outcome;
+		this.moves = moves;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * @return the {@link Outcome}
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+	
+	/**
+	 * @return a copy of the winning moves, in the order they should be made
+	 *         (empty unless the outcome is {@link Outcome#WIN})
+	 */
+	public int[] getMoves() {
+		return moves.clone();
+	}
+	
+	/**
+	 * @return the number of winning moves
+	 */
+	public int getNumMoves() {
+		return moves.length;
+	}
+	
+	/**
+	 * @return the number of positions searched
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * @return the time spent searching, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s (%d moves, %d nodes, %.1f ms)", outcome, moves.length, nodes, elapsedNanos / 1e6);
+	}
+}
@@ -0,0 +1,85 @@
+package edu.ycp.cs201.cards.solver;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash set of 64-bit position hashes (see
+ * {@link edu.ycp.cs201.cards.KlondikeModel#getHash()}), used to
+ * remember which positions a search has already visited.
+ * 
+ * The table is a single <code>long</code> array with open addressing,
+ * sized to fit within a memory budget.  Once a probe sequence is full,
+ * the oldest slot in it is overwritten, so the table never grows:
+ * a forgotten position may be searched again, but the search
+ * stays correct.
+ */
+public class TranspositionTable implements PositionSet {
+	private static final int MAX_PROBES = 8;
+	
+	private final long[] slots;
+	private final int mask;
+	private int size;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxBytes the maximum number of bytes the table may use
+	 *                 (rounded down to a power of two, at least 1024 entries)
+	 */
+	public TranspositionTable(long maxBytes) {
+		long entries = Math.max(1024L, maxBytes / 8);
+		int capacity = (int) Long.highestOneBit(Math.min(entries, 1L << 30));
+		slots = new long[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+	
+	@Override
+	public boolean visit(long hash) {
+		// 0 marks an empty slot
+		if (hash == 0L) {
+			hash = 1L;
+		}
+		int index = (int) mix(hash) & mask;
+		for (int i = 0; i < MAX_PROBES; i++) {
+			long slot = slots[(index + i) & mask];
+			if (slot == hash) {
+				return true;
+			}
+			if (slot == 0L) {
+				slots[(index + i) & mask] = hash;
+				size++;
+				return false;
+			}
+		}
+		// probe sequence is full: replace the first entry
+		slots[index] = hash;
+		return false;
+	}
+	
+	/**
+	 * @return the number of positions stored in the table
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return the number of positions the table can hold
+	 */
+	public int capacity() {
+		return slots.length;
+	}
+	
+	@Override
+	public void clear() {
+		Arrays.fill(slots, 0L);
+		size = 0;
+	}
+	
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		return h ^ (h >>> 33);
+	}
+}